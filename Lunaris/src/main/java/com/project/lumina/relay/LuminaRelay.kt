@@ -70,6 +70,8 @@ class LuminaRelay(
             .channelFactory(RakChannelFactory.server(NioDatagramChannel::class.java))
             .option(RakChannelOption.RAK_ADVERTISEMENT, advertisement.toByteBuf())
             .option(RakChannelOption.RAK_GUID, Random.nextLong())
+            // Send datagrams as soon as BedrockPeer flushes instead of waiting for the next RakNet tick
+            .childOption(RakChannelOption.RAK_AUTO_FLUSH, false)
             .childHandler(object : BedrockChannelInitializer<LuminaRelaySession.ServerSession>() {
                 override fun createSession0(peer: BedrockPeer, subClientId: Int): LuminaRelaySession.ServerSession {
                     return LuminaRelaySession(peer, subClientId, this@LuminaRelay)
@@ -107,6 +109,7 @@ class LuminaRelay(
             .option(RakChannelOption.RAK_GUID, clientGUID)
             .option(RakChannelOption.RAK_REMOTE_GUID, clientGUID)
             .option(RakChannelOption.RAK_CONNECT_TIMEOUT, 690000)
+            .option(RakChannelOption.RAK_AUTO_FLUSH, false)
             .handler(object : BedrockChannelInitializer<ClientSession>() {
                 override fun createSession0(peer: BedrockPeer, subClientId: Int): ClientSession {
                     return luminaRelaySession!!.ClientSession(peer, subClientId)
@@ -6,14 +6,20 @@ import io.netty.util.internal.PlatformDependent
 import org.cloudburstmc.protocol.bedrock.BedrockClientSession
 import org.cloudburstmc.protocol.bedrock.BedrockPeer
 import org.cloudburstmc.protocol.bedrock.BedrockServerSession
+import org.cloudburstmc.protocol.bedrock.codec.BedrockCodec
+import org.cloudburstmc.protocol.bedrock.netty.BedrockBatchWrapper
 import org.cloudburstmc.protocol.bedrock.netty.BedrockPacketWrapper
 import org.cloudburstmc.protocol.bedrock.packet.BedrockPacket
 import org.cloudburstmc.protocol.bedrock.packet.UnknownPacket
+import java.util.BitSet
 import java.util.Queue
 
 class LuminaRelaySession(peer: BedrockPeer, subClientId: Int, val luminaRelay: LuminaRelay) {
     val server = ServerSession(peer, subClientId)
-    val listeners: MutableList<LuminaRelayPacketListener> = ArrayList()
+    /**
+     * Listeners called for every decoded packet. Changing the list updates which batches are passed through.
+     */
+    val listeners: MutableList<LuminaRelayPacketListener> = ListenerList()
     private val packetQueue: Queue<Pair<BedrockPacket, Boolean>> = PlatformDependent.newMpscQueue()
 
     var client: ClientSession? = null
@@ -32,8 +38,36 @@ class LuminaRelaySession(peer: BedrockPeer, subClientId: Int, val luminaRelay: L
                 packetQueue.clear()
             }
             field = value
+            updateBatchPassThrough()
         }
 
+    fun addListener(listener: LuminaRelayPacketListener) {
+        listeners.add(listener)
+    }
+
+    fun removeListener(listener: LuminaRelayPacketListener) {
+        listeners.remove(listener)
+    }
+
+    private inner class ListenerList : AbstractMutableList<LuminaRelayPacketListener>() {
+        private val list = ArrayList<LuminaRelayPacketListener>()
+
+        override val size: Int
+            get() = list.size
+
+        override fun get(index: Int) = list[index]
+
+        override fun add(index: Int, element: LuminaRelayPacketListener) {
+            list.add(index, element)
+            updateBatchPassThrough()
+        }
+
+        override fun removeAt(index: Int) = list.removeAt(index).also { updateBatchPassThrough() }
+
+        override fun set(index: Int, element: LuminaRelayPacketListener) =
+            list.set(index, element).also { updateBatchPassThrough() }
+    }
+
     fun clientBound(packet: BedrockPacket) = server.sendPacket(packet)
     fun clientBoundImmediately(packet: BedrockPacket) = server.sendPacketImmediately(packet)
 
@@ -43,6 +77,32 @@ class LuminaRelaySession(peer: BedrockPeer, subClientId: Int, val luminaRelay: L
     fun serverBoundImmediately(packet: BedrockPacket) =
         client?.sendPacketImmediately(packet) ?: packetQueue.add(packet to true)
 
+    /**
+     * Forwards batches holding none of the packets the listeners are interested in as they are,
+     * only re-encrypting them, and only decodes the interesting packets of the other batches.
+     * Called again when the listeners or the client change, and has to be called after changing the codec.
+     */
+    fun updateBatchPassThrough() {
+        val client = client ?: return
+        val interestingPacketIds = interestingPacketIds(server.codec)
+        server.setEagerPacketIds(interestingPacketIds)
+        client.setEagerPacketIds(interestingPacketIds)
+        server.setBatchPassThrough(interestingPacketIds)
+        client.setBatchPassThrough(interestingPacketIds)
+    }
+
+    @Suppress("UNCHECKED_CAST")
+    private fun interestingPacketIds(codec: BedrockCodec): BitSet? {
+        val packetIds = BitSet()
+        listeners.forEach { listener ->
+            val packets = listener.interestedPackets ?: return null
+            packets.forEach { packet ->
+                codec.getPacketDefinition(packet as Class<BedrockPacket>)?.let { packetIds.set(it.id) }
+            }
+        }
+        return packetIds
+    }
+
     private fun createDisconnectHandler(isServer: Boolean) = SessionCloseHandler { reason ->
         println("${if (isServer) "Server" else "Client"} disconnect: $reason")
         runCatching {
@@ -55,7 +115,9 @@ class LuminaRelaySession(peer: BedrockPeer, subClientId: Int, val luminaRelay: L
                               beforeFunc: (LuminaRelayPacketListener) -> Boolean,
                               sendFunc: (BedrockPacket) -> Unit,
                               afterFunc: (LuminaRelayPacketListener) -> Unit) {
-        listeners.forEach {
+        // Packets none of the listeners is interested in are not decoded and only forwarded
+        val interesting = wrapper.isPacketDecoded
+        if (interesting) listeners.forEach {
             runCatching { if (beforeFunc(it)) return }
                 .onFailure { println("Before packet error: ${it.stackTraceToString()}") }
         }
@@ -65,7 +127,7 @@ class LuminaRelaySession(peer: BedrockPeer, subClientId: Int, val luminaRelay: L
             packetId = wrapper.packetId
         }.let(sendFunc)
 
-        listeners.forEach {
+        if (interesting) listeners.forEach {
             runCatching { afterFunc(it) }
                 .onFailure { println("After packet error: ${it.stackTraceToString()}") }
         }
@@ -80,6 +142,8 @@ class LuminaRelaySession(peer: BedrockPeer, subClientId: Int, val luminaRelay: L
             ::serverBound,
             { it.afterClientBound(wrapper.packet) }
         )
+
+        override fun onBatch(batch: BedrockBatchWrapper) = client!!.peer.sendBatch(batch)
     }
 
     inner class ClientSession(peer: BedrockPeer, subClientId: Int) : BedrockClientSession(peer, subClientId) {
@@ -91,5 +155,7 @@ class LuminaRelaySession(peer: BedrockPeer, subClientId: Int, val luminaRelay: L
             ::clientBound,
             { it.afterServerBound(wrapper.packet) }
         )
+
+        override fun onBatch(batch: BedrockBatchWrapper) = server.peer.sendBatch(batch)
     }
 }
\ No newline at end of file
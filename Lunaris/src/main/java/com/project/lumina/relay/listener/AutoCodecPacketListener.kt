@@ -3,6 +3,7 @@ package com.project.lumina.relay.listener
 import com.project.lumina.relay.LuminaRelaySession
 import com.project.lumina.relay.definition.Definitions
 import org.cloudburstmc.protocol.bedrock.codec.BedrockCodec
+import org.cloudburstmc.protocol.bedrock.codec.IdentifierPool
 import org.cloudburstmc.protocol.bedrock.codec.v729.serializer.InventoryContentSerializer_v729
 import org.cloudburstmc.protocol.bedrock.codec.v729.serializer.InventorySlotSerializer_v729
 import org.cloudburstmc.protocol.bedrock.data.EncodingSettings
@@ -23,6 +24,9 @@ class AutoCodecPacketListener(
         @JvmStatic external fun pickProtocolCodec(protocolVersion: Int): BedrockCodec
     }
 
+    override val interestedPackets: Set<Class<out BedrockPacket>> =
+        setOf(RequestNetworkSettingsPacket::class.java)
+
     private fun patchCodecIfNeeded(codec: BedrockCodec): BedrockCodec {
         return if (patchCodec && codec.protocolVersion > 729) {
             codec.toBuilder()
@@ -49,6 +53,7 @@ class AutoCodecPacketListener(
                     .maxNetworkNBTSize(Int.MAX_VALUE)
                     .maxItemNBTSize(Int.MAX_VALUE)
                     .maxStringLength(Int.MAX_VALUE)
+                    .identifierPool(IdentifierPool())
                     .build()
             }
 
@@ -58,6 +63,8 @@ class AutoCodecPacketListener(
 
             luminaRelaySession.clientBoundImmediately(networkSettingsPacket)
             luminaRelaySession.server.setCompression(PacketCompressionAlgorithm.ZLIB)
+            // Packet IDs of the interesting packets may differ in the new codec
+            luminaRelaySession.updateBatchPassThrough()
             return true
         }
         return false
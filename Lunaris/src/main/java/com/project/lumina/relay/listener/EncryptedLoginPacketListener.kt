@@ -21,6 +21,12 @@ open class EncryptedLoginPacketListener : LuminaRelayPacketListener {
 
     lateinit var luminaRelaySession: LuminaRelaySession
 
+    override val interestedPackets: Set<Class<out BedrockPacket>> = setOf(
+        LoginPacket::class.java,
+        NetworkSettingsPacket::class.java,
+        ServerToClientHandshakePacket::class.java
+    )
+
     override fun beforeClientBound(packet: BedrockPacket): Boolean {
         if (packet is LoginPacket) {
             var newChain: String? = null
@@ -53,7 +59,7 @@ open class EncryptedLoginPacketListener : LuminaRelayPacketListener {
             is NetworkSettingsPacket -> {
                 val threshold = packet.compressionThreshold
                 if (threshold > 0) {
-                    luminaRelaySession.client!!.setCompression(packet.compressionAlgorithm)
+                    luminaRelaySession.client!!.setCompression(packet.compressionAlgorithm, threshold)
                     println("Compression threshold set to $threshold")
                 } else {
                     luminaRelaySession.client!!.setCompression(PacketCompressionAlgorithm.NONE)
@@ -3,6 +3,7 @@ package com.project.lumina.relay.listener
 import com.project.lumina.relay.LuminaRelaySession
 import com.project.lumina.relay.definition.CameraPresetDefinition
 import com.project.lumina.relay.definition.Definitions
+import org.cloudburstmc.protocol.bedrock.codec.SkinCache
 import org.cloudburstmc.protocol.bedrock.data.definitions.ItemDefinition
 import org.cloudburstmc.protocol.bedrock.packet.BedrockPacket
 import org.cloudburstmc.protocol.bedrock.packet.CameraPresetsPacket
@@ -15,6 +16,11 @@ class GamingPacketHandler(
     val luminaRelaySession: LuminaRelaySession
 ) : LuminaRelayPacketListener {
 
+    override val interestedPackets: Set<Class<out BedrockPacket>> =
+        setOf(StartGamePacket::class.java, CameraPresetsPacket::class.java)
+
+    private val skinCache = SkinCache()
+
     override fun beforeServerBound(packet: BedrockPacket): Boolean {
         if (packet is StartGamePacket) {
             Definitions.itemDefinitions = SimpleDefinitionRegistry.builder<ItemDefinition>()
@@ -23,6 +29,8 @@ class GamingPacketHandler(
 
             luminaRelaySession.client!!.peer.codecHelper.itemDefinitions = Definitions.itemDefinitions
             luminaRelaySession.server.peer.codecHelper.itemDefinitions = Definitions.itemDefinitions
+            luminaRelaySession.client!!.peer.codecHelper.skinCache = skinCache
+            luminaRelaySession.server.peer.codecHelper.skinCache = skinCache
 
             if (packet.isBlockNetworkIdsHashed) {
                 luminaRelaySession.client!!.peer.codecHelper.blockDefinitions = Definitions.blockDefinitionsHashed
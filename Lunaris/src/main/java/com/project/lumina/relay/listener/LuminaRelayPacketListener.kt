@@ -4,6 +4,13 @@ import org.cloudburstmc.protocol.bedrock.packet.BedrockPacket
 
 interface LuminaRelayPacketListener {
 
+    /**
+     * Packets this listener handles, or null if it needs to see every packet.
+     * Batches without any of the packets of all listeners are forwarded without decoding them.
+     */
+    val interestedPackets: Set<Class<out BedrockPacket>>?
+        get() = null
+
     fun beforeClientBound(packet: BedrockPacket): Boolean {
         return false
     }
@@ -16,6 +16,7 @@
 plugins {
     id("java-library")
     alias(libs.plugins.lombok)
+    alias(libs.plugins.jmh)
 }
 
 
@@ -0,0 +1,180 @@
+/*
+ * Copyright 2022 CloudburstMC
+ *
+ * CloudburstMC licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.cloudburstmc.netty;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.epoll.EpollDatagramChannel;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.DatagramChannel;
+import io.netty.channel.socket.nio.NioDatagramChannel;
+import org.cloudburstmc.netty.channel.raknet.RakChannelFactory;
+import org.cloudburstmc.netty.channel.raknet.RakChildChannel;
+import org.cloudburstmc.netty.channel.raknet.RakClientChannel;
+import org.cloudburstmc.netty.channel.raknet.RakConstants;
+import org.cloudburstmc.netty.channel.raknet.RakServerChannel;
+import org.cloudburstmc.netty.channel.raknet.config.RakChannelOption;
+import org.cloudburstmc.netty.channel.raknet.packet.RakMessage;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends split messages from a server child channel to a client over loopback, comparing the NIO transport with the
+ * epoll transport using segmented datagrams. Throughput is reported as datagrams per second, the CPU time spent per
+ * datagram by the whole process as the {@code cpuNanosPerDatagram} secondary result.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class LoopbackDatagramBenchmark {
+    private static final int MTU = RakConstants.MAXIMUM_MTU_SIZE;
+    private static final int DATAGRAMS_PER_MESSAGE = 32;
+    private static final int MESSAGE_SIZE = DATAGRAMS_PER_MESSAGE * (MTU - RakConstants.MAXIMUM_ENCAPSULATED_HEADER_SIZE
+            - RakConstants.RAKNET_DATAGRAM_HEADER_SIZE);
+    private static final int MESSAGES_IN_FLIGHT = 8;
+
+    @Param({"nio", "epoll"})
+    public String transport;
+
+    private EventLoopGroup serverGroup;
+    private EventLoopGroup clientGroup;
+    private Channel server;
+    private Channel client;
+    private Channel child;
+    private ByteBuf message;
+    private final Semaphore inFlight = new Semaphore(MESSAGES_IN_FLIGHT);
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class CpuCounters {
+        private long datagrams;
+        private long cpuTimeStart;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            this.datagrams = 0;
+            this.cpuTimeStart = processCpuTime();
+        }
+
+        /**
+         * CPU time in nanoseconds used by the whole process per datagram sent in this iteration, or 0 if unknown.
+         */
+        public double cpuNanosPerDatagram() {
+            long cpuTime = processCpuTime() - this.cpuTimeStart;
+            return this.datagrams > 0 && cpuTime > 0 ? (double) cpuTime / this.datagrams : 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        boolean epoll = "epoll".equals(this.transport);
+        Class<? extends DatagramChannel> channelClass = epoll ? EpollDatagramChannel.class : NioDatagramChannel.class;
+        this.serverGroup = epoll ? new EpollEventLoopGroup(1) : new NioEventLoopGroup(1);
+        this.clientGroup = new NioEventLoopGroup(1);
+
+        CompletableFuture<Channel> childFuture = new CompletableFuture<>();
+        InetSocketAddress address = new InetSocketAddress("127.0.0.1", ThreadLocalRandom.current().nextInt(20000, 30000));
+        this.server = new ServerBootstrap()
+                .channelFactory(RakChannelFactory.server(channelClass))
+                .group(this.serverGroup)
+                .option(RakChannelOption.RAK_SUPPORTED_PROTOCOLS, new int[]{11})
+                .option(RakChannelOption.RAK_MAX_CONNECTIONS, 1)
+                .option(RakChannelOption.RAK_SEGMENTED_DATAGRAMS, epoll)
+                .option(RakChannelOption.RAK_ADVERTISEMENT, Unpooled.wrappedBuffer(new byte[]{0}))
+                .childOption(RakChannelOption.RAK_ORDERING_CHANNELS, 1)
+                .childOption(RakChannelOption.RAK_MAX_QUEUED_BYTES, 0)
+                .handler(new ChannelInitializer<RakServerChannel>() {
+                    @Override
+                    protected void initChannel(RakServerChannel ch) {
+                    }
+                })
+                .childHandler(new ChannelInitializer<RakChildChannel>() {
+                    @Override
+                    protected void initChannel(RakChildChannel ch) {
+                        childFuture.complete(ch);
+                    }
+                })
+                .bind(address).syncUninterruptibly().channel();
+
+        this.client = new Bootstrap()
+                .channelFactory(RakChannelFactory.client(NioDatagramChannel.class))
+                .group(this.clientGroup)
+                .option(RakChannelOption.RAK_PROTOCOL_VERSION, 11)
+                .option(RakChannelOption.RAK_MTU, MTU)
+                .option(RakChannelOption.RAK_ORDERING_CHANNELS, 1)
+                .handler(new ChannelInitializer<RakClientChannel>() {
+                    @Override
+                    protected void initChannel(RakClientChannel ch) {
+                        ch.pipeline().addLast(new SimpleChannelInboundHandler<RakMessage>() {
+                            @Override
+                            protected void channelRead0(ChannelHandlerContext ctx, RakMessage msg) {
+                                if (msg.content().readableBytes() == MESSAGE_SIZE) {
+                                    inFlight.release();
+                                }
+                            }
+                        });
+                    }
+                })
+                .connect(address).syncUninterruptibly().channel();
+
+        this.child = childFuture.get(10, TimeUnit.SECONDS);
+        // Leading byte must not collide with a RakNet message ID handled by the session itself
+        this.message = Unpooled.directBuffer(MESSAGE_SIZE).writeByte(0xFE).writeZero(MESSAGE_SIZE - 1);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.client.close().syncUninterruptibly();
+        this.server.close().syncUninterruptibly();
+        this.clientGroup.shutdownGracefully();
+        this.serverGroup.shutdownGracefully();
+        this.message.release();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(DATAGRAMS_PER_MESSAGE)
+    public void sendSplitMessage(CpuCounters counters) throws InterruptedException {
+        this.inFlight.acquire();
+        this.child.writeAndFlush(new RakMessage(this.message.retainedDuplicate()));
+        counters.datagrams += DATAGRAMS_PER_MESSAGE;
+    }
+
+    private static long processCpuTime() {
+        java.lang.management.OperatingSystemMXBean bean = ManagementFactory.getOperatingSystemMXBean();
+        if (bean instanceof com.sun.management.OperatingSystemMXBean) {
+            return ((com.sun.management.OperatingSystemMXBean) bean).getProcessCpuTime();
+        }
+        return -1;
+    }
+}
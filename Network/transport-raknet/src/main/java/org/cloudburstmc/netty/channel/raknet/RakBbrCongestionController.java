@@ -0,0 +1,270 @@
+/*
+ * Copyright 2022 CloudburstMC
+ *
+ * CloudburstMC licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.cloudburstmc.netty.channel.raknet;
+
+import static org.cloudburstmc.netty.channel.raknet.RakConstants.CC_ADDITIONAL_VARIANCE;
+import static org.cloudburstmc.netty.channel.raknet.RakConstants.CC_MAXIMUM_THRESHOLD;
+import static org.cloudburstmc.netty.channel.raknet.RakConstants.CC_SYN;
+
+import org.cloudburstmc.netty.channel.raknet.packet.RakDatagramPacket;
+
+/**
+ * Congestion controller modelled after BBR. Instead of reacting to every loss, it estimates the bottleneck
+ * bandwidth (max delivery rate over the last rounds) and the minimum RTT, and keeps the congestion window
+ * close to their product. Resends therefore do not collapse the window, which suits lossy links where loss
+ * is not caused by congestion.
+ * <p>
+ * RakNet sends whatever the window allows on every flush, so the window is also what paces new datagrams.
+ * The controller goes through the following {@link Mode modes}:
+ * <ul>
+ *     <li>{@link Mode#STARTUP}: the window grows by every acknowledged datagram, until the bandwidth stops
+ *     growing for three rounds or datagrams have to be resent.</li>
+ *     <li>{@link Mode#DRAIN}: the window is set to the estimated bandwidth-delay product until the datagrams
+ *     queued during startup have been acknowledged.</li>
+ *     <li>{@link Mode#PROBE_BW}: the window follows the bandwidth-delay product scaled by a gain cycle which
+ *     briefly probes for more bandwidth and then drains the queue it caused.</li>
+ * </ul>
+ */
+public class RakBbrCongestionController implements RakCongestionController {
+    private static final double[] GAIN_CYCLE = {1.25D, 0.75D, 1D, 1D, 1D, 1D, 1D, 1D};
+    // Cycle phase entered after draining, skipping the probing and draining phases like BBR does
+    private static final int PROBE_BW_START_INDEX = 2;
+    private static final int BANDWIDTH_FILTER_ROUNDS = 10;
+    private static final long MIN_RTT_EXPIRY = 10000;
+    private static final int MIN_CWND_DATAGRAMS = 4;
+    private static final double FULL_BANDWIDTH_THRESHOLD = 1.25D;
+    private static final int FULL_BANDWIDTH_ROUNDS = 3;
+
+    private final int mtu;
+    private double cwnd;
+    private int unackedBytes;
+
+    // Delivery rate in bytes per millisecond, one sample per round
+    private final double[] bandwidthSamples = new double[BANDWIDTH_FILTER_ROUNDS];
+    private double maxBandwidth;
+    private int round;
+    private long roundStart;
+    private int roundDelivered;
+
+    private long minRtt = -1;
+    private long minRttStamp;
+
+    private Mode mode = Mode.STARTUP;
+    private double fullBandwidth;
+    private int fullBandwidthCount;
+    private int cycleIndex;
+
+    private double estimatedRTT = -1;
+    private double lastRTT = -1;
+    private double deviationRTT = -1;
+    private long oldestUnsentAck;
+
+    public RakBbrCongestionController(int mtu) {
+        this.mtu = mtu;
+        this.cwnd = mtu * MIN_CWND_DATAGRAMS;
+    }
+
+    @Override
+    public int getRetransmissionBandwidth() {
+        return this.unackedBytes;
+    }
+
+    @Override
+    public int getTransmissionBandwidth() {
+        if (this.unackedBytes <= this.cwnd) {
+            return (int) (this.cwnd - this.unackedBytes);
+        } else {
+            return 0;
+        }
+    }
+
+    @Override
+    public void onPacketReceived(long curTime) {
+        if (this.oldestUnsentAck == 0) {
+            this.oldestUnsentAck = curTime;
+        }
+    }
+
+    @Override
+    public void onResend(long curTime) {
+        if (this.mode == Mode.STARTUP) {
+            // Loss during startup means we already exceeded the bottleneck
+            this.mode = Mode.DRAIN;
+        }
+        this.cwnd = Math.max(this.cwnd * 0.85D, this.getTargetCwnd(1D));
+    }
+
+    @Override
+    public void onNak() {
+        // Loss alone is not a congestion signal here, the bandwidth model is only driven by delivery rate.
+    }
+
+    @Override
+    public void onAck(long curTime, RakDatagramPacket datagram, long curSequenceIndex) {
+        long rtt = curTime - datagram.getSendTime();
+        int size = datagram.getSize();
+        this.lastRTT = rtt;
+        this.unackedBytes -= size;
+
+        if (this.estimatedRTT == -1) {
+            this.estimatedRTT = rtt;
+            this.deviationRTT = rtt;
+        } else {
+            double d = 0.05D;
+            double difference = rtt - this.estimatedRTT;
+            this.estimatedRTT += d * difference;
+            this.deviationRTT += d * (Math.abs(difference) - this.deviationRTT);
+        }
+
+        if (this.minRtt == -1 || rtt <= this.minRtt || curTime - this.minRttStamp > MIN_RTT_EXPIRY) {
+            this.minRtt = rtt;
+            this.minRttStamp = curTime;
+        }
+
+        if (this.roundStart == 0) {
+            this.roundStart = datagram.getSendTime();
+        }
+        this.roundDelivered += size;
+
+        long elapsed = curTime - this.roundStart;
+        if (elapsed >= this.getRoundLength()) {
+            this.onRoundEnd(curTime, elapsed);
+        }
+
+        switch (this.mode) {
+            case STARTUP:
+                // Exponential growth, equivalent to slow start
+                this.cwnd += size;
+                break;
+            case DRAIN:
+                double target = this.getTargetCwnd(1D);
+                this.cwnd = target;
+                if (this.unackedBytes <= target) {
+                    this.mode = Mode.PROBE_BW;
+                    this.cycleIndex = PROBE_BW_START_INDEX;
+                }
+                break;
+            case PROBE_BW:
+                target = this.getTargetCwnd(GAIN_CYCLE[this.cycleIndex]);
+                this.cwnd = this.cwnd < target ? Math.min(this.cwnd + size, target) : target;
+                break;
+        }
+    }
+
+    private void onRoundEnd(long curTime, long elapsed) {
+        this.bandwidthSamples[this.round % BANDWIDTH_FILTER_ROUNDS] = (double) this.roundDelivered / elapsed;
+        this.round++;
+        this.roundStart = curTime;
+        this.roundDelivered = 0;
+
+        double max = 0;
+        for (double sample : this.bandwidthSamples) {
+            if (sample > max) {
+                max = sample;
+            }
+        }
+        this.maxBandwidth = max;
+
+        if (this.mode == Mode.STARTUP) {
+            if (max >= this.fullBandwidth * FULL_BANDWIDTH_THRESHOLD) {
+                this.fullBandwidth = max;
+                this.fullBandwidthCount = 0;
+            } else if (++this.fullBandwidthCount >= FULL_BANDWIDTH_ROUNDS) {
+                this.mode = Mode.DRAIN;
+            }
+        } else if (this.mode == Mode.PROBE_BW) {
+            this.cycleIndex = (this.cycleIndex + 1) % GAIN_CYCLE.length;
+        }
+    }
+
+    private long getRoundLength() {
+        // Datagrams are only flushed every RakNet tick, so a round can not be shorter than that.
+        return Math.max(this.minRtt, CC_SYN);
+    }
+
+    private double getTargetCwnd(double gain) {
+        double bdp = this.maxBandwidth * this.getRoundLength();
+        return Math.max(bdp * gain, this.mtu * MIN_CWND_DATAGRAMS);
+    }
+
+    @Override
+    public void onReliableSend(RakDatagramPacket datagram) {
+        this.unackedBytes += datagram.getSize();
+    }
+
+    @Override
+    public void onSendAck() {
+        this.oldestUnsentAck = 0;
+    }
+
+    @Override
+    @SuppressWarnings("ManualMinMaxCalculation")
+    public long getRtoForRetransmission() {
+        if (this.estimatedRTT == -1) {
+            return CC_MAXIMUM_THRESHOLD;
+        }
+
+        long threshold = (long) ((2.0D * this.estimatedRTT + 4.0D * this.deviationRTT) + CC_ADDITIONAL_VARIANCE);
+
+        return threshold > CC_MAXIMUM_THRESHOLD ? CC_MAXIMUM_THRESHOLD : threshold;
+    }
+
+    @Override
+    public double getRTT() {
+        return this.estimatedRTT;
+    }
+
+    @Override
+    public boolean shouldSendAcks(long curTime, long ackDelay) {
+        return this.lastRTT == -1 || curTime >= this.oldestUnsentAck + ackDelay;
+    }
+
+    public Mode getMode() {
+        return this.mode;
+    }
+
+    /**
+     * Gain applied to the bandwidth-delay product in {@link Mode#PROBE_BW}.
+     */
+    public double getCycleGain() {
+        return GAIN_CYCLE[this.cycleIndex];
+    }
+
+    public int getCongestionWindow() {
+        return (int) this.cwnd;
+    }
+
+    public double getBottleneckBandwidth() {
+        return this.maxBandwidth;
+    }
+
+    public long getMinRtt() {
+        return this.minRtt;
+    }
+
+    @Override
+    public int getUnackedBytes() {
+        return this.unackedBytes;
+    }
+
+    public enum Mode {
+        STARTUP,
+        DRAIN,
+        PROBE_BW
+    }
+}
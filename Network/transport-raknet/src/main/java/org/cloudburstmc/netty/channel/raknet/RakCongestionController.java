@@ -0,0 +1,70 @@
+/*
+ * Copyright 2022 CloudburstMC
+ *
+ * CloudburstMC licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.cloudburstmc.netty.channel.raknet;
+
+import org.cloudburstmc.netty.channel.raknet.packet.RakDatagramPacket;
+
+/**
+ * Decides how many bytes a RakNet session may have in flight and when unacknowledged datagrams are resent.
+ * A new instance is created for every session using the factory set by
+ * {@link org.cloudburstmc.netty.channel.raknet.config.RakChannelOption#RAK_CONGESTION_CONTROLLER}.
+ */
+public interface RakCongestionController {
+
+    /**
+     * Bytes of stale datagrams which may be resent during the current flush.
+     */
+    int getRetransmissionBandwidth();
+
+    /**
+     * Bytes of new datagrams which may be sent during the current flush.
+     */
+    int getTransmissionBandwidth();
+
+    void onPacketReceived(long curTime);
+
+    void onResend(long curTime);
+
+    /**
+     * Called for every sent datagram which the remote peer reported as missing, before it is resent.
+     */
+    void onNak();
+
+    void onAck(long curTime, RakDatagramPacket datagram, long curSequenceIndex);
+
+    void onReliableSend(RakDatagramPacket datagram);
+
+    void onSendAck();
+
+    long getRtoForRetransmission();
+
+    double getRTT();
+
+    /**
+     * Whether pending ACKs should be sent now, given the configured delay in milliseconds since the oldest
+     * unacknowledged datagram was received.
+     */
+    boolean shouldSendAcks(long curTime, long ackDelay);
+
+    int getUnackedBytes();
+
+    @FunctionalInterface
+    interface Factory {
+
+        RakCongestionController create(int mtu);
+    }
+}
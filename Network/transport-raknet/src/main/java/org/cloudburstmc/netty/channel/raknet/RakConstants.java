@@ -61,6 +61,14 @@ public class RakConstants {
      * A number of all datagrams that will be handled within one RakNet tick before server starts dropping any incoming data.
      */
     public static final int DEFAULT_GLOBAL_PACKET_LIMIT = 100000;
+    /**
+     * A number of bytes each address can send within one RakNet tick (10ms)
+     */
+    public static final int DEFAULT_BYTE_LIMIT = DEFAULT_PACKET_LIMIT * MAXIMUM_MTU_SIZE;
+    /**
+     * Maximum amount of parts a single split packet may announce. Anything larger is treated as a bad packet.
+     */
+    public static final int MAXIMUM_SPLIT_COUNT = 8192;
     /*
      * Flags
      */
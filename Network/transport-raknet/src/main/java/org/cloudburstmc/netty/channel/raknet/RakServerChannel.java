@@ -24,6 +24,7 @@ import org.cloudburstmc.netty.handler.codec.raknet.server.RakServerOfflineHandle
 import org.cloudburstmc.netty.handler.codec.raknet.server.RakServerRateLimiter;
 import org.cloudburstmc.netty.handler.codec.raknet.server.RakServerRouteHandler;
 import org.cloudburstmc.netty.handler.codec.raknet.server.RakServerTailHandler;
+import org.cloudburstmc.netty.util.EpollDatagramUtils;
 import org.cloudburstmc.netty.util.RakUtils;
 
 import java.net.InetAddress;
@@ -99,6 +100,20 @@ public class RakServerChannel extends ProxyChannel<DatagramChannel> implements S
         return channel;
     }
 
+    @Override
+    public ChannelFuture bind(SocketAddress localAddress) {
+        return this.bind(localAddress, this.newPromise());
+    }
+
+    @Override
+    public ChannelFuture bind(SocketAddress localAddress, ChannelPromise promise) {
+        // Applied on bind rather than when the option is set, so it does not depend on the order of the options
+        if (this.config().getSegmentedDatagrams()) {
+            EpollDatagramUtils.tryEnableRecvmmsg(this.channel, this.config().getMaxMtu());
+        }
+        return super.bind(localAddress, promise);
+    }
+
     public RakChildChannel getChildChannel(SocketAddress address) {
         return this.childChannelMap.get(address);
     }
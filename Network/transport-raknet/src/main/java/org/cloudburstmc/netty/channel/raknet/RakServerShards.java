@@ -0,0 +1,106 @@
+/*
+ * Copyright 2022 CloudburstMC
+ *
+ * CloudburstMC licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.cloudburstmc.netty.channel.raknet;
+
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.epoll.EpollChannelOption;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.internal.logging.InternalLogger;
+import io.netty.util.internal.logging.InternalLoggerFactory;
+import org.cloudburstmc.netty.channel.raknet.config.RakChannelOption;
+import org.cloudburstmc.netty.util.EpollDatagramUtils;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Binds several {@link RakServerChannel}s to the same address using SO_REUSEPORT. The kernel hashes every remote
+ * address to one of the sockets, so each shard reads, routes and flushes its own set of sessions on its own event loop.
+ * <p>
+ * Shards are independent server channels: per-server limits such as {@link RakChannelOption#RAK_GLOBAL_PACKET_LIMIT}
+ * apply to each shard and addresses have to be blocked on every shard. Requires the epoll transport, with any other
+ * transport a single server channel is bound.
+ */
+public final class RakServerShards {
+    private static final InternalLogger log = InternalLoggerFactory.getInstance(RakServerShards.class);
+
+    private RakServerShards() {
+    }
+
+    /**
+     * Binds one shard per event loop of the bootstrap's group.
+     */
+    public static List<ChannelFuture> bind(ServerBootstrap bootstrap, SocketAddress address) {
+        EventLoopGroup group = bootstrap.config().group();
+        if (group == null) {
+            throw new IllegalStateException("group not set");
+        }
+
+        int shards = 0;
+        for (EventExecutor ignored : group) {
+            shards++;
+        }
+        return bind(bootstrap, address, shards);
+    }
+
+    public static List<ChannelFuture> bind(ServerBootstrap bootstrap, SocketAddress address, int shards) {
+        if (shards < 1) {
+            throw new IllegalArgumentException("shards must be at least 1");
+        }
+
+        List<ChannelFuture> futures = new ArrayList<>(shards);
+        if (shards == 1) {
+            futures.add(bootstrap.bind(address));
+            return futures;
+        }
+
+        if (!EpollDatagramUtils.isAvailable()) {
+            log.warn("SO_REUSEPORT sharding requires the epoll transport, binding a single server channel");
+            futures.add(bootstrap.bind(address));
+            return futures;
+        }
+
+        ServerBootstrap shardBootstrap = bootstrap.clone().option(EpollChannelOption.SO_REUSEPORT, true);
+        if (!shardBootstrap.config().options().containsKey(RakChannelOption.RAK_GUID)) {
+            // All shards have to advertise the same server
+            shardBootstrap.option(RakChannelOption.RAK_GUID, ThreadLocalRandom.current().nextLong());
+        }
+
+        ChannelFuture first = shardBootstrap.bind(address);
+        futures.add(first);
+        if (!EpollDatagramUtils.isEpollChannel(first.channel().parent())) {
+            // The channel factory is opaque, so the transport is only known once a channel was created
+            log.warn("SO_REUSEPORT sharding requires an epoll datagram channel, bound a single server channel");
+            return futures;
+        }
+        if (address instanceof InetSocketAddress && ((InetSocketAddress) address).getPort() == 0) {
+            // Remaining shards have to join the port picked for the first one
+            address = first.syncUninterruptibly().channel().localAddress();
+        }
+
+        // ServerBootstrap registers each channel on the next event loop of the group
+        for (int i = 1; i < shards; i++) {
+            futures.add(shardBootstrap.bind(address));
+        }
+        return futures;
+    }
+}
@@ -22,7 +22,7 @@ import static org.cloudburstmc.netty.channel.raknet.RakConstants.CC_SYN;
 
 import org.cloudburstmc.netty.channel.raknet.packet.RakDatagramPacket;
 
-public class RakSlidingWindow {
+public class RakSlidingWindow implements RakCongestionController {
     private final int mtu;
     private double cwnd;
     private double ssThresh;
@@ -39,10 +39,12 @@ public class RakSlidingWindow {
         this.cwnd = mtu;
     }
 
+    @Override
     public int getRetransmissionBandwidth() {
         return unackedBytes;
     }
 
+    @Override
     public int getTransmissionBandwidth() {
         if (this.unackedBytes <= this.cwnd) {
             return (int) (this.cwnd - this.unackedBytes);
@@ -51,12 +53,14 @@ public class RakSlidingWindow {
         }
     }
 
+    @Override
     public void onPacketReceived(long curTime) {
         if (this.oldestUnsentAck == 0) {
             this.oldestUnsentAck = curTime;
         }
     }
 
+    @Override
     public void onResend(long curSequenceIndex) {
         if (!this.backoffThisBlock && this.cwnd > this.mtu * 2D) {
             this.ssThresh = this.cwnd * 0.5D;
@@ -71,12 +75,14 @@ public class RakSlidingWindow {
         }
     }
 
+    @Override
     public void onNak() {
         if (!this.backoffThisBlock) {
             this.ssThresh = this.cwnd * 0.75D;
         }
     }
 
+    @Override
     public void onAck(long curTime, RakDatagramPacket datagram, long curSequenceIndex) {
         long rtt = curTime - datagram.getSendTime();
         this.lastRTT = rtt;
@@ -110,6 +116,7 @@ public class RakSlidingWindow {
         }
     }
 
+    @Override
     public void onReliableSend(RakDatagramPacket datagram) {
         this.unackedBytes += datagram.getSize();
     }
@@ -118,10 +125,12 @@ public class RakSlidingWindow {
         return this.cwnd <= this.ssThresh || this.ssThresh == 0;
     }
 
+    @Override
     public void onSendAck() {
         this.oldestUnsentAck = 0;
     }
 
+    @Override
     @SuppressWarnings("ManualMinMaxCalculation")
     public long getRtoForRetransmission() {
         if (this.estimatedRTT == -1) {
@@ -133,14 +142,20 @@ public class RakSlidingWindow {
         return threshold > CC_MAXIMUM_THRESHOLD ? CC_MAXIMUM_THRESHOLD : threshold;
     }
 
+    @Override
     public double getRTT() {
         return this.estimatedRTT;
     }
 
     public boolean shouldSendAcks(long curTime) {
+        return this.shouldSendAcks(curTime, CC_SYN);
+    }
+
+    @Override
+    public boolean shouldSendAcks(long curTime, long ackDelay) {
         long rto = this.getSenderRtoForAck();
 
-        return rto == -1 || curTime >= this.oldestUnsentAck + CC_SYN;
+        return rto == -1 || curTime >= this.oldestUnsentAck + ackDelay;
     }
 
     public long getSenderRtoForAck() {
@@ -151,6 +166,7 @@ public class RakSlidingWindow {
         }
     }
 
+    @Override
     public int getUnackedBytes() {
         return unackedBytes;
     }
@@ -45,9 +45,11 @@ public class DefaultRakServerConfig extends DefaultChannelConfig implements RakS
     private volatile int maxMtu = RakConstants.MAXIMUM_MTU_SIZE;
     private volatile int minMtu = RakConstants.MINIMUM_MTU_SIZE;
     private volatile int packetLimit = RakConstants.DEFAULT_PACKET_LIMIT;
+    private volatile int byteLimit = RakConstants.DEFAULT_BYTE_LIMIT;
     private volatile int globalPacketLimit = RakConstants.DEFAULT_GLOBAL_PACKET_LIMIT;
     private volatile RakServerMetrics metrics;
     private volatile boolean sendCookie;
+    private volatile boolean segmentedDatagrams;
 
 
     public DefaultRakServerConfig(RakServerChannel channel) {
@@ -59,8 +61,8 @@ public class DefaultRakServerConfig extends DefaultChannelConfig implements RakS
         return getOptions(
                 super.getOptions(),
                 RakChannelOption.RAK_GUID, RakChannelOption.RAK_MAX_CHANNELS, RakChannelOption.RAK_MAX_CONNECTIONS, RakChannelOption.RAK_SUPPORTED_PROTOCOLS, RakChannelOption.RAK_UNCONNECTED_MAGIC,
-                RakChannelOption.RAK_ADVERTISEMENT, RakChannelOption.RAK_HANDLE_PING, RakChannelOption.RAK_PACKET_LIMIT, RakChannelOption.RAK_GLOBAL_PACKET_LIMIT, RakChannelOption.RAK_SEND_COOKIE,
-                RakChannelOption.RAK_SERVER_METRICS, RakChannelOption.RAK_IP_DONT_FRAGMENT);
+                RakChannelOption.RAK_ADVERTISEMENT, RakChannelOption.RAK_HANDLE_PING, RakChannelOption.RAK_PACKET_LIMIT, RakChannelOption.RAK_BYTE_LIMIT, RakChannelOption.RAK_GLOBAL_PACKET_LIMIT, RakChannelOption.RAK_SEND_COOKIE,
+                RakChannelOption.RAK_SERVER_METRICS, RakChannelOption.RAK_IP_DONT_FRAGMENT, RakChannelOption.RAK_SEGMENTED_DATAGRAMS);
     }
 
     @SuppressWarnings("unchecked")
@@ -96,6 +98,9 @@ public class DefaultRakServerConfig extends DefaultChannelConfig implements RakS
         if (option == RakChannelOption.RAK_PACKET_LIMIT) {
             return (T) Integer.valueOf(this.getPacketLimit());
         }
+        if (option == RakChannelOption.RAK_BYTE_LIMIT) {
+            return (T) Integer.valueOf(this.getByteLimit());
+        }
         if (option == RakChannelOption.RAK_GLOBAL_PACKET_LIMIT) {
             return (T) Integer.valueOf(this.getGlobalPacketLimit());
         }
@@ -105,6 +110,9 @@ public class DefaultRakServerConfig extends DefaultChannelConfig implements RakS
         if (option == RakChannelOption.RAK_SEND_COOKIE) {
             return (T) Boolean.valueOf(this.sendCookie);
         }
+        if (option == RakChannelOption.RAK_SEGMENTED_DATAGRAMS) {
+            return (T) Boolean.valueOf(this.getSegmentedDatagrams());
+        }
         return this.channel.parent().config().getOption(option);
     }
 
@@ -132,10 +140,14 @@ public class DefaultRakServerConfig extends DefaultChannelConfig implements RakS
             this.setMinMtu((Integer) value);
         } else if (option == RakChannelOption.RAK_PACKET_LIMIT) {
             this.setPacketLimit((Integer) value);
+        } else if (option == RakChannelOption.RAK_BYTE_LIMIT) {
+            this.setByteLimit((Integer) value);
         } else if (option == RakChannelOption.RAK_GLOBAL_PACKET_LIMIT) {
             this.setGlobalPacketLimit((Integer) value);
         } else if (option == RakChannelOption.RAK_SEND_COOKIE) {
             this.setSendCookie((Boolean) value);
+        } else if (option == RakChannelOption.RAK_SEGMENTED_DATAGRAMS) {
+            this.setSegmentedDatagrams((Boolean) value);
         } else if (option == RakChannelOption.RAK_SERVER_METRICS) {
             this.setMetrics((RakServerMetrics) value);
         } else {
@@ -264,6 +276,16 @@ public class DefaultRakServerConfig extends DefaultChannelConfig implements RakS
         return this.packetLimit;
     }
 
+    @Override
+    public int getByteLimit() {
+        return this.byteLimit;
+    }
+
+    @Override
+    public void setByteLimit(int limit) {
+        this.byteLimit = limit;
+    }
+
     @Override
     public int getGlobalPacketLimit() {
         return globalPacketLimit;
@@ -284,6 +306,16 @@ public class DefaultRakServerConfig extends DefaultChannelConfig implements RakS
         return this.sendCookie;
     }
 
+    @Override
+    public void setSegmentedDatagrams(boolean segmentedDatagrams) {
+        this.segmentedDatagrams = segmentedDatagrams;
+    }
+
+    @Override
+    public boolean getSegmentedDatagrams() {
+        return this.segmentedDatagrams;
+    }
+
     @Override
     public void setMetrics(RakServerMetrics metrics) {
         this.metrics = metrics;
@@ -19,6 +19,9 @@ package org.cloudburstmc.netty.channel.raknet.config;
 import static org.cloudburstmc.netty.channel.raknet.RakConstants.MAXIMUM_MTU_SIZE;
 import static org.cloudburstmc.netty.channel.raknet.RakConstants.SESSION_TIMEOUT_MS;
 
+import org.cloudburstmc.netty.channel.raknet.RakCongestionController;
+import org.cloudburstmc.netty.channel.raknet.RakSlidingWindow;
+
 import java.util.Map;
 
 import io.netty.channel.Channel;
@@ -39,6 +42,11 @@ public class DefaultRakSessionConfig extends DefaultChannelConfig implements Rak
     private volatile boolean autoFlush = true;
     private volatile int flushInterval = 10;
     private volatile int maxQueuedBytes = 64 * 1024 * 1024; // 64 MB
+    private volatile RakCongestionController.Factory congestionController = RakSlidingWindow::new;
+    private volatile int ackDelay = 0;
+    private volatile int maxSplitBytes = 16 * 1024 * 1024; // 16 MB
+    private volatile long globalMaxSplitBytes = 256 * 1024 * 1024; // 256 MB
+    private volatile boolean compositeSplitPackets = false;
 
     public DefaultRakSessionConfig(Channel channel) {
         super(channel);
@@ -49,7 +57,9 @@ public class DefaultRakSessionConfig extends DefaultChannelConfig implements Rak
         return this.getOptions(
                 super.getOptions(),
                 RakChannelOption.RAK_GUID, RakChannelOption.RAK_MAX_CHANNELS, RakChannelOption.RAK_MTU, RakChannelOption.RAK_PROTOCOL_VERSION, RakChannelOption.RAK_ORDERING_CHANNELS,
-                RakChannelOption.RAK_METRICS, RakChannelOption.RAK_SESSION_TIMEOUT, RakChannelOption.RAK_AUTO_FLUSH, RakChannelOption.RAK_FLUSH_INTERVAL);
+                RakChannelOption.RAK_METRICS, RakChannelOption.RAK_SESSION_TIMEOUT, RakChannelOption.RAK_AUTO_FLUSH, RakChannelOption.RAK_FLUSH_INTERVAL,
+                RakChannelOption.RAK_CONGESTION_CONTROLLER, RakChannelOption.RAK_ACK_DELAY, RakChannelOption.RAK_MAX_SPLIT_BYTES,
+                RakChannelOption.RAK_GLOBAL_MAX_SPLIT_BYTES, RakChannelOption.RAK_COMPOSITE_SPLIT_PACKETS);
     }
 
     @SuppressWarnings("unchecked")
@@ -82,6 +92,21 @@ public class DefaultRakSessionConfig extends DefaultChannelConfig implements Rak
         if (option == RakChannelOption.RAK_MAX_QUEUED_BYTES) {
             return (T) Integer.valueOf(this.getMaxQueuedBytes());
         }
+        if (option == RakChannelOption.RAK_CONGESTION_CONTROLLER) {
+            return (T) this.getCongestionController();
+        }
+        if (option == RakChannelOption.RAK_ACK_DELAY) {
+            return (T) Integer.valueOf(this.getAckDelay());
+        }
+        if (option == RakChannelOption.RAK_MAX_SPLIT_BYTES) {
+            return (T) Integer.valueOf(this.getMaxSplitBytes());
+        }
+        if (option == RakChannelOption.RAK_GLOBAL_MAX_SPLIT_BYTES) {
+            return (T) Long.valueOf(this.getGlobalMaxSplitBytes());
+        }
+        if (option == RakChannelOption.RAK_COMPOSITE_SPLIT_PACKETS) {
+            return (T) Boolean.valueOf(this.isCompositeSplitPackets());
+        }
         return this.channel.parent().config().getOption(option);
     }
 
@@ -108,6 +133,16 @@ public class DefaultRakSessionConfig extends DefaultChannelConfig implements Rak
             this.setFlushInterval((Integer) value);
         } else if (option == RakChannelOption.RAK_MAX_QUEUED_BYTES) {
             this.setMaxQueuedBytes((Integer) value);
+        } else if (option == RakChannelOption.RAK_CONGESTION_CONTROLLER) {
+            this.setCongestionController((RakCongestionController.Factory) value);
+        } else if (option == RakChannelOption.RAK_ACK_DELAY) {
+            this.setAckDelay((Integer) value);
+        } else if (option == RakChannelOption.RAK_MAX_SPLIT_BYTES) {
+            this.setMaxSplitBytes((Integer) value);
+        } else if (option == RakChannelOption.RAK_GLOBAL_MAX_SPLIT_BYTES) {
+            this.setGlobalMaxSplitBytes((Long) value);
+        } else if (option == RakChannelOption.RAK_COMPOSITE_SPLIT_PACKETS) {
+            this.setCompositeSplitPackets((Boolean) value);
         } else {
             return this.channel.parent().config().setOption(option, value);
         }
@@ -210,4 +245,54 @@ public class DefaultRakSessionConfig extends DefaultChannelConfig implements Rak
     public int getMaxQueuedBytes() {
         return maxQueuedBytes;
     }
+
+    @Override
+    public RakCongestionController.Factory getCongestionController() {
+        return this.congestionController;
+    }
+
+    @Override
+    public void setCongestionController(RakCongestionController.Factory factory) {
+        this.congestionController = factory;
+    }
+
+    @Override
+    public int getAckDelay() {
+        return this.ackDelay;
+    }
+
+    @Override
+    public void setAckDelay(int ackDelay) {
+        this.ackDelay = ackDelay;
+    }
+
+    @Override
+    public int getMaxSplitBytes() {
+        return this.maxSplitBytes;
+    }
+
+    @Override
+    public void setMaxSplitBytes(int maxSplitBytes) {
+        this.maxSplitBytes = maxSplitBytes;
+    }
+
+    @Override
+    public long getGlobalMaxSplitBytes() {
+        return this.globalMaxSplitBytes;
+    }
+
+    @Override
+    public void setGlobalMaxSplitBytes(long globalMaxSplitBytes) {
+        this.globalMaxSplitBytes = globalMaxSplitBytes;
+    }
+
+    @Override
+    public boolean isCompositeSplitPackets() {
+        return this.compositeSplitPackets;
+    }
+
+    @Override
+    public void setCompositeSplitPackets(boolean compositeSplitPackets) {
+        this.compositeSplitPackets = compositeSplitPackets;
+    }
 }
@@ -16,6 +16,8 @@
 
 package org.cloudburstmc.netty.channel.raknet.config;
 
+import org.cloudburstmc.netty.channel.raknet.RakCongestionController;
+
 import io.netty.channel.ChannelConfig;
 
 public interface RakChannelConfig extends ChannelConfig {
@@ -55,4 +57,24 @@ public interface RakChannelConfig extends ChannelConfig {
     void setMaxQueuedBytes(int maxQueuedBytes);
 
     int getMaxQueuedBytes();
+
+    RakCongestionController.Factory getCongestionController();
+
+    void setCongestionController(RakCongestionController.Factory factory);
+
+    int getAckDelay();
+
+    void setAckDelay(int ackDelayMillis);
+
+    int getMaxSplitBytes();
+
+    void setMaxSplitBytes(int maxSplitBytes);
+
+    long getGlobalMaxSplitBytes();
+
+    void setGlobalMaxSplitBytes(long globalMaxSplitBytes);
+
+    boolean isCompositeSplitPackets();
+
+    void setCompositeSplitPackets(boolean enable);
 }
@@ -16,6 +16,7 @@
 
 package org.cloudburstmc.netty.channel.raknet.config;
 
+import org.cloudburstmc.netty.channel.raknet.RakPriority;
 import org.cloudburstmc.netty.channel.raknet.RakState;
 
 public interface RakChannelMetrics {
@@ -41,6 +42,9 @@ public interface RakChannelMetrics {
     default void rakStaleDatagrams(int count) {
     }
 
+    default void rakStaleDatagramsExamined(int count) {
+    }
+
     default void ackIn(int count) {
     }
 
@@ -58,4 +62,10 @@ public interface RakChannelMetrics {
 
     default void queuedPacketBytes(int count) {
     }
+
+    default void queuedPacketBytes(RakPriority priority, int count) {
+    }
+
+    default void splitPacketBytes(int count) {
+    }
 }
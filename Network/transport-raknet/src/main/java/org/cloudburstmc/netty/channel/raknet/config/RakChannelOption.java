@@ -16,6 +16,8 @@
 
 package org.cloudburstmc.netty.channel.raknet.config;
 
+import org.cloudburstmc.netty.channel.raknet.RakCongestionController;
+
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelOption;
 
@@ -145,6 +147,13 @@ public class RakChannelOption<T> extends ChannelOption<T> {
     public static final ChannelOption<Integer> RAK_PACKET_LIMIT =
             valueOf(RakChannelOption.class, "RAK_PACKET_LIMIT");
 
+    /**
+     * A number of bytes each address can send within one RakNet tick (10ms). Set to 0 to only limit packets.
+     * Default is 168_000 bytes (RAK_PACKET_LIMIT full sized datagrams).
+     */
+    public static final ChannelOption<Integer> RAK_BYTE_LIMIT =
+            valueOf(RakChannelOption.class, "RAK_BYTE_LIMIT");
+
     /**
      * A number of all datagrams that will be handled within one RakNet tick before server starts dropping any incoming data.
      * Default is 100_000 (RAK_PACKET_LIMIT * 0.56 * 1500 different connections).
@@ -195,6 +204,52 @@ public class RakChannelOption<T> extends ChannelOption<T> {
     public static final ChannelOption<Integer> RAK_MAX_QUEUED_BYTES =
             valueOf(RakChannelOption.class, "RAK_MAX_QUEUED_BYTES");
 
+    /**
+     * Factory creating the congestion controller of each RakNet session.
+     * Default is {@link org.cloudburstmc.netty.channel.raknet.RakSlidingWindow}.
+     */
+    public static final ChannelOption<RakCongestionController.Factory> RAK_CONGESTION_CONTROLLER =
+            valueOf(RakChannelOption.class, "RAK_CONGESTION_CONTROLLER");
+
+    /**
+     * Time in milliseconds RakNet may hold back ACKs after receiving a datagram so they can be coalesced into fewer records.
+     * Default is 0, which sends pending ACKs on every flush.
+     */
+    public static final ChannelOption<Integer> RAK_ACK_DELAY =
+            valueOf(RakChannelOption.class, "RAK_ACK_DELAY");
+
+    /**
+     * Maximum amount of bytes of incomplete split packets a single RakNet session may buffer, including the slots
+     * allocated for parts which have not been received yet.
+     * Default is 16 MB.
+     */
+    public static final ChannelOption<Integer> RAK_MAX_SPLIT_BYTES =
+            valueOf(RakChannelOption.class, "RAK_MAX_SPLIT_BYTES");
+
+    /**
+     * Maximum amount of bytes of incomplete split packets buffered by all RakNet sessions of this process.
+     * Default is 256 MB.
+     */
+    public static final ChannelOption<Long> RAK_GLOBAL_MAX_SPLIT_BYTES =
+            valueOf(RakChannelOption.class, "RAK_GLOBAL_MAX_SPLIT_BYTES");
+
+    /**
+     * Whether reassembled split packets may be handed out as a {@link io.netty.buffer.CompositeByteBuf} of the received parts
+     * instead of being copied into a single buffer. Only enable if all handlers in the pipeline accept composite buffers.
+     */
+    public static final ChannelOption<Boolean> RAK_COMPOSITE_SPLIT_PACKETS =
+            valueOf(RakChannelOption.class, "RAK_COMPOSITE_SPLIT_PACKETS");
+
+    /**
+     * Batches outgoing datagrams of a server into UDP_SEGMENT (GSO) sends and reads incoming datagrams with recvmmsg.
+     * Only has an effect if the server is bound with an {@link io.netty.channel.epoll.EpollDatagramChannel}.
+     * The receive buffer is sized from {@link #RAK_MAX_MTU} when the server is bound.
+     * <p>
+     * Experimental, default is false.
+     */
+    public static final ChannelOption<Boolean> RAK_SEGMENTED_DATAGRAMS =
+            valueOf(RakChannelOption.class, "RAK_SEGMENTED_DATAGRAMS");
+
     @SuppressWarnings("deprecation")
     protected RakChannelOption() {
         super(null);
@@ -61,6 +61,10 @@ public interface RakServerChannelConfig extends ChannelConfig {
 
     void setPacketLimit(int limit);
 
+    int getByteLimit();
+
+    void setByteLimit(int limit);
+
     int getGlobalPacketLimit();
 
     void setGlobalPacketLimit(int limit);
@@ -69,6 +73,10 @@ public interface RakServerChannelConfig extends ChannelConfig {
 
     boolean getSendCookie();
 
+    void setSegmentedDatagrams(boolean segmentedDatagrams);
+
+    boolean getSegmentedDatagrams();
+
     void setMetrics(RakServerMetrics metrics);
 
     RakServerMetrics getMetrics();
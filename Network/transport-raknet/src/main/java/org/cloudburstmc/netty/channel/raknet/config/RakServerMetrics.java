@@ -38,4 +38,11 @@ public interface RakServerMetrics {
 
     default void addressUnblocked(InetAddress address) {
     }
+
+    /**
+     * Called about once a second with the addresses which sent the most bytes since the previous call.
+     * The arrays have the same length and are ordered by bytes, largest first.
+     */
+    default void topTalkers(InetAddress[] addresses, int[] packets, long[] bytes) {
+    }
 }
@@ -17,6 +17,7 @@
 package org.cloudburstmc.netty.channel.raknet.packet;
 
 import org.cloudburstmc.netty.channel.raknet.RakConstants;
+import org.cloudburstmc.netty.channel.raknet.RakPriority;
 import org.cloudburstmc.netty.channel.raknet.RakReliability;
 
 import io.netty.buffer.ByteBuf;
@@ -42,6 +43,7 @@ public class EncapsulatedPacket extends AbstractReferenceCounted {
     private int partIndex;
     private ByteBuf buffer;
     private boolean needsBAS;
+    private RakPriority priority;
 
     public static EncapsulatedPacket newInstance() {
         return RECYCLER.get();
@@ -148,6 +150,7 @@ public class EncapsulatedPacket extends AbstractReferenceCounted {
         this.partId = 0;
         this.partIndex = 0;
         this.buffer = null;
+        this.priority = null;
         setRefCnt(1);
         this.handle.recycle(this);
     }
@@ -251,6 +254,14 @@ public class EncapsulatedPacket extends AbstractReferenceCounted {
         this.needsBAS = needsBAS;
     }
 
+    public RakPriority getPriority() {
+        return this.priority;
+    }
+
+    public void setPriority(RakPriority priority) {
+        this.priority = priority;
+    }
+
     public RakMessage toMessage() {
         return new RakMessage(buffer, reliability);
     }
@@ -22,15 +22,16 @@ import static org.cloudburstmc.netty.channel.raknet.RakConstants.FLAG_VALID;
 import static org.cloudburstmc.netty.channel.raknet.RakConstants.ID_CONNECTED_PING;
 import static org.cloudburstmc.netty.channel.raknet.RakConstants.ID_DISCONNECTION_NOTIFICATION;
 import static org.cloudburstmc.netty.channel.raknet.RakConstants.MAXIMUM_ENCAPSULATED_HEADER_SIZE;
+import static org.cloudburstmc.netty.channel.raknet.RakConstants.MAXIMUM_SPLIT_COUNT;
 import static org.cloudburstmc.netty.channel.raknet.RakConstants.RAKNET_DATAGRAM_HEADER_SIZE;
 import static org.cloudburstmc.netty.channel.raknet.RakConstants.SESSION_STALE_MS;
 import static org.cloudburstmc.netty.channel.raknet.RakConstants.UDP_HEADER_SIZE;
 
 import org.cloudburstmc.netty.channel.raknet.RakChannel;
+import org.cloudburstmc.netty.channel.raknet.RakCongestionController;
 import org.cloudburstmc.netty.channel.raknet.RakDisconnectReason;
 import org.cloudburstmc.netty.channel.raknet.RakPriority;
 import org.cloudburstmc.netty.channel.raknet.RakReliability;
-import org.cloudburstmc.netty.channel.raknet.RakSlidingWindow;
 import org.cloudburstmc.netty.channel.raknet.RakState;
 import org.cloudburstmc.netty.channel.raknet.config.RakChannelMetrics;
 import org.cloudburstmc.netty.channel.raknet.config.RakChannelOption;
@@ -40,17 +41,18 @@ import org.cloudburstmc.netty.channel.raknet.packet.RakMessage;
 import org.cloudburstmc.netty.util.BitQueue;
 import org.cloudburstmc.netty.util.FastBinaryMinHeap;
 import org.cloudburstmc.netty.util.IntRange;
+import org.cloudburstmc.netty.util.IntRangeSet;
 import org.cloudburstmc.netty.util.RakUtils;
 import org.cloudburstmc.netty.util.RoundRobinArray;
+import org.cloudburstmc.netty.util.SequenceWindow;
 import org.cloudburstmc.netty.util.SplitPacketHelper;
 
 import java.net.Inet6Address;
 import java.net.InetSocketAddress;
 import java.util.ArrayDeque;
-import java.util.Map;
 import java.util.Queue;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufAllocator;
@@ -67,6 +69,10 @@ import io.netty.util.internal.logging.InternalLoggerFactory;
 public class RakSessionCodec extends ChannelDuplexHandler {
     private static final InternalLogger log = InternalLoggerFactory.getInstance(RakSessionCodec.class);
     public static final String NAME = "rak-session-codec";
+    private static final RakPriority[] PRIORITIES = RakPriority.values();
+    private static final AtomicLong GLOBAL_SPLIT_BYTES = new AtomicLong();
+    private static final long SPLIT_EXPIRY_CHECK_INTERVAL = 1000;
+    private static final int HALF_SEQUENCE_RANGE = SequenceWindow.SEQUENCE_MASK >> 1;
 
     private final RakChannel channel;
     private ScheduledFuture<?> tickFuture;
@@ -77,7 +83,7 @@ public class RakSessionCodec extends ChannelDuplexHandler {
     private volatile long lastFlush;
 
     // Reliability, Ordering, Sequencing and datagram indexes
-    private RakSlidingWindow slidingWindow;
+    private RakCongestionController congestionController;
     private int splitIndex;
     private int datagramReadIndex;
     private int datagramWriteIndex;
@@ -85,21 +91,32 @@ public class RakSessionCodec extends ChannelDuplexHandler {
     private int reliabilityWriteIndex;
     private int[] orderReadIndex;
     private int[] orderWriteIndex;
+    private int[] sequenceReadOrderingIndex;
+    private int[] sequenceReadIndex;
+    private int[] sequenceWriteIndex;
 
     private RoundRobinArray<SplitPacketHelper> splitPackets;
+    private int splitPacketBytes;
+    private int maxSplitBytes;
+    private long globalMaxSplitBytes;
+    private boolean compositeSplitPackets;
+    private long lastSplitExpiryCheck;
     private BitQueue reliableDatagramQueue;
 
     private FastBinaryMinHeap<EncapsulatedPacket> outgoingPackets;
     private long[] outgoingPacketNextWeights;
+    private int outgoingPacketBytes;
+    private int[] outgoingPriorityBytes;
     private FastBinaryMinHeap<EncapsulatedPacket>[] orderingHeaps;
     private long currentPingTime = -1;
     private long lastPingTime = -1;
     private long lastPongTime = -1;
-    private Map<Integer, RakDatagramPacket> sentDatagrams;
+    private SequenceWindow<RakDatagramPacket> sentDatagrams;
+    private FastBinaryMinHeap<RakDatagramPacket> resendQueue;
     private Queue<IntRange> incomingAcks;
     private Queue<IntRange> incomingNaks;
-    private Queue<IntRange> outgoingAcks;
-    private Queue<IntRange> outgoingNaks;
+    private IntRangeSet outgoingAcks;
+    private IntRangeSet outgoingNaks;
     private long lastMinWeight;
 
     public RakSessionCodec(RakChannel channel) {
@@ -112,14 +129,18 @@ public class RakSessionCodec extends ChannelDuplexHandler {
         this.setState(RakState.CONNECTED);
         int mtu = this.getMtu();
 
-        this.slidingWindow = new RakSlidingWindow(mtu);
+        this.congestionController = this.channel.config().getOption(RakChannelOption.RAK_CONGESTION_CONTROLLER).create(mtu);
 
         this.outgoingPacketNextWeights = new long[4];
+        this.outgoingPriorityBytes = new int[4];
         this.initHeapWeights();
 
         int maxChannels = this.channel.config().getOption(RakChannelOption.RAK_ORDERING_CHANNELS);
         this.orderReadIndex = new int[maxChannels];
         this.orderWriteIndex = new int[maxChannels];
+        this.sequenceReadOrderingIndex = new int[maxChannels];
+        this.sequenceReadIndex = new int[maxChannels];
+        this.sequenceWriteIndex = new int[maxChannels];
 
         // Noinspection unchecked
         this.orderingHeaps = new FastBinaryMinHeap[maxChannels];
@@ -128,15 +149,19 @@ public class RakSessionCodec extends ChannelDuplexHandler {
         }
 
         this.outgoingPackets = new FastBinaryMinHeap<>(8);
-        this.sentDatagrams = new ConcurrentHashMap<>();
+        this.sentDatagrams = new SequenceWindow<>(64);
+        this.resendQueue = new FastBinaryMinHeap<>(64);
 
         this.incomingAcks = new ArrayDeque<>();
         this.incomingNaks = new ArrayDeque<>();
-        this.outgoingAcks = new ArrayDeque<>();
-        this.outgoingNaks = new ArrayDeque<>();
+        this.outgoingAcks = new IntRangeSet();
+        this.outgoingNaks = new IntRangeSet();
 
         this.reliableDatagramQueue = new BitQueue(512);
         this.splitPackets = new RoundRobinArray<>(256);
+        this.maxSplitBytes = this.channel.config().getMaxSplitBytes();
+        this.globalMaxSplitBytes = this.channel.config().getGlobalMaxSplitBytes();
+        this.compositeSplitPackets = this.channel.config().isCompositeSplitPackets();
 
         // After session is fully initialized, start ticking.
         boolean autoFlush = this.channel.config().isAutoFlush();
@@ -165,12 +190,19 @@ public class RakSessionCodec extends ChannelDuplexHandler {
             }
         }
         this.splitPackets = null;
+        GLOBAL_SPLIT_BYTES.addAndGet(-this.splitPacketBytes);
+        this.splitPacketBytes = 0;
 
-        for (RakDatagramPacket packet : this.sentDatagrams.values()) {
-            packet.release();
+        RakDatagramPacket datagram;
+        while ((datagram = this.sentDatagrams.poll()) != null) {
+            datagram.release();
         }
         this.sentDatagrams = null;
 
+        // Entries only reference datagrams owned by sentDatagrams
+        this.resendQueue.release();
+        this.resendQueue = null;
+
         FastBinaryMinHeap<EncapsulatedPacket>[] orderingHeaps = this.orderingHeaps;
         this.orderingHeaps = null;
         if (orderingHeaps != null) {
@@ -276,6 +308,11 @@ public class RakSessionCodec extends ChannelDuplexHandler {
         }
 
         long weight = this.getNextWeight(message.priority());
+        for (EncapsulatedPacket packet : packets) {
+            packet.setPriority(message.priority());
+            this.updateQueuedBytes(packet, packet.getBuffer().readableBytes());
+        }
+
         if (packets.length == 1) {
             this.outgoingPackets.insert(weight, packets[0]);
         } else {
@@ -283,6 +320,11 @@ public class RakSessionCodec extends ChannelDuplexHandler {
         }
     }
 
+    private void updateQueuedBytes(EncapsulatedPacket packet, int delta) {
+        this.outgoingPacketBytes += delta;
+        this.outgoingPriorityBytes[packet.getPriority().ordinal()] += delta;
+    }
+
     private void handleDatagram(ChannelHandlerContext ctx, RakDatagramPacket packet) {
         this.touch();
         RakChannelMetrics metrics = this.getMetrics();
@@ -290,7 +332,7 @@ public class RakSessionCodec extends ChannelDuplexHandler {
             metrics.rakDatagramsIn(1);
         }
 
-        this.slidingWindow.onPacketReceived(packet.getSendTime());
+        this.congestionController.onPacketReceived(this.lastTouched);
 
         int prevSequenceIndex = this.datagramReadIndex;
         if (prevSequenceIndex <= packet.getSequenceIndex()) {
@@ -299,10 +341,10 @@ public class RakSessionCodec extends ChannelDuplexHandler {
 
         int missedDatagrams = packet.getSequenceIndex() - prevSequenceIndex;
         if (missedDatagrams > 0) {
-            this.outgoingNaks.offer(new IntRange(packet.getSequenceIndex() - missedDatagrams, packet.getSequenceIndex() - 1));
+            this.outgoingNaks.add(packet.getSequenceIndex() - missedDatagrams, packet.getSequenceIndex() - 1);
         }
 
-        this.outgoingAcks.offer(new IntRange(packet.getSequenceIndex(), packet.getSequenceIndex()));
+        this.outgoingAcks.add(packet.getSequenceIndex());
 
         for (final EncapsulatedPacket encapsulated : packet.getPackets()) {
             if (encapsulated.getReliability().isReliable()) {
@@ -365,6 +407,8 @@ public class RakSessionCodec extends ChannelDuplexHandler {
     private void checkForOrdered(ChannelHandlerContext ctx, EncapsulatedPacket packet) {
         if (packet.getReliability().isOrdered()) {
             this.onOrderedReceived(ctx, packet);
+        } else if (packet.getReliability().isSequenced()) {
+            this.onSequencedReceived(ctx, packet);
         } else {
             ctx.fireChannelRead(packet.retain());
         }
@@ -403,24 +447,97 @@ public class RakSessionCodec extends ChannelDuplexHandler {
         }
     }
 
+    private void onSequencedReceived(ChannelHandlerContext ctx, EncapsulatedPacket packet) {
+        int channel = packet.getOrderingChannel();
+        int orderingIndex = packet.getOrderingIndex();
+        int sequenceIndex = packet.getSequenceIndex();
+
+        // Sequenced packets carry the ordering index of the next ordered packet on the channel.
+        // If that ordered packet was already handled, this one has been superseded.
+        if (SequenceWindow.distance(this.orderReadIndex[channel], orderingIndex) > HALF_SEQUENCE_RANGE) {
+            return;
+        }
+
+        int orderingDistance = SequenceWindow.distance(this.sequenceReadOrderingIndex[channel], orderingIndex);
+        if (orderingDistance > HALF_SEQUENCE_RANGE || (orderingDistance == 0 &&
+                SequenceWindow.distance(this.sequenceReadIndex[channel], sequenceIndex) > HALF_SEQUENCE_RANGE)) {
+            // Older than the last sequenced packet handled
+            return;
+        }
+
+        this.sequenceReadOrderingIndex[channel] = orderingIndex;
+        this.sequenceReadIndex[channel] = SequenceWindow.next(sequenceIndex);
+        ctx.fireChannelRead(packet.retain());
+    }
+
     private EncapsulatedPacket getReassembledPacket(EncapsulatedPacket splitPacket, ByteBufAllocator alloc) {
         this.checkForClosed();
 
+        if (splitPacket.getPartCount() < 2 || splitPacket.getPartCount() > MAXIMUM_SPLIT_COUNT) {
+            log.debug("{} sent split packet with invalid part count {}", this.getRemoteAddress(), splitPacket.getPartCount());
+            this.disconnect(RakDisconnectReason.BAD_PACKET);
+            return null;
+        }
+
         SplitPacketHelper helper = this.splitPackets.get(splitPacket.getPartId());
-        if (helper == null) {
-            this.splitPackets.set(splitPacket.getPartId(), helper = new SplitPacketHelper(splitPacket.getPartCount()));
+        if (helper != null && (helper.getPartId() != splitPacket.getPartId() || helper.getPartCount() != splitPacket.getPartCount())) {
+            // Slot is reused by a newer split packet, the old one will never complete
+            this.removeSplitHelper(helper);
+            helper = null;
+        }
+        boolean created = helper == null;
+
+        int size = splitPacket.getBuffer().readableBytes();
+        if (created) {
+            // The parts array is allocated for all parts up front, so it is charged before creating the helper
+            size += SplitPacketHelper.getSlotBytes(splitPacket.getPartCount());
+        }
+        if (this.splitPacketBytes + size > this.maxSplitBytes || GLOBAL_SPLIT_BYTES.get() + size > this.globalMaxSplitBytes) {
+            log.debug("{} exceeded split packet memory budget", this.getRemoteAddress());
+            this.disconnect(RakDisconnectReason.QUEUE_TOO_LONG);
+            return null;
+        }
+
+        if (created) {
+            this.splitPackets.set(splitPacket.getPartId(), helper = new SplitPacketHelper(splitPacket.getPartId(), splitPacket.getPartCount()));
         }
 
         // Try reassembling the packet.
-        EncapsulatedPacket result = helper.add(splitPacket, alloc);
+        int retainedBytes = created ? 0 : helper.getRetainedBytes();
+        EncapsulatedPacket result = helper.add(splitPacket, alloc, this.compositeSplitPackets);
+        this.updateSplitBytes(helper.getRetainedBytes() - retainedBytes);
         if (result != null) {
             // Packet reassembled. Remove the helper
-            this.splitPackets.remove(splitPacket.getPartId(), helper);
+            this.removeSplitHelper(helper);
         }
 
         return result;
     }
 
+    private void removeSplitHelper(SplitPacketHelper helper) {
+        this.updateSplitBytes(-helper.getRetainedBytes());
+        this.splitPackets.remove(helper.getPartId(), helper);
+    }
+
+    private void updateSplitBytes(int delta) {
+        if (delta != 0) {
+            this.splitPacketBytes += delta;
+            GLOBAL_SPLIT_BYTES.addAndGet(delta);
+        }
+    }
+
+    private void expireSplitPackets(long curTime) {
+        for (SplitPacketHelper helper : this.splitPackets) {
+            if (helper != null && helper.expired(curTime)) {
+                if (log.isTraceEnabled()) {
+                    log.trace("Split packet {} from {} expired with {}/{} parts", helper.getPartId(), this.getRemoteAddress(),
+                            helper.getReceivedParts(), helper.getPartCount());
+                }
+                this.removeSplitHelper(helper);
+            }
+        }
+    }
+
     private void tryTick() {
         try {
             this.onTick();
@@ -435,24 +552,25 @@ public class RakSessionCodec extends ChannelDuplexHandler {
 
         int maxQueuedBytes = this.channel.config().getOption(RakChannelOption.RAK_MAX_QUEUED_BYTES);
 
-        if (maxQueuedBytes > 0) {
-            int queuedBytes = 0;
-            try {
-                for (EncapsulatedPacket packet : this.outgoingPackets) {
-                    queuedBytes += packet.getBuffer().readableBytes();
-                    if (queuedBytes > maxQueuedBytes) {
-                        this.disconnect(RakDisconnectReason.QUEUE_TOO_LONG);
-                        return;
-                    }
-                }
-            } finally {
-                RakChannelMetrics metrics = this.getMetrics();
-                if (metrics != null) {
-                    metrics.queuedPacketBytes(queuedBytes);
-                }
+        if (this.splitPacketBytes > 0 && curTime - this.lastSplitExpiryCheck >= SPLIT_EXPIRY_CHECK_INTERVAL) {
+            this.lastSplitExpiryCheck = curTime;
+            this.expireSplitPackets(curTime);
+        }
+
+        RakChannelMetrics metrics = this.getMetrics();
+        if (metrics != null) {
+            metrics.splitPacketBytes(this.splitPacketBytes);
+            metrics.queuedPacketBytes(this.outgoingPacketBytes);
+            for (RakPriority priority : PRIORITIES) {
+                metrics.queuedPacketBytes(priority, this.outgoingPriorityBytes[priority.ordinal()]);
             }
         }
 
+        if (maxQueuedBytes > 0 && this.outgoingPacketBytes > maxQueuedBytes) {
+            this.disconnect(RakDisconnectReason.QUEUE_TOO_LONG);
+            return;
+        }
+
         if (this.state == RakState.UNCONNECTED) {
             if (this.isTimedOut(curTime)) {
                 this.close(RakDisconnectReason.TIMED_OUT);
@@ -494,15 +612,15 @@ public class RakSessionCodec extends ChannelDuplexHandler {
         int writtenAcks = 0;
         int writtenNacks = 0;
 
-        // if (this.slidingWindow.shouldSendAcks(curTime)) {
-        while (!this.outgoingAcks.isEmpty()) {
-            ByteBuf buffer = ctx.alloc().ioBuffer(ackMtu);
-            buffer.writeByte(FLAG_VALID | FLAG_ACK);
-            writtenAcks += RakUtils.writeAckEntries(buffer, this.outgoingAcks, ackMtu - 1);
-            ctx.write(buffer);
-            this.slidingWindow.onSendAck();
+        if (!this.outgoingAcks.isEmpty() && this.congestionController.shouldSendAcks(curTime, this.channel.config().getAckDelay())) {
+            while (!this.outgoingAcks.isEmpty()) {
+                ByteBuf buffer = ctx.alloc().ioBuffer(ackMtu);
+                buffer.writeByte(FLAG_VALID | FLAG_ACK);
+                writtenAcks += RakUtils.writeAckEntries(buffer, this.outgoingAcks, ackMtu - 1);
+                ctx.write(buffer);
+            }
+            this.congestionController.onSendAck();
         }
-        // }
 
         while (!this.outgoingNaks.isEmpty()) {
             ByteBuf buffer = ctx.alloc().ioBuffer(ackMtu);
@@ -531,10 +649,6 @@ public class RakSessionCodec extends ChannelDuplexHandler {
             return;
         }
 
-//        if (nack) {
-//            this.slidingWindow.onNak();
-//        }
-
         IntRange range;
         while ((range = queue.poll()) != null) {
             for (int i = range.start; i <= range.end; i++) {
@@ -552,7 +666,7 @@ public class RakSessionCodec extends ChannelDuplexHandler {
 
     private void onIncomingAck(RakDatagramPacket datagram, long curTime) {
         try {
-            this.slidingWindow.onAck(curTime, datagram, this.datagramReadIndex);
+            this.congestionController.onAck(curTime, datagram, this.datagramReadIndex);
         } finally {
             datagram.release();
         }
@@ -563,42 +677,60 @@ public class RakSessionCodec extends ChannelDuplexHandler {
             log.trace("NAK'ed datagram {} from {}", datagram.getSequenceIndex(), this.getRemoteAddress());
         }
 
-        this.slidingWindow.onNak(); // TODO: verify this
+        this.congestionController.onNak();
         this.sendDatagram(ctx, datagram, curTime);
     }
 
     private int sendStaleDatagrams(ChannelHandlerContext ctx, long curTime) {
-        if (this.sentDatagrams.isEmpty()) {
+        if (this.resendQueue.isEmpty()) {
             return 0;
         }
 
         boolean hasResent = false;
+        int examinedCount = 0;
         int resendCount = 0;
-        int transmissionBandwidth = this.slidingWindow.getRetransmissionBandwidth();
+        int transmissionBandwidth = this.congestionController.getRetransmissionBandwidth();
 
-        for (RakDatagramPacket datagram : this.sentDatagrams.values()) {
-            if (datagram.getNextSend() <= curTime) {
-                int size = datagram.getSize();
-                if (transmissionBandwidth < size) {
-                    break;
-                }
-                transmissionBandwidth -= size;
+        // Deadlines are ordered, so stop at the first datagram that is not due yet.
+        RakDatagramPacket datagram;
+        while ((datagram = this.resendQueue.peek()) != null) {
+            long deadline = this.resendQueue.peekWeight();
+            if (deadline > curTime) {
+                break;
+            }
+            examinedCount++;
 
-                if (!hasResent) {
-                    hasResent = true;
-                }
-                if (log.isTraceEnabled()) {
-                    log.trace("Stale datagram {} from {}", datagram.getSequenceIndex(), this.getRemoteAddress());
-                }
-                resendCount++;
-                this.sendDatagram(ctx, datagram, curTime);
+            if (this.sentDatagrams.get(datagram.getSequenceIndex()) != datagram || datagram.getNextSend() != deadline) {
+                // Datagram was acknowledged or rescheduled since this deadline was queued.
+                this.resendQueue.remove();
+                continue;
+            }
+
+            int size = datagram.getSize();
+            if (transmissionBandwidth < size) {
+                break;
+            }
+            transmissionBandwidth -= size;
+            this.resendQueue.remove();
+
+            if (!hasResent) {
+                hasResent = true;
             }
+            if (log.isTraceEnabled()) {
+                log.trace("Stale datagram {} from {}", datagram.getSequenceIndex(), this.getRemoteAddress());
+            }
+            resendCount++;
+            this.sendDatagram(ctx, datagram, curTime);
         }
 
         if (hasResent) {
-            this.slidingWindow.onResend(curTime);
+            this.congestionController.onResend(curTime);
         }
 
+        RakChannelMetrics metrics = this.getMetrics();
+        if (metrics != null) {
+            metrics.rakStaleDatagramsExamined(examinedCount);
+        }
         return resendCount;
     }
 
@@ -607,7 +739,7 @@ public class RakSessionCodec extends ChannelDuplexHandler {
             return;
         }
 
-        int transmissionBandwidth = this.slidingWindow.getTransmissionBandwidth();
+        int transmissionBandwidth = this.congestionController.getTransmissionBandwidth();
         RakDatagramPacket datagram = RakDatagramPacket.newInstance();
         datagram.setSendTime(curTime);
         EncapsulatedPacket packet;
@@ -620,6 +752,7 @@ public class RakSessionCodec extends ChannelDuplexHandler {
 
             transmissionBandwidth -= size;
             this.outgoingPackets.remove();
+            this.updateQueuedBytes(packet, -packet.getBuffer().readableBytes());
 
             // Send full datagram
             if (!datagram.tryAddPacket(packet, mtuSize)) {
@@ -669,18 +802,20 @@ public class RakSessionCodec extends ChannelDuplexHandler {
         }
 
         int oldIndex = datagram.getSequenceIndex();
-        datagram.setSequenceIndex(this.datagramWriteIndex++);
+        datagram.setSequenceIndex(this.datagramWriteIndex);
+        this.datagramWriteIndex = SequenceWindow.next(this.datagramWriteIndex);
 
         for (EncapsulatedPacket packet : datagram.getPackets()) {
             // Check if packet is reliable so it can be resent later if a NAK is received.
             if (packet.getReliability().isReliable()) {
-                datagram.setNextSend(time + this.slidingWindow.getRtoForRetransmission());
+                datagram.setNextSend(time + this.congestionController.getRtoForRetransmission());
                 if (oldIndex == -1) {
-                    this.slidingWindow.onReliableSend(datagram);
+                    this.congestionController.onReliableSend(datagram);
                 } else {
                     this.sentDatagrams.remove(oldIndex, datagram);
                 }
                 this.sentDatagrams.put(datagram.getSequenceIndex(), datagram.retain()); // Keep for resending
+                this.resendQueue.insert(datagram.getNextSend(), datagram);
                 break;
             }
         }
@@ -733,10 +868,15 @@ public class RakSessionCodec extends ChannelDuplexHandler {
         }
 
         // Set meta
-        // TODO: sequencing
         int orderingIndex = 0;
+        int sequenceIndex = 0;
         if (reliability.isOrdered()) {
             orderingIndex = this.orderWriteIndex[orderingChannel]++;
+            this.sequenceWriteIndex[orderingChannel] = 0;
+        } else if (reliability.isSequenced()) {
+            // Sequenced packets are tied to the next ordered packet so stale ones can be detected.
+            orderingIndex = this.orderWriteIndex[orderingChannel];
+            sequenceIndex = this.sequenceWriteIndex[orderingChannel]++;
         }
 
         // Now create the packets.
@@ -747,7 +887,7 @@ public class RakSessionCodec extends ChannelDuplexHandler {
             packet.setNeedsBAS(true);
             packet.setOrderingChannel((short) orderingChannel);
             packet.setOrderingIndex(orderingIndex);
-            // packet.setSequenceIndex(sequencingIndex);
+            packet.setSequenceIndex(sequenceIndex);
             packet.setReliability(reliability);
             if (reliability.isReliable()) {
                 packet.setReliabilityIndex(this.reliabilityWriteIndex++);
@@ -885,7 +1025,7 @@ public class RakSessionCodec extends ChannelDuplexHandler {
     }
 
     public double getRTT() {
-        return this.slidingWindow.getRTT();
+        return this.congestionController.getRTT();
     }
 
     public int getMtu() {
@@ -904,6 +1044,14 @@ public class RakSessionCodec extends ChannelDuplexHandler {
         return nack ? this.incomingNaks : this.incomingAcks;
     }
 
+    public int getQueuedBytes() {
+        return this.outgoingPacketBytes;
+    }
+
+    public int getQueuedBytes(RakPriority priority) {
+        return this.outgoingPriorityBytes[priority.ordinal()];
+    }
+
     public Channel getChannel() {
         return channel;
     }
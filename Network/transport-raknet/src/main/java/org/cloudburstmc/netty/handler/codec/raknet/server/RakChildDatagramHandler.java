@@ -17,11 +17,14 @@
 package org.cloudburstmc.netty.handler.codec.raknet.server;
 
 import org.cloudburstmc.netty.channel.raknet.RakChildChannel;
+import org.cloudburstmc.netty.channel.raknet.RakServerChannel;
 import org.cloudburstmc.netty.channel.raknet.config.RakChannelMetrics;
+import org.cloudburstmc.netty.util.EpollDatagramUtils;
 
 import java.nio.channels.ClosedChannelException;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.CompositeByteBuf;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelHandlerContext;
@@ -33,10 +36,19 @@ public class RakChildDatagramHandler extends ChannelOutboundHandlerAdapter {
 
     public static final String NAME = "rak-child-datagram-handler";
     private final RakChildChannel channel;
+    private final boolean segmented;
     private volatile boolean canFlush = false;
 
+    // Run of equally sized datagrams which is sent as one segmented datagram on flush
+    private CompositeByteBuf segments;
+    private int segmentSize;
+    private int segmentCount;
+    private boolean segmentsClosed;
+
     public RakChildDatagramHandler(RakChildChannel channel) {
         this.channel = channel;
+        RakServerChannel parent = (RakServerChannel) channel.parent();
+        this.segmented = parent.config().getSegmentedDatagrams() && EpollDatagramUtils.isSegmentationSupported(parent.parent());
     }
 
     @Override
@@ -49,9 +61,70 @@ public class RakChildDatagramHandler extends ChannelOutboundHandlerAdapter {
 
         this.canFlush = true;
         promise.trySuccess();
-        DatagramPacket datagram = isDatagram ? (DatagramPacket) msg :
-                new DatagramPacket((ByteBuf) msg, this.channel.remoteAddress(), this.channel.localAddress());
 
+        if (this.segmented && !isDatagram) {
+            this.addSegment(ctx, (ByteBuf) msg);
+            return;
+        }
+
+        this.writeSegments();
+        this.writeDatagram(isDatagram ? (DatagramPacket) msg :
+                new DatagramPacket((ByteBuf) msg, this.channel.remoteAddress(), this.channel.localAddress()));
+    }
+
+    @Override
+    public void flush(ChannelHandlerContext ctx) throws Exception {
+        if (this.canFlush) {
+            this.canFlush = false;
+            this.writeSegments();
+            ctx.flush();
+        }
+    }
+
+    @Override
+    public void handlerRemoved(ChannelHandlerContext ctx) throws Exception {
+        if (this.segments != null) {
+            this.segments.release();
+            this.segments = null;
+        }
+    }
+
+    private void addSegment(ChannelHandlerContext ctx, ByteBuf buffer) {
+        int size = buffer.readableBytes();
+        // UDP_SEGMENT requires all segments but the last one to have the same size
+        if (this.segments != null && (this.segmentsClosed || size > this.segmentSize ||
+                this.segmentCount >= EpollDatagramUtils.MAX_SEGMENTS ||
+                this.segments.readableBytes() + size > EpollDatagramUtils.MAX_SEGMENTED_BYTES)) {
+            this.writeSegments();
+        }
+
+        if (this.segments == null) {
+            this.segments = ctx.alloc().compositeDirectBuffer(EpollDatagramUtils.MAX_SEGMENTS);
+            this.segmentSize = size;
+        }
+        this.segments.addComponent(true, buffer);
+        this.segmentCount++;
+        this.segmentsClosed = size < this.segmentSize;
+    }
+
+    private void writeSegments() {
+        CompositeByteBuf segments = this.segments;
+        if (segments == null) {
+            return;
+        }
+        this.segments = null;
+
+        if (this.segmentCount == 1) {
+            this.writeDatagram(new DatagramPacket(segments, this.channel.remoteAddress(), this.channel.localAddress()));
+        } else {
+            this.writeDatagram(EpollDatagramUtils.newSegmentedPacket(segments, this.segmentSize,
+                    this.channel.remoteAddress(), this.channel.localAddress()));
+        }
+        this.segmentCount = 0;
+        this.segmentsClosed = false;
+    }
+
+    private void writeDatagram(DatagramPacket datagram) {
         RakChannelMetrics metrics = this.channel.config().getMetrics();
         if (metrics != null) {
             metrics.bytesOut(datagram.content().readableBytes());
@@ -66,12 +139,4 @@ public class RakChildDatagramHandler extends ChannelOutboundHandlerAdapter {
             }
         });
     }
-
-    @Override
-    public void flush(ChannelHandlerContext ctx) throws Exception {
-        if (this.canFlush) {
-            this.canFlush = false;
-            ctx.flush();
-        }
-    }
 }
@@ -17,16 +17,19 @@
 package org.cloudburstmc.netty.handler.codec.raknet.server;
 
 import org.cloudburstmc.netty.channel.raknet.RakServerChannel;
+import org.cloudburstmc.netty.channel.raknet.config.RakServerChannelConfig;
 import org.cloudburstmc.netty.channel.raknet.config.RakServerMetrics;
+import org.cloudburstmc.netty.util.TokenBucketTable;
 
 import java.net.InetAddress;
+import java.net.UnknownHostException;
 import java.util.Collection;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
 import io.netty.channel.ChannelHandlerContext;
@@ -40,9 +43,20 @@ public class RakServerRateLimiter extends SimpleChannelInboundHandler<DatagramPa
     public static final String NAME = "rak-server-rate-limiter";
     private static final InternalLogger log = InternalLoggerFactory.getInstance(RakServerRateLimiter.class);
 
+    private static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final int TABLE_CAPACITY = 8192;
+    private static final int TOP_TALKERS = 10;
+    private static final int TOP_TALKERS_INTERVAL_TICKS = 10; // in blocked ticks, 1 second
+
     private final RakServerChannel channel;
 
-    private final ConcurrentHashMap<InetAddress, AtomicInteger> rateLimitMap = new ConcurrentHashMap<>();
+    // Only accessed from the event loop
+    private final TokenBucketTable buckets = new TokenBucketTable(TABLE_CAPACITY, TICK_NANOS);
+    private final long[] talkerHighs = new long[TOP_TALKERS];
+    private final long[] talkerLows = new long[TOP_TALKERS];
+    private final int[] talkerPackets = new int[TOP_TALKERS];
+    private final long[] talkerBytes = new long[TOP_TALKERS];
+    private int blockedTicks;
     private final Map<InetAddress, Long> blockedConnections = new ConcurrentHashMap<>();
 
     private final Collection<InetAddress> exceptions = Collections.newSetFromMap(new ConcurrentHashMap<>());
@@ -66,11 +80,9 @@ public class RakServerRateLimiter extends SimpleChannelInboundHandler<DatagramPa
     public void handlerRemoved(ChannelHandlerContext ctx) throws Exception {
         this.tickFuture.cancel(false);
         this.blockedTickFuture.cancel(true);
-        this.rateLimitMap.clear();
     }
 
     private void onRakTick() {
-        this.rateLimitMap.clear();
         this.globalCounter.set(0);
     }
 
@@ -90,6 +102,28 @@ public class RakServerRateLimiter extends SimpleChannelInboundHandler<DatagramPa
                 }
             }
         }
+
+        if (++this.blockedTicks >= TOP_TALKERS_INTERVAL_TICKS) {
+            this.blockedTicks = 0;
+            this.reportTopTalkers(metrics);
+        }
+    }
+
+    private void reportTopTalkers(RakServerMetrics metrics) {
+        int count = this.buckets.drainTopTalkers(this.talkerHighs, this.talkerLows, this.talkerPackets, this.talkerBytes);
+        if (metrics == null || count == 0) {
+            return;
+        }
+
+        InetAddress[] addresses = new InetAddress[count];
+        for (int i = 0; i < count; i++) {
+            try {
+                addresses[i] = InetAddress.getByAddress(TokenBucketTable.toAddressBytes(this.talkerHighs[i], this.talkerLows[i]));
+            } catch (UnknownHostException e) {
+                throw new IllegalStateException(e); // Address bytes are always 4 or 16 long
+            }
+        }
+        metrics.topTalkers(addresses, Arrays.copyOf(this.talkerPackets, count), Arrays.copyOf(this.talkerBytes, count));
     }
 
     public boolean blockAddress(InetAddress address, long time, TimeUnit unit) {
@@ -144,10 +178,15 @@ public class RakServerRateLimiter extends SimpleChannelInboundHandler<DatagramPa
             return;
         }
 
-        AtomicInteger counter = this.rateLimitMap.computeIfAbsent(address, a -> new AtomicInteger());
-        if (counter.incrementAndGet() > this.channel.config().getPacketLimit() &&
-                this.blockAddress(address, 10, TimeUnit.SECONDS)) {
-            log.warn("[{}] Blocked because packet limit was reached", address);
+        RakServerChannelConfig config = this.channel.config();
+        int result = this.buckets.tryAcquire(TokenBucketTable.keyHigh(address), TokenBucketTable.keyLow(address),
+                datagram.content().readableBytes(), config.getPacketLimit(), config.getByteLimit(), System.nanoTime());
+        if (result != TokenBucketTable.ALLOWED && this.blockAddress(address, 10, TimeUnit.SECONDS)) {
+            if (result == TokenBucketTable.PACKET_LIMIT_EXCEEDED) {
+                log.warn("[{}] Blocked because packet limit was reached", address);
+            } else {
+                log.warn("[{}] Blocked because byte limit was reached", address);
+            }
         } else {
             ctx.fireChannelRead(datagram.retain());
         }
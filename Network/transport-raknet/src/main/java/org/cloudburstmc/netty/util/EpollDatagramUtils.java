@@ -0,0 +1,103 @@
+/*
+ * Copyright 2022 CloudburstMC
+ *
+ * CloudburstMC licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.cloudburstmc.netty.util;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.FixedRecvByteBufAllocator;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollChannelOption;
+import io.netty.channel.epoll.EpollDatagramChannel;
+import io.netty.channel.socket.DatagramPacket;
+import io.netty.channel.unix.SegmentedDatagramPacket;
+
+import java.net.InetSocketAddress;
+
+/**
+ * Helpers for batched datagram I/O on {@link EpollDatagramChannel}. Epoll classes are only touched once
+ * {@link #isAvailable()} confirmed the native transport can be loaded, so this is safe to call on any platform.
+ */
+public final class EpollDatagramUtils {
+    /**
+     * Linux limits a single UDP_SEGMENT send to 64 segments.
+     */
+    public static final int MAX_SEGMENTS = 64;
+    /**
+     * Maximum UDP payload of a single send including the IPv6 and UDP headers.
+     */
+    public static final int MAX_SEGMENTED_BYTES = 0xFFFF - 48;
+    /**
+     * Number of datagrams read per recvmmsg call.
+     */
+    public static final int RECV_BATCH_SIZE = 16;
+
+    private static final boolean AVAILABLE;
+
+    static {
+        boolean available;
+        try {
+            available = Epoll.isAvailable();
+        } catch (Throwable t) {
+            // Epoll classes are not on the class path
+            available = false;
+        }
+        AVAILABLE = available;
+    }
+
+    private EpollDatagramUtils() {
+    }
+
+    public static boolean isAvailable() {
+        return AVAILABLE;
+    }
+
+    /**
+     * Whether the given channel uses the epoll transport.
+     */
+    public static boolean isEpollChannel(Channel channel) {
+        return AVAILABLE && channel instanceof EpollDatagramChannel;
+    }
+
+    /**
+     * Whether the given channel can send {@link SegmentedDatagramPacket}s (UDP_SEGMENT / GSO).
+     */
+    public static boolean isSegmentationSupported(Channel channel) {
+        return isEpollChannel(channel) && EpollDatagramChannel.isSegmentedDatagramPacketSupported();
+    }
+
+    /**
+     * Creates a datagram which the kernel splits into packets of {@code segmentSize} bytes. Only the last
+     * segment may be smaller.
+     */
+    public static DatagramPacket newSegmentedPacket(ByteBuf content, int segmentSize, InetSocketAddress recipient, InetSocketAddress sender) {
+        return new SegmentedDatagramPacket(content, segmentSize, recipient, sender);
+    }
+
+    /**
+     * Lets an epoll datagram channel read up to {@link #RECV_BATCH_SIZE} datagrams per recvmmsg call.
+     *
+     * @return true if the channel was configured
+     */
+    public static boolean tryEnableRecvmmsg(Channel channel, int maxDatagramSize) {
+        if (!isEpollChannel(channel)) {
+            return false;
+        }
+        channel.config().setOption(EpollChannelOption.MAX_DATAGRAM_PAYLOAD_SIZE, maxDatagramSize);
+        channel.config().setRecvByteBufAllocator(new FixedRecvByteBufAllocator(maxDatagramSize * RECV_BATCH_SIZE));
+        return true;
+    }
+}
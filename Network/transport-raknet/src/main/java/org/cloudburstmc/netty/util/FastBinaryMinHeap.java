@@ -81,6 +81,10 @@ public class FastBinaryMinHeap<E> extends AbstractReferenceCounted implements It
         return entry != null ? (E) entry.element : null;
     }
 
+    public long peekWeight() {
+        return this.heap[1].weight;
+    }
+
     private void insert0(long weight, E element) {
         int hole = ++this.size;
         int pred = hole >> 1;
@@ -195,9 +199,8 @@ public class FastBinaryMinHeap<E> extends AbstractReferenceCounted implements It
     @Override
     protected void deallocate() {
         while (this.size > 0) {
-            Entry entry = this.heap[1];
+            // remove() releases the entry
             this.remove();
-            entry.release();
         }
     }
 
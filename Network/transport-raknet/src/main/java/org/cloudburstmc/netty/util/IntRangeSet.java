@@ -0,0 +1,141 @@
+/*
+ * Copyright 2022 CloudburstMC
+ *
+ * CloudburstMC licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.cloudburstmc.netty.util;
+
+import java.util.Arrays;
+
+/**
+ * Sorted set of disjoint, non-adjacent int ranges backed by primitive arrays. Overlapping and contiguous
+ * ranges are merged on insertion, so consecutive sequence numbers collapse into a single range.
+ */
+public class IntRangeSet {
+
+    private int[] starts;
+    private int[] ends;
+    private int size;
+
+    public IntRangeSet() {
+        this(16);
+    }
+
+    public IntRangeSet(int initialCapacity) {
+        this.starts = new int[initialCapacity];
+        this.ends = new int[initialCapacity];
+    }
+
+    public void add(int value) {
+        this.add(value, value);
+    }
+
+    public void add(int start, int end) {
+        if (start > end) {
+            throw new IllegalArgumentException("Range start " + start + " is greater than end " + end);
+        }
+
+        int last = this.size - 1;
+        if (last >= 0 && start >= this.starts[last]) {
+            // Fast path for in order sequence numbers
+            if (start <= this.ends[last] + 1L) {
+                if (end > this.ends[last]) {
+                    this.ends[last] = end;
+                }
+                return;
+            }
+            this.insert(this.size, start, end);
+            return;
+        }
+
+        // First range which ends at or after start - 1
+        int lo = 0;
+        int hi = this.size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (this.ends[mid] + 1L < start) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+
+        if (lo == this.size || this.starts[lo] - 1L > end) {
+            this.insert(lo, start, end);
+            return;
+        }
+
+        // Merge with every range touched by [start, end]
+        int merged = lo;
+        while (merged + 1 < this.size && this.starts[merged + 1] - 1L <= end) {
+            merged++;
+        }
+        this.starts[lo] = Math.min(this.starts[lo], start);
+        this.ends[lo] = Math.max(this.ends[merged], end);
+        this.removeRange(lo + 1, merged + 1);
+    }
+
+    private void insert(int index, int start, int end) {
+        if (this.size == this.starts.length) {
+            int capacity = Math.max(this.size << 1, 8);
+            this.starts = Arrays.copyOf(this.starts, capacity);
+            this.ends = Arrays.copyOf(this.ends, capacity);
+        }
+        if (index < this.size) {
+            System.arraycopy(this.starts, index, this.starts, index + 1, this.size - index);
+            System.arraycopy(this.ends, index, this.ends, index + 1, this.size - index);
+        }
+        this.starts[index] = start;
+        this.ends[index] = end;
+        this.size++;
+    }
+
+    private void removeRange(int from, int to) {
+        int count = to - from;
+        if (count <= 0) {
+            return;
+        }
+        System.arraycopy(this.starts, to, this.starts, from, this.size - to);
+        System.arraycopy(this.ends, to, this.ends, from, this.size - to);
+        this.size -= count;
+    }
+
+    public int getStart(int index) {
+        return this.starts[index];
+    }
+
+    public int getEnd(int index) {
+        return this.ends[index];
+    }
+
+    /**
+     * Removes the first {@code count} ranges.
+     */
+    public void removeFirst(int count) {
+        this.removeRange(0, Math.min(count, this.size));
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    public void clear() {
+        this.size = 0;
+    }
+}
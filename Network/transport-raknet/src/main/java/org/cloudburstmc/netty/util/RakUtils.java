@@ -177,6 +177,39 @@ public class RakUtils {
         return count;
     }
 
+    public static int writeAckEntries(ByteBuf buffer, IntRangeSet ackRanges, int mtu) {
+        int startIndex = buffer.writerIndex();
+        buffer.writeZero(2);
+        mtu -= 2; // Skip entries size (short)
+
+        int count = 0;
+        while (count < ackRanges.size()) {
+            int start = ackRanges.getStart(count);
+            int end = ackRanges.getEnd(count);
+            boolean singleton = start == end;
+            int size = singleton ? 4 : 7;
+            if (mtu < size) {
+                break;
+            }
+
+            count++;
+            mtu -= size;
+
+            buffer.writeBoolean(singleton);
+            buffer.writeMediumLE(start);
+            if (!singleton) {
+                buffer.writeMediumLE(end);
+            }
+        }
+        ackRanges.removeFirst(count);
+
+        int finalIndex = buffer.writerIndex();
+        buffer.writerIndex(startIndex);
+        buffer.writeShort(count);
+        buffer.writerIndex(finalIndex);
+        return count;
+    }
+
     public static int clamp(int value, int low, int high) {
         return value < low ? low : value > high ? high : value;
     }
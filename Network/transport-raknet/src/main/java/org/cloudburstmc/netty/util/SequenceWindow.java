@@ -0,0 +1,190 @@
+/*
+ * Copyright 2022 CloudburstMC
+ *
+ * CloudburstMC licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.cloudburstmc.netty.util;
+
+import java.util.Arrays;
+
+/**
+ * Ring buffer keyed by 24-bit RakNet sequence numbers. Elements between {@link #head()} and {@link #tail()}
+ * are stored at {@code sequence & mask}, so lookups and removals never box the key and iteration from head
+ * to tail visits elements in send order.
+ */
+public class SequenceWindow<E> {
+    public static final int SEQUENCE_MASK = 0xFFFFFF;
+
+    private Object[] elements;
+    private int mask;
+    private int head;
+    private int tail;
+    private int size;
+
+    public SequenceWindow() {
+        this(64);
+    }
+
+    public SequenceWindow(int initialCapacity) {
+        initialCapacity = RakUtils.powerOfTwoCeiling(initialCapacity);
+        if (initialCapacity <= 0) {
+            initialCapacity = 64;
+        }
+
+        this.elements = new Object[initialCapacity];
+        this.mask = initialCapacity - 1;
+    }
+
+    public static int next(int sequence) {
+        return (sequence + 1) & SEQUENCE_MASK;
+    }
+
+    public static int distance(int from, int to) {
+        return (to - from) & SEQUENCE_MASK;
+    }
+
+    /**
+     * Stores an element at the given sequence number. Sequences have to be inserted in ascending order,
+     * but gaps are allowed.
+     */
+    public void put(int sequence, E element) {
+        sequence &= SEQUENCE_MASK;
+        if (this.size == 0) {
+            this.head = sequence;
+            this.tail = sequence;
+        }
+
+        int offset = distance(this.head, sequence);
+        if (offset > (SEQUENCE_MASK >> 1)) {
+            throw new IllegalArgumentException("Sequence " + sequence + " is behind window head " + this.head);
+        }
+        if (offset >= this.elements.length) {
+            this.resize(RakUtils.powerOfTwoCeiling(offset + 1));
+        }
+
+        int idx = sequence & this.mask;
+        if (this.elements[idx] == null) {
+            this.size++;
+        }
+        this.elements[idx] = element;
+
+        if (offset >= distance(this.head, this.tail)) {
+            this.tail = next(sequence);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public E get(int sequence) {
+        sequence &= SEQUENCE_MASK;
+        if (!this.contains(sequence)) {
+            return null;
+        }
+        return (E) this.elements[sequence & this.mask];
+    }
+
+    @SuppressWarnings("unchecked")
+    public E remove(int sequence) {
+        sequence &= SEQUENCE_MASK;
+        if (!this.contains(sequence)) {
+            return null;
+        }
+
+        int idx = sequence & this.mask;
+        E element = (E) this.elements[idx];
+        if (element != null) {
+            this.elements[idx] = null;
+            this.onRemoved(sequence);
+        }
+        return element;
+    }
+
+    public boolean remove(int sequence, E expected) {
+        sequence &= SEQUENCE_MASK;
+        if (!this.contains(sequence)) {
+            return false;
+        }
+
+        int idx = sequence & this.mask;
+        if (this.elements[idx] != expected || expected == null) {
+            return false;
+        }
+        this.elements[idx] = null;
+        this.onRemoved(sequence);
+        return true;
+    }
+
+    public E poll() {
+        if (this.size == 0) {
+            return null;
+        }
+        // Head always points to an occupied slot while the window is not empty.
+        return this.remove(this.head);
+    }
+
+    private void onRemoved(int sequence) {
+        if (--this.size == 0) {
+            this.head = this.tail;
+            return;
+        }
+
+        if (sequence == this.head) {
+            // Skip over sequences which were already acknowledged.
+            do {
+                this.head = next(this.head);
+            } while (this.elements[this.head & this.mask] == null);
+        }
+    }
+
+    private boolean contains(int sequence) {
+        return this.size != 0 && distance(this.head, sequence) < distance(this.head, this.tail);
+    }
+
+    private void resize(int capacity) {
+        Object[] newElements = new Object[capacity];
+        int newMask = capacity - 1;
+        for (int seq = this.head; seq != this.tail; seq = next(seq)) {
+            newElements[seq & newMask] = this.elements[seq & this.mask];
+        }
+        this.elements = newElements;
+        this.mask = newMask;
+    }
+
+    /**
+     * Lowest sequence number held by this window. Only meaningful if the window is not empty.
+     */
+    public int head() {
+        return this.head;
+    }
+
+    /**
+     * Sequence number following the highest one held by this window.
+     */
+    public int tail() {
+        return this.tail;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(this.elements, null);
+        this.head = this.tail;
+        this.size = 0;
+    }
+}
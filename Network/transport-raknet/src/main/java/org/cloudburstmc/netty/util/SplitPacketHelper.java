@@ -22,23 +22,46 @@ import java.util.Objects;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.CompositeByteBuf;
 import io.netty.util.AbstractReferenceCounted;
 import io.netty.util.IllegalReferenceCountException;
 import io.netty.util.ReferenceCountUtil;
 import io.netty.util.ReferenceCounted;
 
 public class SplitPacketHelper extends AbstractReferenceCounted {
+    // Estimated size of one slot of the parts array, which is allocated for all parts up front
+    private static final int SLOT_SIZE = 8;
+
     private final EncapsulatedPacket[] packets;
+    private final int partId;
     private final long created = System.currentTimeMillis();
+    private int receivedParts;
+    private int receivedBytes;
 
     public SplitPacketHelper(long expectedLength) {
+        this(-1, expectedLength);
+    }
+
+    public SplitPacketHelper(int partId, long expectedLength) {
         if (expectedLength < 2) {
             throw new IllegalArgumentException("expectedLength must be greater than 1");
         }
+        this.partId = partId;
         this.packets = new EncapsulatedPacket[(int) expectedLength];
     }
 
     public EncapsulatedPacket add(EncapsulatedPacket packet, ByteBufAllocator alloc) {
+        return this.add(packet, alloc, false);
+    }
+
+    /**
+     * Adds a part of the split packet and reassembles it once all parts have been received.
+     *
+     * @param composite whether the reassembled buffer may be a {@link CompositeByteBuf} referencing the received
+     *                  parts instead of a single contiguous copy
+     * @return the reassembled packet or null if parts are still missing
+     */
+    public EncapsulatedPacket add(EncapsulatedPacket packet, ByteBufAllocator alloc, boolean composite) {
         Objects.requireNonNull(packet, "packet cannot be null");
         if (!packet.isSplit()) throw new IllegalArgumentException("Packet is not split");
         if (this.refCnt() <= 0) throw new IllegalReferenceCountException(this.refCnt());
@@ -54,30 +77,74 @@ public class SplitPacketHelper extends AbstractReferenceCounted {
         }
         // Retain the packet so it can be reassembled later.
         this.packets[partIndex] = packet.retain();
+        this.receivedParts++;
+        this.receivedBytes += packet.getBuffer().readableBytes();
 
-        int sz = 0;
-        for (EncapsulatedPacket netPacket : this.packets) {
-            if (netPacket == null) {
-                return null;
-            }
-            sz += netPacket.getBuffer().readableBytes();
+        if (this.receivedParts < this.packets.length) {
+            return null;
         }
 
-        // We can't use a composite buffer as the native code will choke on it
-        ByteBuf reassembled = alloc.ioBuffer(sz);
-        for (EncapsulatedPacket netPacket : this.packets) {
-            ByteBuf buf = netPacket.getBuffer();
-            reassembled.writeBytes(buf, buf.readerIndex(), buf.readableBytes());
+        ByteBuf reassembled;
+        if (composite) {
+            CompositeByteBuf buffer = alloc.compositeDirectBuffer(this.packets.length);
+            for (EncapsulatedPacket netPacket : this.packets) {
+                buffer.addComponent(true, netPacket.getBuffer().retain());
+            }
+            reassembled = buffer;
+        } else {
+            // We can't use a composite buffer as the native code will choke on it
+            reassembled = alloc.ioBuffer(this.receivedBytes);
+            for (EncapsulatedPacket netPacket : this.packets) {
+                ByteBuf buf = netPacket.getBuffer();
+                reassembled.writeBytes(buf, buf.readerIndex(), buf.readableBytes());
+            }
         }
 
         return packet.fromSplit(reassembled);
     }
 
+    public int getPartId() {
+        return this.partId;
+    }
+
+    public int getPartCount() {
+        return this.packets.length;
+    }
+
+    public int getReceivedParts() {
+        return this.receivedParts;
+    }
+
+    /**
+     * Number of payload bytes held by the parts received so far.
+     */
+    public int getReceivedBytes() {
+        return this.receivedBytes;
+    }
+
+    /**
+     * Number of bytes held by this helper, the received payload and the array holding the parts.
+     */
+    public int getRetainedBytes() {
+        return this.receivedBytes + getSlotBytes(this.packets.length);
+    }
+
+    /**
+     * Number of bytes allocated for the parts array of a split packet with the given part count.
+     */
+    public static int getSlotBytes(int partCount) {
+        return partCount * SLOT_SIZE;
+    }
+
     public boolean expired() {
+        return this.expired(System.currentTimeMillis());
+    }
+
+    public boolean expired(long curTime) {
         // If we're waiting on a split packet for more than 30 seconds, the client on the other end is either severely
         // lagging, or has died.
         if (this.refCnt() <= 0) throw new IllegalReferenceCountException(this.refCnt());
-        return System.currentTimeMillis() - created >= 30000;
+        return curTime - created >= 30000;
     }
 
     @Override
@@ -0,0 +1,218 @@
+/*
+ * Copyright 2022 CloudburstMC
+ *
+ * CloudburstMC licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.cloudburstmc.netty.util;
+
+import java.net.Inet4Address;
+import java.net.InetAddress;
+
+/**
+ * Fixed-size, open-addressed table of per-address token buckets. Every address gets a packet and a byte bucket which
+ * refill lazily on access, so no periodic reset is needed and a known address never allocates.
+ * <p>
+ * Addresses are keyed by their IPv6 bits, IPv4 addresses use the IPv4-mapped form. Slots are never removed, only
+ * reused: when all slots within {@link #MAX_PROBES} of an address are taken, the least recently used one is replaced.
+ * A bucket that was idle for a full interval is full again, so replacing it loses nothing but its statistics.
+ * <p>
+ * This class is not thread-safe.
+ */
+public class TokenBucketTable {
+    public static final int ALLOWED = 0;
+    public static final int PACKET_LIMIT_EXCEEDED = 1;
+    public static final int BYTE_LIMIT_EXCEEDED = 2;
+
+    private static final int MAX_PROBES = 8;
+    private static final long IPV4_MAPPED_PREFIX = 0xFFFF00000000L;
+
+    private final long interval;
+    private final int mask;
+    private final long[] keyHigh;
+    private final long[] keyLow;
+    private final long[] lastAccess;
+    // Credits are scaled by the interval so refilling needs no division
+    private final long[] packetCredits;
+    private final long[] byteCredits;
+    private final int[] windowPackets;
+    private final long[] windowBytes;
+    private final boolean[] used;
+
+    /**
+     * @param capacity number of addresses tracked at once, rounded up to a power of two
+     * @param interval time in nanoseconds in which a full budget is refilled
+     */
+    public TokenBucketTable(int capacity, long interval) {
+        if (interval <= 0) {
+            throw new IllegalArgumentException("interval must be positive");
+        }
+        capacity = RakUtils.powerOfTwoCeiling(Math.max(capacity, MAX_PROBES));
+        this.interval = interval;
+        this.mask = capacity - 1;
+        this.keyHigh = new long[capacity];
+        this.keyLow = new long[capacity];
+        this.lastAccess = new long[capacity];
+        this.packetCredits = new long[capacity];
+        this.byteCredits = new long[capacity];
+        this.windowPackets = new int[capacity];
+        this.windowBytes = new long[capacity];
+        this.used = new boolean[capacity];
+    }
+
+    public static long keyHigh(InetAddress address) {
+        if (address instanceof Inet4Address) {
+            return 0;
+        }
+        byte[] bytes = address.getAddress();
+        long high = 0;
+        for (int i = 0; i < 8; i++) {
+            high = (high << 8) | (bytes[i] & 0xFF);
+        }
+        return high;
+    }
+
+    public static long keyLow(InetAddress address) {
+        if (address instanceof Inet4Address) {
+            // Inet4Address.hashCode() is the address itself
+            return IPV4_MAPPED_PREFIX | (address.hashCode() & 0xFFFFFFFFL);
+        }
+        byte[] bytes = address.getAddress();
+        long low = 0;
+        for (int i = 8; i < 16; i++) {
+            low = (low << 8) | (bytes[i] & 0xFF);
+        }
+        return low;
+    }
+
+    public static byte[] toAddressBytes(long high, long low) {
+        if (high == 0 && (low & 0xFFFFFFFF00000000L) == IPV4_MAPPED_PREFIX) {
+            return new byte[]{(byte) (low >>> 24), (byte) (low >>> 16), (byte) (low >>> 8), (byte) low};
+        }
+        byte[] bytes = new byte[16];
+        for (int i = 0; i < 8; i++) {
+            bytes[i] = (byte) (high >>> (56 - (i << 3)));
+            bytes[i + 8] = (byte) (low >>> (56 - (i << 3)));
+        }
+        return bytes;
+    }
+
+    /**
+     * Takes one packet of the given size from the buckets of an address.
+     *
+     * @param packetLimit packets allowed per interval
+     * @param byteLimit   bytes allowed per interval, or 0 for no byte budget
+     * @param now         current time in nanoseconds
+     * @return {@link #ALLOWED}, {@link #PACKET_LIMIT_EXCEEDED} or {@link #BYTE_LIMIT_EXCEEDED}
+     */
+    public int tryAcquire(long high, long low, int bytes, int packetLimit, long byteLimit, long now) {
+        int slot = this.findSlot(high, low, now);
+
+        long elapsed = Math.min(now - this.lastAccess[slot], this.interval);
+        this.lastAccess[slot] = now;
+        this.windowPackets[slot]++;
+        this.windowBytes[slot] += bytes;
+
+        long packetCredit = Math.min(this.packetCredits[slot] + elapsed * packetLimit, packetLimit * this.interval);
+        if (packetCredit < this.interval) {
+            this.packetCredits[slot] = packetCredit;
+            return PACKET_LIMIT_EXCEEDED;
+        }
+        this.packetCredits[slot] = packetCredit - this.interval;
+
+        if (byteLimit > 0) {
+            long byteCredit = Math.min(this.byteCredits[slot] + elapsed * byteLimit, byteLimit * this.interval);
+            long cost = bytes * this.interval;
+            if (byteCredit < cost) {
+                this.byteCredits[slot] = byteCredit;
+                return BYTE_LIMIT_EXCEEDED;
+            }
+            this.byteCredits[slot] = byteCredit - cost;
+        }
+        return ALLOWED;
+    }
+
+    private int findSlot(long high, long low, long now) {
+        int start = mix(high, low) & this.mask;
+        int candidate = -1;
+        for (int i = 0; i < MAX_PROBES; i++) {
+            int slot = (start + i) & this.mask;
+            if (!this.used[slot]) {
+                if (candidate == -1 || this.used[candidate]) {
+                    candidate = slot;
+                }
+                continue;
+            }
+            if (this.keyHigh[slot] == high && this.keyLow[slot] == low) {
+                return slot;
+            }
+            if (candidate == -1 || (this.used[candidate] && this.lastAccess[slot] < this.lastAccess[candidate])) {
+                candidate = slot;
+            }
+        }
+
+        // New address starts with full buckets
+        this.used[candidate] = true;
+        this.keyHigh[candidate] = high;
+        this.keyLow[candidate] = low;
+        this.lastAccess[candidate] = now - this.interval;
+        this.packetCredits[candidate] = 0;
+        this.byteCredits[candidate] = 0;
+        this.windowPackets[candidate] = 0;
+        this.windowBytes[candidate] = 0;
+        return candidate;
+    }
+
+    /**
+     * Writes the addresses which sent the most bytes since the last call into the given arrays, ordered by bytes,
+     * and starts a new window for all addresses.
+     *
+     * @return number of addresses written
+     */
+    public int drainTopTalkers(long[] highs, long[] lows, int[] packets, long[] bytes) {
+        int limit = Math.min(Math.min(highs.length, lows.length), Math.min(packets.length, bytes.length));
+        int count = 0;
+        for (int slot = 0; slot <= this.mask; slot++) {
+            long slotBytes = this.windowBytes[slot];
+            int slotPackets = this.windowPackets[slot];
+            this.windowBytes[slot] = 0;
+            this.windowPackets[slot] = 0;
+            if (slotPackets == 0 || (count == limit && slotBytes <= bytes[count - 1])) {
+                continue;
+            }
+
+            // Insertion into the sorted result, dropping the smallest entry if full
+            int i = count < limit ? count++ : count - 1;
+            while (i > 0 && bytes[i - 1] < slotBytes) {
+                highs[i] = highs[i - 1];
+                lows[i] = lows[i - 1];
+                packets[i] = packets[i - 1];
+                bytes[i] = bytes[i - 1];
+                i--;
+            }
+            highs[i] = this.keyHigh[slot];
+            lows[i] = this.keyLow[slot];
+            packets[i] = slotPackets;
+            bytes[i] = slotBytes;
+        }
+        return count;
+    }
+
+    private static int mix(long high, long low) {
+        long h = high * 0x9E3779B97F4A7C15L ^ low;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2022 CloudburstMC
+ *
+ * CloudburstMC licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.cloudburstmc.netty;
+
+import org.cloudburstmc.netty.channel.raknet.RakChannel;
+import org.cloudburstmc.netty.channel.raknet.config.DefaultRakSessionConfig;
+import org.cloudburstmc.netty.channel.raknet.config.RakChannelConfig;
+import org.cloudburstmc.netty.handler.codec.raknet.common.RakAcknowledgeHandler;
+import org.cloudburstmc.netty.handler.codec.raknet.common.RakSessionCodec;
+
+import java.net.InetSocketAddress;
+
+import io.netty.channel.ChannelPipeline;
+import io.netty.channel.embedded.EmbeddedChannel;
+
+/**
+ * Runs a {@link RakSessionCodec} without sockets. Datagrams and ACK/NACK buffers written to the channel inbound are
+ * handled by the session, the datagrams it sends can be read outbound. The channel is its own parent and RakNet pipeline.
+ */
+public class EmbeddedRakChannel extends EmbeddedChannel implements RakChannel {
+    private static final InetSocketAddress ADDRESS = new InetSocketAddress("127.0.0.1", 19132);
+
+    private RakChannelConfig config;
+    private RakSessionCodec sessionCodec;
+
+    public EmbeddedRakChannel() {
+        super(false, false);
+        this.config().setAutoFlush(false);
+    }
+
+    /**
+     * Adds the session codec and activates the session.
+     */
+    public RakSessionCodec start() throws Exception {
+        this.sessionCodec = new RakSessionCodec(this);
+        this.pipeline().addLast(RakAcknowledgeHandler.NAME, new RakAcknowledgeHandler(this.sessionCodec));
+        this.pipeline().addLast(RakSessionCodec.NAME, this.sessionCodec);
+        this.register();
+        return this.sessionCodec;
+    }
+
+    public RakSessionCodec sessionCodec() {
+        return this.sessionCodec;
+    }
+
+    @Override
+    public ChannelPipeline rakPipeline() {
+        return this.pipeline();
+    }
+
+    @Override
+    public RakChannelConfig config() {
+        // Called by the super constructor before fields are initialized
+        if (this.config == null) {
+            this.config = new DefaultRakSessionConfig(this);
+        }
+        return this.config;
+    }
+
+    @Override
+    public EmbeddedRakChannel parent() {
+        return this;
+    }
+
+    @Override
+    public InetSocketAddress remoteAddress() {
+        return ADDRESS;
+    }
+
+    @Override
+    public InetSocketAddress localAddress() {
+        return ADDRESS;
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2022 CloudburstMC
+ *
+ * CloudburstMC licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.cloudburstmc.netty;
+
+import org.cloudburstmc.netty.util.IntRangeSet;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class IntRangeSetTests {
+
+    @Test
+    public void testMergeContiguous() {
+        IntRangeSet set = new IntRangeSet(2);
+        for (int i = 0; i < 100; i++) {
+            set.add(i);
+        }
+        Assertions.assertEquals(1, set.size());
+        Assertions.assertEquals(0, set.getStart(0));
+        Assertions.assertEquals(99, set.getEnd(0));
+    }
+
+    @Test
+    public void testMergeOutOfOrder() {
+        IntRangeSet set = new IntRangeSet(2);
+        set.add(10);
+        set.add(20, 25);
+        set.add(1);
+        set.add(5, 7);
+        Assertions.assertEquals(4, set.size());
+
+        // Bridges 5-7, 10 and 20-25
+        set.add(8, 19);
+        Assertions.assertEquals(2, set.size());
+        Assertions.assertEquals(1, set.getStart(0));
+        Assertions.assertEquals(1, set.getEnd(0));
+        Assertions.assertEquals(5, set.getStart(1));
+        Assertions.assertEquals(25, set.getEnd(1));
+
+        set.add(2, 3);
+        set.add(4);
+        Assertions.assertEquals(1, set.size());
+        Assertions.assertEquals(1, set.getStart(0));
+        Assertions.assertEquals(25, set.getEnd(0));
+
+        set.removeFirst(1);
+        Assertions.assertTrue(set.isEmpty());
+    }
+}
@@ -0,0 +1,219 @@
+/*
+ * Copyright 2022 CloudburstMC
+ *
+ * CloudburstMC licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.cloudburstmc.netty;
+
+import static org.cloudburstmc.netty.channel.raknet.RakConstants.FLAG_NACK;
+import static org.cloudburstmc.netty.channel.raknet.RakConstants.FLAG_VALID;
+
+import org.cloudburstmc.netty.channel.raknet.RakBbrCongestionController;
+import org.cloudburstmc.netty.channel.raknet.RakPriority;
+import org.cloudburstmc.netty.channel.raknet.RakReliability;
+import org.cloudburstmc.netty.channel.raknet.RakSlidingWindow;
+import org.cloudburstmc.netty.channel.raknet.packet.EncapsulatedPacket;
+import org.cloudburstmc.netty.channel.raknet.packet.RakDatagramPacket;
+import org.cloudburstmc.netty.channel.raknet.packet.RakMessage;
+import org.cloudburstmc.netty.util.IntRangeSet;
+import org.cloudburstmc.netty.util.RakUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+public class RakCongestionControllerTests {
+    private static final int MTU = 1400;
+    private static final int PAYLOAD = 1000;
+    private static final long RTT = 20;
+
+    private static RakDatagramPacket datagram(long sendTime) {
+        EncapsulatedPacket packet = EncapsulatedPacket.newInstance();
+        packet.setReliability(RakReliability.RELIABLE);
+        packet.setBuffer(Unpooled.wrappedBuffer(new byte[PAYLOAD]));
+        RakDatagramPacket datagram = RakDatagramPacket.newInstance();
+        datagram.tryAddPacket(packet, MTU);
+        datagram.setSendTime(sendTime);
+        return datagram;
+    }
+
+    /**
+     * Sends one datagram per millisecond, each acknowledged after {@link #RTT}, so the delivery rate stays constant.
+     */
+    private static long deliver(RakBbrCongestionController controller, long start, int count) {
+        long time = start;
+        for (int i = 0; i < count; i++, time++) {
+            RakDatagramPacket datagram = datagram(time);
+            controller.onReliableSend(datagram);
+            controller.onAck(time + RTT, datagram, 0);
+            datagram.release();
+        }
+        return time;
+    }
+
+    @Test
+    public void testBbrStartupGrowsPerAck() {
+        RakBbrCongestionController controller = new RakBbrCongestionController(MTU);
+        Assertions.assertEquals(RakBbrCongestionController.Mode.STARTUP, controller.getMode());
+
+        int cwnd = controller.getCongestionWindow();
+        RakDatagramPacket datagram = datagram(0);
+        controller.onReliableSend(datagram);
+        controller.onAck(RTT, datagram, 0);
+
+        Assertions.assertEquals(cwnd + datagram.getSize(), controller.getCongestionWindow());
+        Assertions.assertEquals(RakBbrCongestionController.Mode.STARTUP, controller.getMode());
+        datagram.release();
+    }
+
+    @Test
+    public void testBbrLeavesStartupOnBandwidthPlateau() {
+        RakBbrCongestionController controller = new RakBbrCongestionController(MTU);
+        long time = deliver(controller, 1, (int) RTT * 2);
+        Assertions.assertEquals(RakBbrCongestionController.Mode.STARTUP, controller.getMode());
+
+        // The delivery rate does not grow anymore, so startup ends after three more rounds
+        deliver(controller, time, (int) RTT * 4);
+        Assertions.assertNotEquals(RakBbrCongestionController.Mode.STARTUP, controller.getMode());
+        Assertions.assertEquals(RTT, controller.getMinRtt());
+        double expectedBandwidth = (double) datagram(0).getSize();
+        Assertions.assertEquals(expectedBandwidth, controller.getBottleneckBandwidth(), expectedBandwidth * 0.1);
+    }
+
+    @Test
+    public void testBbrLeavesStartupOnLoss() {
+        RakBbrCongestionController controller = new RakBbrCongestionController(MTU);
+        deliver(controller, 1, 5);
+        controller.onResend(10);
+        Assertions.assertEquals(RakBbrCongestionController.Mode.DRAIN, controller.getMode());
+    }
+
+    @Test
+    public void testBbrDrainsQueueBeforeProbing() {
+        RakBbrCongestionController controller = new RakBbrCongestionController(MTU);
+        long time = deliver(controller, 1, (int) RTT * 2);
+
+        // Datagrams still in flight from startup, more than the bandwidth-delay product
+        List<RakDatagramPacket> inFlight = new ArrayList<>();
+        for (int i = 0; i < RTT * 2; i++) {
+            RakDatagramPacket datagram = datagram(time);
+            controller.onReliableSend(datagram);
+            inFlight.add(datagram);
+        }
+        controller.onResend(time);
+        Assertions.assertEquals(RakBbrCongestionController.Mode.DRAIN, controller.getMode());
+
+        time = deliver(controller, time, 1);
+        Assertions.assertEquals(RakBbrCongestionController.Mode.DRAIN, controller.getMode());
+        int bdp = controller.getCongestionWindow();
+        Assertions.assertTrue(controller.getUnackedBytes() > bdp);
+        Assertions.assertEquals(0, controller.getTransmissionBandwidth());
+
+        for (RakDatagramPacket datagram : inFlight) {
+            controller.onAck(time + RTT, datagram, 0);
+            datagram.release();
+        }
+        Assertions.assertEquals(RakBbrCongestionController.Mode.PROBE_BW, controller.getMode());
+        Assertions.assertEquals(1D, controller.getCycleGain());
+    }
+
+    @Test
+    public void testBbrProbeBwCyclesGain() {
+        RakBbrCongestionController controller = new RakBbrCongestionController(MTU);
+        long time = deliver(controller, 1, (int) RTT * 6);
+        time = deliver(controller, time, 1);
+        Assertions.assertEquals(RakBbrCongestionController.Mode.PROBE_BW, controller.getMode());
+
+        double bdp = controller.getBottleneckBandwidth() * controller.getMinRtt();
+        boolean probed = false;
+        boolean drained = false;
+        for (int round = 0; round < 8; round++) {
+            time = deliver(controller, time, (int) RTT);
+            double gain = controller.getCycleGain();
+            probed |= gain > 1D;
+            drained |= gain < 1D;
+            // The window never exceeds the bandwidth-delay product scaled by the current gain
+            Assertions.assertTrue(controller.getCongestionWindow() <= Math.max(bdp * 1.25D, MTU * 4) + 1);
+        }
+        Assertions.assertTrue(probed);
+        Assertions.assertTrue(drained);
+    }
+
+    @Test
+    public void testTransmissionBandwidthIsLimitedByWindow() {
+        RakBbrCongestionController controller = new RakBbrCongestionController(MTU);
+        int cwnd = controller.getCongestionWindow();
+        Assertions.assertEquals(cwnd, controller.getTransmissionBandwidth());
+
+        RakDatagramPacket datagram = datagram(0);
+        controller.onReliableSend(datagram);
+        Assertions.assertEquals(cwnd - datagram.getSize(), controller.getTransmissionBandwidth());
+        Assertions.assertEquals(datagram.getSize(), controller.getRetransmissionBandwidth());
+        datagram.release();
+    }
+
+    @Test
+    public void testNakIsReportedPerDatagram() throws Exception {
+        int[] naks = new int[1];
+        EmbeddedRakChannel channel = new EmbeddedRakChannel();
+        channel.config().setCongestionController(mtu -> new RakSlidingWindow(mtu) {
+            @Override
+            public int getTransmissionBandwidth() {
+                // Send all datagrams in one flush
+                return Integer.MAX_VALUE;
+            }
+
+            @Override
+            public void onNak() {
+                naks[0]++;
+                super.onNak();
+            }
+        });
+        channel.start();
+
+        // Each message fills a datagram on its own
+        for (int i = 0; i < 3; i++) {
+            ByteBuf buffer = Unpooled.buffer(PAYLOAD);
+            buffer.writeByte(0xFE);
+            buffer.writeZero(PAYLOAD - 1);
+            channel.write(new RakMessage(buffer, RakReliability.RELIABLE, RakPriority.NORMAL));
+        }
+        Thread.sleep(2);
+        channel.flush();
+
+        // The connected ping is sent unreliably and is not tracked, so only the three messages can be NAK'd
+        int sent = channel.outboundMessages().size();
+        Assertions.assertEquals(4, sent);
+        channel.releaseOutbound();
+
+        IntRangeSet ranges = new IntRangeSet();
+        ranges.add(0, sent - 1);
+        ByteBuf nack = Unpooled.buffer();
+        nack.writeByte(FLAG_VALID | FLAG_NACK);
+        RakUtils.writeAckEntries(nack, ranges, MTU);
+        channel.writeInbound(nack);
+
+        Thread.sleep(2);
+        channel.flush();
+        Assertions.assertEquals(3, naks[0]);
+
+        channel.releaseOutbound();
+        channel.close().sync();
+        channel.checkException();
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2022 CloudburstMC
+ *
+ * CloudburstMC licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.cloudburstmc.netty;
+
+import org.cloudburstmc.netty.channel.raknet.RakChannelFactory;
+import org.cloudburstmc.netty.channel.raknet.RakServerShards;
+import org.cloudburstmc.netty.util.EpollDatagramUtils;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.epoll.EpollDatagramChannel;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.DatagramChannel;
+import io.netty.channel.socket.nio.NioDatagramChannel;
+
+public class RakServerShardsTests {
+    private static final InetSocketAddress ADDRESS = new InetSocketAddress("127.0.0.1", 0);
+
+    private static List<ChannelFuture> bind(EventLoopGroup group, Class<? extends DatagramChannel> channelClass, int shards) {
+        ServerBootstrap bootstrap = new ServerBootstrap()
+                .channelFactory(RakChannelFactory.server(channelClass))
+                .group(group)
+                .childHandler(new ChannelInboundHandlerAdapter());
+        return RakServerShards.bind(bootstrap, ADDRESS, shards);
+    }
+
+    @Test
+    public void testFallbackToSingleShard() {
+        EventLoopGroup group = new NioEventLoopGroup(2);
+        try {
+            List<ChannelFuture> futures = bind(group, NioDatagramChannel.class, 2);
+            Assertions.assertEquals(1, futures.size());
+            Channel channel = futures.get(0).syncUninterruptibly().channel();
+            Assertions.assertTrue(channel.isActive());
+            channel.close().syncUninterruptibly();
+        } finally {
+            group.shutdownGracefully();
+        }
+    }
+
+    @Test
+    public void testEpollShards() {
+        Assumptions.assumeTrue(EpollDatagramUtils.isAvailable());
+        EventLoopGroup group = new EpollEventLoopGroup(2);
+        try {
+            List<ChannelFuture> futures = bind(group, EpollDatagramChannel.class, 2);
+            Assertions.assertEquals(2, futures.size());
+            InetSocketAddress address = (InetSocketAddress) futures.get(0).syncUninterruptibly().channel().localAddress();
+            for (ChannelFuture future : futures) {
+                Channel channel = future.syncUninterruptibly().channel();
+                Assertions.assertEquals(address.getPort(), ((InetSocketAddress) channel.localAddress()).getPort());
+                channel.close().syncUninterruptibly();
+            }
+        } finally {
+            group.shutdownGracefully();
+        }
+    }
+}
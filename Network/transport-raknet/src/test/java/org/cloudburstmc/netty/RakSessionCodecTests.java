@@ -0,0 +1,182 @@
+/*
+ * Copyright 2022 CloudburstMC
+ *
+ * CloudburstMC licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.cloudburstmc.netty;
+
+import static org.cloudburstmc.netty.channel.raknet.RakConstants.ID_DISCONNECTION_NOTIFICATION;
+
+import org.cloudburstmc.netty.channel.raknet.RakPriority;
+import org.cloudburstmc.netty.channel.raknet.RakReliability;
+import org.cloudburstmc.netty.channel.raknet.packet.EncapsulatedPacket;
+import org.cloudburstmc.netty.channel.raknet.packet.RakDatagramPacket;
+import org.cloudburstmc.netty.channel.raknet.packet.RakMessage;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+
+public class RakSessionCodecTests {
+
+    private static RakMessage message(int id, RakReliability reliability) {
+        return new RakMessage(Unpooled.wrappedBuffer(new byte[]{(byte) 0xFE, (byte) id}), reliability, RakPriority.NORMAL);
+    }
+
+    private static RakDatagramPacket datagram(int sequenceIndex, EncapsulatedPacket packet) {
+        RakDatagramPacket datagram = RakDatagramPacket.newInstance();
+        datagram.setSequenceIndex(sequenceIndex);
+        datagram.getPackets().add(packet);
+        return datagram;
+    }
+
+    private static EncapsulatedPacket split(int partId, int partCount, int partIndex, byte[] payload) {
+        EncapsulatedPacket packet = EncapsulatedPacket.newInstance();
+        packet.setReliability(RakReliability.UNRELIABLE);
+        packet.setSplit(true);
+        packet.setPartId(partId);
+        packet.setPartCount(partCount);
+        packet.setPartIndex(partIndex);
+        packet.setBuffer(Unpooled.wrappedBuffer(payload));
+        return packet;
+    }
+
+    private static EncapsulatedPacket sequenced(int orderingIndex, int sequenceIndex, int id) {
+        EncapsulatedPacket packet = EncapsulatedPacket.newInstance();
+        packet.setReliability(RakReliability.UNRELIABLE_SEQUENCED);
+        packet.setOrderingIndex(orderingIndex);
+        packet.setSequenceIndex(sequenceIndex);
+        packet.setBuffer(Unpooled.wrappedBuffer(new byte[]{(byte) 0xFE, (byte) id}));
+        return packet;
+    }
+
+    private static int readId(EmbeddedRakChannel channel) {
+        EncapsulatedPacket packet = channel.readInbound();
+        if (packet == null) {
+            return -1;
+        }
+        try {
+            return packet.getBuffer().getUnsignedByte(1);
+        } finally {
+            packet.release();
+        }
+    }
+
+    @Test
+    public void testSequencedPacketsDropStale() throws Exception {
+        EmbeddedRakChannel channel = new EmbeddedRakChannel();
+        channel.start();
+
+        channel.writeInbound(datagram(0, sequenced(0, 0, 1)));
+        channel.writeInbound(datagram(1, sequenced(0, 2, 2)));
+        // Arrives after a newer sequenced packet
+        channel.writeInbound(datagram(2, sequenced(0, 1, 3)));
+        channel.writeInbound(datagram(3, sequenced(0, 3, 4)));
+
+        Assertions.assertEquals(1, readId(channel));
+        Assertions.assertEquals(2, readId(channel));
+        Assertions.assertEquals(4, readId(channel));
+        Assertions.assertEquals(-1, readId(channel));
+
+        channel.releaseOutbound();
+        channel.close().sync();
+        channel.checkException();
+    }
+
+    @Test
+    public void testSequencedPacketsSupersededByOrdered() throws Exception {
+        EmbeddedRakChannel channel = new EmbeddedRakChannel();
+        channel.start();
+
+        EncapsulatedPacket ordered = EncapsulatedPacket.newInstance();
+        ordered.setReliability(RakReliability.RELIABLE_ORDERED);
+        ordered.setOrderingIndex(0);
+        ordered.setBuffer(Unpooled.wrappedBuffer(new byte[]{(byte) 0xFE, 1}));
+        channel.writeInbound(datagram(0, ordered));
+
+        // Sent before the ordered packet, which was already handled
+        channel.writeInbound(datagram(1, sequenced(0, 5, 2)));
+        // Sent after the ordered packet, the sequence index starts over
+        channel.writeInbound(datagram(2, sequenced(1, 0, 3)));
+
+        Assertions.assertEquals(1, readId(channel));
+        Assertions.assertEquals(3, readId(channel));
+        Assertions.assertEquals(-1, readId(channel));
+
+        channel.releaseOutbound();
+        channel.close().sync();
+        channel.checkException();
+    }
+
+    @Test
+    public void testSplitPacketReassembly() throws Exception {
+        EmbeddedRakChannel channel = new EmbeddedRakChannel();
+        channel.start();
+
+        // Parts arriving out of order
+        channel.writeInbound(datagram(0, split(3, 3, 2, new byte[]{5, 6})));
+        channel.writeInbound(datagram(1, split(3, 3, 0, new byte[]{(byte) 0xFE, 1, 2})));
+        Assertions.assertNull(channel.readInbound());
+        channel.writeInbound(datagram(2, split(3, 3, 1, new byte[]{3, 4})));
+
+        EncapsulatedPacket packet = channel.readInbound();
+        Assertions.assertNotNull(packet);
+        Assertions.assertFalse(packet.isSplit());
+        Assertions.assertArrayEquals(new byte[]{(byte) 0xFE, 1, 2, 3, 4, 5, 6}, ByteBufUtil.getBytes(packet.getBuffer()));
+        packet.release();
+
+        channel.releaseOutbound();
+        channel.close().sync();
+        channel.checkException();
+    }
+
+    @Test
+    public void testSplitPacketBudgetIncludesParts() throws Exception {
+        EmbeddedRakChannel channel = new EmbeddedRakChannel();
+        channel.config().setMaxSplitBytes(16 * 1024);
+        channel.start();
+        channel.releaseOutbound();
+
+        // The payload fits, but not the slots for the other parts
+        channel.writeInbound(datagram(0, split(0, 8192, 0, new byte[]{(byte) 0xFE, 1})));
+        Assertions.assertNull(channel.readInbound());
+
+        RakDatagramPacket datagram = channel.readOutbound();
+        Assertions.assertNotNull(datagram);
+        Assertions.assertEquals(ID_DISCONNECTION_NOTIFICATION, datagram.getPackets().get(0).getBuffer().getUnsignedByte(0));
+        Assertions.assertFalse(channel.isOpen());
+        datagram.release();
+        channel.releaseOutbound();
+        channel.checkException();
+    }
+
+    @Test
+    public void testCloseWithQueuedResends() throws Exception {
+        EmbeddedRakChannel channel = new EmbeddedRakChannel();
+        channel.start();
+
+        for (int i = 0; i < 8; i++) {
+            channel.write(message(i, RakReliability.RELIABLE_ORDERED));
+        }
+        channel.flush();
+
+        // Nothing was acknowledged, so all reliable datagrams are still queued for resending
+        Assertions.assertInstanceOf(RakDatagramPacket.class, channel.outboundMessages().peek());
+        channel.releaseOutbound();
+
+        channel.close().sync();
+        channel.checkException();
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2022 CloudburstMC
+ *
+ * CloudburstMC licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.cloudburstmc.netty;
+
+import org.cloudburstmc.netty.util.SequenceWindow;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class SequenceWindowTests {
+
+    @Test
+    public void testInsertAndRemove() {
+        SequenceWindow<Integer> window = new SequenceWindow<>(4);
+        for (int i = 0; i < 100; i++) {
+            window.put(i, i);
+        }
+        Assertions.assertEquals(100, window.size());
+
+        // Acknowledge every even sequence
+        for (int i = 0; i < 100; i += 2) {
+            Assertions.assertEquals(i, window.remove(i));
+        }
+        Assertions.assertEquals(50, window.size());
+        Assertions.assertEquals(1, window.head());
+        Assertions.assertNull(window.get(2));
+        Assertions.assertNull(window.remove(2));
+
+        int expected = 1;
+        Integer value;
+        while ((value = window.poll()) != null) {
+            Assertions.assertEquals(expected, value);
+            expected += 2;
+        }
+        Assertions.assertTrue(window.isEmpty());
+    }
+
+    @Test
+    public void testSequenceWrap() {
+        SequenceWindow<Integer> window = new SequenceWindow<>(16);
+        int start = SequenceWindow.SEQUENCE_MASK - 10;
+        int seq = start;
+        for (int i = 0; i < 32; i++) {
+            window.put(seq, i);
+            seq = SequenceWindow.next(seq);
+        }
+
+        Assertions.assertEquals(start, window.head());
+        Assertions.assertEquals(21, window.tail());
+        Assertions.assertEquals(11, window.get(0));
+        Assertions.assertEquals(11, window.remove(0));
+        Assertions.assertFalse(window.remove(1, 99));
+        Assertions.assertTrue(window.remove(1, 12));
+
+        for (int i = start; i != 0; i = SequenceWindow.next(i)) {
+            window.remove(i);
+        }
+        Assertions.assertEquals(2, window.head());
+        Assertions.assertEquals(19, window.size());
+    }
+}
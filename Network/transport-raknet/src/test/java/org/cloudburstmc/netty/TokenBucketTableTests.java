@@ -0,0 +1,88 @@
+/*
+ * Copyright 2022 CloudburstMC
+ *
+ * CloudburstMC licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.cloudburstmc.netty;
+
+import org.cloudburstmc.netty.util.TokenBucketTable;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+
+public class TokenBucketTableTests {
+    private static final long INTERVAL = 10_000_000L;
+
+    @Test
+    public void testPacketBudgetRefillsLazily() {
+        TokenBucketTable table = new TokenBucketTable(16, INTERVAL);
+        long now = 1_000_000_000L;
+        for (int i = 0; i < 5; i++) {
+            Assertions.assertEquals(TokenBucketTable.ALLOWED, table.tryAcquire(0, 1, 10, 5, 0, now));
+        }
+        Assertions.assertEquals(TokenBucketTable.PACKET_LIMIT_EXCEEDED, table.tryAcquire(0, 1, 10, 5, 0, now));
+
+        // A fifth of the interval refills one packet
+        Assertions.assertEquals(TokenBucketTable.ALLOWED, table.tryAcquire(0, 1, 10, 5, 0, now + INTERVAL / 5));
+        Assertions.assertEquals(TokenBucketTable.PACKET_LIMIT_EXCEEDED, table.tryAcquire(0, 1, 10, 5, 0, now + INTERVAL / 5));
+
+        // Other addresses have their own budget
+        Assertions.assertEquals(TokenBucketTable.ALLOWED, table.tryAcquire(0, 2, 10, 5, 0, now));
+    }
+
+    @Test
+    public void testByteBudget() {
+        TokenBucketTable table = new TokenBucketTable(16, INTERVAL);
+        long now = 1_000_000_000L;
+        Assertions.assertEquals(TokenBucketTable.ALLOWED, table.tryAcquire(0, 1, 600, 100, 1000, now));
+        Assertions.assertEquals(TokenBucketTable.BYTE_LIMIT_EXCEEDED, table.tryAcquire(0, 1, 600, 100, 1000, now));
+        Assertions.assertEquals(TokenBucketTable.ALLOWED, table.tryAcquire(0, 1, 400, 100, 1000, now));
+        Assertions.assertEquals(TokenBucketTable.ALLOWED, table.tryAcquire(0, 1, 600, 100, 1000, now + INTERVAL));
+    }
+
+    @Test
+    public void testEvictionKeepsTableBounded() {
+        TokenBucketTable table = new TokenBucketTable(16, INTERVAL);
+        long now = 1_000_000_000L;
+        for (int i = 0; i < 10_000; i++) {
+            Assertions.assertEquals(TokenBucketTable.ALLOWED, table.tryAcquire(0, i, 1, 1, 0, now + i));
+        }
+    }
+
+    @Test
+    public void testTopTalkers() throws Exception {
+        TokenBucketTable table = new TokenBucketTable(64, INTERVAL);
+        InetAddress v4 = InetAddress.getByName("192.168.1.20");
+        InetAddress v6 = InetAddress.getByName("2001:db8::1");
+        for (int i = 0; i < 20; i++) {
+            table.tryAcquire(0, i + 1, 10, 100, 0, i);
+        }
+        table.tryAcquire(TokenBucketTable.keyHigh(v4), TokenBucketTable.keyLow(v4), 500, 100, 0, 0);
+        table.tryAcquire(TokenBucketTable.keyHigh(v6), TokenBucketTable.keyLow(v6), 1000, 100, 0, 0);
+
+        long[] highs = new long[3];
+        long[] lows = new long[3];
+        int[] packets = new int[3];
+        long[] bytes = new long[3];
+        Assertions.assertEquals(3, table.drainTopTalkers(highs, lows, packets, bytes));
+        Assertions.assertEquals(v6, InetAddress.getByAddress(TokenBucketTable.toAddressBytes(highs[0], lows[0])));
+        Assertions.assertEquals(v4, InetAddress.getByAddress(TokenBucketTable.toAddressBytes(highs[1], lows[1])));
+        Assertions.assertEquals(1000, bytes[0]);
+        Assertions.assertEquals(10, bytes[2]);
+
+        // Draining starts a new window
+        Assertions.assertEquals(0, table.drainTopTalkers(highs, lows, packets, bytes));
+    }
+}
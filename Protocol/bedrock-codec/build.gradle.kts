@@ -2,6 +2,7 @@ plugins {
     id("java-library")
     alias(libs.plugins.lombok)
     alias(libs.plugins.checkerframework)
+    alias(libs.plugins.jmh)
 }
 
 dependencies {
@@ -13,6 +14,12 @@ dependencies {
     api(libs.jose4j)
     api(libs.nbt)
     implementation(libs.jackson.annotations)
+    testImplementation(libs.bundles.junit.jupiter)
+}
+
+jmh {
+    profilers.add("gc")
+    resultFormat.set("JSON")
 }
 
 tasks.jar {
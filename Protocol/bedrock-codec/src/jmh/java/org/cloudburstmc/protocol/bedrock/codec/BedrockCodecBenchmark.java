@@ -0,0 +1,135 @@
+package org.cloudburstmc.protocol.bedrock.codec;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.util.ReferenceCountUtil;
+import org.cloudburstmc.protocol.bedrock.packet.BedrockPacket;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encodes and decodes packets generated by {@link PacketGenerator}. By default every packet of a codec is handled in a
+ * single operation, which is enough to spot regressions. Run {@link #main(String[])} to benchmark every serializer on
+ * its own with the GC profiler, it writes one JSON report per codec to {@code build/results/jmh}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BedrockCodecBenchmark {
+    private static final String ALL_PACKETS = "all";
+
+    @Param({"818", "827"})
+    public String codec;
+
+    /**
+     * Simple class name of the packet to benchmark, or all packets of the codec.
+     */
+    @Param({ALL_PACKETS})
+    public String packet;
+
+    private BedrockCodec bedrockCodec;
+    private BedrockCodecHelper helper;
+    private BedrockPacket[] packets;
+    private int[] packetIds;
+    private ByteBuf[] encoded;
+    private ByteBuf output;
+
+    @Setup
+    public void setup() throws Exception {
+        this.bedrockCodec = PacketGenerator.getCodec(this.codec);
+        this.helper = this.bedrockCodec.createHelper();
+
+        Map<String, BedrockPacket> generated = new PacketGenerator(this.bedrockCodec, this.helper).generate();
+        if (!ALL_PACKETS.equals(this.packet)) {
+            BedrockPacket single = generated.get(this.packet);
+            if (single == null) {
+                throw new IllegalArgumentException(this.packet + " can not be generated for v" + this.codec);
+            }
+            generated = Collections.singletonMap(this.packet, single);
+        }
+
+        this.packets = generated.values().toArray(new BedrockPacket[0]);
+        this.packetIds = new int[this.packets.length];
+        this.encoded = new ByteBuf[this.packets.length];
+        for (int i = 0; i < this.packets.length; i++) {
+            this.packetIds[i] = this.bedrockCodec.getPacketDefinition(this.packets[i].getClass()).getId();
+            this.encoded[i] = ByteBufAllocator.DEFAULT.ioBuffer();
+            this.bedrockCodec.tryEncode(this.helper, this.encoded[i], this.packets[i]);
+        }
+        this.output = ByteBufAllocator.DEFAULT.ioBuffer(64 * 1024);
+    }
+
+    @TearDown
+    public void tearDown() {
+        for (ByteBuf buffer : this.encoded) {
+            buffer.release();
+        }
+        this.output.release();
+    }
+
+    @Benchmark
+    public ByteBuf tryEncode() throws Exception {
+        for (BedrockPacket packet : this.packets) {
+            this.output.clear();
+            this.bedrockCodec.tryEncode(this.helper, this.output, packet);
+        }
+        return this.output;
+    }
+
+    @Benchmark
+    public void tryDecode(Blackhole blackhole) throws Exception {
+        for (int i = 0; i < this.encoded.length; i++) {
+            ByteBuf buffer = this.encoded[i];
+            buffer.readerIndex(0);
+            BedrockPacket packet = this.bedrockCodec.tryDecode(this.helper, buffer, this.packetIds[i]);
+            blackhole.consume(packet);
+            // Packets such as chunks retain a slice of the encoded buffer
+            ReferenceCountUtil.release(packet);
+        }
+    }
+
+    /**
+     * Benchmarks every packet which can be generated on its own.
+     *
+     * @param args protocol versions of the codecs to benchmark, defaults to 818 and 827
+     */
+    public static void main(String[] args) throws RunnerException, ReflectiveOperationException {
+        String[] versions = args.length > 0 ? args : new String[]{"818", "827"};
+        File results = new File("build/results/jmh");
+        results.mkdirs();
+
+        for (String version : versions) {
+            BedrockCodec codec = PacketGenerator.getCodec(version);
+            PacketGenerator generator = new PacketGenerator(codec, codec.createHelper());
+            String[] packets = generator.generate().keySet().toArray(new String[0]);
+            generator.getSkipped().forEach((name, reason) ->
+                    System.err.println("Skipping " + name + " for v" + version + ": " + reason));
+            generator.getReduced().forEach((name, reason) ->
+                    System.err.println("Generated " + name + " for v" + version + " without optional parts: " + reason));
+
+            Options options = new OptionsBuilder()
+                    .include(BedrockCodecBenchmark.class.getName())
+                    .param("codec", version)
+                    .param("packet", packets)
+                    .addProfiler(GCProfiler.class)
+                    .resultFormat(ResultFormatType.JSON)
+                    .result(new File(results, "bedrock-codec-v" + version + ".json").getPath())
+                    .build();
+            new Runner(options).run();
+        }
+    }
+}
@@ -0,0 +1,630 @@
+package org.cloudburstmc.protocol.bedrock.codec;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import it.unimi.dsi.fastutil.ints.IntCollection;
+import it.unimi.dsi.fastutil.longs.LongCollection;
+import org.cloudburstmc.nbt.NbtMap;
+import org.cloudburstmc.protocol.bedrock.data.LevelEvent;
+import org.cloudburstmc.protocol.bedrock.data.LevelEventType;
+import org.cloudburstmc.protocol.bedrock.data.auth.AuthPayload;
+import org.cloudburstmc.protocol.bedrock.data.auth.AuthType;
+import org.cloudburstmc.protocol.bedrock.data.auth.CertificateChainPayload;
+import org.cloudburstmc.protocol.bedrock.data.command.CommandData;
+import org.cloudburstmc.protocol.bedrock.data.command.CommandEnumConstraint;
+import org.cloudburstmc.protocol.bedrock.data.command.CommandEnumData;
+import org.cloudburstmc.protocol.bedrock.data.command.CommandOverloadData;
+import org.cloudburstmc.protocol.bedrock.data.command.CommandParam;
+import org.cloudburstmc.protocol.bedrock.data.command.CommandParamData;
+import org.cloudburstmc.protocol.bedrock.data.command.CommandPermission;
+import org.cloudburstmc.protocol.bedrock.data.definitions.BlockDefinition;
+import org.cloudburstmc.protocol.bedrock.data.definitions.ItemDefinition;
+import org.cloudburstmc.protocol.bedrock.data.definitions.SimpleBlockDefinition;
+import org.cloudburstmc.protocol.bedrock.data.definitions.SimpleItemDefinition;
+import org.cloudburstmc.protocol.bedrock.data.definitions.SimpleNamedDefinition;
+import org.cloudburstmc.protocol.bedrock.data.event.AchievementAwardedEventData;
+import org.cloudburstmc.protocol.bedrock.data.event.EventData;
+import org.cloudburstmc.protocol.bedrock.data.inventory.ItemData;
+import org.cloudburstmc.protocol.bedrock.data.inventory.crafting.ContainerMixData;
+import org.cloudburstmc.protocol.bedrock.data.inventory.crafting.CraftingDataType;
+import org.cloudburstmc.protocol.bedrock.data.inventory.crafting.PotionMixData;
+import org.cloudburstmc.protocol.bedrock.data.inventory.crafting.RecipeUnlockingRequirement;
+import org.cloudburstmc.protocol.bedrock.data.inventory.crafting.recipe.FurnaceRecipeData;
+import org.cloudburstmc.protocol.bedrock.data.inventory.crafting.recipe.ShapedRecipeData;
+import org.cloudburstmc.protocol.bedrock.data.inventory.crafting.recipe.ShapelessRecipeData;
+import org.cloudburstmc.protocol.bedrock.data.inventory.descriptor.DefaultDescriptor;
+import org.cloudburstmc.protocol.bedrock.data.inventory.descriptor.ItemDescriptorWithCount;
+import org.cloudburstmc.protocol.bedrock.data.inventory.transaction.InventorySource;
+import org.cloudburstmc.protocol.bedrock.data.skin.ImageData;
+import org.cloudburstmc.protocol.bedrock.data.skin.SerializedSkin;
+import org.cloudburstmc.protocol.bedrock.packet.*;
+import org.cloudburstmc.protocol.common.NamedDefinition;
+import org.cloudburstmc.protocol.common.SimpleDefinitionRegistry;
+import org.cloudburstmc.protocol.common.util.OptionalBoolean;
+
+import java.lang.reflect.*;
+import java.util.*;
+
+/**
+ * Creates an instance of every packet registered in a codec by filling its fields reflectively: numbers are set to 1,
+ * strings to an identifier, booleans to true, optional values are present and collections, arrays and buffers hold a
+ * few elements. Interfaces use a known implementation, other types use their {@code EMPTY}, {@code AIR}, {@code ONE}
+ * or {@code ZERO} constant, or their widest public constructor with arguments generated the same way. Items and blocks
+ * use definitions which the generator registers in the codec helper.
+ * <p>
+ * Packets which dominate real traffic are built with vanilla sizes instead, see {@link #populate(BedrockPacket)}.
+ * <p>
+ * If a packet can not be encoded and decoded again with its optional parts, it is generated without them and listed
+ * in {@link #getReduced()}. For v818 and v827 this is only CraftingEventPacket, which allows fewer inputs than the
+ * generated arrays hold. Packets which fail either way are listed in {@link #getSkipped()}. For v818 and v827 this is
+ * only BiomeDefinitionListPacket, its biome data refers to the serializer's string list through {@code Indexable}
+ * values which can not be generated. Both lists are printed by {@link BedrockCodecBenchmark#main(String[])}.
+ */
+final class PacketGenerator {
+    private static final String[] CONSTANTS = {"EMPTY", "AIR", "ONE", "ZERO"};
+    private static final int MAX_DEPTH = 4;
+    // Size of collections, arrays and buffers without a realistic size of their own
+    private static final int COLLECTION_SIZE = 8;
+    private static final int BUFFER_SIZE = 256;
+
+    // Vanilla sizes of the packets built by populate
+    private static final int CHUNK_SUB_CHUNKS = 8;
+    private static final int CHUNK_DATA_SIZE = 16 * 1024;
+    private static final int RECIPES = 1200;
+    private static final int FURNACE_RECIPES = 60;
+    private static final int POTION_MIXES = 40;
+    private static final int CONTAINER_MIXES = 5;
+    private static final int COMMANDS = 100;
+    private static final int PLAYERS = 20;
+    private static final int GEOMETRY_SIZE = 2 * 1024;
+    private static final int CHAIN_JWT_SIZE = 1024;
+    private static final int CLIENT_JWT_SIZE = 20 * 1024;
+
+    private static final Map<Class<?>, Class<?>> IMPLEMENTATIONS = new HashMap<>();
+
+    static {
+        IMPLEMENTATIONS.put(AuthPayload.class, CertificateChainPayload.class);
+        IMPLEMENTATIONS.put(EventData.class, AchievementAwardedEventData.class);
+    }
+
+    private final BedrockCodec codec;
+    private final BedrockCodecHelper helper;
+    private final List<ItemDefinition> items = new ArrayList<>();
+    private final BlockDefinition block = new SimpleBlockDefinition("minecraft:stone", 1, NbtMap.EMPTY);
+    private final NamedDefinition cameraPreset = new SimpleNamedDefinition("minecraft:free", 0);
+    private final Random random = new Random(0);
+    private final Map<String, BedrockPacket> packets = new TreeMap<>();
+    private final Map<String, String> skipped = new TreeMap<>();
+    private final Map<String, String> reduced = new TreeMap<>();
+    // Whether booleans are set, optional values present and collections filled
+    private boolean optional;
+
+    PacketGenerator(BedrockCodec codec, BedrockCodecHelper helper) {
+        this.codec = codec;
+        this.helper = helper;
+
+        for (int i = 1; i <= 64; i++) {
+            this.items.add(new SimpleItemDefinition("minecraft:item_" + i, i, false));
+        }
+        helper.setItemDefinitions(SimpleDefinitionRegistry.<ItemDefinition>builder().addAll(this.items).build());
+        helper.setBlockDefinitions(SimpleDefinitionRegistry.<BlockDefinition>builder().add(this.block).build());
+        helper.setCameraPresetDefinitions(SimpleDefinitionRegistry.<NamedDefinition>builder().add(this.cameraPreset).build());
+    }
+
+    static BedrockCodec getCodec(String version) throws ReflectiveOperationException {
+        Class<?> codecClass = Class.forName("org.cloudburstmc.protocol.bedrock.codec.v" + version + ".Bedrock_v" + version);
+        return (BedrockCodec) codecClass.getField("CODEC").get(null);
+    }
+
+    /**
+     * @return generated packets by their simple class name
+     */
+    Map<String, BedrockPacket> generate() {
+        for (int id = 0; id < 1024; id++) {
+            BedrockPacketDefinition<? extends BedrockPacket> definition = this.codec.getPacketDefinition(id);
+            if (definition == null) {
+                continue;
+            }
+
+            String name = definition.getFactory().get().getClass().getSimpleName();
+            try {
+                this.packets.put(name, this.generate(definition, true));
+            } catch (Throwable t) {
+                // Report why the packet can not be generated with its optional parts
+                String reason = rootCause(t).toString();
+                try {
+                    this.packets.put(name, this.generate(definition, false));
+                    this.reduced.put(name, reason);
+                } catch (Throwable ignored) {
+                    this.skipped.put(name, reason);
+                }
+            }
+        }
+        return this.packets;
+    }
+
+    /**
+     * @return reasons of the packets which could not be generated by their simple class name
+     */
+    Map<String, String> getSkipped() {
+        return this.skipped;
+    }
+
+    /**
+     * @return reasons of the packets which were generated without their optional parts by their simple class name
+     */
+    Map<String, String> getReduced() {
+        return this.reduced;
+    }
+
+    private BedrockPacket generate(BedrockPacketDefinition<? extends BedrockPacket> definition, boolean optional) throws Exception {
+        this.optional = optional;
+        BedrockPacket packet = definition.getFactory().get();
+        if (!optional || !this.populate(packet)) {
+            this.fill(packet);
+        }
+        this.verify(packet, definition.getId());
+        return packet;
+    }
+
+    private void verify(BedrockPacket packet, int id) throws Exception {
+        ByteBuf buffer = ByteBufAllocator.DEFAULT.ioBuffer();
+        try {
+            this.codec.tryEncode(this.helper, buffer, packet);
+            this.codec.tryDecode(this.helper, buffer, id);
+        } finally {
+            buffer.release();
+        }
+    }
+
+    /**
+     * Builds the packets which make up most of the traffic of a session with their vanilla sizes.
+     *
+     * @return false if the packet is generated reflectively
+     */
+    private boolean populate(BedrockPacket packet) {
+        if (packet instanceof LevelChunkPacket) {
+            LevelChunkPacket chunk = (LevelChunkPacket) packet;
+            chunk.setChunkX(12);
+            chunk.setChunkZ(-7);
+            chunk.setSubChunksLength(CHUNK_SUB_CHUNKS);
+            chunk.setData(this.buffer(CHUNK_DATA_SIZE));
+        } else if (packet instanceof CraftingDataPacket) {
+            this.populate((CraftingDataPacket) packet);
+        } else if (packet instanceof AvailableCommandsPacket) {
+            List<CommandData> commands = ((AvailableCommandsPacket) packet).getCommands();
+            for (int i = 0; i < COMMANDS; i++) {
+                commands.add(this.command(i));
+            }
+        } else if (packet instanceof PlayerListPacket) {
+            PlayerListPacket playerList = (PlayerListPacket) packet;
+            playerList.setAction(PlayerListPacket.Action.ADD);
+            for (int i = 0; i < PLAYERS; i++) {
+                playerList.getEntries().add(this.player(i));
+            }
+        } else if (packet instanceof PlayerSkinPacket) {
+            PlayerSkinPacket skin = (PlayerSkinPacket) packet;
+            skin.setUuid(new UUID(1, 1));
+            skin.setSkin(this.skin());
+            skin.setNewSkinName("Standard_Custom");
+            skin.setOldSkinName("Standard_Custom");
+            skin.setTrustedSkin(true);
+        } else if (packet instanceof LoginPacket) {
+            LoginPacket login = (LoginPacket) packet;
+            login.setProtocolVersion(this.codec.getProtocolVersion());
+            login.setAuthPayload(this.authPayload());
+            login.setClientJwt(this.jwt(CLIENT_JWT_SIZE));
+        } else if (packet instanceof SubClientLoginPacket) {
+            SubClientLoginPacket login = (SubClientLoginPacket) packet;
+            login.setAuthPayload(this.authPayload());
+            login.setClientJwt(this.jwt(CLIENT_JWT_SIZE));
+        } else {
+            return false;
+        }
+        return true;
+    }
+
+    private void populate(CraftingDataPacket packet) {
+        for (int i = 0; i < RECIPES; i++) {
+            List<ItemDescriptorWithCount> ingredients = new ArrayList<>();
+            for (int j = 0; j < 3; j++) {
+                ingredients.add(new ItemDescriptorWithCount(new DefaultDescriptor(this.item(i + j), 0), 1));
+            }
+            List<ItemData> results = Collections.singletonList(this.itemData(i).count(4).build());
+            UUID uuid = new UUID(i, i);
+            if (i % 2 == 0) {
+                packet.getCraftingData().add(ShapedRecipeData.shaped("minecraft:recipe_" + i, 3, 1, ingredients, results,
+                        uuid, "crafting_table", 0, i + 1, false, RecipeUnlockingRequirement.INVALID));
+            } else {
+                packet.getCraftingData().add(ShapelessRecipeData.shapeless("minecraft:recipe_" + i, ingredients, results,
+                        uuid, "crafting_table", 0, i + 1, RecipeUnlockingRequirement.INVALID));
+            }
+        }
+        for (int i = 0; i < FURNACE_RECIPES; i++) {
+            packet.getCraftingData().add(FurnaceRecipeData.of(CraftingDataType.FURNACE_DATA, this.item(i).getRuntimeId(), 0,
+                    this.itemData(i + 1).build(), "furnace"));
+        }
+        for (int i = 0; i < POTION_MIXES; i++) {
+            packet.getPotionMixData().add(new PotionMixData(1, i, 2, 0, 1, i + 1));
+        }
+        for (int i = 0; i < CONTAINER_MIXES; i++) {
+            packet.getContainerMixData().add(new ContainerMixData(3, 4, 5));
+        }
+        packet.setCleanRecipes(true);
+    }
+
+    private CommandData command(int index) {
+        Map<String, Set<CommandEnumConstraint>> values = new LinkedHashMap<>();
+        values.put("command_" + index, Collections.emptySet());
+        values.put("alias_" + index, Collections.emptySet());
+        CommandEnumData aliases = new CommandEnumData("Command" + index + "Aliases", values, false);
+
+        CommandOverloadData[] overloads = new CommandOverloadData[2];
+        for (int i = 0; i < overloads.length; i++) {
+            CommandParamData[] parameters = new CommandParamData[3];
+            for (int j = 0; j < parameters.length; j++) {
+                CommandParamData parameter = new CommandParamData();
+                parameter.setName("parameter" + j);
+                parameter.setOptional(j == parameters.length - 1);
+                parameter.setType(j == 0 ? CommandParam.TARGET : CommandParam.INT);
+                parameters[j] = parameter;
+            }
+            overloads[i] = new CommandOverloadData(false, parameters);
+        }
+        return new CommandData("command_" + index, "Description of command " + index, Collections.emptySet(),
+                CommandPermission.ANY, aliases, Collections.emptyList(), overloads);
+    }
+
+    private PlayerListPacket.Entry player(int index) {
+        PlayerListPacket.Entry entry = new PlayerListPacket.Entry(new UUID(index, index));
+        entry.setEntityId(index + 1);
+        entry.setName("Player" + index);
+        entry.setXuid(Long.toString(2535400000000000L + index));
+        entry.setPlatformChatId("");
+        entry.setBuildPlatform(1);
+        entry.setSkin(this.skin());
+        entry.setTrustedSkin(true);
+        return entry;
+    }
+
+    private SerializedSkin skin() {
+        StringBuilder geometry = new StringBuilder("{\"format_version\":\"1.12.0\",\"minecraft:geometry\":[");
+        while (geometry.length() < GEOMETRY_SIZE) {
+            geometry.append("{\"name\":\"body\",\"pivot\":[0,24,0],\"cubes\":[{\"origin\":[-4,12,-2],\"size\":[8,12,4],\"uv\":[16,16]}]},");
+        }
+        geometry.setLength(geometry.length() - 1);
+        geometry.append("]}");
+
+        return SerializedSkin.builder()
+                .skinId("c18e65aa-7b21-4637-9b63-8ad63622ef01.Custom")
+                .playFabId("5eb65f73a0a5d7b2")
+                .skinResourcePatch("{\"geometry\":{\"default\":\"geometry.humanoid.custom\"}}")
+                .skinData(ImageData.of(64, 64, this.bytes(ImageData.DOUBLE_SKIN_SIZE)))
+                .capeData(ImageData.of(64, 32, this.bytes(ImageData.SINGLE_SKIN_SIZE)))
+                .geometryData(geometry.toString())
+                .geometryDataEngineVersion("1.21.80")
+                .capeId("")
+                .armSize("wide")
+                .skinColor("#0")
+                .premium(true)
+                .build();
+    }
+
+    private AuthPayload authPayload() {
+        List<String> chain = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            chain.add(this.jwt(CHAIN_JWT_SIZE));
+        }
+        return new CertificateChainPayload(chain, AuthType.FULL);
+    }
+
+    private String jwt(int size) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(this.bytes(size * 3 / 4));
+    }
+
+    private ItemDefinition item(int index) {
+        return this.items.get(index % this.items.size());
+    }
+
+    private ItemData.Builder itemData(int index) {
+        return ItemData.builder()
+                .definition(this.item(index))
+                .count(1 + index % 64)
+                .usingNetId(true)
+                .netId(index + 1);
+    }
+
+    private byte[] bytes(int size) {
+        byte[] bytes = new byte[size];
+        this.random.nextBytes(bytes);
+        return bytes;
+    }
+
+    private ByteBuf buffer(int size) {
+        return Unpooled.wrappedBuffer(this.bytes(size));
+    }
+
+    private void fill(Object object) throws IllegalAccessException {
+        for (Class<?> type = object.getClass(); type != Object.class; type = type.getSuperclass()) {
+            for (Field field : type.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers())) {
+                    continue;
+                }
+                field.setAccessible(true);
+                boolean isFinal = Modifier.isFinal(field.getModifiers());
+                if (field.getType().isPrimitive()) {
+                    if (!isFinal) {
+                        this.setPrimitive(object, field);
+                    }
+                    continue;
+                }
+
+                Object value = field.get(object);
+                if (value == null) {
+                    if (!isFinal) {
+                        field.set(object, this.valueOf(field.getGenericType(), 0));
+                    }
+                } else if (this.optional) {
+                    this.addElements(value, field.getGenericType(), 0);
+                }
+            }
+        }
+    }
+
+    private void setPrimitive(Object object, Field field) throws IllegalAccessException {
+        Class<?> type = field.getType();
+        if (type == boolean.class) {
+            field.setBoolean(object, this.optional);
+        } else if (type == int.class) {
+            field.setInt(object, 1);
+        } else if (type == long.class) {
+            field.setLong(object, 1);
+        } else if (type == short.class) {
+            field.setShort(object, (short) 1);
+        } else if (type == byte.class) {
+            field.setByte(object, (byte) 1);
+        } else if (type == float.class) {
+            field.setFloat(object, 1);
+        } else if (type == double.class) {
+            field.setDouble(object, 1);
+        } else if (type == char.class) {
+            field.setChar(object, 'a');
+        }
+    }
+
+    /**
+     * Fills an empty collection or map which was created along with its owner.
+     */
+    @SuppressWarnings("unchecked")
+    private void addElements(Object value, Type genericType, int depth) {
+        if (value instanceof LongCollection) {
+            LongCollection longs = (LongCollection) value;
+            for (int i = longs.size(); i < COLLECTION_SIZE; i++) {
+                longs.add(i + 1);
+            }
+        } else if (value instanceof IntCollection) {
+            IntCollection ints = (IntCollection) value;
+            for (int i = ints.size(); i < COLLECTION_SIZE; i++) {
+                ints.add(i + 1);
+            }
+        } else if (value instanceof Collection && ((Collection<?>) value).isEmpty()) {
+            Collection<Object> collection = (Collection<Object>) value;
+            Type elementType = typeArgument(genericType, 0);
+            if (elementType == null) {
+                return;
+            }
+            try {
+                for (int i = 0; i < COLLECTION_SIZE; i++) {
+                    Object element = this.valueOf(elementType, depth);
+                    if (element == null) {
+                        collection.clear();
+                        return;
+                    }
+                    collection.add(element);
+                }
+            } catch (UnsupportedOperationException ignored) {
+                // Immutable collection
+            }
+        } else if (value instanceof Map && ((Map<?, ?>) value).isEmpty()) {
+            Map<Object, Object> map = (Map<Object, Object>) value;
+            Type keyType = typeArgument(genericType, 0);
+            Type valueType = typeArgument(genericType, 1);
+            if (keyType == null || valueType == null) {
+                return;
+            }
+            try {
+                for (int i = 0; i < COLLECTION_SIZE; i++) {
+                    Object key = this.valueOf(keyType, depth);
+                    Object element = this.valueOf(valueType, depth);
+                    if (key == null || element == null) {
+                        map.clear();
+                        return;
+                    }
+                    if (key instanceof String) {
+                        key = key + "_" + i;
+                    }
+                    map.put(key, element);
+                }
+            } catch (UnsupportedOperationException ignored) {
+                // Immutable map
+            }
+        }
+    }
+
+    private Object valueOf(Type genericType, int depth) {
+        Class<?> type = rawType(genericType);
+        if (type == null) {
+            return null;
+        } else if (genericType instanceof TypeVariable) {
+            // Such as the value of a game rule
+            return 1;
+        } else if (type == boolean.class || type == Boolean.class) {
+            return this.optional;
+        } else if (type == int.class || type == short.class || type == byte.class || type == long.class ||
+                type == float.class || type == double.class || type == char.class) {
+            return primitiveOne(type);
+        } else if (type == String.class || type == CharSequence.class) {
+            return "minecraft:stone";
+        } else if (type == Integer.class) {
+            return 1;
+        } else if (type == Long.class) {
+            return 1L;
+        } else if (type == Float.class) {
+            return 1f;
+        } else if (type == UUID.class) {
+            return new UUID(1, 1);
+        } else if (type == Object.class || type == NbtMap.class) {
+            // Untyped fields hold NBT
+            return NbtMap.EMPTY;
+        } else if (type == OptionalBoolean.class) {
+            return this.optional ? OptionalBoolean.of(true) : OptionalBoolean.empty();
+        } else if (type == Optional.class) {
+            Object value = this.optional ? this.valueOf(typeArgument(genericType, 0), depth) : null;
+            return Optional.ofNullable(value);
+        } else if (type == LevelEventType.class) {
+            return LevelEvent.SOUND_CLICK;
+        } else if (type == ItemDefinition.class) {
+            return this.item(1);
+        } else if (type == BlockDefinition.class) {
+            return this.block;
+        } else if (type == NamedDefinition.class) {
+            return this.cameraPreset;
+        } else if (type == ItemData.class && this.optional) {
+            return this.itemData(this.random.nextInt(this.items.size())).build();
+        } else if (type == SerializedSkin.class) {
+            return this.skin();
+        } else if (type == InventorySource.class) {
+            return InventorySource.fromContainerWindowId(0);
+        } else if (type.isEnum()) {
+            Object[] constants = type.getEnumConstants();
+            if (constants.length > 1 && "UNKNOWN".equals(((Enum<?>) constants[0]).name())) {
+                // Usually not mapped to an ID
+                return constants[1];
+            }
+            return constants.length == 0 ? null : constants[0];
+        } else if (type.isArray()) {
+            return this.arrayOf(type.getComponentType(), depth);
+        } else if (ByteBuf.class.isAssignableFrom(type)) {
+            return this.optional ? this.buffer(BUFFER_SIZE) : Unpooled.EMPTY_BUFFER;
+        } else if (type.isAssignableFrom(ArrayList.class)) {
+            return this.collectionOf(new ArrayList<>(), genericType, depth);
+        } else if (type.isAssignableFrom(LinkedHashSet.class)) {
+            return this.collectionOf(new LinkedHashSet<>(), genericType, depth);
+        } else if (type.isAssignableFrom(LinkedHashMap.class)) {
+            return this.collectionOf(new LinkedHashMap<>(), genericType, depth);
+        }
+
+        for (String name : CONSTANTS) {
+            try {
+                Field field = type.getField(name);
+                if (Modifier.isStatic(field.getModifiers()) && type.isAssignableFrom(field.getType())) {
+                    return field.get(null);
+                }
+            } catch (ReflectiveOperationException ignored) {
+            }
+        }
+        Class<?> implementation = IMPLEMENTATIONS.getOrDefault(type, type);
+        return depth < MAX_DEPTH ? this.construct(implementation, depth + 1) : null;
+    }
+
+    private Object collectionOf(Object collection, Type genericType, int depth) {
+        if (this.optional && depth < MAX_DEPTH) {
+            this.addElements(collection, genericType, depth + 1);
+        }
+        return collection;
+    }
+
+    private Object arrayOf(Class<?> componentType, int depth) {
+        if (!this.optional) {
+            return Array.newInstance(componentType, 0);
+        } else if (componentType == byte.class) {
+            return this.bytes(BUFFER_SIZE);
+        }
+
+        Object array = Array.newInstance(componentType, COLLECTION_SIZE);
+        for (int i = 0; i < COLLECTION_SIZE; i++) {
+            Object element = depth < MAX_DEPTH ? this.valueOf(componentType, depth + 1) : null;
+            if (element == null) {
+                return Array.newInstance(componentType, 0);
+            }
+            Array.set(array, i, element);
+        }
+        return array;
+    }
+
+    private Object construct(Class<?> type, int depth) {
+        if (Modifier.isAbstract(type.getModifiers()) || !type.getName().startsWith("org.cloudburstmc.protocol")) {
+            return null;
+        }
+
+        Constructor<?> widest = null;
+        for (Constructor<?> constructor : type.getConstructors()) {
+            if (widest == null || constructor.getParameterCount() > widest.getParameterCount()) {
+                widest = constructor;
+            }
+        }
+        if (widest == null) {
+            return null;
+        }
+
+        Type[] parameterTypes = widest.getGenericParameterTypes();
+        Object[] arguments = new Object[parameterTypes.length];
+        for (int i = 0; i < parameterTypes.length; i++) {
+            arguments[i] = this.valueOf(parameterTypes[i], depth);
+        }
+        try {
+            Object value = widest.newInstance(arguments);
+            this.fill(value);
+            return value;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static Throwable rootCause(Throwable throwable) {
+        Throwable cause = throwable;
+        while (cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+
+    private static Class<?> rawType(Type type) {
+        if (type instanceof TypeVariable) {
+            return Object.class;
+        } else if (type instanceof Class) {
+            return (Class<?>) type;
+        } else if (type instanceof ParameterizedType) {
+            return (Class<?>) ((ParameterizedType) type).getRawType();
+        } else if (type instanceof WildcardType) {
+            return rawType(((WildcardType) type).getUpperBounds()[0]);
+        }
+        return null;
+    }
+
+    private static Type typeArgument(Type type, int index) {
+        if (type instanceof ParameterizedType) {
+            Type[] arguments = ((ParameterizedType) type).getActualTypeArguments();
+            return index < arguments.length ? arguments[index] : null;
+        }
+        return null;
+    }
+
+    private static Object primitiveOne(Class<?> type) {
+        if (type == int.class) {
+            return 1;
+        } else if (type == long.class) {
+            return 1L;
+        } else if (type == short.class) {
+            return (short) 1;
+        } else if (type == byte.class) {
+            return (byte) 1;
+        } else if (type == float.class) {
+            return 1f;
+        } else if (type == double.class) {
+            return 1d;
+        }
+        return 'a';
+    }
+}
@@ -1,8 +1,6 @@
 package org.cloudburstmc.protocol.bedrock.codec;
 
 import io.netty.buffer.ByteBuf;
-import io.netty.buffer.ByteBufInputStream;
-import io.netty.buffer.ByteBufOutputStream;
 import io.netty.buffer.ByteBufUtil;
 import io.netty.util.internal.logging.InternalLogger;
 import io.netty.util.internal.logging.InternalLoggerFactory;
@@ -15,10 +13,9 @@ import lombok.Setter;
 import org.cloudburstmc.math.vector.Vector2f;
 import org.cloudburstmc.math.vector.Vector3f;
 import org.cloudburstmc.math.vector.Vector3i;
-import org.cloudburstmc.nbt.NBTInputStream;
-import org.cloudburstmc.nbt.NBTOutputStream;
 import org.cloudburstmc.nbt.NbtType;
-import org.cloudburstmc.nbt.NbtUtils;
+import org.cloudburstmc.protocol.bedrock.codec.nbt.ByteBufNbtReader;
+import org.cloudburstmc.protocol.bedrock.codec.nbt.ByteBufNbtWriter;
 import org.cloudburstmc.protocol.bedrock.data.EncodingSettings;
 import org.cloudburstmc.protocol.bedrock.data.ExperimentData;
 import org.cloudburstmc.protocol.bedrock.data.PlayerAbilityHolder;
@@ -44,7 +41,6 @@ import org.cloudburstmc.protocol.common.util.TriConsumer;
 import org.cloudburstmc.protocol.common.util.TypeMap;
 import org.cloudburstmc.protocol.common.util.VarInts;
 
-import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.Collection;
 import java.util.List;
@@ -74,6 +70,10 @@ public abstract class BaseBedrockCodecHelper implements BedrockCodecHelper {
     @Setter
     protected EncodingSettings encodingSettings = EncodingSettings.DEFAULT;
 
+    @Getter
+    @Setter
+    protected SkinCache skinCache;
+
     protected static boolean isAir(ItemDefinition definition) {
         return definition == null || "minecraft:air".equals(definition.getIdentifier());
     }
@@ -124,6 +124,22 @@ public abstract class BaseBedrockCodecHelper implements BedrockCodecHelper {
         return (String) buffer.readCharSequence(length, StandardCharsets.UTF_8);
     }
 
+    @Override
+    public String readIdentifier(ByteBuf buffer) {
+        IdentifierPool pool = this.encodingSettings.identifierPool();
+        if (pool == null) {
+            return this.readString(buffer);
+        }
+
+        int length = VarInts.readUnsignedInt(buffer);
+        int maxLength = this.encodingSettings.maxStringLength();
+        checkArgument(maxLength <= 0 || length <= maxLength,
+                "Tried to read %s bytes but maximum is %s", length, maxLength);
+        int index = buffer.readerIndex();
+        buffer.skipBytes(length);
+        return pool.intern(buffer, index, length);
+    }
+
     public void writeString(ByteBuf buffer, String string) {
         checkNotNull(string, "string");
         VarInts.writeUnsignedInt(buffer, ByteBufUtil.utf8Bytes(string));
@@ -328,23 +344,15 @@ public abstract class BaseBedrockCodecHelper implements BedrockCodecHelper {
     @SuppressWarnings("unchecked")
     @Override
     public <T> T readTag(ByteBuf buffer, Class<T> expected, long maxReadSize) {
-        try (NBTInputStream reader = NbtUtils.createNetworkReader(new ByteBufInputStream(buffer), maxReadSize)) {
-            Object tag = reader.readTag();
-            checkArgument(expected.isInstance(tag), "Expected tag of %s type but received %s",
-                    expected, tag.getClass());
-            return (T) tag;
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
+        Object tag = ByteBufNbtReader.NETWORK.readTag(buffer, maxReadSize);
+        checkArgument(expected.isInstance(tag), "Expected tag of %s type but received %s",
+                expected, tag.getClass());
+        return (T) tag;
     }
 
     @Override
     public void writeTag(ByteBuf buffer, Object tag) {
-        try (NBTOutputStream writer = NbtUtils.createNetworkWriter(new ByteBufOutputStream(buffer))) {
-            writer.writeTag(tag);
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
+        ByteBufNbtWriter.NETWORK.writeTag(buffer, tag);
     }
 
     @Override
@@ -355,22 +363,14 @@ public abstract class BaseBedrockCodecHelper implements BedrockCodecHelper {
     @SuppressWarnings("unchecked")
     @Override
     public <T> T readTagLE(ByteBuf buffer, Class<T> expected, long maxReadSize) {
-        try (NBTInputStream reader = NbtUtils.createReaderLE(new ByteBufInputStream(buffer), maxReadSize)) {
-            Object tag = reader.readTag();
-            checkArgument(expected.isInstance(tag), "Expected tag of %s type but received %s",
-                    expected, tag.getClass());
-            return (T) reader.readTag();
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
+        Object tag = ByteBufNbtReader.LITTLE_ENDIAN.readTag(buffer, maxReadSize);
+        checkArgument(expected.isInstance(tag), "Expected tag of %s type but received %s",
+                expected, tag.getClass());
+        return (T) tag;
     }
 
     public void writeTagLE(ByteBuf buffer, Object tag) {
-        try (NBTOutputStream writer = NbtUtils.createWriterLE(new ByteBufOutputStream(buffer))) {
-            writer.writeTag(tag);
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
+        ByteBufNbtWriter.LITTLE_ENDIAN.writeTag(buffer, tag);
     }
 
     @Override
@@ -380,20 +380,12 @@ public abstract class BaseBedrockCodecHelper implements BedrockCodecHelper {
 
     @Override
     public <T> T readTagValue(ByteBuf buffer, NbtType<T> type, long maxReadSize) {
-        try (NBTInputStream reader = NbtUtils.createNetworkReader(new ByteBufInputStream(buffer), maxReadSize)) {
-            return reader.readValue(type);
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
+        return ByteBufNbtReader.NETWORK.readValue(buffer, type, maxReadSize);
     }
 
     @Override
     public void writeTagValue(ByteBuf buffer, Object tag) {
-        try (NBTOutputStream writer = NbtUtils.createNetworkWriter(new ByteBufOutputStream(buffer))) {
-            writer.writeValue(tag);
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
+        ByteBufNbtWriter.NETWORK.writeValue(buffer, tag);
     }
 
     @Override
@@ -511,6 +503,22 @@ public abstract class BaseBedrockCodecHelper implements BedrockCodecHelper {
         throw new UnsupportedOperationException();
     }
 
+    @Override
+    public SerializedSkin readCachedSkin(ByteBuf buffer) {
+        SkinCache cache = this.skinCache;
+        if (cache == null) {
+            return this.readSkin(buffer);
+        }
+
+        SerializedSkin skin = cache.get(buffer);
+        if (skin == null) {
+            int index = buffer.readerIndex();
+            skin = this.readSkin(buffer);
+            cache.put(buffer, index, buffer.readerIndex() - index, skin);
+        }
+        return skin;
+    }
+
     @Override
     public void writeSkin(ByteBuf buffer, SerializedSkin skin) {
         throw new UnsupportedOperationException();
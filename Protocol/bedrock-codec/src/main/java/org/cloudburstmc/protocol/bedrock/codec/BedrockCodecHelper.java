@@ -53,6 +53,10 @@ public interface BedrockCodecHelper {
 
     void setEncodingSettings(EncodingSettings settings);
 
+    SkinCache getSkinCache();
+
+    void setSkinCache(SkinCache cache);
+
     // Array serialization (with helper)
 
     <T> void readArray(ByteBuf buffer, Collection<T> array, BiFunction<ByteBuf, BedrockCodecHelper, T> function);
@@ -137,6 +141,11 @@ public interface BedrockCodecHelper {
 
     SerializedSkin readSkin(ByteBuf buffer);
 
+    /**
+     * Reads a skin through the {@link SkinCache} of this helper, if one is set, so repeated skins are only decoded once.
+     */
+    SerializedSkin readCachedSkin(ByteBuf buffer);
+
     void writeSkin(ByteBuf buffer, SerializedSkin skin);
 
     byte[] readByteArray(ByteBuf buffer);
@@ -153,6 +162,12 @@ public interface BedrockCodecHelper {
 
     String readStringMaxLen(ByteBuf buffer, int maxLength);
 
+    /**
+     * Reads a string which is likely to be repeated, such as an entity or sound identifier, through the
+     * {@link IdentifierPool} of the encoding settings, if one is set.
+     */
+    String readIdentifier(ByteBuf buffer);
+
     void writeString(ByteBuf buffer, String string);
 
     UUID readUuid(ByteBuf buffer);
@@ -0,0 +1,141 @@
+package org.cloudburstmc.protocol.bedrock.codec;
+
+import io.netty.buffer.ByteBuf;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Interns identifiers read by {@link BedrockCodecHelper#readIdentifier(ByteBuf)}, such as entity, sound and particle
+ * names, which are sent over and over again. The encoded bytes are compared against the pooled identifiers before
+ * decoding them, so a known identifier is returned without allocating a new string.
+ * <p>
+ * The pool is a fixed size table in which an identifier replaces the one stored in the same slot. Entries are never
+ * modified, so a pool can be shared between the helpers of several connections without locking.
+ */
+public class IdentifierPool {
+    public static final int DEFAULT_CAPACITY = 4096;
+    public static final int DEFAULT_MAX_LENGTH = 128;
+
+    private final Entry[] table;
+    private final int mask;
+    private final int maxLength;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public IdentifierPool() {
+        this(DEFAULT_CAPACITY, DEFAULT_MAX_LENGTH);
+    }
+
+    /**
+     * @param capacity  number of pooled identifiers, rounded up to a power of two
+     * @param maxLength length in bytes above which identifiers are decoded without pooling them
+     */
+    public IdentifierPool(int capacity, int maxLength) {
+        if (capacity <= 0 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Invalid capacity: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.table = new Entry[size];
+        this.mask = size - 1;
+        this.maxLength = maxLength;
+    }
+
+    /**
+     * Returns the identifier encoded as UTF-8 at the given index of the buffer. The reader index is not modified.
+     */
+    public String intern(ByteBuf buffer, int index, int length) {
+        if (length > this.maxLength) {
+            this.misses.incrementAndGet();
+            return buffer.toString(index, length, StandardCharsets.UTF_8);
+        }
+
+        int hash = hash(buffer, index, length);
+        int slot = hash & this.mask;
+        Entry entry = this.table[slot];
+        if (entry != null && entry.hash == hash && entry.matches(buffer, index, length)) {
+            this.hits.incrementAndGet();
+            return entry.value;
+        }
+
+        byte[] bytes = new byte[length];
+        buffer.getBytes(index, bytes);
+        String value = new String(bytes, StandardCharsets.UTF_8);
+        this.table[slot] = new Entry(hash, bytes, value);
+        this.misses.incrementAndGet();
+        return value;
+    }
+
+    public long getHits() {
+        return this.hits.get();
+    }
+
+    public long getMisses() {
+        return this.misses.get();
+    }
+
+    /**
+     * Share of identifiers which were found in the pool, between 0 and 1.
+     */
+    public double getHitRate() {
+        long hits = this.hits.get();
+        long total = hits + this.misses.get();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    public int size() {
+        int size = 0;
+        for (Entry entry : this.table) {
+            if (entry != null) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    public void clear() {
+        Arrays.fill(this.table, null);
+    }
+
+    private static int hash(ByteBuf buffer, int index, int length) {
+        int hash = length;
+        int end = index + length;
+        for (; index + 4 <= end; index += 4) {
+            hash = 31 * hash + buffer.getIntLE(index);
+        }
+        for (; index < end; index++) {
+            hash = 31 * hash + buffer.getByte(index);
+        }
+        // Spread the high bits into the ones used to select the slot
+        return hash ^ (hash >>> 16);
+    }
+
+    private static class Entry {
+        private final int hash;
+        private final byte[] bytes;
+        private final String value;
+
+        private Entry(int hash, byte[] bytes, String value) {
+            this.hash = hash;
+            this.bytes = bytes;
+            this.value = value;
+        }
+
+        private boolean matches(ByteBuf buffer, int index, int length) {
+            if (this.bytes.length != length) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (this.bytes[i] != buffer.getByte(index + i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package org.cloudburstmc.protocol.bedrock.codec;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import org.cloudburstmc.protocol.bedrock.data.skin.ImageData;
+import org.cloudburstmc.protocol.bedrock.data.skin.SerializedSkin;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Deduplicates skins read by {@link BedrockCodecHelper#readCachedSkin(ByteBuf)}. Skins are identified by their encoded
+ * bytes, so a skin which was read before is returned without decoding it again. A 64-bit hash of the bytes narrows
+ * down the candidates before they are compared.
+ * Images are additionally shared by content, as the same capes are used by many different skins.
+ * <p>
+ * Both caches evict the least recently used entries once they are full. A cache can be shared between the helpers
+ * of several connections. Returned instances are shared and must not be modified.
+ */
+public class SkinCache {
+    public static final int DEFAULT_MAX_SKINS = 128;
+    public static final int DEFAULT_MAX_IMAGES = 256;
+
+    // Number of bytes used to find the candidates for a skin before hashing all of it
+    private static final int PREFIX_LENGTH = 32;
+    private static final int MAX_CANDIDATES = 4;
+
+    private static final long PRIME_1 = 0x9E3779B185EBCA87L;
+    private static final long PRIME_2 = 0xC2B2AE3D27D4EB4FL;
+
+    private final int maxSkins;
+    private final Map<Long, Entry[]> skins;
+    private final Map<Long, ImageData> images;
+    private int skinCount;
+
+    private long hits;
+    private long misses;
+    private long imageHits;
+    private long imageMisses;
+    private long evictions;
+
+    public SkinCache() {
+        this(DEFAULT_MAX_SKINS, DEFAULT_MAX_IMAGES);
+    }
+
+    public SkinCache(int maxSkins, int maxImages) {
+        this.maxSkins = maxSkins;
+        this.skins = new LinkedHashMap<Long, Entry[]>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry[]> eldest) {
+                if (SkinCache.this.skinCount > SkinCache.this.maxSkins) {
+                    SkinCache.this.skinCount -= eldest.getValue().length;
+                    SkinCache.this.evictions += eldest.getValue().length;
+                    return true;
+                }
+                return false;
+            }
+        };
+        this.images = new LinkedHashMap<Long, ImageData>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, ImageData> eldest) {
+                if (this.size() > maxImages) {
+                    SkinCache.this.evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Looks up the skin encoded at the reader index of the buffer. If it was cached, the reader index is moved past
+     * the encoded skin.
+     *
+     * @return the cached skin or null if it has to be decoded
+     */
+    public synchronized SerializedSkin get(ByteBuf buffer) {
+        int index = buffer.readerIndex();
+        int readable = buffer.readableBytes();
+        Entry[] candidates = this.skins.get(hash(buffer, index, Math.min(PREFIX_LENGTH, readable)));
+        if (candidates != null) {
+            for (Entry candidate : candidates) {
+                int length = candidate.bytes.length;
+                // Bytes are compared on a hit, so a hash collision can not return a different skin
+                if (length <= readable && candidate.hash == hash(buffer, index, length) &&
+                        ByteBufUtil.equals(buffer, index, Unpooled.wrappedBuffer(candidate.bytes), 0, length)) {
+                    this.hits++;
+                    buffer.skipBytes(length);
+                    return candidate.skin;
+                }
+            }
+        }
+        this.misses++;
+        return null;
+    }
+
+    /**
+     * Caches a decoded skin.
+     *
+     * @param index  index of the encoded skin in the buffer
+     * @param length length of the encoded skin
+     */
+    public synchronized void put(ByteBuf buffer, int index, int length, SerializedSkin skin) {
+        if (length < PREFIX_LENGTH) {
+            // Never found again by get, which hashes a fixed prefix
+            return;
+        }
+
+        Long prefix = hash(buffer, index, PREFIX_LENGTH);
+        byte[] bytes = new byte[length];
+        buffer.getBytes(index, bytes);
+        Entry entry = new Entry(hash(buffer, index, length), bytes, skin);
+        Entry[] candidates = this.skins.get(prefix);
+        if (candidates == null) {
+            candidates = new Entry[]{entry};
+        } else if (candidates.length < MAX_CANDIDATES) {
+            candidates = Arrays.copyOf(candidates, candidates.length + 1);
+            candidates[candidates.length - 1] = entry;
+        } else {
+            // Replace the oldest candidate with the same prefix
+            candidates = Arrays.copyOf(candidates, candidates.length);
+            System.arraycopy(candidates, 1, candidates, 0, candidates.length - 1);
+            candidates[candidates.length - 1] = entry;
+            this.skinCount--;
+            this.evictions++;
+        }
+        this.skinCount++;
+        this.skins.put(prefix, candidates);
+    }
+
+    /**
+     * Returns a cached image with the same size and content or caches the given one.
+     */
+    public synchronized ImageData intern(ImageData image) {
+        byte[] bytes = image.getImage();
+        if (bytes.length == 0) {
+            return image;
+        }
+
+        // Content is compared on a hit, so a collision only replaces the cached image
+        long key = (long) Arrays.hashCode(bytes) << 32 ^ ((long) image.getWidth() << 16 | image.getHeight());
+        ImageData cached = this.images.get(key);
+        if (cached != null && cached.getWidth() == image.getWidth() && cached.getHeight() == image.getHeight() &&
+                Arrays.equals(cached.getImage(), bytes)) {
+            this.imageHits++;
+            return cached;
+        }
+        this.imageMisses++;
+        this.images.put(key, image);
+        return image;
+    }
+
+    public synchronized long getHits() {
+        return this.hits;
+    }
+
+    public synchronized long getMisses() {
+        return this.misses;
+    }
+
+    public synchronized long getImageHits() {
+        return this.imageHits;
+    }
+
+    public synchronized long getImageMisses() {
+        return this.imageMisses;
+    }
+
+    public synchronized long getEvictions() {
+        return this.evictions;
+    }
+
+    /**
+     * Share of skin lookups which were answered from the cache, between 0 and 1.
+     */
+    public synchronized double getHitRate() {
+        long total = this.hits + this.misses;
+        return total == 0 ? 0 : (double) this.hits / total;
+    }
+
+    public synchronized int size() {
+        return this.skinCount;
+    }
+
+    public synchronized void clear() {
+        this.skins.clear();
+        this.images.clear();
+        this.skinCount = 0;
+    }
+
+    private static long hash(ByteBuf buffer, int index, int length) {
+        long hash = PRIME_1 ^ length;
+        int end = index + length;
+        for (; index + 8 <= end; index += 8) {
+            hash = mix(hash, buffer.getLongLE(index));
+        }
+        for (; index < end; index++) {
+            hash = mix(hash, buffer.getByte(index));
+        }
+        return finish(hash);
+    }
+
+    private static long mix(long hash, long value) {
+        return Long.rotateLeft(hash ^ (value * PRIME_2), 31) * PRIME_1;
+    }
+
+    private static long finish(long hash) {
+        hash ^= hash >>> 33;
+        hash *= PRIME_2;
+        hash ^= hash >>> 29;
+        return hash;
+    }
+
+    private static class Entry {
+        private final long hash;
+        private final byte[] bytes;
+        private final SerializedSkin skin;
+
+        private Entry(long hash, byte[] bytes, SerializedSkin skin) {
+            this.hash = hash;
+            this.bytes = bytes;
+            this.skin = skin;
+        }
+    }
+}
@@ -0,0 +1,323 @@
+package org.cloudburstmc.protocol.bedrock.codec.nbt;
+
+import io.netty.buffer.ByteBuf;
+import org.cloudburstmc.nbt.NbtList;
+import org.cloudburstmc.nbt.NbtMap;
+import org.cloudburstmc.nbt.NbtType;
+import org.cloudburstmc.protocol.common.util.VarInts;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads NBT straight from a {@link ByteBuf} in either the network (varint) or the little endian format, without
+ * wrapping it in an {@code InputStream}. Produces the same values as {@link org.cloudburstmc.nbt.NBTInputStream}.
+ * <p>
+ * Besides full reads, tags can be skipped without materializing them or read as a {@link LazyNbtMap} which only
+ * decodes the keys accessed.
+ */
+public final class ByteBufNbtReader {
+    public static final ByteBufNbtReader NETWORK = new ByteBufNbtReader(true);
+    public static final ByteBufNbtReader LITTLE_ENDIAN = new ByteBufNbtReader(false);
+
+    /**
+     * Maximum nesting of compounds and lists, same as {@link org.cloudburstmc.nbt.NBTInputStream}.
+     */
+    public static final int MAX_DEPTH = 16;
+
+    private final boolean network;
+
+    private ByteBufNbtReader(boolean network) {
+        this.network = network;
+    }
+
+    /**
+     * Reads a named root tag and returns its value.
+     *
+     * @param maxReadSize maximum number of bytes to read, or 0 for no limit
+     */
+    public Object readTag(ByteBuf buffer, long maxReadSize) {
+        long limit = limitOf(buffer, maxReadSize);
+        NbtType<?> type = NbtType.byId(buffer.readUnsignedByte());
+        this.skipString(buffer);
+        return this.readValue(buffer, type, MAX_DEPTH, limit);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T readValue(ByteBuf buffer, NbtType<T> type, long maxReadSize) {
+        return (T) this.readValue(buffer, type, MAX_DEPTH, limitOf(buffer, maxReadSize));
+    }
+
+    /**
+     * Reads a named root compound as a view which decodes its entries on first access.
+     * The compound is copied out of the buffer, so the view stays valid after the buffer is released.
+     */
+    public LazyNbtMap readLazyTag(ByteBuf buffer, long maxReadSize) {
+        int type = buffer.readUnsignedByte();
+        if (type != NbtType.COMPOUND.getId()) {
+            throw new IllegalArgumentException("Expected compound tag but received " + NbtType.byId(type).getTypeName());
+        }
+        this.skipString(buffer);
+
+        int start = buffer.readerIndex();
+        this.skipValue(buffer, NbtType.COMPOUND, MAX_DEPTH, limitOf(buffer, maxReadSize));
+        byte[] bytes = new byte[buffer.readerIndex() - start];
+        buffer.getBytes(start, bytes);
+        return new LazyNbtMap(this, bytes);
+    }
+
+    /**
+     * Moves the reader index past a named root tag without reading its value.
+     */
+    public void skipTag(ByteBuf buffer, long maxReadSize) {
+        long limit = limitOf(buffer, maxReadSize);
+        NbtType<?> type = NbtType.byId(buffer.readUnsignedByte());
+        this.skipString(buffer);
+        this.skipValue(buffer, type, MAX_DEPTH, limit);
+    }
+
+    public void skipValue(ByteBuf buffer, NbtType<?> type, long maxReadSize) {
+        this.skipValue(buffer, type, MAX_DEPTH, limitOf(buffer, maxReadSize));
+    }
+
+    Object readValue(ByteBuf buffer, NbtType<?> type, int depth, long limit) {
+        if (depth < 0) {
+            throw new IllegalArgumentException("NBT compound is too deeply nested");
+        }
+
+        switch (type.getEnum()) {
+            case END:
+                return null;
+            case BYTE:
+                return buffer.readByte();
+            case SHORT:
+                return buffer.readShortLE();
+            case INT:
+                return this.readInt(buffer);
+            case LONG:
+                return this.readLong(buffer);
+            case FLOAT:
+                return buffer.readFloatLE();
+            case DOUBLE:
+                return buffer.readDoubleLE();
+            case BYTE_ARRAY: {
+                int length = this.readLength(buffer, 1, limit);
+                byte[] bytes = new byte[length];
+                buffer.readBytes(bytes);
+                return bytes;
+            }
+            case STRING:
+                return this.readString(buffer, limit);
+            case LIST: {
+                NbtType<?> elementType = NbtType.byId(buffer.readUnsignedByte());
+                int length = this.readListLength(buffer, elementType, limit);
+                List<Object> list = new ArrayList<>(length);
+                for (int i = 0; i < length; i++) {
+                    list.add(this.readValue(buffer, elementType, depth - 1, limit));
+                }
+                return newList(elementType, list);
+            }
+            case COMPOUND: {
+                Map<String, Object> map = new LinkedHashMap<>();
+                int typeId;
+                while ((typeId = buffer.readUnsignedByte()) != 0) {
+                    checkLimit(buffer, limit);
+                    NbtType<?> valueType = NbtType.byId(typeId);
+                    String name = this.readString(buffer, limit);
+                    map.put(name, this.readValue(buffer, valueType, depth - 1, limit));
+                }
+                return map.isEmpty() ? NbtMap.EMPTY : NbtMap.fromMap(map);
+            }
+            case INT_ARRAY: {
+                int length = this.readLength(buffer, this.network ? 1 : 4, limit);
+                int[] ints = new int[length];
+                for (int i = 0; i < length; i++) {
+                    ints[i] = this.readInt(buffer);
+                }
+                return ints;
+            }
+            case LONG_ARRAY: {
+                int length = this.readLength(buffer, this.network ? 1 : 8, limit);
+                long[] longs = new long[length];
+                for (int i = 0; i < length; i++) {
+                    longs[i] = this.readLong(buffer);
+                }
+                return longs;
+            }
+            default:
+                throw new IllegalArgumentException("Unknown type " + type);
+        }
+    }
+
+    void skipValue(ByteBuf buffer, NbtType<?> type, int depth, long limit) {
+        if (depth < 0) {
+            throw new IllegalArgumentException("NBT compound is too deeply nested");
+        }
+
+        switch (type.getEnum()) {
+            case END:
+                break;
+            case BYTE:
+                buffer.skipBytes(1);
+                break;
+            case SHORT:
+                buffer.skipBytes(2);
+                break;
+            case INT:
+                this.skipInt(buffer);
+                break;
+            case LONG:
+                this.skipLong(buffer);
+                break;
+            case FLOAT:
+                buffer.skipBytes(4);
+                break;
+            case DOUBLE:
+                buffer.skipBytes(8);
+                break;
+            case BYTE_ARRAY:
+                buffer.skipBytes(this.readLength(buffer, 1, limit));
+                break;
+            case STRING:
+                this.skipString(buffer);
+                break;
+            case LIST: {
+                NbtType<?> elementType = NbtType.byId(buffer.readUnsignedByte());
+                int length = this.readListLength(buffer, elementType, limit);
+                for (int i = 0; i < length; i++) {
+                    this.skipValue(buffer, elementType, depth - 1, limit);
+                }
+                break;
+            }
+            case COMPOUND: {
+                int typeId;
+                while ((typeId = buffer.readUnsignedByte()) != 0) {
+                    checkLimit(buffer, limit);
+                    this.skipString(buffer);
+                    this.skipValue(buffer, NbtType.byId(typeId), depth - 1, limit);
+                }
+                break;
+            }
+            case INT_ARRAY: {
+                int length = this.readLength(buffer, this.network ? 1 : 4, limit);
+                if (this.network) {
+                    for (int i = 0; i < length; i++) {
+                        this.skipInt(buffer);
+                    }
+                } else {
+                    buffer.skipBytes(length * 4);
+                }
+                break;
+            }
+            case LONG_ARRAY: {
+                int length = this.readLength(buffer, this.network ? 1 : 8, limit);
+                if (this.network) {
+                    for (int i = 0; i < length; i++) {
+                        this.skipLong(buffer);
+                    }
+                } else {
+                    buffer.skipBytes(length * 8);
+                }
+                break;
+            }
+            default:
+                throw new IllegalArgumentException("Unknown type " + type);
+        }
+        checkLimit(buffer, limit);
+    }
+
+    String readString(ByteBuf buffer, long limit) {
+        int length = this.network ? VarInts.readUnsignedInt(buffer) : buffer.readUnsignedShortLE();
+        if (length > buffer.readableBytes()) {
+            throw new IndexOutOfBoundsException("String length " + length + " exceeds readable bytes " + buffer.readableBytes());
+        }
+        String string = buffer.toString(buffer.readerIndex(), length, StandardCharsets.UTF_8);
+        buffer.skipBytes(length);
+        checkLimit(buffer, limit);
+        return string;
+    }
+
+    void skipString(ByteBuf buffer) {
+        buffer.skipBytes(this.network ? VarInts.readUnsignedInt(buffer) : buffer.readUnsignedShortLE());
+    }
+
+    private int readInt(ByteBuf buffer) {
+        return this.network ? VarInts.readInt(buffer) : buffer.readIntLE();
+    }
+
+    private long readLong(ByteBuf buffer) {
+        return this.network ? VarInts.readLong(buffer) : buffer.readLongLE();
+    }
+
+    private void skipInt(ByteBuf buffer) {
+        if (this.network) {
+            skipVarInt(buffer);
+        } else {
+            buffer.skipBytes(4);
+        }
+    }
+
+    private void skipLong(ByteBuf buffer) {
+        if (this.network) {
+            skipVarInt(buffer);
+        } else {
+            buffer.skipBytes(8);
+        }
+    }
+
+    /**
+     * Reads the length of an array or list and makes sure the buffer holds at least that many elements, so a corrupt
+     * length can not allocate a huge array.
+     */
+    private int readLength(ByteBuf buffer, int minElementSize, long limit) {
+        int length = this.readInt(buffer);
+        if (length < 0 || (long) length * minElementSize > buffer.readableBytes()) {
+            throw new IllegalArgumentException("Invalid NBT length " + length + " with " + buffer.readableBytes() + " readable bytes");
+        }
+        checkLimit(buffer, limit);
+        return length;
+    }
+
+    /**
+     * Reads the length of a list. END elements take no bytes, so such a list could claim any length without the
+     * buffer backing it and is only accepted when empty.
+     */
+    private int readListLength(ByteBuf buffer, NbtType<?> elementType, long limit) {
+        if (elementType != NbtType.END) {
+            return this.readLength(buffer, 1, limit);
+        }
+        int length = this.readInt(buffer);
+        if (length != 0) {
+            throw new IllegalArgumentException("Invalid NBT length " + length + " for a list of END tags");
+        }
+        checkLimit(buffer, limit);
+        return 0;
+    }
+
+    private static void skipVarInt(ByteBuf buffer) {
+        for (int i = 0; i < 10; i++) {
+            if ((buffer.readByte() & 0x80) == 0) {
+                return;
+            }
+        }
+        throw new ArithmeticException("VarInt was too large");
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static NbtList<?> newList(NbtType<?> type, List<Object> list) {
+        return new NbtList(type, list);
+    }
+
+    private static long limitOf(ByteBuf buffer, long maxReadSize) {
+        return maxReadSize > 0 ? buffer.readerIndex() + maxReadSize : Long.MAX_VALUE;
+    }
+
+    private static void checkLimit(ByteBuf buffer, long limit) {
+        if (buffer.readerIndex() > limit) {
+            throw new IllegalArgumentException("NBT exceeds the maximum read size");
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package org.cloudburstmc.protocol.bedrock.codec.nbt;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import org.cloudburstmc.nbt.NbtList;
+import org.cloudburstmc.nbt.NbtMap;
+import org.cloudburstmc.nbt.NbtType;
+import org.cloudburstmc.protocol.common.util.VarInts;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes NBT straight into a {@link ByteBuf} in either the network (varint) or the little endian format, producing
+ * the same bytes as {@link org.cloudburstmc.nbt.NBTOutputStream}. A {@link LazyNbtMap} read in the same format is
+ * written by copying its bytes as they are.
+ */
+public final class ByteBufNbtWriter {
+    public static final ByteBufNbtWriter NETWORK = new ByteBufNbtWriter(true);
+    public static final ByteBufNbtWriter LITTLE_ENDIAN = new ByteBufNbtWriter(false);
+
+    private final boolean network;
+
+    private ByteBufNbtWriter(boolean network) {
+        this.network = network;
+    }
+
+    /**
+     * Writes the value as an unnamed root tag.
+     */
+    public void writeTag(ByteBuf buffer, Object value) {
+        NbtType<?> type = typeOf(value);
+        buffer.writeByte(type.getId());
+        this.writeString(buffer, "");
+        this.writeValue(buffer, type, value);
+    }
+
+    public void writeValue(ByteBuf buffer, Object value) {
+        this.writeValue(buffer, typeOf(value), value);
+    }
+
+    private void writeValue(ByteBuf buffer, NbtType<?> type, Object value) {
+        switch (type.getEnum()) {
+            case END:
+                break;
+            case BYTE:
+                buffer.writeByte((Byte) value);
+                break;
+            case SHORT:
+                buffer.writeShortLE((Short) value);
+                break;
+            case INT:
+                this.writeInt(buffer, (Integer) value);
+                break;
+            case LONG:
+                this.writeLong(buffer, (Long) value);
+                break;
+            case FLOAT:
+                buffer.writeFloatLE((Float) value);
+                break;
+            case DOUBLE:
+                buffer.writeDoubleLE((Double) value);
+                break;
+            case BYTE_ARRAY: {
+                byte[] bytes = (byte[]) value;
+                this.writeInt(buffer, bytes.length);
+                buffer.writeBytes(bytes);
+                break;
+            }
+            case STRING:
+                this.writeString(buffer, (String) value);
+                break;
+            case LIST: {
+                List<?> list = (List<?>) value;
+                NbtType<?> elementType = listTypeOf(list);
+                buffer.writeByte(elementType.getId());
+                this.writeInt(buffer, list.size());
+                for (Object element : list) {
+                    this.writeValue(buffer, elementType, element);
+                }
+                break;
+            }
+            case COMPOUND: {
+                if (value instanceof LazyNbtMap && ((LazyNbtMap) value).getReader() == this.readerFormat()) {
+                    buffer.writeBytes(((LazyNbtMap) value).getData());
+                    break;
+                }
+                for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                    NbtType<?> entryType = typeOf(entry.getValue());
+                    buffer.writeByte(entryType.getId());
+                    this.writeString(buffer, (String) entry.getKey());
+                    this.writeValue(buffer, entryType, entry.getValue());
+                }
+                buffer.writeByte(0);
+                break;
+            }
+            case INT_ARRAY: {
+                int[] ints = (int[]) value;
+                this.writeInt(buffer, ints.length);
+                for (int i : ints) {
+                    this.writeInt(buffer, i);
+                }
+                break;
+            }
+            case LONG_ARRAY: {
+                long[] longs = (long[]) value;
+                this.writeInt(buffer, longs.length);
+                for (long l : longs) {
+                    this.writeLong(buffer, l);
+                }
+                break;
+            }
+            default:
+                throw new IllegalArgumentException("Unknown type " + type);
+        }
+    }
+
+    private void writeString(ByteBuf buffer, String string) {
+        int length = ByteBufUtil.utf8Bytes(string);
+        if (this.network) {
+            VarInts.writeUnsignedInt(buffer, length);
+        } else {
+            if (length > 0xffff) {
+                throw new IllegalArgumentException("String is too long: " + length + " bytes");
+            }
+            buffer.writeShortLE(length);
+        }
+        ByteBufUtil.reserveAndWriteUtf8(buffer, string, length);
+    }
+
+    private void writeInt(ByteBuf buffer, int value) {
+        if (this.network) {
+            VarInts.writeInt(buffer, value);
+        } else {
+            buffer.writeIntLE(value);
+        }
+    }
+
+    private void writeLong(ByteBuf buffer, long value) {
+        if (this.network) {
+            VarInts.writeLong(buffer, value);
+        } else {
+            buffer.writeLongLE(value);
+        }
+    }
+
+    private ByteBufNbtReader readerFormat() {
+        return this.network ? ByteBufNbtReader.NETWORK : ByteBufNbtReader.LITTLE_ENDIAN;
+    }
+
+    private static NbtType<?> listTypeOf(List<?> list) {
+        if (list instanceof NbtList) {
+            return ((NbtList<?>) list).getType();
+        }
+        return list.isEmpty() ? NbtType.END : typeOf(list.get(0));
+    }
+
+    private static NbtType<?> typeOf(Object value) {
+        if (value instanceof Map) {
+            return NbtType.COMPOUND;
+        } else if (value instanceof List) {
+            return NbtType.LIST;
+        } else if (value == null) {
+            throw new IllegalArgumentException("NBT values can not be null");
+        }
+        return NbtType.byClass(value.getClass());
+    }
+}
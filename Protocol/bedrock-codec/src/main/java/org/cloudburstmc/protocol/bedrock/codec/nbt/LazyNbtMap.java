@@ -0,0 +1,244 @@
+package org.cloudburstmc.protocol.bedrock.codec.nbt;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.cloudburstmc.nbt.NbtMap;
+import org.cloudburstmc.nbt.NbtType;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Read-only compound backed by its encoded bytes. Only the keys are indexed, values are decoded and cached the first
+ * time they are accessed and nested compounds are returned as lazy views as well. Meant for packets which only look at
+ * a couple of entries or forward the tag unchanged, where decoding the full tree would be wasted.
+ * <p>
+ * Instances are not thread safe. Use {@link #toNbtMap()} for a regular, fully decoded copy.
+ */
+public final class LazyNbtMap extends AbstractMap<String, Object> {
+    private static final String[] NO_KEYS = new String[0];
+
+    private final ByteBufNbtReader reader;
+    // Value of a compound tag, without the type and name, up to and including the end tag
+    private final byte[] data;
+
+    private String[] keys;
+    private NbtType<?>[] types;
+    private int[] offsets;
+    private int[] ends;
+    private Object[] values;
+    private Set<Entry<String, Object>> entrySet;
+
+    LazyNbtMap(ByteBufNbtReader reader, byte[] data) {
+        this.reader = reader;
+        this.data = data;
+    }
+
+    ByteBufNbtReader getReader() {
+        return this.reader;
+    }
+
+    byte[] getData() {
+        return this.data;
+    }
+
+    private void index() {
+        if (this.keys != null) {
+            return;
+        }
+
+        ByteBuf buffer = Unpooled.wrappedBuffer(this.data);
+        String[] keys = NO_KEYS;
+        NbtType<?>[] types = new NbtType<?>[0];
+        int[] offsets = new int[0];
+        int[] ends = new int[0];
+        int size = 0;
+
+        int typeId;
+        while ((typeId = buffer.readUnsignedByte()) != 0) {
+            if (size == keys.length) {
+                int capacity = Math.max(8, size << 1);
+                keys = Arrays.copyOf(keys, capacity);
+                types = Arrays.copyOf(types, capacity);
+                offsets = Arrays.copyOf(offsets, capacity);
+                ends = Arrays.copyOf(ends, capacity);
+            }
+            NbtType<?> type = NbtType.byId(typeId);
+            keys[size] = this.reader.readString(buffer, Long.MAX_VALUE);
+            types[size] = type;
+            offsets[size] = buffer.readerIndex();
+            // Depth was already checked when the compound was read
+            this.reader.skipValue(buffer, type, ByteBufNbtReader.MAX_DEPTH, Long.MAX_VALUE);
+            ends[size] = buffer.readerIndex();
+            size++;
+        }
+
+        this.types = Arrays.copyOf(types, size);
+        this.offsets = Arrays.copyOf(offsets, size);
+        this.ends = Arrays.copyOf(ends, size);
+        this.values = new Object[size];
+        this.keys = Arrays.copyOf(keys, size);
+    }
+
+    private int indexOf(Object key) {
+        this.index();
+        for (int i = 0; i < this.keys.length; i++) {
+            if (this.keys[i].equals(key)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private Object valueAt(int index) {
+        Object value = this.values[index];
+        if (value == null) {
+            NbtType<?> type = this.types[index];
+            int offset = this.offsets[index];
+            if (type == NbtType.COMPOUND) {
+                value = new LazyNbtMap(this.reader, Arrays.copyOfRange(this.data, offset, this.ends[index]));
+            } else {
+                ByteBuf buffer = Unpooled.wrappedBuffer(this.data);
+                buffer.readerIndex(offset);
+                value = this.reader.readValue(buffer, type, ByteBufNbtReader.MAX_DEPTH, Long.MAX_VALUE);
+            }
+            this.values[index] = value;
+        }
+        return value;
+    }
+
+    @Override
+    public Object get(Object key) {
+        int index = this.indexOf(key);
+        return index < 0 ? null : this.valueAt(index);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return this.indexOf(key) >= 0;
+    }
+
+    @Override
+    public int size() {
+        this.index();
+        return this.keys.length;
+    }
+
+    /**
+     * Type of the entry with the given key or null if there is no such entry. Does not decode the value.
+     */
+    public NbtType<?> getType(String key) {
+        int index = this.indexOf(key);
+        return index < 0 ? null : this.types[index];
+    }
+
+    public boolean getBoolean(String key, boolean defaultValue) {
+        Object value = this.get(key);
+        return value instanceof Byte ? (Byte) value != 0 : defaultValue;
+    }
+
+    public byte getByte(String key, byte defaultValue) {
+        Object value = this.get(key);
+        return value instanceof Byte ? (Byte) value : defaultValue;
+    }
+
+    public short getShort(String key, short defaultValue) {
+        Object value = this.get(key);
+        return value instanceof Short ? (Short) value : defaultValue;
+    }
+
+    public int getInt(String key, int defaultValue) {
+        Object value = this.get(key);
+        return value instanceof Integer ? (Integer) value : defaultValue;
+    }
+
+    public long getLong(String key, long defaultValue) {
+        Object value = this.get(key);
+        return value instanceof Long ? (Long) value : defaultValue;
+    }
+
+    public float getFloat(String key, float defaultValue) {
+        Object value = this.get(key);
+        return value instanceof Float ? (Float) value : defaultValue;
+    }
+
+    public double getDouble(String key, double defaultValue) {
+        Object value = this.get(key);
+        return value instanceof Double ? (Double) value : defaultValue;
+    }
+
+    public String getString(String key, String defaultValue) {
+        Object value = this.get(key);
+        return value instanceof String ? (String) value : defaultValue;
+    }
+
+    public LazyNbtMap getCompound(String key) {
+        Object value = this.get(key);
+        return value instanceof LazyNbtMap ? (LazyNbtMap) value : null;
+    }
+
+    /**
+     * Decodes the whole compound, including entries already accessed, into a regular {@link NbtMap}.
+     */
+    public NbtMap toNbtMap() {
+        ByteBuf buffer = Unpooled.wrappedBuffer(this.data);
+        return (NbtMap) this.reader.readValue(buffer, NbtType.COMPOUND, ByteBufNbtReader.MAX_DEPTH, Long.MAX_VALUE);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == this) {
+            return true;
+        }
+        if (o instanceof LazyNbtMap && ((LazyNbtMap) o).reader == this.reader) {
+            return Arrays.equals(this.data, ((LazyNbtMap) o).data);
+        }
+        // Array values are only compared by content by NbtMap
+        return o instanceof Map && this.toNbtMap().equals(o instanceof LazyNbtMap ? ((LazyNbtMap) o).toNbtMap() : o);
+    }
+
+    @Override
+    public int hashCode() {
+        return this.toNbtMap().hashCode();
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        if (this.entrySet == null) {
+            this.entrySet = new AbstractSet<Entry<String, Object>>() {
+                @Override
+                public Iterator<Entry<String, Object>> iterator() {
+                    LazyNbtMap.this.index();
+                    return new Iterator<Entry<String, Object>>() {
+                        private int index;
+
+                        @Override
+                        public boolean hasNext() {
+                            return this.index < LazyNbtMap.this.keys.length;
+                        }
+
+                        @Override
+                        public Entry<String, Object> next() {
+                            if (!this.hasNext()) {
+                                throw new NoSuchElementException();
+                            }
+                            int index = this.index++;
+                            return new SimpleImmutableEntry<>(LazyNbtMap.this.keys[index], LazyNbtMap.this.valueAt(index));
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return LazyNbtMap.this.size();
+                }
+            };
+        }
+        return this.entrySet;
+    }
+}
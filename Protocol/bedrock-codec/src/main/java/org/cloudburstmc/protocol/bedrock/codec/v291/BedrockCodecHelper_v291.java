@@ -39,6 +39,7 @@ import static org.cloudburstmc.protocol.common.util.Preconditions.checkArgument;
 import static org.cloudburstmc.protocol.common.util.Preconditions.checkNotNull;
 
 public class BedrockCodecHelper_v291 extends BaseBedrockCodecHelper {
+    protected static final EntityDataFormat[] ENTITY_DATA_FORMATS = EntityDataFormat.values();
 
     public BedrockCodecHelper_v291(EntityDataTypeMap entityData, TypeMap<Class<?>> gameRulesTypes) {
         super(entityData, gameRulesTypes);
@@ -233,7 +234,11 @@ public class BedrockCodecHelper_v291 extends BaseBedrockCodecHelper {
 
         for (int i = 0; i < length; i++) {
             int id = VarInts.readUnsignedInt(buffer);
-            EntityDataFormat format = EntityDataFormat.values()[VarInts.readUnsignedInt(buffer)];
+            EntityDataFormat format = this.readEntityDataFormat(buffer);
+            EntityDataTypeMap.Definition<?>[] definitions = this.entityData.fromId(id, format);
+            if (this.readPrimitiveEntityData(buffer, entityDataMap, definitions, format)) {
+                continue;
+            }
 
             Object value;
             switch (format) {
@@ -268,14 +273,13 @@ public class BedrockCodecHelper_v291 extends BaseBedrockCodecHelper {
                     throw new UnsupportedOperationException("Unknown entity data type received");
             }
 
-            EntityDataTypeMap.Definition<?>[] definitions = this.entityData.fromId(id, format);
             if (definitions != null) {
                 for (EntityDataTypeMap.Definition<?> definition : definitions) {
                     //noinspection unchecked
                     EntityDataTransformer<Object, ?> transformer = (EntityDataTransformer<Object, ?>) definition.getTransformer();
                     Object transformedValue = transformer.deserialize(this, entityDataMap, value);
                     if (transformedValue != null) {
-                        entityDataMap.put(definition.getType(), transformer.deserialize(this, entityDataMap, value));
+                        entityDataMap.put(definition.getType(), transformedValue);
                     }
                 }
             } else {
@@ -291,15 +295,19 @@ public class BedrockCodecHelper_v291 extends BaseBedrockCodecHelper {
 
         VarInts.writeUnsignedInt(buffer, entityDataMap.size());
 
-        for (Map.Entry<EntityDataType<?>, Object> entry : entityDataMap.entrySet()) {
-            EntityDataTypeMap.Definition<?> definition = this.entityData.fromType(entry.getKey());
+        for (int i = 0; i < entityDataMap.size(); i++) {
+            EntityDataTypeMap.Definition<?> definition = this.entityData.fromType(entityDataMap.typeAt(i));
 
             VarInts.writeUnsignedInt(buffer, definition.getId());
             VarInts.writeUnsignedInt(buffer, definition.getFormat().ordinal());
 
+            if (this.writePrimitiveEntityData(buffer, entityDataMap, i, definition)) {
+                continue;
+            }
+
             try {
                 Object value = ((EntityDataTransformer<?, Object>) definition.getTransformer())
-                        .serialize(this, entityDataMap, entry.getValue());
+                        .serialize(this, entityDataMap, entityDataMap.valueAt(i));
 
                 switch (definition.getFormat()) {
                     case BYTE:
@@ -343,6 +351,80 @@ public class BedrockCodecHelper_v291 extends BaseBedrockCodecHelper {
         }
     }
 
+    protected EntityDataFormat readEntityDataFormat(ByteBuf buffer) {
+        int formatId = VarInts.readUnsignedInt(buffer);
+        if (formatId >= ENTITY_DATA_FORMATS.length) {
+            throw new IllegalArgumentException("Unknown entity data format " + formatId);
+        }
+        return ENTITY_DATA_FORMATS[formatId];
+    }
+
+    /**
+     * Reads primitive values which are stored as they are, without boxing them.
+     *
+     * @return false if the value has to be read and transformed as an object
+     */
+    @SuppressWarnings("unchecked")
+    protected boolean readPrimitiveEntityData(ByteBuf buffer, EntityDataMap entityDataMap,
+                                              EntityDataTypeMap.Definition<?>[] definitions, EntityDataFormat format) {
+        if (definitions == null || definitions.length != 1 || definitions[0].getTransformer() != EntityDataTransformer.IDENTITY) {
+            return false;
+        }
+
+        EntityDataType<?> type = definitions[0].getType();
+        switch (format) {
+            case BYTE:
+                entityDataMap.putByte((EntityDataType<Byte>) type, buffer.readByte());
+                return true;
+            case SHORT:
+                entityDataMap.putShort((EntityDataType<Short>) type, buffer.readShortLE());
+                return true;
+            case INT:
+                entityDataMap.putInt((EntityDataType<Integer>) type, VarInts.readInt(buffer));
+                return true;
+            case FLOAT:
+                entityDataMap.putFloat((EntityDataType<Float>) type, buffer.readFloatLE());
+                return true;
+            case LONG:
+                entityDataMap.putLong((EntityDataType<Long>) type, VarInts.readLong(buffer));
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Writes primitive values stored in the map as they are, without boxing them.
+     *
+     * @return false if the value has to be transformed and written as an object
+     */
+    protected boolean writePrimitiveEntityData(ByteBuf buffer, EntityDataMap entityDataMap, int index,
+                                               EntityDataTypeMap.Definition<?> definition) {
+        if (definition.getTransformer() != EntityDataTransformer.IDENTITY || entityDataMap.formatAt(index) != definition.getFormat()) {
+            return false;
+        }
+
+        switch (definition.getFormat()) {
+            case BYTE:
+                buffer.writeByte((int) entityDataMap.longValueAt(index));
+                return true;
+            case SHORT:
+                buffer.writeShortLE((int) entityDataMap.longValueAt(index));
+                return true;
+            case INT:
+                VarInts.writeInt(buffer, (int) entityDataMap.longValueAt(index));
+                return true;
+            case FLOAT:
+                buffer.writeFloatLE(entityDataMap.floatValueAt(index));
+                return true;
+            case LONG:
+                VarInts.writeLong(buffer, entityDataMap.longValueAt(index));
+                return true;
+            default:
+                return false;
+        }
+    }
+
     @Override
     public CommandEnumData readCommandEnum(ByteBuf buffer, boolean soft) {
 
@@ -351,7 +433,7 @@ public class BedrockCodecHelper_v291 extends BaseBedrockCodecHelper {
         int count = VarInts.readUnsignedInt(buffer);
         LinkedHashMap<String, Set<CommandEnumConstraint>> values = new LinkedHashMap<>();
         for (int i = 0; i < count; i++) {
-            values.put(readString(buffer), Collections.emptySet());
+            values.put(readIdentifier(buffer), Collections.emptySet());
         }
         return new CommandEnumData(name, values, soft);
     }
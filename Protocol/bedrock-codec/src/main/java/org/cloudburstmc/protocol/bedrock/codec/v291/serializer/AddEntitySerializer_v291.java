@@ -45,7 +45,7 @@ public class AddEntitySerializer_v291 implements BedrockPacketSerializer<AddEnti
 
     public AttributeData readAttribute(ByteBuf buffer, BedrockCodecHelper helper) {
 
-        String name = helper.readString(buffer);
+        String name = helper.readIdentifier(buffer);
         float min = buffer.readFloatLE();
         float max = buffer.readFloatLE();
         float val = buffer.readFloatLE();
@@ -96,7 +96,7 @@ public class AvailableCommandsSerializer_v291 implements BedrockPacketSerializer
         SequencedHashSet<CommandEnumData> softEnums = new SequencedHashSet<>();
         Set<Consumer<List<CommandEnumData>>> softEnumParameters = new HashSet<>();
 
-        helper.readArray(buffer, enumValues, helper::readString);
+        helper.readArray(buffer, enumValues, helper::readIdentifier);
         helper.readArray(buffer, postFixes, helper::readString);
 
         this.readEnums(buffer, helper, enumValues, enums);
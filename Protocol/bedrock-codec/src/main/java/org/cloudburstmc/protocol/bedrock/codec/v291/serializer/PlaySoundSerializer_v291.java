@@ -22,7 +22,7 @@ public class PlaySoundSerializer_v291 implements BedrockPacketSerializer<PlaySou
 
     @Override
     public void deserialize(ByteBuf buffer, BedrockCodecHelper helper, PlaySoundPacket packet) {
-        packet.setSound(helper.readString(buffer));
+        packet.setSound(helper.readIdentifier(buffer));
         packet.setPosition(helper.readBlockPosition(buffer).toFloat().div(8));
         packet.setVolume(buffer.readFloatLE());
         packet.setPitch(buffer.readFloatLE());
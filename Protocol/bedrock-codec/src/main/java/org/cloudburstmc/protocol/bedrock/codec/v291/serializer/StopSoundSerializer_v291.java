@@ -20,7 +20,7 @@ public class StopSoundSerializer_v291 implements BedrockPacketSerializer<StopSou
 
     @Override
     public void deserialize(ByteBuf buffer, BedrockCodecHelper helper, StopSoundPacket packet) {
-        packet.setSoundName(helper.readString(buffer));
+        packet.setSoundName(helper.readIdentifier(buffer));
         packet.setStoppingAllSound(buffer.readBoolean());
     }
 }
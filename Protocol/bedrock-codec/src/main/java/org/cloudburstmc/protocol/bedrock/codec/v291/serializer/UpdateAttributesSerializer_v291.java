@@ -33,7 +33,7 @@ public class UpdateAttributesSerializer_v291 implements BedrockPacketSerializer<
         float max = buffer.readFloatLE();
         float val = buffer.readFloatLE();
         float def = buffer.readFloatLE();
-        String name = helper.readString(buffer);
+        String name = helper.readIdentifier(buffer);
 
         return new AttributeData(name, min, max, val, def);
     }
@@ -30,7 +30,7 @@ public class AddEntitySerializer_v313 extends AddEntitySerializer_v291 {
     public void deserialize(ByteBuf buffer, BedrockCodecHelper helper, AddEntityPacket packet) {
         packet.setUniqueEntityId(VarInts.readLong(buffer));
         packet.setRuntimeEntityId(VarInts.readUnsignedLong(buffer));
-        packet.setIdentifier(helper.readString(buffer));
+        packet.setIdentifier(helper.readIdentifier(buffer));
         packet.setPosition(helper.readVector3f(buffer));
         packet.setMotion(helper.readVector3f(buffer));
         packet.setRotation(helper.readVector2f(buffer));
@@ -29,7 +29,7 @@ public class LevelSoundEvent2Serializer_v313 implements BedrockPacketSerializer<
         packet.setSound(soundEvents.getType(buffer.readUnsignedByte()));
         packet.setPosition(helper.readVector3f(buffer));
         packet.setExtraData(VarInts.readInt(buffer));
-        packet.setIdentifier(helper.readString(buffer));
+        packet.setIdentifier(helper.readIdentifier(buffer));
         packet.setBabySound(buffer.readBoolean());
         packet.setRelativeVolumeDisabled(buffer.readBoolean());
     }
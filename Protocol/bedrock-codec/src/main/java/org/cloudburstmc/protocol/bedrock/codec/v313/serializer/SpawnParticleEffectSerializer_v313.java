@@ -22,6 +22,6 @@ public class SpawnParticleEffectSerializer_v313 implements BedrockPacketSerializ
     public void deserialize(ByteBuf buffer, BedrockCodecHelper helper, SpawnParticleEffectPacket packet) {
         packet.setDimensionId(buffer.readUnsignedByte());
         packet.setPosition(helper.readVector3f(buffer));
-        packet.setIdentifier(helper.readString(buffer));
+        packet.setIdentifier(helper.readIdentifier(buffer));
     }
 }
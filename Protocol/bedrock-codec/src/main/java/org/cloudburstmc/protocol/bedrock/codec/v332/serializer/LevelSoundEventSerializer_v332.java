@@ -28,7 +28,7 @@ public class LevelSoundEventSerializer_v332 implements BedrockPacketSerializer<L
         packet.setSound(typeMap.getType(VarInts.readUnsignedInt(buffer)));
         packet.setPosition(helper.readVector3f(buffer));
         packet.setExtraData(VarInts.readInt(buffer));
-        packet.setIdentifier(helper.readString(buffer));
+        packet.setIdentifier(helper.readIdentifier(buffer));
         packet.setBabySound(buffer.readBoolean());
         packet.setRelativeVolumeDisabled(buffer.readBoolean());
     }
@@ -25,6 +25,6 @@ public class SpawnParticleEffectSerializer_v332 implements BedrockPacketSerializ
         packet.setDimensionId(buffer.readUnsignedByte());
         packet.setUniqueEntityId(VarInts.readLong(buffer));
         packet.setPosition(helper.readVector3f(buffer));
-        packet.setIdentifier(helper.readString(buffer));
+        packet.setIdentifier(helper.readIdentifier(buffer));
     }
 }
@@ -7,7 +7,6 @@ import org.cloudburstmc.protocol.bedrock.codec.EntityDataTypeMap;
 import org.cloudburstmc.protocol.bedrock.codec.v340.BedrockCodecHelper_v340;
 import org.cloudburstmc.protocol.bedrock.data.entity.EntityDataFormat;
 import org.cloudburstmc.protocol.bedrock.data.entity.EntityDataMap;
-import org.cloudburstmc.protocol.bedrock.data.entity.EntityDataType;
 import org.cloudburstmc.protocol.bedrock.data.structure.StructureAnimationMode;
 import org.cloudburstmc.protocol.bedrock.data.structure.StructureMirror;
 import org.cloudburstmc.protocol.bedrock.data.structure.StructureRotation;
@@ -16,8 +15,6 @@ import org.cloudburstmc.protocol.bedrock.transformer.EntityDataTransformer;
 import org.cloudburstmc.protocol.common.util.TypeMap;
 import org.cloudburstmc.protocol.common.util.VarInts;
 
-import java.util.Map;
-
 import static org.cloudburstmc.protocol.common.util.Preconditions.checkArgument;
 import static org.cloudburstmc.protocol.common.util.Preconditions.checkNotNull;
 
@@ -36,8 +33,11 @@ public class BedrockCodecHelper_v361 extends BedrockCodecHelper_v340 {
 
         for (int i = 0; i < length; i++) {
             int id = VarInts.readUnsignedInt(buffer);
-            int formatId = VarInts.readUnsignedInt(buffer);
-            EntityDataFormat format = EntityDataFormat.values()[formatId];
+            EntityDataFormat format = this.readEntityDataFormat(buffer);
+            EntityDataTypeMap.Definition<?>[] definitions = this.entityData.fromId(id, format);
+            if (this.readPrimitiveEntityData(buffer, entityDataMap, definitions, format)) {
+                continue;
+            }
 
             Object value;
             switch (format) {
@@ -72,14 +72,13 @@ public class BedrockCodecHelper_v361 extends BedrockCodecHelper_v340 {
                     throw new IllegalArgumentException("Unknown entity data type received");
             }
 
-            EntityDataTypeMap.Definition<?>[] definitions = this.entityData.fromId(id, format);
             if (definitions != null) {
                 for (EntityDataTypeMap.Definition<?> definition : definitions) {
                     //noinspection unchecked
                     EntityDataTransformer<Object, ?> transformer = (EntityDataTransformer<Object, ?>) definition.getTransformer();
                     Object transformedValue = transformer.deserialize(this, entityDataMap, value);
                     if (transformedValue != null) {
-                        entityDataMap.put(definition.getType(), transformer.deserialize(this, entityDataMap, value));
+                        entityDataMap.put(definition.getType(), transformedValue);
                     }
                 }
             } else {
@@ -95,15 +94,19 @@ public class BedrockCodecHelper_v361 extends BedrockCodecHelper_v340 {
 
         VarInts.writeUnsignedInt(buffer, entityDataMap.size());
 
-        for (Map.Entry<EntityDataType<?>, Object> entry : entityDataMap.entrySet()) {
-            EntityDataTypeMap.Definition<?> definition = this.entityData.fromType(entry.getKey());
+        for (int i = 0; i < entityDataMap.size(); i++) {
+            EntityDataTypeMap.Definition<?> definition = this.entityData.fromType(entityDataMap.typeAt(i));
 
             VarInts.writeUnsignedInt(buffer, definition.getId());
             VarInts.writeUnsignedInt(buffer, definition.getFormat().ordinal());
 
+            if (this.writePrimitiveEntityData(buffer, entityDataMap, i, definition)) {
+                continue;
+            }
+
             try {
                 Object value = ((EntityDataTransformer<?, Object>) definition.getTransformer())
-                        .serialize(this, entityDataMap, entry.getValue());
+                        .serialize(this, entityDataMap, entityDataMap.valueAt(i));
 
                 switch (definition.getFormat()) {
                     case BYTE:
@@ -95,7 +95,8 @@ public class BedrockCodecHelper_v388 extends BedrockCodecHelper_v361 {
         int width = buffer.readIntLE();
         int height = buffer.readIntLE();
         byte[] image = readByteArray(buffer, maxSize);
-        return ImageData.of(width, height, image);
+        ImageData imageData = ImageData.of(width, height, image);
+        return this.skinCache == null ? imageData : this.skinCache.intern(imageData);
     }
 
     @Override
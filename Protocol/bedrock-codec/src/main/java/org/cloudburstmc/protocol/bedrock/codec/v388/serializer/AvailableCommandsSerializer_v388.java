@@ -88,7 +88,7 @@ public class AvailableCommandsSerializer_v388 extends AvailableCommandsSerialize
         SequencedHashSet<CommandEnumData> softEnums = new SequencedHashSet<>();
         Set<Consumer<List<CommandEnumData>>> softEnumParameters = new HashSet<>();
 
-        helper.readArray(buffer, enumValues, helper::readString);
+        helper.readArray(buffer, enumValues, helper::readIdentifier);
         helper.readArray(buffer, postFixes, helper::readString);
 
         this.readEnums(buffer, helper, enumValues, enums);
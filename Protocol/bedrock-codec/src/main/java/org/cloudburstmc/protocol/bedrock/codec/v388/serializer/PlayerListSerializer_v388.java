@@ -51,7 +51,7 @@ public class PlayerListSerializer_v388 implements BedrockPacketSerializer<Player
                 entry.setXuid(helper.readString(buffer));
                 entry.setPlatformChatId(helper.readString(buffer));
                 entry.setBuildPlatform(buffer.readIntLE());
-                entry.setSkin(helper.readSkin(buffer));
+                entry.setSkin(helper.readCachedSkin(buffer));
                 entry.setTeacher(buffer.readBoolean());
                 entry.setHost(buffer.readBoolean());
             }
@@ -22,7 +22,7 @@ public class PlayerSkinSerializer_v388 implements BedrockPacketSerializer<Player
     @Override
     public void deserialize(ByteBuf buffer, BedrockCodecHelper helper, PlayerSkinPacket packet) {
         packet.setUuid(helper.readUuid(buffer));
-        packet.setSkin(helper.readSkin(buffer));
+        packet.setSkin(helper.readCachedSkin(buffer));
         packet.setNewSkinName(helper.readString(buffer));
         packet.setOldSkinName(helper.readString(buffer));
     }
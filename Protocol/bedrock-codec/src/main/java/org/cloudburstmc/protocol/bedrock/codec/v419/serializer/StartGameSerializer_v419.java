@@ -132,7 +132,7 @@ public class StartGameSerializer_v419 implements BedrockPacketSerializer<StartGa
     protected void readLevelSettings(ByteBuf buffer, BedrockCodecHelper helper, StartGamePacket packet) {
         packet.setSeed(readSeed(buffer));
         packet.setSpawnBiomeType(SpawnBiomeType.byId(buffer.readShortLE()));
-        packet.setCustomBiomeName(helper.readString(buffer));
+        packet.setCustomBiomeName(helper.readIdentifier(buffer));
         packet.setDimensionId(VarInts.readInt(buffer));
         packet.setGeneratorId(VarInts.readInt(buffer));
         packet.setLevelGameType(GameType.from(VarInts.readInt(buffer)));
@@ -7,6 +7,7 @@ import org.cloudburstmc.nbt.NBTInputStream;
 import org.cloudburstmc.nbt.NBTOutputStream;
 import org.cloudburstmc.nbt.NbtMap;
 import org.cloudburstmc.protocol.bedrock.codec.EntityDataTypeMap;
+import org.cloudburstmc.protocol.bedrock.codec.IdentifierPool;
 import org.cloudburstmc.protocol.bedrock.codec.v428.BedrockCodecHelper_v428;
 import org.cloudburstmc.protocol.bedrock.data.definitions.ItemDefinition;
 import org.cloudburstmc.protocol.bedrock.data.inventory.ContainerSlotType;
@@ -22,6 +23,7 @@ import org.cloudburstmc.protocol.common.util.stream.LittleEndianByteBufInputStre
 import org.cloudburstmc.protocol.common.util.stream.LittleEndianByteBufOutputStream;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 import static java.util.Objects.requireNonNull;
@@ -65,11 +67,11 @@ public class BedrockCodecHelper_v431 extends BedrockCodecHelper_v428 {
 
             canPlace = new String[stream.readInt()];
             for (int i = 0; i < canPlace.length; i++) {
-                canPlace[i] = stream.readUTF();
+                canPlace[i] = this.readItemIdentifier(buf);
             }
             canBreak = new String[stream.readInt()];
             for (int i = 0; i < canBreak.length; i++) {
-                canBreak[i] = stream.readUTF();
+                canBreak[i] = this.readItemIdentifier(buf);
             }
 
             if (definition != null && BLOCKING_ID.equals(definition.getIdentifier())) {
@@ -135,11 +137,11 @@ public class BedrockCodecHelper_v431 extends BedrockCodecHelper_v428 {
 
             canPlace = new String[stream.readInt()];
             for (int i = 0; i < canPlace.length; i++) {
-                canPlace[i] = stream.readUTF();
+                canPlace[i] = this.readItemIdentifier(buf);
             }
             canBreak = new String[stream.readInt()];
             for (int i = 0; i < canBreak.length; i++) {
-                canBreak[i] = stream.readUTF();
+                canBreak[i] = this.readItemIdentifier(buf);
             }
 
             if (definition != null && BLOCKING_ID.equals(definition.getIdentifier())) {
@@ -339,4 +341,18 @@ public class BedrockCodecHelper_v431 extends BedrockCodecHelper_v428 {
             super.writeRequestActionData(byteBuf, action);
         }
     }
+
+    /**
+     * Reads a block identifier of the item user data, which is prefixed by its length as unsigned short.
+     */
+    protected String readItemIdentifier(ByteBuf buffer) {
+        int length = buffer.readUnsignedShortLE();
+        IdentifierPool pool = this.encodingSettings.identifierPool();
+        if (pool == null) {
+            return (String) buffer.readCharSequence(length, StandardCharsets.UTF_8);
+        }
+        int index = buffer.readerIndex();
+        buffer.skipBytes(length);
+        return pool.intern(buffer, index, length);
+    }
 }
@@ -26,7 +26,7 @@ public class AddVolumeEntitySerializer_v486 extends AddVolumeEntitySerializer_v4
     public void deserialize(ByteBuf buffer, BedrockCodecHelper helper, AddVolumeEntityPacket packet) {
         packet.setId(VarInts.readUnsignedInt(buffer));
         packet.setData(helper.readTag(buffer, NbtMap.class));
-        packet.setIdentifier(helper.readString(buffer));
+        packet.setIdentifier(helper.readIdentifier(buffer));
         packet.setInstanceName(helper.readString(buffer));
         packet.setEngineVersion(helper.readString(buffer));
     }
@@ -25,7 +25,7 @@ public class AddVolumeEntitySerializer_v503 implements BedrockPacketSerializer<A
     public void deserialize(ByteBuf buffer, BedrockCodecHelper helper, AddVolumeEntityPacket packet) {
         packet.setId(VarInts.readUnsignedInt(buffer));
         packet.setData(helper.readTag(buffer, NbtMap.class));
-        packet.setIdentifier(helper.readString(buffer));
+        packet.setIdentifier(helper.readIdentifier(buffer));
         packet.setInstanceName(helper.readString(buffer));
         packet.setMinBounds(helper.readBlockPosition(buffer));
         packet.setMaxBounds(helper.readBlockPosition(buffer));
@@ -70,7 +70,7 @@ public class StartGameSerializer_v534 extends StartGameSerializer_v527 {
     protected void readLevelSettings(ByteBuf buffer, BedrockCodecHelper helper, StartGamePacket packet) {
         packet.setSeed(readSeed(buffer));
         packet.setSpawnBiomeType(SpawnBiomeType.byId(buffer.readShortLE()));
-        packet.setCustomBiomeName(helper.readString(buffer));
+        packet.setCustomBiomeName(helper.readIdentifier(buffer));
         packet.setDimensionId(VarInts.readInt(buffer));
         packet.setGeneratorId(VarInts.readInt(buffer));
         packet.setLevelGameType(GameType.from(VarInts.readInt(buffer)));
@@ -31,7 +31,7 @@ public class UpdateAttributesSerializer_v544 extends UpdateAttributesSerializer_
         float max = buffer.readFloatLE();
         float val = buffer.readFloatLE();
         float def = buffer.readFloatLE();
-        String name = helper.readString(buffer);
+        String name = helper.readIdentifier(buffer);
 
         List<AttributeModifierData> modifiers = new ObjectArrayList<>();
         helper.readArray(buffer, modifiers, this::readModifier);
@@ -50,7 +50,7 @@ public class UpdateAttributesSerializer_v544 extends UpdateAttributesSerializer_
 
     public AttributeModifierData readModifier(ByteBuf buffer, BedrockCodecHelper helper) {
         String id = helper.readString(buffer);
-        String name = helper.readString(buffer);
+        String name = helper.readIdentifier(buffer);
         float amount = buffer.readFloatLE();
         AttributeOperation operation = VALUES[buffer.readIntLE()];
         int operand = buffer.readIntLE();
@@ -112,8 +112,8 @@ public class AvailableCommandsSerializer_v594 extends AvailableCommandsSerialize
         SequencedHashSet<CommandEnumData> softEnums = new SequencedHashSet<>();
         Set<Consumer<List<CommandEnumData>>> softEnumParameters = new HashSet<>();
 
-        helper.readArray(buffer, enumValues, helper::readString);
-        helper.readArray(buffer, subCommandValues, helper::readString);
+        helper.readArray(buffer, enumValues, helper::readIdentifier);
+        helper.readArray(buffer, subCommandValues, helper::readIdentifier);
         helper.readArray(buffer, postFixes, helper::readString);
 
         this.readEnums(buffer, helper, enumValues, enums);
@@ -41,7 +41,7 @@ public class UpdateAttributesSerializer_v729 extends UpdateAttributesSerializer_
         float defMin = buffer.readFloatLE();
         float defMax = buffer.readFloatLE();
         float def = buffer.readFloatLE();
-        String name = helper.readString(buffer);
+        String name = helper.readIdentifier(buffer);
 
         List<AttributeModifierData> modifiers = new ObjectArrayList<>();
         helper.readArray(buffer, modifiers, this::readModifier);
@@ -60,7 +60,7 @@ public class BiomeDefinitionListSerializer_v800 implements BedrockPacketSerializ
         IndexedBiomes indexedBiomes = new IndexedBiomes(biomeDefinitions, strings);
 
         helper.readArray(buffer, strings,
-                (byteBuf, bedrockCodecHelper) -> bedrockCodecHelper.readString(byteBuf));
+                (byteBuf, bedrockCodecHelper) -> bedrockCodecHelper.readIdentifier(byteBuf));
         packet.setBiomes(new BiomeDefinitions(indexedBiomes));
     }
 
@@ -3,6 +3,7 @@ package org.cloudburstmc.protocol.bedrock.data;
 import lombok.Builder;
 import lombok.Data;
 import lombok.experimental.Accessors;
+import org.cloudburstmc.protocol.bedrock.codec.IdentifierPool;
 
 @Data
 @Accessors(fluent = true)
@@ -67,4 +68,23 @@ public class EncodingSettings {
     private final int maxNetworkNBTSize;
     private final int maxItemNBTSize;
     private final int maxStringLength;
+    /**
+     * Optional pool used to intern identifiers, such as entity and sound names, while reading packets.
+     * None of the presets set a pool.
+     */
+    private final IdentifierPool identifierPool;
+
+    /**
+     * Number of identifiers which were returned from the {@link #identifierPool()}, or 0 if there is none.
+     */
+    public long identifierPoolHits() {
+        return this.identifierPool == null ? 0 : this.identifierPool.getHits();
+    }
+
+    /**
+     * Number of identifiers which had to be decoded by the {@link #identifierPool()}, or 0 if there is none.
+     */
+    public long identifierPoolMisses() {
+        return this.identifierPool == null ? 0 : this.identifierPool.getMisses();
+    }
 }
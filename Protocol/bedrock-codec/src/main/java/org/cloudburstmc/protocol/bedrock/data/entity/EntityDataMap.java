@@ -10,9 +10,32 @@ import static org.cloudburstmc.protocol.bedrock.data.entity.EntityDataTypes.FLAG
 import static org.cloudburstmc.protocol.common.util.Preconditions.checkArgument;
 import static org.cloudburstmc.protocol.common.util.Preconditions.checkNotNull;
 
+/**
+ * Entity data in insertion order. Entities rarely carry more than a few dozen entries, so they are kept in small
+ * parallel arrays and looked up by scanning the types. Byte, short, int, long and float values are stored unboxed
+ * and can be accessed through the typed getters and setters, while the {@link Map} methods box them on demand.
+ * <p>
+ * Entries can also be accessed by their position, from 0 to {@link #size()}, which is what the codec uses to
+ * write the map without boxing.
+ */
 public final class EntityDataMap implements Map<EntityDataType<?>, Object> {
+    private static final int INITIAL_CAPACITY = 8;
+    private static final EntityDataType<?>[] NO_TYPES = new EntityDataType<?>[0];
+    private static final EntityDataFormat[] NO_FORMATS = new EntityDataFormat[0];
+    private static final long[] NO_PRIMITIVES = new long[0];
+    private static final Object[] NO_OBJECTS = new Object[0];
 
-    private final Map<EntityDataType<?>, Object> map = new LinkedHashMap<>();
+    private EntityDataType<?>[] types = NO_TYPES;
+    // Format of primitive values or null if the value is held in objects
+    private EntityDataFormat[] formats = NO_FORMATS;
+    // Integral values as they are, floats as their raw int bits
+    private long[] primitives = NO_PRIMITIVES;
+    private Object[] objects = NO_OBJECTS;
+    private int size;
+
+    private Set<EntityDataType<?>> keySet;
+    private Collection<Object> values;
+    private Set<Entry<EntityDataType<?>, Object>> entrySet;
 
     @NonNull
     public EnumSet<EntityFlag> getOrCreateFlags() {
@@ -45,21 +68,21 @@ public final class EntityDataMap implements Map<EntityDataType<?>, Object> {
 
     public EnumSet<EntityFlag> putFlags(EnumSet<EntityFlag> flags) {
         Objects.requireNonNull(flags, "flags");
-        this.map.put(FLAGS, flags);
-        this.map.put(FLAGS_2, flags);
+        this.set(FLAGS, null, 0, flags);
+        this.set(FLAGS_2, null, 0, flags);
         return flags;
     }
 
     @SuppressWarnings("unchecked")
     public <T> T get(EntityDataType<T> type) {
-        return (T) this.map.get(type);
+        return (T) this.get((Object) type);
     }
 
     @NonNull
     @SuppressWarnings("unchecked")
     private <T> T getOrDefault(EntityDataType<T> type, T defaultValue) {
         Objects.requireNonNull(type, "type");
-        Object object = this.map.getOrDefault(type, defaultValue);
+        Object object = this.getOrDefault((Object) type, defaultValue);
         try {
             return (T) object;
         } catch (ClassCastException e) {
@@ -71,29 +94,221 @@ public final class EntityDataMap implements Map<EntityDataType<?>, Object> {
         this.put(type, value);
     }
 
+    // Primitive access
+
+    public byte getByte(EntityDataType<Byte> type, byte defaultValue) {
+        int index = this.indexOf(type);
+        return index >= 0 && isIntegral(this.formats[index]) ? (byte) this.primitives[index] : defaultValue;
+    }
+
+    public short getShort(EntityDataType<Short> type, short defaultValue) {
+        int index = this.indexOf(type);
+        return index >= 0 && isIntegral(this.formats[index]) ? (short) this.primitives[index] : defaultValue;
+    }
+
+    public int getInt(EntityDataType<Integer> type, int defaultValue) {
+        int index = this.indexOf(type);
+        return index >= 0 && isIntegral(this.formats[index]) ? (int) this.primitives[index] : defaultValue;
+    }
+
+    public long getLong(EntityDataType<Long> type, long defaultValue) {
+        int index = this.indexOf(type);
+        return index >= 0 && isIntegral(this.formats[index]) ? this.primitives[index] : defaultValue;
+    }
+
+    public float getFloat(EntityDataType<Float> type, float defaultValue) {
+        int index = this.indexOf(type);
+        return index >= 0 && this.formats[index] == EntityDataFormat.FLOAT ?
+                Float.intBitsToFloat((int) this.primitives[index]) : defaultValue;
+    }
+
+    public void putByte(EntityDataType<Byte> type, byte value) {
+        this.putPrimitive(type, EntityDataFormat.BYTE, Byte.class, value);
+    }
+
+    public void putShort(EntityDataType<Short> type, short value) {
+        this.putPrimitive(type, EntityDataFormat.SHORT, Short.class, value);
+    }
+
+    public void putInt(EntityDataType<Integer> type, int value) {
+        this.putPrimitive(type, EntityDataFormat.INT, Integer.class, value);
+    }
+
+    public void putLong(EntityDataType<Long> type, long value) {
+        this.putPrimitive(type, EntityDataFormat.LONG, Long.class, value);
+    }
+
+    public void putFloat(EntityDataType<Float> type, float value) {
+        this.putPrimitive(type, EntityDataFormat.FLOAT, Float.class, Float.floatToRawIntBits(value));
+    }
+
+    private void putPrimitive(EntityDataType<?> type, EntityDataFormat format, Class<?> valueClass, long value) {
+        checkNotNull(type, "type");
+        checkArgument(type.isAssignableFrom(valueClass), "value with type %s is not an instance of %s", valueClass, type);
+        this.set(type, format, value, null);
+    }
+
+    // Positional access
+
+    public EntityDataType<?> typeAt(int index) {
+        this.checkIndex(index);
+        return this.types[index];
+    }
+
+    /**
+     * Format of the primitive value at the given position, or null if the value is an object.
+     */
+    public EntityDataFormat formatAt(int index) {
+        this.checkIndex(index);
+        return this.formats[index];
+    }
+
+    /**
+     * Value at the given position if it is a byte, short, int or long.
+     */
+    public long longValueAt(int index) {
+        this.checkIndex(index);
+        checkArgument(isIntegral(this.formats[index]), "Value of %s is not integral", this.types[index]);
+        return this.primitives[index];
+    }
+
+    public float floatValueAt(int index) {
+        this.checkIndex(index);
+        checkArgument(this.formats[index] == EntityDataFormat.FLOAT, "Value of %s is not a float", this.types[index]);
+        return Float.intBitsToFloat((int) this.primitives[index]);
+    }
+
+    public Object valueAt(int index) {
+        this.checkIndex(index);
+        EntityDataFormat format = this.formats[index];
+        if (format == null) {
+            return this.objects[index];
+        }
+
+        long value = this.primitives[index];
+        switch (format) {
+            case BYTE:
+                return (byte) value;
+            case SHORT:
+                return (short) value;
+            case INT:
+                return (int) value;
+            case LONG:
+                return value;
+            case FLOAT:
+                return Float.intBitsToFloat((int) value);
+            default:
+                throw new IllegalStateException("Unexpected primitive format " + format);
+        }
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= this.size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+        }
+    }
+
+    private int indexOf(Object type) {
+        for (int i = 0; i < this.size; i++) {
+            if (this.types[i] == type) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private Object set(EntityDataType<?> type, EntityDataFormat format, long primitive, Object object) {
+        int index = this.indexOf(type);
+        Object oldValue = null;
+        if (index < 0) {
+            if (this.size == this.types.length) {
+                this.grow();
+            }
+            index = this.size++;
+            this.types[index] = type;
+        } else {
+            oldValue = this.valueAt(index);
+        }
+        this.formats[index] = format;
+        this.primitives[index] = primitive;
+        this.objects[index] = object;
+        return oldValue;
+    }
+
+    private void grow() {
+        int capacity = Math.max(INITIAL_CAPACITY, this.types.length << 1);
+        this.types = Arrays.copyOf(this.types, capacity);
+        this.formats = Arrays.copyOf(this.formats, capacity);
+        this.primitives = Arrays.copyOf(this.primitives, capacity);
+        this.objects = Arrays.copyOf(this.objects, capacity);
+    }
+
+    private void removeAt(int index) {
+        int moved = this.size - index - 1;
+        if (moved > 0) {
+            System.arraycopy(this.types, index + 1, this.types, index, moved);
+            System.arraycopy(this.formats, index + 1, this.formats, index, moved);
+            System.arraycopy(this.primitives, index + 1, this.primitives, index, moved);
+            System.arraycopy(this.objects, index + 1, this.objects, index, moved);
+        }
+        this.size--;
+        this.types[this.size] = null;
+        this.formats[this.size] = null;
+        this.objects[this.size] = null;
+    }
+
+    private static boolean isIntegral(EntityDataFormat format) {
+        return format == EntityDataFormat.BYTE || format == EntityDataFormat.SHORT ||
+                format == EntityDataFormat.INT || format == EntityDataFormat.LONG;
+    }
+
+    private static EntityDataFormat primitiveFormatOf(Object value) {
+        Class<?> type = value.getClass();
+        if (type == Integer.class) {
+            return EntityDataFormat.INT;
+        } else if (type == Float.class) {
+            return EntityDataFormat.FLOAT;
+        } else if (type == Byte.class) {
+            return EntityDataFormat.BYTE;
+        } else if (type == Long.class) {
+            return EntityDataFormat.LONG;
+        } else if (type == Short.class) {
+            return EntityDataFormat.SHORT;
+        }
+        return null;
+    }
+
+    // Map view
+
     @Override
     public int size() {
-        return this.map.size();
+        return this.size;
     }
 
     @Override
     public boolean isEmpty() {
-        return this.map.isEmpty();
+        return this.size == 0;
     }
 
     @Override
     public boolean containsKey(Object key) {
-        return this.map.containsKey(key);
+        return this.indexOf(key) >= 0;
     }
 
     @Override
     public boolean containsValue(Object value) {
-        return this.map.containsValue(value);
+        for (int i = 0; i < this.size; i++) {
+            if (Objects.equals(this.valueAt(i), value)) {
+                return true;
+            }
+        }
+        return false;
     }
 
     @Override
     public Object get(Object key) {
-        return this.map.get(key);
+        int index = this.indexOf(key);
+        return index < 0 ? null : this.valueAt(index);
     }
 
     @SuppressWarnings("unchecked")
@@ -105,41 +320,118 @@ public final class EntityDataMap implements Map<EntityDataType<?>, Object> {
         if (key == FLAGS || key == FLAGS_2) {
             return this.putFlags((EnumSet<EntityFlag>) value);
         }
-        return this.map.put(key, value);
+
+        EntityDataFormat format = primitiveFormatOf(value);
+        if (format == null) {
+            return this.set(key, null, 0, value);
+        } else if (format == EntityDataFormat.FLOAT) {
+            return this.set(key, format, Float.floatToRawIntBits((Float) value), null);
+        }
+        return this.set(key, format, ((Number) value).longValue(), null);
     }
 
     @Override
     public Object remove(Object key) {
-        return this.map.remove(key);
+        int index = this.indexOf(key);
+        if (index < 0) {
+            return null;
+        }
+        Object value = this.valueAt(index);
+        this.removeAt(index);
+        return value;
     }
 
     @Override
     public void putAll(@NonNull Map<? extends EntityDataType<?>, ?> map) {
         checkNotNull(map, "map");
-        this.map.putAll(map);
+        for (Entry<? extends EntityDataType<?>, ?> entry : map.entrySet()) {
+            this.put(entry.getKey(), entry.getValue());
+        }
     }
 
     @Override
     public void clear() {
-        this.map.clear();
+        Arrays.fill(this.types, 0, this.size, null);
+        Arrays.fill(this.formats, 0, this.size, null);
+        Arrays.fill(this.objects, 0, this.size, null);
+        this.size = 0;
     }
 
     @NonNull
     @Override
     public Set<EntityDataType<?>> keySet() {
-        return this.map.keySet();
+        if (this.keySet == null) {
+            this.keySet = new AbstractSet<EntityDataType<?>>() {
+                @Override
+                public Iterator<EntityDataType<?>> iterator() {
+                    return new EntryIterator<EntityDataType<?>>() {
+                        @Override
+                        EntityDataType<?> get(int index) {
+                            return EntityDataMap.this.types[index];
+                        }
+                    };
+                }
+
+                @Override
+                public boolean contains(Object o) {
+                    return EntityDataMap.this.containsKey(o);
+                }
+
+                @Override
+                public int size() {
+                    return EntityDataMap.this.size;
+                }
+            };
+        }
+        return this.keySet;
     }
 
     @NonNull
     @Override
     public Collection<Object> values() {
-        return this.map.values();
+        if (this.values == null) {
+            this.values = new AbstractCollection<Object>() {
+                @Override
+                public Iterator<Object> iterator() {
+                    return new EntryIterator<Object>() {
+                        @Override
+                        Object get(int index) {
+                            return EntityDataMap.this.valueAt(index);
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return EntityDataMap.this.size;
+                }
+            };
+        }
+        return this.values;
     }
 
     @NonNull
     @Override
     public Set<Entry<EntityDataType<?>, Object>> entrySet() {
-        return this.map.entrySet();
+        if (this.entrySet == null) {
+            this.entrySet = new AbstractSet<Entry<EntityDataType<?>, Object>>() {
+                @Override
+                public Iterator<Entry<EntityDataType<?>, Object>> iterator() {
+                    return new EntryIterator<Entry<EntityDataType<?>, Object>>() {
+                        @Override
+                        Entry<EntityDataType<?>, Object> get(int index) {
+                            return new MapEntry(EntityDataMap.this.types[index]);
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return EntityDataMap.this.size;
+                }
+            };
+        }
+        return this.entrySet;
     }
 
     @Override
@@ -147,32 +439,104 @@ public final class EntityDataMap implements Map<EntityDataType<?>, Object> {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         EntityDataMap that = (EntityDataMap) o;
-        return this.map.equals(that.map);
+        if (this.size != that.size) return false;
+        for (int i = 0; i < this.size; i++) {
+            int index = that.indexOf(this.types[i]);
+            if (index < 0 || !Objects.equals(this.valueAt(i), that.valueAt(index))) {
+                return false;
+            }
+        }
+        return true;
     }
 
     @Override
     public int hashCode() {
-        return this.map.hashCode();
+        int hashCode = 0;
+        for (int i = 0; i < this.size; i++) {
+            hashCode += this.types[i].hashCode() ^ Objects.hashCode(this.valueAt(i));
+        }
+        return hashCode;
     }
 
     @Override
     public String toString() {
-        Iterator<Entry<EntityDataType<?>, Object>> i = map.entrySet().iterator();
-        if (!i.hasNext())
-            return "{}";
-
-        StringBuilder sb = new StringBuilder();
-        sb.append('{');
-        while (i.hasNext()) {
-            Entry<EntityDataType<?>, Object> e = i.next();
-            EntityDataType<?> key = e.getKey();
+        StringJoiner joiner = new StringJoiner(", ", "{", "}");
+        for (int i = 0; i < this.size; i++) {
+            EntityDataType<?> key = this.types[i];
             if (key == FLAGS_2) continue; // We don't want this to be visible.
-            String stringVal = NbtUtils.toString(e.getValue());
-            sb.append(key.toString()).append('=').append(stringVal);
-            if (!i.hasNext())
-                return sb.append('}').toString();
-            sb.append(',').append(' ');
+            joiner.add(key + "=" + NbtUtils.toString(this.valueAt(i)));
+        }
+        return joiner.toString();
+    }
+
+    private abstract class EntryIterator<E> implements Iterator<E> {
+        private int next;
+        private int last = -1;
+
+        abstract E get(int index);
+
+        @Override
+        public boolean hasNext() {
+            return this.next < EntityDataMap.this.size;
+        }
+
+        @Override
+        public E next() {
+            if (!this.hasNext()) {
+                throw new NoSuchElementException();
+            }
+            this.last = this.next++;
+            return this.get(this.last);
+        }
+
+        @Override
+        public void remove() {
+            if (this.last < 0) {
+                throw new IllegalStateException();
+            }
+            EntityDataMap.this.removeAt(this.last);
+            this.next = this.last;
+            this.last = -1;
+        }
+    }
+
+    private class MapEntry implements Entry<EntityDataType<?>, Object> {
+        private final EntityDataType<?> type;
+
+        private MapEntry(EntityDataType<?> type) {
+            this.type = type;
+        }
+
+        @Override
+        public EntityDataType<?> getKey() {
+            return this.type;
+        }
+
+        @Override
+        public Object getValue() {
+            return EntityDataMap.this.get(this.type);
+        }
+
+        @Override
+        public Object setValue(Object value) {
+            return EntityDataMap.this.put(this.type, value);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Entry)) return false;
+            Entry<?, ?> entry = (Entry<?, ?>) o;
+            return this.type == entry.getKey() && Objects.equals(this.getValue(), entry.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return this.type.hashCode() ^ Objects.hashCode(this.getValue());
+        }
+
+        @Override
+        public String toString() {
+            return this.type + "=" + this.getValue();
         }
-        return sb.toString();
     }
 }
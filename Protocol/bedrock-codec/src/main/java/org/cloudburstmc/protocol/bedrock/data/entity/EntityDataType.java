@@ -14,6 +14,10 @@ public class EntityDataType<T> {
         return type.isInstance(value);
     }
 
+    boolean isAssignableFrom(Class<?> valueType) {
+        return type.isAssignableFrom(valueType);
+    }
+
     public String getTypeName() {
         return this.type.getTypeName();
     }
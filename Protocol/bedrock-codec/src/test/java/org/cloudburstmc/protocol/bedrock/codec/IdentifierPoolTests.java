@@ -0,0 +1,60 @@
+package org.cloudburstmc.protocol.bedrock.codec;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.cloudburstmc.math.vector.Vector2f;
+import org.cloudburstmc.math.vector.Vector3f;
+import org.cloudburstmc.protocol.bedrock.codec.v827.Bedrock_v827;
+import org.cloudburstmc.protocol.bedrock.data.AttributeData;
+import org.cloudburstmc.protocol.bedrock.data.EncodingSettings;
+import org.cloudburstmc.protocol.bedrock.packet.AddEntityPacket;
+import org.cloudburstmc.protocol.bedrock.packet.BedrockPacket;
+import org.cloudburstmc.protocol.bedrock.packet.UpdateAttributesPacket;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class IdentifierPoolTests {
+    private static final BedrockCodec CODEC = Bedrock_v827.CODEC;
+
+    private static BedrockCodecHelper helper() {
+        BedrockCodecHelper helper = CODEC.createHelper();
+        helper.setEncodingSettings(EncodingSettings.builder().identifierPool(new IdentifierPool()).build());
+        return helper;
+    }
+
+    private static <T extends BedrockPacket> T roundTrip(BedrockCodecHelper helper, T packet) throws Exception {
+        ByteBuf buffer = Unpooled.buffer();
+        CODEC.tryEncode(helper, buffer, packet);
+        @SuppressWarnings("unchecked")
+        T decoded = (T) CODEC.tryDecode(helper, buffer, CODEC.getPacketDefinition(packet.getClass()).getId());
+        return decoded;
+    }
+
+    @Test
+    public void testUpdateAttributesNamesArePooled() throws Exception {
+        BedrockCodecHelper helper = helper();
+        UpdateAttributesPacket packet = new UpdateAttributesPacket();
+        packet.getAttributes().add(new AttributeData(new String("minecraft:health"), 0, 20, 20, 20));
+
+        String first = roundTrip(helper, packet).getAttributes().get(0).getName();
+        String second = roundTrip(helper, packet).getAttributes().get(0).getName();
+        Assertions.assertEquals("minecraft:health", first);
+        Assertions.assertSame(first, second);
+    }
+
+    @Test
+    public void testAddEntityAttributeNamesArePooled() throws Exception {
+        BedrockCodecHelper helper = helper();
+        AddEntityPacket packet = new AddEntityPacket();
+        packet.setIdentifier("minecraft:zombie");
+        packet.setPosition(Vector3f.ZERO);
+        packet.setMotion(Vector3f.ZERO);
+        packet.setRotation(Vector2f.ZERO);
+        packet.getAttributes().add(new AttributeData(new String("minecraft:movement"), 0, 1, 0.23F));
+
+        String first = roundTrip(helper, packet).getAttributes().get(0).getName();
+        String second = roundTrip(helper, packet).getAttributes().get(0).getName();
+        Assertions.assertEquals("minecraft:movement", first);
+        Assertions.assertSame(first, second);
+    }
+}
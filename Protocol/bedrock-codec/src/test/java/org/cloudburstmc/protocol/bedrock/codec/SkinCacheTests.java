@@ -0,0 +1,65 @@
+package org.cloudburstmc.protocol.bedrock.codec;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.cloudburstmc.protocol.bedrock.data.skin.ImageData;
+import org.cloudburstmc.protocol.bedrock.data.skin.SerializedSkin;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class SkinCacheTests {
+
+    private static ByteBuf encoded(int length, int lastByte) {
+        ByteBuf buffer = Unpooled.buffer(length);
+        for (int i = 0; i < length - 1; i++) {
+            buffer.writeByte(i);
+        }
+        buffer.writeByte(lastByte);
+        return buffer;
+    }
+
+    private static SerializedSkin skin(String skinId) {
+        return SerializedSkin.builder()
+                .skinId(skinId)
+                .skinData(ImageData.EMPTY)
+                .capeData(ImageData.EMPTY)
+                .build();
+    }
+
+    @Test
+    public void testCachedSkinIsReturned() {
+        SkinCache cache = new SkinCache();
+        SerializedSkin skin = skin("a");
+        ByteBuf buffer = encoded(100, 1);
+        cache.put(buffer, 0, 100, skin);
+
+        ByteBuf other = encoded(100, 1).writeByte(7);
+        Assertions.assertSame(skin, cache.get(other));
+        Assertions.assertEquals(100, other.readerIndex());
+        Assertions.assertEquals(1, cache.getHits());
+    }
+
+    @Test
+    public void testDifferentBytesMiss() {
+        SkinCache cache = new SkinCache();
+        cache.put(encoded(100, 1), 0, 100, skin("a"));
+
+        // Same prefix and length but different content
+        ByteBuf other = encoded(100, 2);
+        Assertions.assertNull(cache.get(other));
+        Assertions.assertEquals(0, other.readerIndex());
+        Assertions.assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedSkinIsEvicted() {
+        SkinCache cache = new SkinCache(1, 1);
+        cache.put(encoded(100, 1), 0, 100, skin("a"));
+        ByteBuf second = Unpooled.buffer().writeZero(100);
+        cache.put(second, 0, 100, skin("b"));
+
+        Assertions.assertEquals(1, cache.size());
+        Assertions.assertNull(cache.get(encoded(100, 1)));
+        Assertions.assertNotNull(cache.get(second));
+    }
+}
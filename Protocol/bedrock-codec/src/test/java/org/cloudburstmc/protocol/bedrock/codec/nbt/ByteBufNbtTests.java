@@ -0,0 +1,140 @@
+package org.cloudburstmc.protocol.bedrock.codec.nbt;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.ByteBufOutputStream;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import org.cloudburstmc.nbt.NBTInputStream;
+import org.cloudburstmc.nbt.NBTOutputStream;
+import org.cloudburstmc.nbt.NbtList;
+import org.cloudburstmc.nbt.NbtMap;
+import org.cloudburstmc.nbt.NbtType;
+import org.cloudburstmc.nbt.NbtUtils;
+import org.cloudburstmc.protocol.common.util.VarInts;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+
+public class ByteBufNbtTests {
+
+    private static final NbtMap TAG = NbtMap.builder()
+            .putByte("byte", (byte) -3)
+            .putShort("short", (short) 1234)
+            .putInt("int", -123456)
+            .putLong("long", Long.MIN_VALUE)
+            .putFloat("float", 1.5F)
+            .putDouble("double", -2.25D)
+            .putByteArray("bytes", new byte[]{1, 2, 3})
+            .putString("string", "minecraft:stone")
+            .putList("strings", NbtType.STRING, Arrays.asList("a", "b", "c"))
+            .putList("empty", NbtType.END, Collections.emptyList())
+            .putList("compounds", NbtType.COMPOUND, Arrays.asList(
+                    NbtMap.builder().putInt("x", 1).build(),
+                    NbtMap.builder().putCompound("nested", NbtMap.builder().putBoolean("flag", true).build()).build()))
+            .putIntArray("ints", new int[]{Integer.MIN_VALUE, 0, Integer.MAX_VALUE})
+            .putLongArray("longs", new long[]{Long.MIN_VALUE, 0, Long.MAX_VALUE})
+            .putCompound("compound", NbtMap.builder().putString("name", "value").build())
+            .build();
+
+    private static byte[] writeStream(boolean network, Object tag) throws IOException {
+        ByteBuf buffer = Unpooled.buffer();
+        try (NBTOutputStream stream = network ? NbtUtils.createNetworkWriter(new ByteBufOutputStream(buffer))
+                : NbtUtils.createWriterLE(new ByteBufOutputStream(buffer))) {
+            stream.writeTag(tag);
+        }
+        return ByteBufUtil.getBytes(buffer);
+    }
+
+    private static Object readStream(boolean network, byte[] bytes) throws IOException {
+        ByteBufInputStream input = new ByteBufInputStream(Unpooled.wrappedBuffer(bytes));
+        try (NBTInputStream stream = network ? NbtUtils.createNetworkReader(input) : NbtUtils.createReaderLE(input)) {
+            return stream.readTag();
+        }
+    }
+
+    private static void assertRoundTrip(boolean network) throws IOException {
+        ByteBufNbtReader reader = network ? ByteBufNbtReader.NETWORK : ByteBufNbtReader.LITTLE_ENDIAN;
+        ByteBufNbtWriter writer = network ? ByteBufNbtWriter.NETWORK : ByteBufNbtWriter.LITTLE_ENDIAN;
+        byte[] expected = writeStream(network, TAG);
+
+        ByteBuf buffer = Unpooled.buffer();
+        writer.writeTag(buffer, TAG);
+        Assertions.assertArrayEquals(expected, ByteBufUtil.getBytes(buffer));
+
+        Object tag = reader.readTag(Unpooled.wrappedBuffer(expected), 0);
+        Assertions.assertEquals(readStream(network, expected), tag);
+        Assertions.assertEquals(TAG, tag);
+
+        ByteBuf skipped = Unpooled.wrappedBuffer(expected);
+        reader.skipTag(skipped, 0);
+        Assertions.assertFalse(skipped.isReadable());
+    }
+
+    @Test
+    public void testNetworkRoundTrip() throws IOException {
+        assertRoundTrip(true);
+    }
+
+    @Test
+    public void testLittleEndianRoundTrip() throws IOException {
+        assertRoundTrip(false);
+    }
+
+    @Test
+    public void testLazyTagRoundTrip() throws IOException {
+        byte[] expected = writeStream(true, TAG);
+        LazyNbtMap lazy = ByteBufNbtReader.NETWORK.readLazyTag(Unpooled.wrappedBuffer(expected), 0);
+        Assertions.assertEquals("minecraft:stone", lazy.getString("string", null));
+        Assertions.assertTrue(lazy.getCompound("compound").containsKey("name"));
+        Assertions.assertEquals(TAG, lazy.toNbtMap());
+
+        // Written back by copying the encoded bytes
+        ByteBuf buffer = Unpooled.buffer();
+        ByteBufNbtWriter.NETWORK.writeTag(buffer, lazy);
+        Assertions.assertArrayEquals(expected, ByteBufUtil.getBytes(buffer));
+    }
+
+    @Test
+    public void testEndListWithLengthIsRejected() {
+        for (ByteBufNbtReader reader : new ByteBufNbtReader[]{ByteBufNbtReader.NETWORK, ByteBufNbtReader.LITTLE_ENDIAN}) {
+            boolean network = reader == ByteBufNbtReader.NETWORK;
+            ByteBuf buffer = Unpooled.buffer();
+            buffer.writeByte(NbtType.END.getId());
+            if (network) {
+                VarInts.writeInt(buffer, Integer.MAX_VALUE);
+            } else {
+                buffer.writeIntLE(Integer.MAX_VALUE);
+            }
+
+            Assertions.assertThrows(IllegalArgumentException.class,
+                    () -> reader.readValue(buffer.duplicate(), NbtType.LIST, 0));
+            Assertions.assertThrows(IllegalArgumentException.class,
+                    () -> reader.skipValue(buffer.duplicate(), NbtType.LIST, 0));
+        }
+    }
+
+    @Test
+    public void testEmptyEndList() {
+        ByteBuf buffer = Unpooled.buffer();
+        buffer.writeByte(NbtType.END.getId());
+        VarInts.writeInt(buffer, 0);
+
+        NbtList<?> list = ByteBufNbtReader.NETWORK.readValue(buffer, NbtType.LIST, 0);
+        Assertions.assertTrue(list.isEmpty());
+        Assertions.assertFalse(buffer.isReadable());
+    }
+
+    @Test
+    public void testMaxReadSize() {
+        ByteBuf buffer = Unpooled.buffer();
+        ByteBufNbtWriter.NETWORK.writeTag(buffer, TAG);
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> ByteBufNbtReader.NETWORK.readTag(buffer.duplicate(), 16));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> ByteBufNbtReader.NETWORK.skipTag(buffer.duplicate(), 16));
+    }
+}
@@ -0,0 +1,281 @@
+package org.cloudburstmc.protocol.bedrock.data.entity;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.cloudburstmc.math.vector.Vector3i;
+import org.cloudburstmc.protocol.bedrock.codec.BedrockCodec;
+import org.cloudburstmc.protocol.bedrock.codec.BedrockCodecHelper;
+import org.cloudburstmc.protocol.bedrock.codec.v291.Bedrock_v291;
+import org.cloudburstmc.protocol.bedrock.codec.v361.Bedrock_v361;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import static org.cloudburstmc.protocol.bedrock.data.entity.EntityDataTypes.*;
+
+public class EntityDataMapTests {
+    // Accepts values of any format, so one entry can hold both primitives and objects
+    private static final EntityDataType<Object> ANY = new EntityDataType<>(Object.class, "ANY");
+    private static final EntityDataType<Float> ANY_FLOAT = new EntityDataType<>(Float.class, "ANY_FLOAT");
+    private static final EntityDataType<Integer> ANY_INT = new EntityDataType<>(Integer.class, "ANY_INT");
+    // Other views of the same entries, as the typed getters are only bound by the type parameter
+    private static final EntityDataType<Long> ANY_LONG_VIEW = cast(ANY_INT);
+    private static final EntityDataType<Float> ANY_INT_AS_FLOAT = cast(ANY_INT);
+    private static final EntityDataType<Integer> ANY_FLOAT_AS_INT = cast(ANY_FLOAT);
+    private static final EntityDataType<Integer> ANY_AS_INT = cast(ANY);
+
+    @SuppressWarnings("unchecked")
+    private static <T> EntityDataType<T> cast(EntityDataType<?> type) {
+        return (EntityDataType<T>) type;
+    }
+
+    private static List<EntityDataType<?>> keys(EntityDataMap map) {
+        return new ArrayList<>(map.keySet());
+    }
+
+    private static EntityDataMap sample() {
+        EntityDataMap map = new EntityDataMap();
+        map.setFlag(EntityFlag.ON_FIRE, true);
+        map.setFlag(EntityFlag.SNEAKING, true);
+        putSample(map);
+        return map;
+    }
+
+    private static void putSample(EntityDataMap map) {
+        map.putInt(VARIANT, 3);
+        map.putByte(COLOR, (byte) 14);
+        map.put(NAME, "Steve");
+        map.putLong(OWNER_EID, 1L << 40);
+        map.putShort(AIR_SUPPLY, (short) 300);
+        map.putFloat(SCALE, 1.5f);
+        map.put(BED_POSITION, Vector3i.from(1, 64, -3));
+        map.put(USING_ITEM, true);
+    }
+
+    @Test
+    public void testInsertionOrderAfterRemove() {
+        EntityDataMap map = new EntityDataMap();
+        map.putInt(VARIANT, 1);
+        map.putByte(COLOR, (byte) 2);
+        map.put(NAME, "a");
+
+        Assertions.assertEquals(1, map.remove(VARIANT));
+        Assertions.assertEquals(Arrays.asList(COLOR, NAME), keys(map));
+
+        // Re-added entries go last, replaced ones keep their position
+        map.putInt(VARIANT, 4);
+        map.put(COLOR, (byte) 5);
+        Assertions.assertEquals(Arrays.asList(COLOR, NAME, VARIANT), keys(map));
+        Assertions.assertEquals(4, map.getInt(VARIANT, 0));
+        Assertions.assertEquals(5, map.getByte(COLOR, (byte) 0));
+        Assertions.assertNull(map.remove(SCALE));
+    }
+
+    @Test
+    public void testGrowsPastInitialCapacity() {
+        EntityDataMap map = sample();
+        map.putInt(HURT_TICKS, 7);
+        map.putInt(HORSE_FLAGS, 8);
+        Assertions.assertEquals(12, map.size());
+        Assertions.assertEquals(7, map.getInt(HURT_TICKS, 0));
+        Assertions.assertEquals("Steve", map.get(NAME));
+    }
+
+    @Test
+    public void testIteratorRemove() {
+        EntityDataMap map = sample();
+        Iterator<EntityDataType<?>> keys = map.keySet().iterator();
+        while (keys.hasNext()) {
+            if (keys.next() == COLOR) {
+                keys.remove();
+            }
+        }
+        Assertions.assertFalse(map.containsKey(COLOR));
+        Assertions.assertThrows(IllegalStateException.class, map.keySet().iterator()::remove);
+
+        Iterator<Object> values = map.values().iterator();
+        while (values.hasNext()) {
+            if ("Steve".equals(values.next())) {
+                values.remove();
+            }
+        }
+        Assertions.assertFalse(map.containsKey(NAME));
+
+        Iterator<Map.Entry<EntityDataType<?>, Object>> entries = map.entrySet().iterator();
+        while (entries.hasNext()) {
+            Map.Entry<EntityDataType<?>, Object> entry = entries.next();
+            if (entry.getValue() instanceof Number) {
+                entries.remove();
+            }
+        }
+        Assertions.assertEquals(Arrays.asList(FLAGS, FLAGS_2, BED_POSITION, USING_ITEM), keys(map));
+
+        // Removing every entry while iterating leaves the map empty
+        Iterator<EntityDataType<?>> all = map.keySet().iterator();
+        while (all.hasNext()) {
+            all.next();
+            all.remove();
+        }
+        Assertions.assertTrue(map.isEmpty());
+    }
+
+    @Test
+    public void testEntrySetValue() {
+        EntityDataMap map = sample();
+        for (Map.Entry<EntityDataType<?>, Object> entry : map.entrySet()) {
+            if (entry.getKey() == VARIANT) {
+                Assertions.assertEquals(3, entry.setValue(9));
+            }
+        }
+        Assertions.assertEquals(9, map.getInt(VARIANT, 0));
+    }
+
+    @Test
+    public void testFlagsAreStoredTogether() {
+        EntityDataMap map = new EntityDataMap();
+        map.setFlag(EntityFlag.ON_FIRE, true);
+        Assertions.assertSame(map.get(FLAGS), map.get(FLAGS_2));
+
+        EnumSet<EntityFlag> flags = EnumSet.of(EntityFlag.SNEAKING);
+        map.put(FLAGS_2, flags);
+        Assertions.assertSame(flags, map.getFlags());
+        Assertions.assertSame(flags, map.get(FLAGS));
+        Assertions.assertEquals(2, map.size());
+
+        map.setFlag(EntityFlag.SNEAKING, false);
+        Assertions.assertTrue(map.getFlags().isEmpty());
+        // FLAGS_2 is hidden, as it only mirrors FLAGS
+        Assertions.assertFalse(map.toString().contains("FLAGS_2"));
+    }
+
+    @Test
+    public void testFlagsAreCreatedFromFlags2() {
+        EntityDataMap map = new EntityDataMap();
+        Assertions.assertNull(map.getFlags());
+        EnumSet<EntityFlag> flags = map.getOrCreateFlags();
+        Assertions.assertSame(flags, map.getOrCreateFlags());
+        Assertions.assertSame(flags, map.get(FLAGS_2));
+    }
+
+    @Test
+    public void testMismatchedTypedGetterReturnsDefault() {
+        EntityDataMap map = new EntityDataMap();
+        map.putFloat(ANY_FLOAT, 2.5f);
+        map.putInt(ANY_INT, 6);
+        map.put(ANY, "a");
+
+        Assertions.assertEquals(2.5f, map.getFloat(ANY_FLOAT, 0));
+        Assertions.assertEquals(6, map.getInt(ANY_INT, 0));
+        // Integral values can be read with any integral getter
+        Assertions.assertEquals(6L, map.getLong(ANY_LONG_VIEW, -1));
+        Assertions.assertEquals(-1f, map.getFloat(ANY_INT_AS_FLOAT, -1f));
+        Assertions.assertEquals(-1, map.getInt(ANY_FLOAT_AS_INT, -1));
+        Assertions.assertEquals(-1, map.getInt(ANY_AS_INT, -1));
+        Assertions.assertEquals(-1, map.getInt(VARIANT, -1));
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> map.longValueAt(0));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> map.floatValueAt(1));
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> map.valueAt(3));
+    }
+
+    @Test
+    public void testPutReplacesPrimitiveAndObject() {
+        EntityDataMap map = new EntityDataMap();
+        map.put(ANY, "a");
+        map.putInt(VARIANT, 1);
+        Assertions.assertNull(map.formatAt(0));
+
+        // Stored unboxed once replaced by a primitive, and boxed again by the map view
+        Assertions.assertEquals("a", map.put(ANY, 5));
+        Assertions.assertEquals(EntityDataFormat.INT, map.formatAt(0));
+        Assertions.assertEquals(5, map.get(ANY));
+        Assertions.assertEquals(5L, map.longValueAt(0));
+
+        Assertions.assertEquals(5, map.put(ANY, "b"));
+        Assertions.assertNull(map.formatAt(0));
+        Assertions.assertEquals("b", map.valueAt(0));
+        Assertions.assertEquals(-1, map.getInt(ANY_AS_INT, -1));
+
+        Assertions.assertEquals("b", map.put(ANY, 0.25f));
+        Assertions.assertEquals(EntityDataFormat.FLOAT, map.formatAt(0));
+        Assertions.assertEquals(0.25f, map.floatValueAt(0));
+        Assertions.assertEquals(Arrays.asList(ANY, VARIANT), keys(map));
+    }
+
+    @Test
+    public void testBoxedAndTypedPutsAreEqual() {
+        EntityDataMap typed = new EntityDataMap();
+        typed.putInt(VARIANT, 3);
+        typed.putFloat(SCALE, 0.5f);
+        typed.putLong(OWNER_EID, 9);
+
+        EntityDataMap boxed = new EntityDataMap();
+        boxed.put(OWNER_EID, 9L);
+        boxed.put(SCALE, 0.5f);
+        boxed.put(VARIANT, 3);
+
+        Assertions.assertEquals(typed, boxed);
+        Assertions.assertEquals(typed.hashCode(), boxed.hashCode());
+        Assertions.assertTrue(typed.containsValue(0.5f));
+        boxed.putInt(VARIANT, 4);
+        Assertions.assertNotEquals(typed, boxed);
+    }
+
+    @Test
+    public void testRejectsInvalidValues() {
+        EntityDataMap map = new EntityDataMap();
+        Assertions.assertThrows(IllegalArgumentException.class, () -> map.put(VARIANT, "a"));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> map.putFloat(cast(VARIANT), 1f));
+        Assertions.assertThrows(NullPointerException.class, () -> map.put(VARIANT, null));
+        Assertions.assertTrue(map.isEmpty());
+    }
+
+    private static EntityDataMap roundTrip(BedrockCodec codec, EntityDataMap map) {
+        BedrockCodecHelper helper = codec.createHelper();
+        ByteBuf buffer = Unpooled.buffer();
+        try {
+            helper.writeEntityData(buffer, map);
+            EntityDataMap read = new EntityDataMap();
+            helper.readEntityData(buffer, read);
+            Assertions.assertFalse(buffer.isReadable());
+            Assertions.assertEquals(map, read);
+            return read;
+        } finally {
+            buffer.release();
+        }
+    }
+
+    private static void assertSample(EntityDataMap map) {
+        // Primitives are read without boxing
+        Assertions.assertEquals(EntityDataFormat.INT, map.formatAt(keys(map).indexOf(VARIANT)));
+        Assertions.assertEquals(3, map.getInt(VARIANT, 0));
+        Assertions.assertEquals(14, map.getByte(COLOR, (byte) 0));
+        Assertions.assertEquals(300, map.getShort(AIR_SUPPLY, (short) 0));
+        Assertions.assertEquals(1.5f, map.getFloat(SCALE, 0));
+        Assertions.assertEquals(1L << 40, map.getLong(OWNER_EID, 0));
+        // Transformed through the slow path
+        Assertions.assertEquals(true, map.get(USING_ITEM));
+    }
+
+    @Test
+    public void testRoundTripV291() {
+        // FLAGS_2 was only added in v313
+        EntityDataMap map = new EntityDataMap();
+        putSample(map);
+        assertSample(roundTrip(Bedrock_v291.CODEC, map));
+    }
+
+    @Test
+    public void testRoundTripV361() {
+        EntityDataMap read = roundTrip(Bedrock_v361.CODEC, sample());
+        assertSample(read);
+        Assertions.assertEquals(EnumSet.of(EntityFlag.ON_FIRE, EntityFlag.SNEAKING), read.getFlags());
+        Assertions.assertSame(read.get(FLAGS), read.get(FLAGS_2));
+    }
+}
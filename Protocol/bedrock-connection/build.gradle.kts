@@ -13,4 +13,7 @@ dependencies {
     compileOnly(libs.netty.transport.raknet)
     api(project(":Protocol:bedrock-codec"))
     api(libs.snappy)
+    implementation(libs.fastutil.long.int.maps)
+    implementation(libs.fastutil.long.sets)
+    testImplementation(libs.bundles.junit.jupiter)
 }
\ No newline at end of file
@@ -6,7 +6,7 @@ import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandlerAdapter;
 import io.netty.handler.codec.DecoderException;
 import io.netty.util.ReferenceCountUtil;
-import io.netty.util.concurrent.ScheduledFuture;
+import io.netty.util.concurrent.SingleThreadEventExecutor;
 import io.netty.util.internal.PlatformDependent;
 import io.netty.util.internal.logging.InternalLogger;
 import io.netty.util.internal.logging.InternalLoggerFactory;
@@ -19,9 +19,11 @@ import org.cloudburstmc.protocol.bedrock.codec.BedrockCodec;
 import org.cloudburstmc.protocol.bedrock.codec.BedrockCodecHelper;
 import org.cloudburstmc.protocol.bedrock.codec.v428.Bedrock_v428;
 import org.cloudburstmc.protocol.bedrock.data.PacketCompressionAlgorithm;
+import org.cloudburstmc.protocol.bedrock.netty.BedrockBatchWrapper;
 import org.cloudburstmc.protocol.bedrock.netty.BedrockPacketWrapper;
 import org.cloudburstmc.protocol.bedrock.netty.codec.FrameIdCodec;
 import org.cloudburstmc.protocol.bedrock.netty.codec.batch.BedrockBatchDecoder;
+import org.cloudburstmc.protocol.bedrock.netty.codec.batch.BedrockBatchEncoder;
 import org.cloudburstmc.protocol.bedrock.netty.codec.compression.BatchCompression;
 import org.cloudburstmc.protocol.bedrock.netty.codec.compression.CompressionCodec;
 import org.cloudburstmc.protocol.bedrock.netty.codec.compression.CompressionStrategy;
@@ -31,10 +33,13 @@ import org.cloudburstmc.protocol.bedrock.netty.codec.encryption.BedrockEncryptio
 import org.cloudburstmc.protocol.bedrock.netty.codec.packet.BedrockPacketCodec;
 import org.cloudburstmc.protocol.bedrock.netty.initializer.BedrockChannelInitializer;
 import org.cloudburstmc.protocol.bedrock.packet.BedrockPacket;
+import org.cloudburstmc.protocol.bedrock.util.BedrockPacketFlag;
 import org.cloudburstmc.protocol.bedrock.util.EncryptionUtils;
+import org.cloudburstmc.protocol.bedrock.util.Log2Histogram;
 
 import javax.crypto.SecretKey;
 import java.net.SocketAddress;
+import java.util.BitSet;
 import java.util.Objects;
 import java.util.Queue;
 import java.util.concurrent.TimeUnit;
@@ -48,14 +53,27 @@ public class BedrockPeer extends ChannelInboundHandlerAdapter {
 
     public static final String NAME = "bedrock-peer";
 
+    public static final long DEFAULT_MAX_FLUSH_DELAY_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+    public static final int DEFAULT_MAX_FLUSH_BYTES = 32 * 1024;
+
     private static final InternalLogger log = InternalLoggerFactory.getInstance(BedrockPeer.class);
 
     protected final Int2ObjectMap<BedrockSession> sessions = new Int2ObjectOpenHashMap<>();
     protected final Queue<BedrockPacketWrapper> packetQueue = PlatformDependent.newMpscQueue();
     protected final Channel channel;
     protected final BedrockSessionFactory sessionFactory;
-    protected ScheduledFuture<?> tickFuture;
     protected AtomicBoolean closed = new AtomicBoolean();
+    protected final AtomicBoolean flushScheduled = new AtomicBoolean();
+    protected final Log2Histogram flushSizeHistogram = new Log2Histogram();
+    protected final Log2Histogram queueWaitHistogram = new Log2Histogram();
+    private final Runnable flushTask = this::onTick;
+    private volatile long maxFlushDelayNanos = DEFAULT_MAX_FLUSH_DELAY_NANOS;
+    private volatile int maxFlushBytes = DEFAULT_MAX_FLUSH_BYTES;
+    private volatile long queuedSince;
+    // Only accessed from the event loop
+    private int unflushedPackets;
+    private long unflushedSince;
+    private boolean flushDeferred;
 
     public BedrockPeer(Channel channel, BedrockSessionFactory sessionFactory) {
         this.channel = channel;
@@ -68,6 +86,12 @@ public class BedrockPeer extends ChannelInboundHandlerAdapter {
         session.onPacket(wrapper);
     }
 
+    protected void onBedrockBatch(BedrockBatchWrapper batch) {
+        // Batches may contain packets of several sub-clients, the primary session controls the connection
+        BedrockSession session = this.sessions.computeIfAbsent(0, this::onSessionCreated);
+        session.onBatch(batch);
+    }
+
     protected BedrockSession onSessionCreated(int sessionId) {
         return this.sessionFactory.createSession(this, sessionId);
     }
@@ -82,18 +106,83 @@ public class BedrockPeer extends ChannelInboundHandlerAdapter {
         this.sessions.remove(session.subClientId, session);
     }
 
+    /**
+     * Schedules sending the queued packets. Packets queued while a flush is already scheduled are sent along with it.
+     */
+    protected void scheduleFlush() {
+        if (this.flushScheduled.compareAndSet(false, true)) {
+            this.queuedSince = System.nanoTime();
+            this.channel.eventLoop().execute(this.flushTask);
+        }
+    }
+
     protected void onTick() {
         if (this.closed.get()) {
             return;
         }
+        if (!this.channel.isActive()) {
+            // Scheduled again once the channel becomes active
+            this.flushScheduled.set(false);
+            return;
+        }
 
-        if (!this.packetQueue.isEmpty()) {
-            BedrockPacketWrapper packet;
-            while ((packet = this.packetQueue.poll()) != null) {
-                this.channel.write(packet);
+        this.drainQueue();
+        if (this.unflushedPackets == 0) {
+            return;
+        }
+
+        long now = System.nanoTime();
+        long delay = now - this.unflushedSince;
+        if (delay < this.maxFlushDelayNanos && this.isEventLoopBusy() && this.getPendingBytes() < this.maxFlushBytes) {
+            // More packets are likely to be queued while the event loop catches up, so send them in fewer batches
+            if (!this.flushDeferred) {
+                this.flushDeferred = true;
+                this.channel.eventLoop().schedule(() -> {
+                    this.flushDeferred = false;
+                    this.onTick();
+                }, this.maxFlushDelayNanos - delay, TimeUnit.NANOSECONDS);
+            }
+            return;
+        }
+        this.flushPackets(now);
+    }
+
+    private void drainQueue() {
+        long queuedSince = this.queuedSince;
+        this.flushScheduled.set(false);
+
+        int drained = 0;
+        BedrockPacketWrapper packet;
+        while ((packet = this.packetQueue.poll()) != null) {
+            this.channel.write(packet);
+            drained++;
+        }
+
+        if (drained > 0) {
+            if (this.unflushedPackets == 0) {
+                this.unflushedSince = queuedSince;
             }
-            this.channel.flush();
+            this.unflushedPackets += drained;
+        }
+    }
+
+    private void flushPackets(long now) {
+        if (this.unflushedPackets > 0) {
+            this.flushSizeHistogram.record(this.unflushedPackets);
+            this.queueWaitHistogram.record(now - this.unflushedSince);
+            this.unflushedPackets = 0;
         }
+        this.channel.flush();
+    }
+
+    protected boolean isEventLoopBusy() {
+        return this.channel.eventLoop() instanceof SingleThreadEventExecutor &&
+                ((SingleThreadEventExecutor) this.channel.eventLoop()).pendingTasks() > 0;
+    }
+
+    protected int getPendingBytes() {
+        BedrockBatchEncoder encoder = this.channel.pipeline().get(BedrockBatchEncoder.class);
+        return encoder == null ? 0 : encoder.getPendingSize();
     }
 
     private void onRakNetDisconnect(ChannelHandlerContext ctx, RakDisconnectReason reason) {
@@ -111,12 +200,51 @@ public class BedrockPeer extends ChannelInboundHandlerAdapter {
 
     public void sendPacket(int senderClientId, int targetClientId, BedrockPacket packet) {
         this.packetQueue.add(BedrockPacketWrapper.create(0, senderClientId, targetClientId, packet, null));
+        this.scheduleFlush();
+    }
+
+    /**
+     * Queues a packet which is only relevant until a newer one of the same kind is sent, such as a movement
+     * update. It is sent in its own sequenced batch so the remote peer can drop it once superseded instead of
+     * holding back ordered packets. Falls back to ordered delivery once encryption has been enabled.
+     */
+    public void sendPacketSequenced(int senderClientId, int targetClientId, BedrockPacket packet) {
+        BedrockPacketWrapper wrapper = BedrockPacketWrapper.create(0, senderClientId, targetClientId, packet, null);
+        wrapper.setFlag(BedrockPacketFlag.SEQUENCED);
+        this.packetQueue.add(wrapper);
+        this.scheduleFlush();
     }
 
     public void sendPacketImmediately(int senderClientId, int targetClientId, BedrockPacket packet) {
         this.channel.writeAndFlush(BedrockPacketWrapper.create(0, senderClientId, targetClientId, packet, null));
     }
 
+    /**
+     * Sends a batch received from another peer without splitting and compressing it again. It is only compressed
+     * again if both connections do not agree on the compression header, and encrypted for this connection.
+     * Packets queued before are sent first.
+     *
+     * @param batch batch to send, retained by this method
+     */
+    public void sendBatch(BedrockBatchWrapper batch) {
+        batch.retain();
+        if (this.channel.eventLoop().inEventLoop()) {
+            this.writeBatch(batch);
+        } else {
+            this.channel.eventLoop().execute(() -> this.writeBatch(batch));
+        }
+    }
+
+    private void writeBatch(BedrockBatchWrapper batch) {
+        if (this.closed.get()) {
+            batch.release();
+            return;
+        }
+        this.drainQueue();
+        this.channel.write(batch);
+        this.flushPackets(System.nanoTime());
+    }
+
     public void enableEncryption(@NonNull SecretKey secretKey) {
         Objects.requireNonNull(secretKey, "secretKey");
         if (!secretKey.getAlgorithm().equals("AES")) {
@@ -140,20 +268,33 @@ public class BedrockPeer extends ChannelInboundHandlerAdapter {
     }
 
     public void setCompression(PacketCompressionAlgorithm algorithm) {
+        this.setCompression(algorithm, 0);
+    }
+
+    /**
+     * @param threshold size from which batches are compressed as advertised by
+     *                  {@link org.cloudburstmc.protocol.bedrock.packet.NetworkSettingsPacket#getCompressionThreshold()},
+     *                  0 to compress all batches
+     */
+    public void setCompression(PacketCompressionAlgorithm algorithm, int threshold) {
         Objects.requireNonNull(algorithm, "algorithm");
-        this.setCompression(BedrockChannelInitializer.getCompression(algorithm, this.getRakVersion(), false));
+        this.setCompression(BedrockChannelInitializer.getCompression(algorithm, this.getRakVersion(), false), threshold);
     }
 
     public void setCompression(CompressionStrategy strategy) {
+        this.setCompression(strategy, 0);
+    }
+
+    public void setCompression(CompressionStrategy strategy, int threshold) {
         Objects.requireNonNull(strategy, "strategy");
 
         boolean needsPrefix = this.getCodec().getProtocolVersion() >= 649; // TODO: do not hardcode
 
         ChannelHandler handler = this.channel.pipeline().get(CompressionCodec.NAME);
         if (handler == null) {
-            this.channel.pipeline().addBefore(BedrockBatchDecoder.NAME, CompressionCodec.NAME, new CompressionCodec(strategy, needsPrefix));
+            this.channel.pipeline().addBefore(BedrockBatchDecoder.NAME, CompressionCodec.NAME, new CompressionCodec(strategy, needsPrefix, threshold));
         } else {
-            this.channel.pipeline().replace(CompressionCodec.NAME, CompressionCodec.NAME, new CompressionCodec(strategy, needsPrefix));
+            this.channel.pipeline().replace(CompressionCodec.NAME, CompressionCodec.NAME, new CompressionCodec(strategy, needsPrefix, threshold));
         }
     }
 
@@ -165,6 +306,14 @@ public class BedrockPeer extends ChannelInboundHandlerAdapter {
         return ((CompressionCodec) handler).getStrategy();
     }
 
+    public int getCompressionThreshold() {
+        ChannelHandler handler = this.channel.pipeline().get(CompressionCodec.NAME);
+        if (!(handler instanceof CompressionCodec)) {
+            return 0;
+        }
+        return ((CompressionCodec) handler).getThreshold();
+    }
+
     public BedrockCodec getCodec() {
         return this.channel.pipeline().get(BedrockPacketCodec.class).getCodec();
     }
@@ -178,6 +327,76 @@ public class BedrockPeer extends ChannelInboundHandlerAdapter {
         this.channel.pipeline().get(BedrockPacketCodec.class).setCodec(codec);
     }
 
+    /**
+     * Lets inbound packets be decoded lazily. Packets with IDs in the given set are still decoded when received, all
+     * others only when {@link BedrockPacketWrapper#getPacket()} is called. This saves decoding large packets which
+     * are only forwarded, such as chunks or crafting data. {@link BedrockSession#onPacket(BedrockPacketWrapper)} still
+     * decodes every packet for the packet handler, unless {@link BedrockSession#setSkipLazyPackets(boolean)} is enabled.
+     *
+     * @param eagerPacketIds IDs of packets to decode eagerly, or null to decode all packets eagerly
+     */
+    public void setEagerPacketIds(BitSet eagerPacketIds) {
+        this.channel.pipeline().get(BedrockPacketCodec.class).setEagerPacketIds(eagerPacketIds);
+    }
+
+    public BitSet getEagerPacketIds() {
+        return this.channel.pipeline().get(BedrockPacketCodec.class).getEagerPacketIds();
+    }
+
+    /**
+     * Lets inbound batches which contain none of the given packets skip packet decoding. They are handed to
+     * {@link BedrockSession#onBatch(BedrockBatchWrapper)} of the primary session as a whole instead, so a proxy can
+     * forward them with {@link #sendBatch(BedrockBatchWrapper)} without decompressing them again.
+     *
+     * @param interestingPacketIds IDs of packets which have to be handled separately, or null to split all batches
+     */
+    public void setBatchPassThrough(BitSet interestingPacketIds) {
+        this.channel.attr(BedrockBatchDecoder.INTERESTING_PACKET_IDS)
+                .set(interestingPacketIds == null ? null : (BitSet) interestingPacketIds.clone());
+    }
+
+    /**
+     * Splits outbound batches exceeding the given uncompressed size, so a large packet such as a chunk is not
+     * compressed and encrypted together with the small packets flushed along with it.
+     *
+     * @param maxBatchSize maximum uncompressed batch size in bytes, or 0 to send each flush in a single batch
+     */
+    public void setMaxBatchSize(int maxBatchSize) {
+        this.channel.pipeline().get(BedrockBatchEncoder.class).setMaxBatchSize(maxBatchSize);
+    }
+
+    /**
+     * Sets how long queued packets may be held back while the event loop is busy, so more of them are sent in the
+     * same batch. Once the packets written since the last flush exceed the byte budget, they are sent right away.
+     * Packets are always sent immediately if the event loop is idle.
+     *
+     * @param maxDelay maximum time a packet is held back
+     * @param unit     unit of the delay
+     * @param maxBytes maximum size of the packets held back
+     */
+    public void setFlushBudget(long maxDelay, TimeUnit unit, int maxBytes) {
+        if (maxDelay < 0 || maxBytes < 0) {
+            throw new IllegalArgumentException("Flush budget can not be negative");
+        }
+        this.maxFlushDelayNanos = unit.toNanos(maxDelay);
+        this.maxFlushBytes = maxBytes;
+    }
+
+    /**
+     * Number of packets sent per flush. Packets held back while the event loop is busy are counted in the flush
+     * which finally sends them.
+     */
+    public Log2Histogram getFlushSizeHistogram() {
+        return this.flushSizeHistogram;
+    }
+
+    /**
+     * Time in nanoseconds the oldest packet of a flush spent in the queue.
+     */
+    public Log2Histogram getQueueWaitHistogram() {
+        return this.queueWaitHistogram;
+    }
+
     public void close(String reason) {
         for (BedrockSession session : this.sessions.values()) {
             session.disconnectReason = reason;
@@ -195,11 +414,6 @@ public class BedrockPeer extends ChannelInboundHandlerAdapter {
             return;
         }
 
-        if (this.tickFuture != null) {
-            this.tickFuture.cancel(false);
-            this.tickFuture = null;
-        }
-
         for (BedrockSession session : this.sessions.values())
             try {
                 session.onClose();
@@ -242,7 +456,9 @@ public class BedrockPeer extends ChannelInboundHandlerAdapter {
     @Override
     public void channelActive(ChannelHandlerContext ctx) throws Exception {
         this.sessions.put(0, this.sessionFactory.createSession(this, 0));
-        this.tickFuture = this.channel.eventLoop().scheduleAtFixedRate(this::onTick, 50, 50, TimeUnit.MILLISECONDS);
+        if (!this.packetQueue.isEmpty()) {
+            this.scheduleFlush();
+        }
     }
 
     @Override
@@ -255,6 +471,8 @@ public class BedrockPeer extends ChannelInboundHandlerAdapter {
         try {
             if (msg instanceof BedrockPacketWrapper) {
                 this.onBedrockPacket((BedrockPacketWrapper) msg);
+            } else if (msg instanceof BedrockBatchWrapper) {
+                this.onBedrockBatch((BedrockBatchWrapper) msg);
             } else {
                 throw new DecoderException("Unexpected message type: " + msg.getClass().getName());
             }
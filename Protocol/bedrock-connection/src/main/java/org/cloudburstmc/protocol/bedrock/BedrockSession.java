@@ -4,8 +4,10 @@ import io.netty.util.internal.ObjectUtil;
 import io.netty.util.internal.logging.InternalLogger;
 import io.netty.util.internal.logging.InternalLoggerFactory;
 import org.checkerframework.checker.nullness.qual.NonNull;
+import org.cloudburstmc.protocol.bedrock.cache.BlobCache;
 import org.cloudburstmc.protocol.bedrock.codec.BedrockCodec;
 import org.cloudburstmc.protocol.bedrock.data.PacketCompressionAlgorithm;
+import org.cloudburstmc.protocol.bedrock.netty.BedrockBatchWrapper;
 import org.cloudburstmc.protocol.bedrock.netty.BedrockPacketWrapper;
 import org.cloudburstmc.protocol.bedrock.packet.BedrockPacket;
 import org.cloudburstmc.protocol.bedrock.packet.BedrockPacketHandler;
@@ -13,6 +15,7 @@ import org.cloudburstmc.protocol.common.PacketSignal;
 
 import javax.crypto.SecretKey;
 import java.net.SocketAddress;
+import java.util.BitSet;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 public abstract class BedrockSession {
@@ -24,6 +27,8 @@ public abstract class BedrockSession {
     protected BedrockPacketHandler packetHandler;
     protected boolean logging;
     protected String disconnectReason = BedrockDisconnectReasons.UNKNOWN;
+    protected BlobCache blobCache;
+    protected boolean skipLazyPackets;
 
     public BedrockSession(BedrockPeer peer, int subClientId) {
         this.peer = peer;
@@ -38,6 +43,22 @@ public abstract class BedrockSession {
         this.packetHandler = packetHandler;
     }
 
+    public BlobCache getBlobCache() {
+        return blobCache;
+    }
+
+    /**
+     * Implements the client blob cache for this session. The cache sees the cache related packets before they are
+     * passed to the packet handler. They are added to the eager packet IDs, if set.
+     */
+    public void setBlobCache(BlobCache blobCache) {
+        this.blobCache = blobCache;
+        BitSet eagerPacketIds = this.peer.getEagerPacketIds();
+        if (eagerPacketIds != null) {
+            this.peer.setEagerPacketIds(this.addCachePacketIds(eagerPacketIds));
+        }
+    }
+
     protected void checkForClosed() {
         if (this.closed.get()) {
             throw new IllegalStateException("Session has been closed");
@@ -49,6 +70,15 @@ public abstract class BedrockSession {
         this.logOutbound(packet);
     }
 
+    /**
+     * Sends a packet which the remote peer may drop once a newer one arrived. Falls back to ordered delivery on
+     * encrypted connections, see {@link org.cloudburstmc.protocol.bedrock.util.BedrockPacketFlag#SEQUENCED}.
+     */
+    public void sendPacketSequenced(@NonNull BedrockPacket packet) {
+        this.peer.sendPacketSequenced(this.subClientId, 0, packet);
+        this.logOutbound(packet);
+    }
+
     public void sendPacketImmediately(@NonNull BedrockPacket packet) {
         this.peer.sendPacketImmediately(this.subClientId, 0, packet);
         this.logOutbound(packet);
@@ -70,6 +100,52 @@ public abstract class BedrockSession {
         this.peer.setCodec(codec);
     }
 
+    /**
+     * Decodes only the packets with the given IDs when they are received, see {@link BedrockPeer#setEagerPacketIds(BitSet)}.
+     * Other packets are decoded when they are passed to the packet handler, unless {@link #setSkipLazyPackets(boolean)}
+     * is enabled. The packets the blob cache handles are always decoded. This applies to all sessions of the connection
+     * and has to be set again after changing the codec.
+     */
+    public void setEagerPacketIds(BitSet eagerPacketIds) {
+        if (isSubClient()) {
+            throw new IllegalStateException("Lazy decoding can only be set up by the primary session");
+        }
+        this.peer.setEagerPacketIds(this.addCachePacketIds(eagerPacketIds));
+    }
+
+    /**
+     * Drops received packets which were not decoded eagerly instead of decoding them for the packet handler, so the
+     * handler only sees the packets of {@link #setEagerPacketIds(BitSet)}. Packets the handler has to react to, such
+     * as {@link org.cloudburstmc.protocol.bedrock.packet.DisconnectPacket}, have to be part of that set.
+     */
+    public void setSkipLazyPackets(boolean skipLazyPackets) {
+        this.skipLazyPackets = skipLazyPackets;
+    }
+
+    public boolean isSkipLazyPackets() {
+        return this.skipLazyPackets;
+    }
+
+    private BitSet addCachePacketIds(BitSet eagerPacketIds) {
+        if (eagerPacketIds == null || this.blobCache == null) {
+            return eagerPacketIds;
+        }
+        BitSet packetIds = (BitSet) eagerPacketIds.clone();
+        BlobCache.addPacketIds(this.getCodec(), packetIds);
+        return packetIds;
+    }
+
+    /**
+     * Passes batches without interesting packets on as a whole, see {@link BedrockPeer#setBatchPassThrough(BitSet)}.
+     * Sessions enabling this have to override {@link #onBatch(BedrockBatchWrapper)}.
+     */
+    public void setBatchPassThrough(BitSet interestingPacketIds) {
+        if (isSubClient()) {
+            throw new IllegalStateException("Batch pass-through can only be set up by the primary session");
+        }
+        this.peer.setBatchPassThrough(interestingPacketIds);
+    }
+
     public void setCompression(PacketCompressionAlgorithm algorithm) {
         if (isSubClient()) {
             throw new IllegalStateException("The compression algorithm can only be set by the primary session");
@@ -77,6 +153,13 @@ public abstract class BedrockSession {
         this.peer.setCompression(algorithm);
     }
 
+    public void setCompression(PacketCompressionAlgorithm algorithm, int threshold) {
+        if (isSubClient()) {
+            throw new IllegalStateException("The compression algorithm can only be set by the primary session");
+        }
+        this.peer.setCompression(algorithm, threshold);
+    }
+
     public void enableEncryption(SecretKey key) {
         if (isSubClient()) {
             throw new IllegalStateException("Encryption can only be enabled by the primary session");
@@ -105,13 +188,28 @@ public abstract class BedrockSession {
         } catch (Exception e) {
             log.error("Exception thrown while handling disconnect", e);
         }
+        if (this.blobCache != null) {
+            this.blobCache.release();
+        }
         this.peer.removeSession(this);
     }
 
     protected void onPacket(BedrockPacketWrapper wrapper) {
+        if (this.skipLazyPackets && !wrapper.isPacketDecoded()) {
+            // Not one of the eager packet IDs, so neither the blob cache nor the packet handler needs it
+            if (log.isTraceEnabled() && this.logging) {
+                log.trace("Inbound {}{}: skipped packet {}", this.getSocketAddress(), this.subClientId, wrapper.getPacketId());
+            }
+            return;
+        }
+
         BedrockPacket packet = wrapper.getPacket();
         this.logInbound(packet);
 
+        if (this.blobCache != null) {
+            this.blobCache.onPacket(this, packet);
+        }
+
         if (packetHandler == null) {
             if (log.isDebugEnabled()) {
                 log.debug("Received packet without a packet handler for {}:{}: {}", this.getSocketAddress(), this.subClientId, packet);
@@ -123,6 +221,10 @@ public abstract class BedrockSession {
         }
     }
 
+    protected void onBatch(BedrockBatchWrapper batch) {
+        throw new IllegalStateException("Batch pass-through is enabled, but not handled by " + this.getClass().getName());
+    }
+
     protected void logOutbound(BedrockPacket packet) {
         if (log.isTraceEnabled() && this.logging) {
             log.trace("Outbound {}{}: {}", this.getSocketAddress(), this.subClientId, packet);
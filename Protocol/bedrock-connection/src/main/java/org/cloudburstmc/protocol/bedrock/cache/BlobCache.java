@@ -0,0 +1,347 @@
+package org.cloudburstmc.protocol.bedrock.cache;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.util.internal.ObjectUtil;
+import io.netty.util.internal.logging.InternalLogger;
+import io.netty.util.internal.logging.InternalLoggerFactory;
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.LongLinkedOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongList;
+import org.cloudburstmc.protocol.bedrock.BedrockSession;
+import org.cloudburstmc.protocol.bedrock.codec.BedrockCodec;
+import org.cloudburstmc.protocol.bedrock.codec.BedrockPacketDefinition;
+import org.cloudburstmc.protocol.bedrock.data.SubChunkData;
+import org.cloudburstmc.protocol.bedrock.packet.BedrockPacket;
+import org.cloudburstmc.protocol.bedrock.packet.ClientCacheBlobStatusPacket;
+import org.cloudburstmc.protocol.bedrock.packet.ClientCacheMissResponsePacket;
+import org.cloudburstmc.protocol.bedrock.packet.ClientCacheStatusPacket;
+import org.cloudburstmc.protocol.bedrock.packet.LevelChunkPacket;
+import org.cloudburstmc.protocol.bedrock.packet.SubChunkPacket;
+import org.cloudburstmc.protocol.bedrock.util.XXHash64;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Implements the client blob cache for a session, see {@link BedrockSession#setBlobCache(BlobCache)}. Sub-chunk and
+ * biome payloads are sent as blobs identified by their xxHash64, which the client only requests if it does not have
+ * them stored yet.
+ * <p>
+ * On a server session, the cache tracks whether the client supports caching and which blobs it acknowledged, and
+ * answers the blobs it is missing. Chunks are sent as blobs with {@link #addBlobs(LevelChunkPacket, List)}. A copy of
+ * each sent blob is kept until the client acknowledged or requested it, so the store may evict it in the meantime.
+ * <p>
+ * On a client session, the cache tells the server which blobs of received chunks are stored already and stores the
+ * missing ones once they are received. {@link #sendStatus(BedrockSession)} enables caching on the server.
+ * <p>
+ * Packets are still passed on to the packet handler after the cache has seen them. The {@link BlobStore} can be
+ * shared between sessions and, with a {@link MappedBlobStore}, kept across reconnects.
+ */
+public class BlobCache {
+    private static final InternalLogger log = InternalLoggerFactory.getInstance(BlobCache.class);
+
+    // Packets handled by onPacket
+    private static final List<Class<? extends BedrockPacket>> PACKETS = Arrays.asList(ClientCacheStatusPacket.class,
+            ClientCacheBlobStatusPacket.class, LevelChunkPacket.class, SubChunkPacket.class,
+            ClientCacheMissResponsePacket.class);
+
+    public static final int DEFAULT_MAX_PENDING = 4096;
+    public static final int DEFAULT_MAX_ACKNOWLEDGED = 65536;
+
+    private final BlobStore store;
+    private final int maxPending;
+    private final int maxAcknowledged;
+    // Blobs which were sent to the peer, until it acknowledges or requests them
+    private final Long2ObjectLinkedOpenHashMap<ByteBuf> pending = new Long2ObjectLinkedOpenHashMap<>();
+    // Blobs sent to the peer which it has stored, the oldest are forgotten first
+    private final LongLinkedOpenHashSet acknowledged = new LongLinkedOpenHashSet();
+    private boolean supported;
+
+    private long hits;
+    private long misses;
+    private long blobsSent;
+
+    public BlobCache(BlobStore store) {
+        this(store, DEFAULT_MAX_PENDING, DEFAULT_MAX_ACKNOWLEDGED);
+    }
+
+    /**
+     * @param maxPending      maximum number of sent blobs kept until the client answers them. Once exceeded, the
+     *                        oldest are only available from the store.
+     * @param maxAcknowledged maximum number of acknowledged blob IDs which are remembered
+     */
+    public BlobCache(BlobStore store, int maxPending, int maxAcknowledged) {
+        this.store = ObjectUtil.checkNotNull(store, "store");
+        this.maxPending = ObjectUtil.checkPositive(maxPending, "maxPending");
+        this.maxAcknowledged = ObjectUtil.checkPositive(maxAcknowledged, "maxAcknowledged");
+    }
+
+    /**
+     * Adds the IDs the packets handled by the cache have in the given codec, which have to be decoded eagerly.
+     */
+    public static void addPacketIds(BedrockCodec codec, BitSet packetIds) {
+        for (Class<? extends BedrockPacket> packet : PACKETS) {
+            BedrockPacketDefinition<?> definition = codec.getPacketDefinition(packet);
+            if (definition != null) {
+                packetIds.set(definition.getId());
+            }
+        }
+    }
+
+    public BlobStore getStore() {
+        return this.store;
+    }
+
+    /**
+     * Whether the client announced that it supports caching.
+     */
+    public synchronized boolean isSupported() {
+        return this.supported;
+    }
+
+    /**
+     * Tells the server that this client supports caching.
+     */
+    public void sendStatus(BedrockSession session) {
+        ClientCacheStatusPacket packet = new ClientCacheStatusPacket();
+        packet.setSupported(true);
+        session.sendPacket(packet);
+    }
+
+    /**
+     * Stores the readable bytes of the buffer as a blob without modifying its reader index.
+     *
+     * @return the ID of the blob
+     */
+    public long addBlob(ByteBuf blob) {
+        long blobId = XXHash64.hash(blob);
+        if (!this.store.contains(blobId)) {
+            this.store.put(blobId, blob);
+        }
+        return blobId;
+    }
+
+    /**
+     * Adds the sub-chunk payloads followed by the biome payload to the chunk as blobs, if the client supports caching.
+     * The chunk data then only has to contain the remaining data, such as the block entities.
+     *
+     * @return false if the client does not support caching, in which case the payloads have to be written to the
+     * chunk data
+     */
+    public boolean addBlobs(LevelChunkPacket packet, List<ByteBuf> blobs) {
+        if (!this.isSupported()) {
+            return false;
+        }
+        LongList blobIds = packet.getBlobIds();
+        for (ByteBuf blob : blobs) {
+            long blobId = this.addBlob(blob);
+            this.pin(blobId, blob);
+            blobIds.add(blobId);
+        }
+        packet.setCachingEnabled(true);
+        return true;
+    }
+
+    /**
+     * Adds the sub-chunk payload to the entry as a blob, if the client supports caching.
+     *
+     * @return false if the client does not support caching, in which case the payload has to be written to the entry
+     */
+    public boolean addBlob(SubChunkData data, ByteBuf blob) {
+        if (!this.isSupported()) {
+            return false;
+        }
+        long blobId = this.addBlob(blob);
+        this.pin(blobId, blob);
+        data.setBlobId(blobId);
+        data.setCacheEnabled(true);
+        return true;
+    }
+
+    /**
+     * Keeps a copy of a sent blob until the client answers it.
+     */
+    private synchronized void pin(long blobId, ByteBuf blob) {
+        if (this.pending.containsKey(blobId)) {
+            this.pending.getAndMoveToLast(blobId);
+            return;
+        }
+        this.pending.putAndMoveToLast(blobId, Unpooled.copiedBuffer(blob));
+        if (this.pending.size() > this.maxPending) {
+            this.pending.removeFirst().release();
+        }
+    }
+
+    private void acknowledge(long blobId) {
+        if (this.acknowledged.addAndMoveToLast(blobId) && this.acknowledged.size() > this.maxAcknowledged) {
+            this.acknowledged.removeFirstLong();
+        }
+    }
+
+    public synchronized boolean isAcknowledged(long blobId) {
+        return this.acknowledged.contains(blobId);
+    }
+
+    /**
+     * Returns a copy of a stored blob, which has to be released by the caller.
+     *
+     * @return the blob or null if it is not stored
+     */
+    public ByteBuf getBlob(long blobId) {
+        return this.store.get(blobId);
+    }
+
+    public void onPacket(BedrockSession session, BedrockPacket packet) {
+        if (packet instanceof ClientCacheStatusPacket) {
+            synchronized (this) {
+                this.supported = ((ClientCacheStatusPacket) packet).isSupported();
+            }
+        } else if (packet instanceof ClientCacheBlobStatusPacket) {
+            this.onBlobStatus(session, (ClientCacheBlobStatusPacket) packet);
+        } else if (packet instanceof LevelChunkPacket) {
+            LevelChunkPacket chunk = (LevelChunkPacket) packet;
+            if (chunk.isCachingEnabled()) {
+                this.requestBlobs(session, chunk.getBlobIds());
+            }
+        } else if (packet instanceof SubChunkPacket) {
+            this.onSubChunk(session, (SubChunkPacket) packet);
+        } else if (packet instanceof ClientCacheMissResponsePacket) {
+            this.onMissResponse((ClientCacheMissResponsePacket) packet);
+        }
+    }
+
+    private void onBlobStatus(BedrockSession session, ClientCacheBlobStatusPacket packet) {
+        ClientCacheMissResponsePacket response = new ClientCacheMissResponsePacket();
+        synchronized (this) {
+            for (long blobId : packet.getAcks()) {
+                ByteBuf blob = this.pending.remove(blobId);
+                // Only blobs sent by this cache are remembered
+                if (blob != null) {
+                    blob.release();
+                    this.acknowledge(blobId);
+                }
+            }
+            for (long blobId : packet.getNaks()) {
+                if (response.getBlobs().containsKey(blobId)) {
+                    continue;
+                }
+                ByteBuf blob = this.pending.remove(blobId);
+                if (blob == null) {
+                    blob = this.store.get(blobId);
+                }
+                if (blob == null) {
+                    if (log.isDebugEnabled()) {
+                        log.debug("Client of {} requested unknown blob {}", session.getSocketAddress(), Long.toHexString(blobId));
+                    }
+                    continue;
+                }
+                response.getBlobs().put(blobId, blob);
+                // The client stores the blob once it receives it
+                this.acknowledge(blobId);
+            }
+            this.blobsSent += response.getBlobs().size();
+        }
+
+        if (response.getBlobs().isEmpty()) {
+            response.release();
+        } else {
+            session.sendPacket(response);
+        }
+    }
+
+    private void onSubChunk(BedrockSession session, SubChunkPacket packet) {
+        if (!packet.isCacheEnabled()) {
+            return;
+        }
+        ClientCacheBlobStatusPacket status = new ClientCacheBlobStatusPacket();
+        for (SubChunkData subChunk : packet.getSubChunks()) {
+            if (subChunk.isCacheEnabled()) {
+                this.addStatus(status, subChunk.getBlobId());
+            }
+        }
+        this.sendBlobStatus(session, status);
+    }
+
+    private void requestBlobs(BedrockSession session, LongList blobIds) {
+        ClientCacheBlobStatusPacket status = new ClientCacheBlobStatusPacket();
+        for (int i = 0; i < blobIds.size(); i++) {
+            this.addStatus(status, blobIds.getLong(i));
+        }
+        this.sendBlobStatus(session, status);
+    }
+
+    private void addStatus(ClientCacheBlobStatusPacket status, long blobId) {
+        boolean stored = this.store.contains(blobId);
+        synchronized (this) {
+            if (stored) {
+                this.hits++;
+            } else {
+                this.misses++;
+            }
+        }
+        (stored ? status.getAcks() : status.getNaks()).add(blobId);
+    }
+
+    private void sendBlobStatus(BedrockSession session, ClientCacheBlobStatusPacket status) {
+        if (!status.getAcks().isEmpty() || !status.getNaks().isEmpty()) {
+            session.sendPacket(status);
+        }
+    }
+
+    private void onMissResponse(ClientCacheMissResponsePacket packet) {
+        for (Long2ObjectMap.Entry<ByteBuf> entry : packet.getBlobs().long2ObjectEntrySet()) {
+            long blobId = entry.getLongKey();
+            ByteBuf blob = entry.getValue();
+            if (XXHash64.hash(blob) != blobId) {
+                log.debug("Received blob {} with a different hash", Long.toHexString(blobId));
+                continue;
+            }
+            this.store.put(blobId, blob);
+        }
+    }
+
+    /**
+     * Number of received blob IDs which were stored already.
+     */
+    public synchronized long getHits() {
+        return this.hits;
+    }
+
+    /**
+     * Number of received blob IDs which had to be requested.
+     */
+    public synchronized long getMisses() {
+        return this.misses;
+    }
+
+    /**
+     * Number of blobs sent to the client because it was missing them.
+     */
+    public synchronized long getBlobsSent() {
+        return this.blobsSent;
+    }
+
+    public synchronized int getAcknowledgedCount() {
+        return this.acknowledged.size();
+    }
+
+    /**
+     * Number of sent blobs the client did not answer yet.
+     */
+    public synchronized int getPendingCount() {
+        return this.pending.size();
+    }
+
+    /**
+     * Releases the copies of the blobs the client did not answer. Called once the session is closed.
+     */
+    public synchronized void release() {
+        for (ByteBuf blob : this.pending.values()) {
+            blob.release();
+        }
+        this.pending.clear();
+    }
+}
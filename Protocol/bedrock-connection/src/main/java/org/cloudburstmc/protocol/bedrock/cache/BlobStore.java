@@ -0,0 +1,31 @@
+package org.cloudburstmc.protocol.bedrock.cache;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * Storage of the blobs used by a {@link BlobCache}, keyed by their {@link org.cloudburstmc.protocol.bedrock.util.XXHash64
+ * xxHash64}. A store may be shared by several caches and has to be thread-safe.
+ */
+public interface BlobStore extends AutoCloseable {
+
+    boolean contains(long blobId);
+
+    /**
+     * Returns a copy of the blob, which has to be released by the caller.
+     *
+     * @return the blob or null if it is not stored
+     */
+    ByteBuf get(long blobId);
+
+    /**
+     * Stores the readable bytes of the buffer without modifying its reader index.
+     */
+    void put(long blobId, ByteBuf blob);
+
+    int size();
+
+    void clear();
+
+    @Override
+    void close();
+}
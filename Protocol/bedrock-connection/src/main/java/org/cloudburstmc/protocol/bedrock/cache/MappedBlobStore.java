@@ -0,0 +1,181 @@
+package org.cloudburstmc.protocol.bedrock.cache;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import io.netty.util.internal.logging.InternalLogger;
+import io.netty.util.internal.logging.InternalLoggerFactory;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import org.cloudburstmc.protocol.bedrock.util.XXHash64;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Keeps blobs in a memory-mapped file, so they survive reconnects and restarts. Blobs are appended to the file as
+ * records of their ID, length and content. The index is rebuilt by scanning the file when it is opened, which stops at
+ * the first record whose content does not match its ID.
+ * <p>
+ * The file has a fixed capacity. Once it is full, all blobs are dropped and the store starts over. The file is locked
+ * while the store is open, so it can only be used by one store at a time.
+ */
+public class MappedBlobStore implements BlobStore {
+    private static final InternalLogger log = InternalLoggerFactory.getInstance(MappedBlobStore.class);
+
+    public static final int DEFAULT_CAPACITY = 64 * 1024 * 1024;
+
+    private static final int MAGIC = 0x424C4F42; // BLOB
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+    // Blob ID and length
+    private static final int RECORD_HEADER_SIZE = 12;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer mapped;
+    private final ByteBuf buffer;
+    private final Long2IntOpenHashMap offsets = new Long2IntOpenHashMap();
+    private int position;
+
+    public MappedBlobStore(Path file) throws IOException {
+        this(file, DEFAULT_CAPACITY);
+    }
+
+    public MappedBlobStore(Path file, int capacity) throws IOException {
+        if (capacity < HEADER_SIZE + RECORD_HEADER_SIZE) {
+            throw new IllegalArgumentException("Capacity is too small: " + capacity);
+        }
+        this.offsets.defaultReturnValue(-1);
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            FileLock lock;
+            try {
+                lock = this.channel.tryLock();
+            } catch (OverlappingFileLockException e) {
+                lock = null;
+            }
+            if (lock == null) {
+                throw new IOException("Blob store " + file + " is used by another store");
+            }
+            this.mapped = this.channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        } catch (IOException e) {
+            this.channel.close();
+            throw e;
+        }
+        this.buffer = Unpooled.wrappedBuffer(this.mapped);
+
+        if (this.buffer.getIntLE(0) == MAGIC && this.buffer.getIntLE(4) == VERSION) {
+            this.load();
+        } else {
+            this.buffer.setIntLE(0, MAGIC);
+            this.buffer.setIntLE(4, VERSION);
+            this.reset();
+        }
+    }
+
+    private void load() {
+        int position = HEADER_SIZE;
+        int capacity = this.buffer.capacity();
+        while (position + RECORD_HEADER_SIZE <= capacity) {
+            long blobId = this.buffer.getLongLE(position);
+            int length = this.buffer.getIntLE(position + 8);
+            int start = position + RECORD_HEADER_SIZE;
+            if (length <= 0 || length > capacity - start || XXHash64.hash(this.buffer, start, length) != blobId) {
+                break;
+            }
+            this.offsets.put(blobId, position);
+            position = start + length;
+        }
+        this.position = position;
+        this.writeEnd();
+
+        if (log.isDebugEnabled()) {
+            log.debug("Loaded {} blobs ({} bytes)", this.offsets.size(), position - HEADER_SIZE);
+        }
+    }
+
+    @Override
+    public synchronized boolean contains(long blobId) {
+        return this.offsets.containsKey(blobId);
+    }
+
+    @Override
+    public synchronized ByteBuf get(long blobId) {
+        int offset = this.offsets.get(blobId);
+        if (offset < 0) {
+            return null;
+        }
+        int length = this.buffer.getIntLE(offset + 8);
+        ByteBuf blob = ByteBufAllocator.DEFAULT.buffer(length);
+        blob.writeBytes(this.buffer, offset + RECORD_HEADER_SIZE, length);
+        return blob;
+    }
+
+    @Override
+    public synchronized void put(long blobId, ByteBuf blob) {
+        int length = blob.readableBytes();
+        if (length == 0 || this.offsets.containsKey(blobId)) {
+            return;
+        }
+        int capacity = this.buffer.capacity();
+        if (length > capacity - HEADER_SIZE - RECORD_HEADER_SIZE) {
+            return;
+        }
+        if (length > capacity - this.position - RECORD_HEADER_SIZE) {
+            this.reset();
+        }
+
+        int position = this.position;
+        this.buffer.setBytes(position + RECORD_HEADER_SIZE, blob, blob.readerIndex(), length);
+        this.buffer.setIntLE(position + 8, length);
+        this.buffer.setLongLE(position, blobId);
+        this.offsets.put(blobId, position);
+        this.position = position + RECORD_HEADER_SIZE + length;
+        this.writeEnd();
+    }
+
+    @Override
+    public synchronized int size() {
+        return this.offsets.size();
+    }
+
+    @Override
+    public synchronized void clear() {
+        this.reset();
+    }
+
+    /**
+     * Writes the mapped content to the file.
+     */
+    public synchronized void flush() {
+        this.mapped.force();
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            this.mapped.force();
+            this.channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void reset() {
+        this.offsets.clear();
+        this.position = HEADER_SIZE;
+        this.writeEnd();
+    }
+
+    private void writeEnd() {
+        // Marks the end of the records, as older records may follow after the store was reset
+        if (this.position + RECORD_HEADER_SIZE <= this.buffer.capacity()) {
+            this.buffer.setIntLE(this.position + 8, 0);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package org.cloudburstmc.protocol.bedrock.cache;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+
+/**
+ * Keeps blobs on the heap and evicts the least recently used ones once the stored bytes exceed the limit.
+ */
+public class MemoryBlobStore implements BlobStore {
+    public static final long DEFAULT_MAX_BYTES = 16 * 1024 * 1024;
+
+    private final Long2ObjectLinkedOpenHashMap<byte[]> blobs = new Long2ObjectLinkedOpenHashMap<>();
+    private final long maxBytes;
+    private long bytes;
+
+    public MemoryBlobStore() {
+        this(DEFAULT_MAX_BYTES);
+    }
+
+    public MemoryBlobStore(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    @Override
+    public synchronized boolean contains(long blobId) {
+        return this.blobs.containsKey(blobId);
+    }
+
+    @Override
+    public synchronized ByteBuf get(long blobId) {
+        byte[] blob = this.blobs.getAndMoveToLast(blobId);
+        return blob == null ? null : Unpooled.copiedBuffer(blob);
+    }
+
+    @Override
+    public synchronized void put(long blobId, ByteBuf blob) {
+        byte[] bytes = new byte[blob.readableBytes()];
+        blob.getBytes(blob.readerIndex(), bytes);
+        byte[] previous = this.blobs.putAndMoveToLast(blobId, bytes);
+        if (previous != null) {
+            this.bytes -= previous.length;
+        }
+        this.bytes += bytes.length;
+
+        while (this.bytes > this.maxBytes && this.blobs.size() > 1) {
+            this.bytes -= this.blobs.removeFirst().length;
+        }
+    }
+
+    @Override
+    public synchronized int size() {
+        return this.blobs.size();
+    }
+
+    @Override
+    public synchronized void clear() {
+        this.blobs.clear();
+        this.bytes = 0;
+    }
+
+    @Override
+    public void close() {
+        this.clear();
+    }
+}
@@ -24,6 +24,8 @@ public class BedrockBatchWrapper extends AbstractReferenceCounted {
 
     private ByteBuf compressed;
     private CompressionAlgorithm algorithm;
+    // Whether the compressed data starts with the header byte of the compression algorithm
+    private boolean prefixed;
 
     private ByteBuf uncompressed;
     private List<BedrockPacketWrapper> packets = new ObjectArrayList<>();
@@ -69,6 +71,7 @@ public class BedrockBatchWrapper extends AbstractReferenceCounted {
         this.packets.clear();
         this.modified = false;
         this.algorithm = null;
+        this.prefixed = false;
         this.flags.clear();
         this.handle.recycle(this);
     }
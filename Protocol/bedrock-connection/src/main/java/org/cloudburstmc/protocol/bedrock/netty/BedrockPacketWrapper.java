@@ -25,6 +25,7 @@ public class BedrockPacketWrapper extends AbstractReferenceCounted {
     private BedrockPacket packet;
     private ByteBuf packetBuffer;
     private Set<PacketFlag> flags = new ObjectOpenHashSet<>();
+    private Decoder decoder;
 
     public static BedrockPacketWrapper create(int packetId, int senderSubClientId, int targetSubClientId, BedrockPacket packet, ByteBuf packetBuffer) {
         BedrockPacketWrapper wrapper = RECYCLER.get();
@@ -56,6 +57,25 @@ public class BedrockPacketWrapper extends AbstractReferenceCounted {
         this.handle = handle;
     }
 
+    /**
+     * Returns the packet, decoding it from the packet buffer first if it was decoded lazily.
+     */
+    public BedrockPacket getPacket() {
+        if (this.packet == null && this.decoder != null) {
+            Decoder decoder = this.decoder;
+            this.decoder = null;
+            this.packet = decoder.decode(this);
+        }
+        return this.packet;
+    }
+
+    /**
+     * Whether {@link #getPacket()} can return without decoding.
+     */
+    public boolean isPacketDecoded() {
+        return this.decoder == null;
+    }
+
     public void setFlag(PacketFlag flag) {
         this.flags.add(flag);
     }
@@ -78,6 +98,7 @@ public class BedrockPacketWrapper extends AbstractReferenceCounted {
         this.headerLength = 0;
         this.packet = null;
         this.packetBuffer = null;
+        this.decoder = null;
         this.flags.clear();
         this.handle.recycle(this);
     }
@@ -93,4 +114,12 @@ public class BedrockPacketWrapper extends AbstractReferenceCounted {
     public BedrockPacketWrapper retain() {
         return (BedrockPacketWrapper) super.retain();
     }
+
+    /**
+     * Decodes the packet of a wrapper which was received with only its packet ID and buffer.
+     */
+    @FunctionalInterface
+    public interface Decoder {
+        BedrockPacket decode(BedrockPacketWrapper wrapper);
+    }
 }
@@ -8,6 +8,8 @@ import io.netty.handler.codec.MessageToMessageCodec;
 import org.cloudburstmc.netty.channel.raknet.RakReliability;
 import org.cloudburstmc.netty.channel.raknet.packet.RakMessage;
 import org.cloudburstmc.protocol.bedrock.netty.BedrockBatchWrapper;
+import org.cloudburstmc.protocol.bedrock.netty.codec.encryption.BedrockEncryptionEncoder;
+import org.cloudburstmc.protocol.bedrock.util.BedrockPacketFlag;
 
 import java.util.List;
 
@@ -31,7 +33,13 @@ public class FrameIdCodec extends MessageToMessageCodec<RakMessage, BedrockBatch
             buf.addComponent(true, ctx.alloc().ioBuffer(1).writeByte(frameId));
             buf.addComponent(true, msg.getCompressed().retainedSlice());
 
-            out.add(buf.retain());
+            if (msg.hasFlag(BedrockPacketFlag.SEQUENCED) && ctx.pipeline().get(BedrockEncryptionEncoder.NAME) == null) {
+                // Encrypted batches have to arrive in order to keep the cipher in sync, so only unencrypted
+                // connections can let the remote peer drop superseded batches.
+                out.add(new RakMessage(buf.retain(), RakReliability.RELIABLE_SEQUENCED));
+            } else {
+                out.add(buf.retain());
+            }
         } finally {
             buf.release();
         }
@@ -4,9 +4,12 @@ import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandler.Sharable;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.MessageToMessageDecoder;
+import io.netty.util.AttributeKey;
 import org.cloudburstmc.protocol.bedrock.netty.BedrockBatchWrapper;
+import org.cloudburstmc.protocol.bedrock.netty.codec.packet.BedrockPacketCodec;
 import org.cloudburstmc.protocol.common.util.VarInts;
 
+import java.util.BitSet;
 import java.util.List;
 
 @Sharable
@@ -14,12 +17,25 @@ public class BedrockBatchDecoder extends MessageToMessageDecoder<BedrockBatchWra
 
     public static final String NAME = "bedrock-batch-decoder";
 
+    /**
+     * IDs of the packets which have to be split out of a batch. If set, batches which contain none of them are passed
+     * on as a whole, still holding their compressed data.
+     */
+    public static final AttributeKey<BitSet> INTERESTING_PACKET_IDS = AttributeKey.valueOf("bedrock_interesting_packet_ids");
+
     @Override
     protected void decode(ChannelHandlerContext ctx, BedrockBatchWrapper msg, List<Object> out) {
         if (msg.getUncompressed() == null) {
             throw new IllegalStateException("Batch packet was not decompressed");
         }
 
+        BitSet interestingPacketIds = ctx.channel().attr(INTERESTING_PACKET_IDS).get();
+        if (interestingPacketIds != null && msg.getCompressed() != null &&
+                !containsAny(ctx, msg.getUncompressed(), interestingPacketIds)) {
+            out.add(msg.retain());
+            return;
+        }
+
         ByteBuf buffer = msg.getUncompressed().slice();
         while (buffer.isReadable()) {
             int packetLength = VarInts.readUnsignedInt(buffer);
@@ -27,4 +43,22 @@ public class BedrockBatchDecoder extends MessageToMessageDecoder<BedrockBatchWra
             out.add(packetBuf);
         }
     }
+
+    private static boolean containsAny(ChannelHandlerContext ctx, ByteBuf batch, BitSet packetIds) {
+        BedrockPacketCodec packetCodec = ctx.pipeline().get(BedrockPacketCodec.class);
+        if (packetCodec == null) {
+            return true;
+        }
+
+        ByteBuf buffer = batch.slice();
+        while (buffer.isReadable()) {
+            int packetLength = VarInts.readUnsignedInt(buffer);
+            int index = buffer.readerIndex();
+            if (packetIds.get(packetCodec.peekPacketId(buffer))) {
+                return true;
+            }
+            buffer.readerIndex(index + packetLength);
+        }
+        return false;
+    }
 }
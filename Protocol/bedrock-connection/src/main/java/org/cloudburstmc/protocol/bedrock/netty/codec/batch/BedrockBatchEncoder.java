@@ -1,60 +1,102 @@
 package org.cloudburstmc.protocol.bedrock.netty.codec.batch;
 
 import io.netty.buffer.ByteBuf;
-import io.netty.buffer.CompositeByteBuf;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelOutboundHandlerAdapter;
 import io.netty.channel.ChannelPromise;
 import org.cloudburstmc.protocol.bedrock.netty.BedrockBatchWrapper;
 import org.cloudburstmc.protocol.bedrock.netty.BedrockPacketWrapper;
+import org.cloudburstmc.protocol.bedrock.util.BedrockPacketFlag;
 import org.cloudburstmc.protocol.common.util.VarInts;
 
 import java.util.ArrayDeque;
-import java.util.Queue;
 
 public class BedrockBatchEncoder extends ChannelOutboundHandlerAdapter {
 
     public static final String NAME = "bedrock-batch-encoder";
 
-    private final Queue<BedrockPacketWrapper> messages = new ArrayDeque<>();
+    private final ArrayDeque<BedrockPacketWrapper> messages = new ArrayDeque<>();
+    /**
+     * Uncompressed size after which a batch is split, or 0 to send all packets of a flush in one batch.
+     * A single packet exceeding it is still sent in its own batch.
+     */
+    private int maxBatchSize;
+    // Size of the packets written, but not flushed yet
+    private int pendingSize;
+
+    public BedrockBatchEncoder() {
+        this(0);
+    }
+
+    public BedrockBatchEncoder(int maxBatchSize) {
+        this.setMaxBatchSize(maxBatchSize);
+    }
 
     @Override
     public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
         if (!(msg instanceof BedrockPacketWrapper)) {
+            // Packets written before a forwarded batch must be sent before it
+            while (!this.messages.isEmpty()) {
+                this.writeBatch(ctx);
+            }
             super.write(ctx, msg, promise);
             return;
         }
 
+        BedrockPacketWrapper packet = (BedrockPacketWrapper) msg;
+        if (packet.getPacketBuffer() == null) {
+            packet.release();
+            throw new IllegalArgumentException("BedrockPacket is not encoded");
+        }
+
         // Accumulate messages to batch
-        this.messages.add((BedrockPacketWrapper) msg);
+        this.messages.add(packet);
+        this.pendingSize += packet.getPacketBuffer().readableBytes();
         promise.trySuccess(); // complete write promise here
     }
 
     @Override
     public void flush(ChannelHandlerContext ctx) throws Exception {
-        if (messages.isEmpty()) {
-            super.flush(ctx);
-            return;
+        while (!this.messages.isEmpty()) {
+            this.writeBatch(ctx);
         }
+        super.flush(ctx);
+    }
 
-        CompositeByteBuf buf = ctx.alloc().compositeDirectBuffer(messages.size() * 2);
-        BedrockBatchWrapper batch = BedrockBatchWrapper.newInstance();
+    private void writeBatch(ChannelHandlerContext ctx) {
+        // Packets are encoded already, so the batch can be written into a single buffer of the exact size
+        // instead of a composite buffer which has to be copied again for compression.
+        boolean sequenced = this.messages.peek().hasFlag(BedrockPacketFlag.SEQUENCED);
+        int size = 0;
+        int count = 0;
+        for (BedrockPacketWrapper packet : this.messages) {
+            // Sequenced packets may be dropped by the remote peer, so they can not share a batch with ordered ones
+            if (packet.hasFlag(BedrockPacketFlag.SEQUENCED) != sequenced) {
+                break;
+            }
+            int length = packet.getPacketBuffer().readableBytes();
+            int encodedLength = varIntSize(length) + length;
+            if (count > 0 && this.maxBatchSize > 0 && size + encodedLength > this.maxBatchSize) {
+                break;
+            }
+            size += encodedLength;
+            count++;
+        }
 
+        ByteBuf buf = ctx.alloc().ioBuffer(size);
+        BedrockBatchWrapper batch = BedrockBatchWrapper.newInstance();
         try {
-            BedrockPacketWrapper packet;
-            while ((packet = messages.poll()) != null) try {
-                ByteBuf message = packet.getPacketBuffer();
-                if (message == null) {
-                    throw new IllegalArgumentException("BedrockPacket is not encoded");
+            for (int i = 0; i < count; i++) {
+                BedrockPacketWrapper packet = this.messages.poll();
+                try {
+                    ByteBuf message = packet.getPacketBuffer();
+                    this.pendingSize -= message.readableBytes();
+                    VarInts.writeUnsignedInt(buf, message.readableBytes());
+                    buf.writeBytes(message, message.readerIndex(), message.readableBytes());
+                    batch.addPacket(packet.retain());
+                } finally {
+                    packet.release();
                 }
-
-                ByteBuf header = ctx.alloc().ioBuffer(5);
-                VarInts.writeUnsignedInt(header, message.readableBytes());
-                buf.addComponent(true, header);
-                buf.addComponent(true, message.retain());
-                batch.addPacket(packet.retain());
-            } finally {
-                packet.release();
             }
 
             batch.setUncompressed(buf.retain());
@@ -63,8 +105,28 @@ public class BedrockBatchEncoder extends ChannelOutboundHandlerAdapter {
             buf.release();
             batch.release();
         }
+    }
 
-        super.flush(ctx);
+    private static int varIntSize(int value) {
+        return (38 - Integer.numberOfLeadingZeros(value | 1)) / 7;
+    }
+
+    /**
+     * Size of the packets which were written, but are not sent until the next flush.
+     */
+    public int getPendingSize() {
+        return this.pendingSize;
+    }
+
+    public int getMaxBatchSize() {
+        return this.maxBatchSize;
+    }
+
+    public void setMaxBatchSize(int maxBatchSize) {
+        if (maxBatchSize < 0) {
+            throw new IllegalArgumentException("Max batch size can not be negative");
+        }
+        this.maxBatchSize = maxBatchSize;
     }
 
     @Override
@@ -73,6 +135,7 @@ public class BedrockBatchEncoder extends ChannelOutboundHandlerAdapter {
         while ((message = messages.poll()) != null) {
             message.release();
         }
+        this.pendingSize = 0;
         super.handlerRemoved(ctx);
     }
 }
@@ -0,0 +1,204 @@
+package org.cloudburstmc.protocol.bedrock.netty.codec.compression;
+
+import org.cloudburstmc.protocol.bedrock.data.CompressionAlgorithm;
+import org.cloudburstmc.protocol.bedrock.data.PacketCompressionAlgorithm;
+import org.cloudburstmc.protocol.bedrock.netty.BedrockBatchWrapper;
+import org.cloudburstmc.protocol.bedrock.netty.BedrockPacketWrapper;
+import org.cloudburstmc.protocol.common.util.Zlib;
+
+import java.util.BitSet;
+
+/**
+ * A compression strategy that picks the algorithm and level for every batch:
+ * <ul>
+ *     <li>tiny batches, such as a single movement packet, are sent uncompressed</li>
+ *     <li>latency sensitive batches use Snappy or fast zlib</li>
+ *     <li>large batches and batches with bulk data, such as chunks or crafting data, use high zlib levels</li>
+ * </ul>
+ * Within each class the candidate with the best observed trade-off between compression ratio and encoding time
+ * is used, and the other candidates are probed from time to time to keep their statistics up to date.
+ * <p>
+ * Choosing the algorithm per batch requires a prefixed {@link CompressionCodec} (protocol 649 and newer), other codecs
+ * reject this strategy.
+ * The strategy keeps per-connection statistics, so every connection needs its own instance.
+ */
+public class AdaptiveCompressionStrategy implements CompressionStrategy {
+    // IDs of packets with bulk data, which are the same in all protocol versions. Matched by ID so batches
+    // received with lazily decoded packets do not have to be decoded.
+    private static final BitSet BULK_PACKET_IDS = new BitSet();
+
+    static {
+        BULK_PACKET_IDS.set(11); // StartGamePacket
+        BULK_PACKET_IDS.set(52); // CraftingDataPacket
+        BULK_PACKET_IDS.set(58); // LevelChunkPacket
+        BULK_PACKET_IDS.set(76); // AvailableCommandsPacket
+        BULK_PACKET_IDS.set(83); // ResourcePackChunkDataPacket
+        BULK_PACKET_IDS.set(119); // AvailableEntityIdentifiersPacket
+        BULK_PACKET_IDS.set(122); // BiomeDefinitionListPacket
+        BULK_PACKET_IDS.set(145); // CreativeContentPacket
+        BULK_PACKET_IDS.set(162); // ItemComponentPacket
+        BULK_PACKET_IDS.set(174); // SubChunkPacket
+    }
+
+    public static final int DEFAULT_TINY_THRESHOLD = 64;
+    public static final int DEFAULT_BULK_THRESHOLD = 16 * 1024;
+
+    private static final int PROBE_INTERVAL = 32;
+    // Weight of the last observation in the moving averages
+    private static final double ALPHA = 0.125;
+
+    private final BatchCompression none = new NoopCompression();
+    private final BatchCompression snappy = new SnappyCompression();
+    private final BatchCompression zlib;
+    private final BatchCompression zlibFast;
+    private final BatchCompression zlibBest;
+
+    private final int tinyThreshold;
+    private final int bulkThreshold;
+
+    private final Mix latency;
+    private final Mix bulk;
+
+    private Mix lastMix;
+    private Candidate lastCandidate;
+
+    public AdaptiveCompressionStrategy() {
+        this(Zlib.RAW, DEFAULT_TINY_THRESHOLD, DEFAULT_BULK_THRESHOLD);
+    }
+
+    public AdaptiveCompressionStrategy(Zlib zlib, int tinyThreshold, int bulkThreshold) {
+        this.zlib = new ZlibCompression(zlib);
+        this.zlibFast = new ZlibCompression(zlib);
+        this.zlibFast.setLevel(1);
+        this.zlibBest = new ZlibCompression(zlib);
+        this.zlibBest.setLevel(9);
+        this.tinyThreshold = tinyThreshold;
+        this.bulkThreshold = bulkThreshold;
+
+        // Initial estimates of ratio and nanoseconds per byte, replaced by observations quickly
+        this.latency = new Mix(100.0,
+                new Candidate(this.snappy, 0.7, 2.0),
+                new Candidate(this.zlibFast, 0.55, 10.0),
+                new Candidate(this.none, 1.0, 0.0));
+        this.bulk = new Mix(1000.0,
+                new Candidate(this.zlibBest, 0.35, 40.0),
+                new Candidate(this.zlibFast, 0.45, 10.0),
+                new Candidate(this.none, 1.0, 0.0));
+    }
+
+    @Override
+    public BatchCompression getCompression(BedrockBatchWrapper wrapper) {
+        int size = wrapper.getUncompressed().readableBytes();
+        if (size <= this.tinyThreshold) {
+            this.lastMix = null;
+            return this.none;
+        }
+
+        Mix mix = size >= this.bulkThreshold || hasBulkPacket(wrapper) ? this.bulk : this.latency;
+        Candidate candidate = mix.next();
+        this.lastMix = mix;
+        this.lastCandidate = candidate;
+        return candidate.compression;
+    }
+
+    @Override
+    public void onCompressed(BedrockBatchWrapper wrapper, BatchCompression compression, int uncompressedSize, int compressedSize, long nanos) {
+        if (this.lastMix == null || this.lastCandidate.compression != compression || uncompressedSize == 0) {
+            return;
+        }
+        this.lastCandidate.update((double) compressedSize / uncompressedSize, (double) nanos / uncompressedSize);
+        this.lastMix = null;
+    }
+
+    @Override
+    public boolean isTimed() {
+        // Only batches compressed with a candidate are observed
+        return this.lastMix != null;
+    }
+
+    @Override
+    public boolean isPrefixRequired() {
+        return true;
+    }
+
+    @Override
+    public BatchCompression getCompression(CompressionAlgorithm algorithm) {
+        // Not a batch compressed with a candidate
+        this.lastMix = null;
+        if (algorithm == PacketCompressionAlgorithm.ZLIB) {
+            return this.zlib;
+        } else if (algorithm == PacketCompressionAlgorithm.SNAPPY) {
+            return this.snappy;
+        } else if (algorithm == PacketCompressionAlgorithm.NONE) {
+            return this.none;
+        }
+        return this.zlib;
+    }
+
+    @Override
+    public BatchCompression getDefaultCompression() {
+        return this.zlib;
+    }
+
+    private static boolean hasBulkPacket(BedrockBatchWrapper wrapper) {
+        for (BedrockPacketWrapper packet : wrapper.getPackets()) {
+            if (BULK_PACKET_IDS.get(packet.getPacketId())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static class Mix {
+        // Encoding time in nanoseconds per byte which costs as much as sending the batch uncompressed
+        private final double timeBudget;
+        private final Candidate[] candidates;
+        private int batches;
+        private int probe;
+
+        private Mix(double timeBudget, Candidate... candidates) {
+            this.timeBudget = timeBudget;
+            this.candidates = candidates;
+        }
+
+        private Candidate next() {
+            Candidate best = this.candidates[0];
+            for (int i = 1; i < this.candidates.length; i++) {
+                if (this.candidates[i].score(this.timeBudget) < best.score(this.timeBudget)) {
+                    best = this.candidates[i];
+                }
+            }
+
+            if (++this.batches % PROBE_INTERVAL == 0) {
+                Candidate probe = this.candidates[this.probe++ % this.candidates.length];
+                if (probe != best) {
+                    return probe;
+                }
+            }
+            return best;
+        }
+    }
+
+    private static class Candidate {
+        private final BatchCompression compression;
+        private double ratio;
+        private double nanosPerByte;
+
+        private Candidate(BatchCompression compression, double ratio, double nanosPerByte) {
+            this.compression = compression;
+            this.ratio = ratio;
+            this.nanosPerByte = nanosPerByte;
+        }
+
+        private double score(double timeBudget) {
+            return this.ratio + this.nanosPerByte / timeBudget;
+        }
+
+        private void update(double ratio, double nanosPerByte) {
+            this.ratio += (ratio - this.ratio) * ALPHA;
+            // Limit the impact of a single slow batch, e.g. one that was interrupted by a GC pause
+            nanosPerByte = Math.min(nanosPerByte, Math.max(this.nanosPerByte, 1.0) * 4);
+            this.nanosPerByte += (nanosPerByte - this.nanosPerByte) * ALPHA;
+        }
+    }
+}
@@ -6,6 +6,7 @@ import io.netty.handler.codec.MessageToMessageCodec;
 import org.cloudburstmc.protocol.bedrock.data.CompressionAlgorithm;
 import org.cloudburstmc.protocol.bedrock.data.PacketCompressionAlgorithm;
 import org.cloudburstmc.protocol.bedrock.netty.BedrockBatchWrapper;
+import org.cloudburstmc.protocol.bedrock.netty.codec.encryption.BedrockEncryptionEncoder;
 
 import java.util.List;
 
@@ -14,10 +15,23 @@ public class CompressionCodec extends MessageToMessageCodec<BedrockBatchWrapper,
 
     private final CompressionStrategy strategy;
     private final boolean prefixed;
+    private final int threshold;
 
     public CompressionCodec(CompressionStrategy strategy, boolean prefixed) {
+        this(strategy, prefixed, 0);
+    }
+
+    /**
+     * @param threshold batches with fewer uncompressed bytes are sent without compression, 0 to compress all batches.
+     *                  Only applies to prefixed protocols, as the others can not mark a batch as uncompressed.
+     */
+    public CompressionCodec(CompressionStrategy strategy, boolean prefixed, int threshold) {
+        if (!prefixed && strategy.isPrefixRequired()) {
+            throw new IllegalArgumentException("Compression strategy requires a prefixed protocol");
+        }
         this.strategy = strategy;
         this.prefixed = prefixed;
+        this.threshold = Math.max(threshold, 0);
     }
 
     @Override
@@ -27,22 +41,43 @@ public class CompressionCodec extends MessageToMessageCodec<BedrockBatchWrapper,
         }
 
         if (msg.getCompressed() != null && !msg.isModified()) {
-            this.onPassedThrough(ctx, msg);
-            out.add(msg.retain());
-            return;
+            if (msg.getAlgorithm() == null || msg.isPrefixed() == this.prefixed) {
+                this.onPassedThrough(ctx, msg);
+                out.add(msg.retain());
+                return;
+            }
+
+            // Batch forwarded from a connection with a different prefix state
+            if (msg.isPrefixed() && msg.getAlgorithm() == this.strategy.getDefaultCompression().getAlgorithm()) {
+                msg.setCompressed(msg.getCompressed().retainedSlice().skipBytes(1), msg.getAlgorithm());
+                msg.setPrefixed(false);
+                this.onPassedThrough(ctx, msg);
+                out.add(msg.retain());
+                return;
+            }
         }
 
-        BatchCompression compression = this.strategy.getCompression(msg);
+        int uncompressedSize = msg.getUncompressed().readableBytes();
+        BatchCompression compression;
+        if (this.prefixed && uncompressedSize < this.threshold) {
+            compression = this.strategy.getCompression(PacketCompressionAlgorithm.NONE);
+        } else {
+            compression = this.strategy.getCompression(msg);
+        }
         if (!this.prefixed && this.strategy.getDefaultCompression().getAlgorithm() != compression.getAlgorithm()) {
             throw new IllegalStateException("Non-default compression algorithm used without prefixing");
         }
 
+        boolean timed = this.strategy.isTimed();
+        long start = timed ? System.nanoTime() : 0;
         ByteBuf compressed = compression.encode(ctx, msg.getUncompressed());
+        long nanos = timed ? System.nanoTime() - start : 0;
+        this.strategy.onCompressed(msg, compression, uncompressedSize, compressed.readableBytes(), nanos);
         try {
             ByteBuf outBuf;
             if (this.prefixed) {
-                // Do not use a composite buffer as encryption does not like it
-                outBuf = ctx.alloc().ioBuffer(1 + compressed.readableBytes());
+                // Do not use a composite buffer as encryption does not like it, and leave room for its trailer
+                outBuf = ctx.alloc().ioBuffer(1 + compressed.readableBytes() + BedrockEncryptionEncoder.TRAILER_HEADROOM);
                 outBuf.writeByte(this.getCompressionHeader(compression.getAlgorithm()));
                 outBuf.writeBytes(compressed);
             } else {
@@ -50,6 +85,7 @@ public class CompressionCodec extends MessageToMessageCodec<BedrockBatchWrapper,
             }
 
             msg.setCompressed(outBuf, compression.getAlgorithm());
+            msg.setPrefixed(this.prefixed);
         } finally {
             compressed.release();
         }
@@ -71,14 +107,22 @@ public class CompressionCodec extends MessageToMessageCodec<BedrockBatchWrapper,
         }
 
         msg.setAlgorithm(compression.getAlgorithm());
+        msg.setPrefixed(this.prefixed);
         msg.setUncompressed(compression.decode(ctx, compressed.slice()));
         this.onDecompressed(ctx, msg);
         out.add(msg.retain());
     }
 
+    /**
+     * Called for batches which were already compressed and are sent as they are, whatever their size.
+     */
     protected void onPassedThrough(ChannelHandlerContext ctx, BedrockBatchWrapper msg) {
     }
 
+    /**
+     * Called after a batch was compressed. Batches below the threshold are reported with
+     * {@link PacketCompressionAlgorithm#NONE} as their algorithm, see {@link #getThreshold()}.
+     */
     protected void onCompressed(ChannelHandlerContext ctx, BedrockBatchWrapper msg) {
     }
 
@@ -129,4 +173,8 @@ public class CompressionCodec extends MessageToMessageCodec<BedrockBatchWrapper,
     public CompressionStrategy getStrategy() {
         return this.strategy;
     }
+
+    public int getThreshold() {
+        return this.threshold;
+    }
 }
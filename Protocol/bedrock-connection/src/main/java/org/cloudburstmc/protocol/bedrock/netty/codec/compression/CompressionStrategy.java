@@ -10,4 +10,28 @@ public interface CompressionStrategy {
     BatchCompression getCompression(CompressionAlgorithm algorithm);
 
     BatchCompression getDefaultCompression();
+
+    /**
+     * Whether the next call to {@link #onCompressed} needs the time spent compressing the batch. Asked after
+     * {@link #getCompression(BedrockBatchWrapper)}, otherwise 0 is reported.
+     */
+    default boolean isTimed() {
+        return false;
+    }
+
+    /**
+     * Whether the strategy picks algorithms other than the {@link #getDefaultCompression() default}, which requires a
+     * prefixed {@link CompressionCodec}.
+     */
+    default boolean isPrefixRequired() {
+        return false;
+    }
+
+    /**
+     * Called after a batch was compressed with the compression returned by {@link #getCompression(BedrockBatchWrapper)}.
+     *
+     * @param nanos time spent compressing the batch, 0 unless {@link #isTimed()} returned true
+     */
+    default void onCompressed(BedrockBatchWrapper wrapper, BatchCompression compression, int uncompressedSize, int compressedSize, long nanos) {
+    }
 }
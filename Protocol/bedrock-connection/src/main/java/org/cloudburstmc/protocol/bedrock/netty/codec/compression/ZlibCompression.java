@@ -22,7 +22,7 @@ public class ZlibCompression implements BatchCompression {
 
     @Override
     public ByteBuf encode(ChannelHandlerContext ctx, ByteBuf msg) throws Exception {
-        ByteBuf outBuf = ctx.alloc().ioBuffer(msg.readableBytes() << 3);
+        ByteBuf outBuf = ctx.alloc().ioBuffer(Zlib.deflateBound(msg.readableBytes()));
         try {
             zlib.deflate(msg, outBuf, level);
             return outBuf.retain();
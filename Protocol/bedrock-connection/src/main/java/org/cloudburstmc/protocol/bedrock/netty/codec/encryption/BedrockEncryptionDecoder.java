@@ -4,50 +4,49 @@ import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.CorruptedFrameException;
 import io.netty.handler.codec.MessageToMessageDecoder;
-import lombok.RequiredArgsConstructor;
 import org.cloudburstmc.protocol.bedrock.netty.BedrockBatchWrapper;
 
 import javax.crypto.Cipher;
 import javax.crypto.SecretKey;
-import java.nio.ByteBuffer;
-import java.util.Arrays;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicLong;
 
-@RequiredArgsConstructor
+/**
+ * Decrypts batches and checks their trailer. Batches with an invalid trailer are rejected with a
+ * {@link CorruptedFrameException}.
+ * <p>
+ * Trailer validation used to be off unless enabled. It is now on by default and can be turned off with
+ * {@code -Dcloudburst.validateEncryption=false}.
+ */
 public class BedrockEncryptionDecoder extends MessageToMessageDecoder<BedrockBatchWrapper> {
 
     public static final String NAME = "bedrock-encryption-decoder";
 
-    private static final boolean VALIDATE = Boolean.getBoolean("cloudburst.validateEncryption");
+    private static final boolean VALIDATE = Boolean.parseBoolean(System.getProperty("cloudburst.validateEncryption", "true"));
 
-    private final AtomicLong packetCounter = new AtomicLong();
-    private final SecretKey key;
-    private final Cipher cipher;
+    private final EncryptionState state;
+
+    public BedrockEncryptionDecoder(SecretKey key, Cipher cipher) {
+        this.state = new EncryptionState(key, cipher);
+    }
 
     @Override
     protected void decode(ChannelHandlerContext ctx, BedrockBatchWrapper msg, List<Object> out) throws Exception {
-        ByteBuffer inBuffer = msg.getCompressed().nioBuffer();
-        ByteBuffer outBuffer = inBuffer.duplicate();
+        ByteBuf compressed = msg.getCompressed();
+        int length = compressed.readableBytes() - EncryptionState.TRAILER_LENGTH;
+        if (length < 0) {
+            throw new CorruptedFrameException("Encrypted batch is too short");
+        }
 
         // Copy-safe so we can use the same buffer.
-        this.cipher.update(inBuffer, outBuffer);
-
-        ByteBuf output = msg.getCompressed().readSlice(msg.getCompressed().readableBytes() - 8);
+        int index = compressed.readerIndex();
+        this.state.crypt(compressed, index, compressed.readableBytes());
 
-        if (VALIDATE) {
-            ByteBuf trailer = msg.getCompressed().readSlice(8);
-
-            byte[] actual = new byte[8];
-            trailer.readBytes(actual);
-
-            byte[] expected = BedrockEncryptionEncoder.generateTrailer(output, this.key, this.packetCounter);
-
-            if (!Arrays.equals(expected, actual)) {
-                throw new CorruptedFrameException("Invalid encryption trailer");
-            }
+        if (VALIDATE && !this.state.verifyTrailer(compressed, index, length)) {
+            throw new CorruptedFrameException("Invalid encryption trailer");
         }
 
+        ByteBuf output = compressed.readSlice(length);
+
         msg.setCompressed(output.retain());
         out.add(msg.retain());
     }
@@ -1,75 +1,55 @@
 package org.cloudburstmc.protocol.bedrock.netty.codec.encryption;
 
 import io.netty.buffer.ByteBuf;
-import io.netty.buffer.ByteBufAllocator;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.MessageToMessageEncoder;
-import io.netty.util.concurrent.FastThreadLocal;
-import lombok.RequiredArgsConstructor;
 import org.cloudburstmc.protocol.bedrock.netty.BedrockBatchWrapper;
 
 import javax.crypto.Cipher;
 import javax.crypto.SecretKey;
-import java.nio.ByteBuffer;
-import java.security.MessageDigest;
-import java.util.Arrays;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicLong;
 
-@RequiredArgsConstructor
 public class BedrockEncryptionEncoder extends MessageToMessageEncoder<BedrockBatchWrapper> {
 
     public static final String NAME = "bedrock-encryption-encoder";
 
-    private static final FastThreadLocal<MessageDigest> DIGEST = new FastThreadLocal<MessageDigest>() {
-        @Override
-        protected MessageDigest initialValue() {
-            try {
-                return MessageDigest.getInstance("SHA-256");
-            } catch (Exception e) {
-                throw new AssertionError(e);
-            }
-        }
-    };
+    /**
+     * Writable bytes a compressed batch needs after its content so it can be encrypted in place.
+     */
+    public static final int TRAILER_HEADROOM = EncryptionState.TRAILER_LENGTH;
+
+    private final EncryptionState state;
 
-    private final AtomicLong packetCounter = new AtomicLong();
-    private final SecretKey key;
-    private final Cipher cipher;
+    public BedrockEncryptionEncoder(SecretKey key, Cipher cipher) {
+        this.state = new EncryptionState(key, cipher);
+    }
 
     @Override
     protected void encode(ChannelHandlerContext ctx, BedrockBatchWrapper in, List<Object> out) throws Exception {
-        ByteBuf buf = ctx.alloc().ioBuffer(in.getCompressed().readableBytes() + 8);
-        try {
-            ByteBuffer trailer = ByteBuffer.wrap(generateTrailer(in.getCompressed(), this.key, this.packetCounter));
-            ByteBuffer inBuffer = in.getCompressed().nioBuffer();
-            ByteBuffer outBuffer = buf.nioBuffer(0, in.getCompressed().readableBytes() + 8);
-
-            int index = this.cipher.update(inBuffer, outBuffer);
-            index += this.cipher.update(trailer, outBuffer);
-
-            buf.writerIndex(index);
-            in.setCompressed(buf.retain());
+        ByteBuf compressed = in.getCompressed();
+        int index = compressed.readerIndex();
+        int length = compressed.readableBytes();
+        byte[] trailer = this.state.trailer(compressed, index, length);
+
+        if (compressed.refCnt() == 1 && compressed.writableBytes() >= EncryptionState.TRAILER_LENGTH
+                && compressed.nioBufferCount() == 1 && !compressed.isReadOnly()) {
+            // We own the buffer and it has headroom for the trailer
+            compressed.writeBytes(trailer, 0, EncryptionState.TRAILER_LENGTH);
+            this.state.crypt(compressed, index, length + EncryptionState.TRAILER_LENGTH);
             out.add(in.retain());
-        } finally {
-            buf.release();
+            return;
         }
-    }
 
-    static byte[] generateTrailer(ByteBuf buf, SecretKey key, AtomicLong counter) {
-        MessageDigest digest = DIGEST.get();
-        ByteBuf counterBuf = ByteBufAllocator.DEFAULT.directBuffer(8);
+        ByteBuf buf = ctx.alloc().ioBuffer(length + EncryptionState.TRAILER_LENGTH);
         try {
-            counterBuf.writeLongLE(counter.getAndIncrement());
-            ByteBuffer keyBuffer = ByteBuffer.wrap(key.getEncoded());
+            buf.writeBytes(compressed, index, length);
+            buf.writeBytes(trailer, 0, EncryptionState.TRAILER_LENGTH);
+            this.state.crypt(buf, buf.readerIndex(), buf.readableBytes());
 
-            digest.update(counterBuf.nioBuffer(0, 8));
-            digest.update(buf.nioBuffer(buf.readerIndex(), buf.readableBytes()));
-            digest.update(keyBuffer);
-            byte[] hash = digest.digest();
-            return Arrays.copyOf(hash, 8);
+            in.setCompressed(buf.retain());
+            out.add(in.retain());
         } finally {
-            counterBuf.release();
-            digest.reset();
+            buf.release();
         }
     }
 }
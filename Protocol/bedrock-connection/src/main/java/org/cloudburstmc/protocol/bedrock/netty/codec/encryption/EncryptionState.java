@@ -0,0 +1,113 @@
+package org.cloudburstmc.protocol.bedrock.netty.codec.encryption;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.util.concurrent.FastThreadLocal;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.ShortBufferException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.security.DigestException;
+import java.security.MessageDigest;
+
+/**
+ * Cipher and trailer state of one direction of an encrypted connection. All buffers are allocated once, so
+ * encrypting a batch and generating its trailer does not allocate.
+ * <p>
+ * This class is not thread-safe and is only used from the channel event loop.
+ */
+final class EncryptionState {
+    static final int TRAILER_LENGTH = 8;
+
+    private static final int SCRATCH_SIZE = 8192;
+
+    private static final FastThreadLocal<MessageDigest> DIGEST = new FastThreadLocal<MessageDigest>() {
+        @Override
+        protected MessageDigest initialValue() {
+            try {
+                return MessageDigest.getInstance("SHA-256");
+            } catch (Exception e) {
+                throw new AssertionError(e);
+            }
+        }
+    };
+
+    private final Cipher cipher;
+    private final byte[] keyBytes;
+    private final ByteBuffer counterBuffer = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+    private final byte[] hash = new byte[32];
+    private byte[] scratch;
+    private long packetCounter;
+
+    EncryptionState(SecretKey key, Cipher cipher) {
+        this.cipher = cipher;
+        // getEncoded() returns a new copy every time
+        this.keyBytes = key.getEncoded();
+    }
+
+    /**
+     * Encrypts or decrypts the given region of the buffer in place.
+     */
+    void crypt(ByteBuf buf, int index, int length) throws ShortBufferException {
+        if (buf.hasArray()) {
+            int offset = buf.arrayOffset() + index;
+            this.cipher.update(buf.array(), offset, length, buf.array(), offset);
+            return;
+        }
+
+        // Ciphers do not work on native memory directly, go through a reusable heap array
+        byte[] scratch = this.scratch;
+        if (scratch == null) {
+            scratch = this.scratch = new byte[SCRATCH_SIZE];
+        }
+        int end = index + length;
+        while (index < end) {
+            int chunk = Math.min(end - index, SCRATCH_SIZE);
+            buf.getBytes(index, scratch, 0, chunk);
+            int written = this.cipher.update(scratch, 0, chunk, scratch, 0);
+            buf.setBytes(index, scratch, 0, written);
+            index += chunk;
+        }
+    }
+
+    /**
+     * Calculates the trailer of the next packet. The first {@link #TRAILER_LENGTH} bytes of the returned array are
+     * valid until this method is called again.
+     */
+    byte[] trailer(ByteBuf buf, int index, int length) throws DigestException {
+        MessageDigest digest = DIGEST.get();
+        try {
+            this.counterBuffer.clear();
+            this.counterBuffer.putLong(0, this.packetCounter++);
+
+            digest.update(this.counterBuffer);
+            if (buf.nioBufferCount() == 1) {
+                digest.update(buf.internalNioBuffer(index, length));
+            } else {
+                for (ByteBuffer component : buf.nioBuffers(index, length)) {
+                    digest.update(component);
+                }
+            }
+            digest.update(this.keyBytes);
+            digest.digest(this.hash, 0, this.hash.length);
+            return this.hash;
+        } finally {
+            digest.reset();
+        }
+    }
+
+    /**
+     * Checks whether the trailer of the next packet matches the {@link #TRAILER_LENGTH} bytes following the
+     * given region.
+     */
+    boolean verifyTrailer(ByteBuf buf, int index, int length) throws DigestException {
+        byte[] expected = this.trailer(buf, index, length);
+        int trailerIndex = index + length;
+        int diff = 0;
+        for (int i = 0; i < TRAILER_LENGTH; i++) {
+            diff |= expected[i] ^ buf.getByte(trailerIndex + i);
+        }
+        return diff == 0;
+    }
+}
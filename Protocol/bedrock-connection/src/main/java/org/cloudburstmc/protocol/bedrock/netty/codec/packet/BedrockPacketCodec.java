@@ -14,6 +14,7 @@ import org.cloudburstmc.protocol.bedrock.netty.BedrockPacketWrapper;
 import org.cloudburstmc.protocol.bedrock.packet.BedrockPacket;
 import org.cloudburstmc.protocol.bedrock.packet.UnknownPacket;
 
+import java.util.BitSet;
 import java.util.List;
 
 import static java.util.Objects.requireNonNull;
@@ -27,11 +28,19 @@ public abstract class BedrockPacketCodec extends MessageToMessageCodec<ByteBuf,
 
     private PacketRecipient inboundRecipient;
 
+    // Packet IDs which are decoded when received, null if all packets are
+    private volatile BitSet eagerPacketIds;
+    private LazyDecoder lazyDecoder;
+
+    private final PacketSizePredictor sizePredictor = new PacketSizePredictor();
+    private PacketCodecMetrics metrics;
+
     @Override
     public void handlerAdded(ChannelHandlerContext ctx) throws Exception {
         PacketDirection attribute = ctx.channel().attr(PacketDirection.ATTRIBUTE).get();
         if (attribute != null) {
             this.inboundRecipient = attribute.getInbound();
+            this.lazyDecoder = null;
         }
     }
 
@@ -41,13 +50,20 @@ public abstract class BedrockPacketCodec extends MessageToMessageCodec<ByteBuf,
             // We have a pre-encoded packet buffer, just use that.
             out.add(msg.retain());
         } else {
-            ByteBuf buf = ctx.alloc().buffer(128);
+            ByteBuf buf = null;
             try {
                 BedrockPacket packet = msg.getPacket();
-                msg.setPacketId(getPacketId(packet));
+                int packetId = getPacketId(packet);
+                int predictedSize = this.sizePredictor.predict(packetId);
+                buf = ctx.alloc().buffer(predictedSize);
+                msg.setPacketId(packetId);
                 encodeHeader(buf, msg);
                 this.codec.tryEncode(helper, buf, packet);
 
+                if (this.sizePredictor.record(packetId, buf.readableBytes()) && this.metrics != null) {
+                    this.metrics.encodeBufferResized(packetId, predictedSize, buf.readableBytes());
+                }
+
                 msg.setPacketBuffer(buf.retain());
                 out.add(msg.retain());
             } catch (Throwable t) {
@@ -56,7 +72,9 @@ public abstract class BedrockPacketCodec extends MessageToMessageCodec<ByteBuf,
                 }
                 throw t;
             } finally {
-                buf.release();
+                if (buf != null) {
+                    buf.release();
+                }
             }
         }
     }
@@ -69,7 +87,16 @@ public abstract class BedrockPacketCodec extends MessageToMessageCodec<ByteBuf,
             int index = msg.readerIndex();
             this.decodeHeader(msg, wrapper);
             wrapper.setHeaderLength(msg.readerIndex() - index);
-            wrapper.setPacket(this.codec.tryDecode(helper, msg, wrapper.getPacketId(), this.inboundRecipient));
+
+            BitSet eagerPacketIds = this.eagerPacketIds;
+            if (eagerPacketIds == null || eagerPacketIds.get(wrapper.getPacketId())) {
+                wrapper.setPacket(this.codec.tryDecode(helper, msg, wrapper.getPacketId(), this.inboundRecipient));
+            } else {
+                if (this.lazyDecoder == null) {
+                    this.lazyDecoder = new LazyDecoder(this.codec, this.helper, this.inboundRecipient);
+                }
+                wrapper.setDecoder(this.lazyDecoder);
+            }
             out.add(wrapper.retain());
         } catch (Throwable t) {
             if (log.isDebugEnabled()) {
@@ -85,6 +112,21 @@ public abstract class BedrockPacketCodec extends MessageToMessageCodec<ByteBuf,
 
     public abstract void decodeHeader(ByteBuf buf, BedrockPacketWrapper msg);
 
+    /**
+     * Reads the ID from the header of the packet at the reader index of the buffer without moving the reader index.
+     */
+    public final int peekPacketId(ByteBuf buf) {
+        BedrockPacketWrapper wrapper = BedrockPacketWrapper.create();
+        int index = buf.readerIndex();
+        try {
+            this.decodeHeader(buf, wrapper);
+            return wrapper.getPacketId();
+        } finally {
+            buf.readerIndex(index);
+            wrapper.release();
+        }
+    }
+
     public final int getPacketId(BedrockPacket packet) {
         if (packet instanceof UnknownPacket) {
             return ((UnknownPacket) packet).getPacketId();
@@ -95,6 +137,37 @@ public abstract class BedrockPacketCodec extends MessageToMessageCodec<ByteBuf,
     public final void setCodec(BedrockCodec codec) {
         this.codec = requireNonNull(codec, "Codec cannot be null");
         this.helper = codec.createHelper();
+        this.lazyDecoder = null;
+    }
+
+    /**
+     * Only decodes inbound packets with the given IDs when they are received. Other packets keep just their ID and
+     * buffer and are decoded on the first call to {@link BedrockPacketWrapper#getPacket()}.
+     *
+     * @param eagerPacketIds IDs of packets to decode eagerly, or null to decode all packets eagerly
+     */
+    public final void setEagerPacketIds(BitSet eagerPacketIds) {
+        this.eagerPacketIds = eagerPacketIds == null ? null : (BitSet) eagerPacketIds.clone();
+    }
+
+    public final BitSet getEagerPacketIds() {
+        BitSet eagerPacketIds = this.eagerPacketIds;
+        return eagerPacketIds == null ? null : (BitSet) eagerPacketIds.clone();
+    }
+
+    /**
+     * Predicts the buffer size of outbound packets from the sizes previously encoded with this codec.
+     */
+    public final PacketSizePredictor getSizePredictor() {
+        return this.sizePredictor;
+    }
+
+    public final PacketCodecMetrics getMetrics() {
+        return this.metrics;
+    }
+
+    public final void setMetrics(PacketCodecMetrics metrics) {
+        this.metrics = metrics;
     }
 
     public final BedrockCodec getCodec() {
@@ -104,4 +177,31 @@ public abstract class BedrockPacketCodec extends MessageToMessageCodec<ByteBuf,
     public BedrockCodecHelper getHelper() {
         return helper;
     }
+
+    private static class LazyDecoder implements BedrockPacketWrapper.Decoder {
+        // Packets are decoded with the codec they were received with
+        private final BedrockCodec codec;
+        private final BedrockCodecHelper helper;
+        private final PacketRecipient recipient;
+
+        private LazyDecoder(BedrockCodec codec, BedrockCodecHelper helper, PacketRecipient recipient) {
+            this.codec = codec;
+            this.helper = helper;
+            this.recipient = recipient;
+        }
+
+        @Override
+        public BedrockPacket decode(BedrockPacketWrapper wrapper) {
+            ByteBuf buf = wrapper.getPacketBuffer().slice();
+            buf.skipBytes(wrapper.getHeaderLength());
+            try {
+                return this.codec.tryDecode(this.helper, buf, wrapper.getPacketId(), this.recipient);
+            } catch (Throwable t) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Failed to decode packet", t);
+                }
+                throw t;
+            }
+        }
+    }
 }
@@ -0,0 +1,13 @@
+package org.cloudburstmc.protocol.bedrock.netty.codec.packet;
+
+public interface PacketCodecMetrics {
+
+    /**
+     * Called when an encoded packet did not fit into the buffer allocated for it, so the buffer had to grow.
+     *
+     * @param packetId      ID of the packet
+     * @param predictedSize initial size of the buffer
+     * @param encodedSize   size of the encoded packet including its header
+     */
+    void encodeBufferResized(int packetId, int predictedSize, int encodedSize);
+}
@@ -0,0 +1,88 @@
+package org.cloudburstmc.protocol.bedrock.netty.codec.packet;
+
+import java.util.Arrays;
+
+/**
+ * Predicts the encoded size of packets by their ID, similar to Netty's {@code AdaptiveRecvByteBufAllocator}.
+ * The prediction grows to the next power of two as soon as a packet did not fit and shrinks by half after two
+ * consecutive packets of the same ID used less than half of it.
+ * <p>
+ * Not thread-safe, every {@link BedrockPacketCodec} has its own predictor.
+ */
+public class PacketSizePredictor {
+    public static final int DEFAULT_SIZE = 128;
+    public static final int MINIMUM_SIZE = 64;
+    public static final int MAXIMUM_SIZE = 1 << 22;
+
+    private static final int PACKET_IDS = 1024;
+
+    private final int[] predictions = new int[PACKET_IDS];
+    private final boolean[] decreaseNow = new boolean[PACKET_IDS];
+    private long encodedPackets;
+    private long resizes;
+
+    public PacketSizePredictor() {
+        Arrays.fill(this.predictions, DEFAULT_SIZE);
+    }
+
+    public int predict(int packetId) {
+        if (packetId < 0 || packetId >= PACKET_IDS) {
+            return DEFAULT_SIZE;
+        }
+        return this.predictions[packetId];
+    }
+
+    /**
+     * Records the actual size of an encoded packet.
+     *
+     * @return whether the packet did not fit into the predicted size
+     */
+    public boolean record(int packetId, int encodedSize) {
+        this.encodedPackets++;
+        if (packetId < 0 || packetId >= PACKET_IDS) {
+            return encodedSize > DEFAULT_SIZE && this.onResized();
+        }
+
+        int predicted = this.predictions[packetId];
+        if (encodedSize > predicted) {
+            this.predictions[packetId] = encodedSize >= MAXIMUM_SIZE ? MAXIMUM_SIZE : powerOfTwoCeiling(encodedSize);
+            this.decreaseNow[packetId] = false;
+            return this.onResized();
+        }
+
+        if (encodedSize <= predicted >> 1 && predicted > MINIMUM_SIZE) {
+            if (this.decreaseNow[packetId]) {
+                this.predictions[packetId] = predicted >> 1;
+                this.decreaseNow[packetId] = false;
+            } else {
+                this.decreaseNow[packetId] = true;
+            }
+        } else {
+            this.decreaseNow[packetId] = false;
+        }
+        return false;
+    }
+
+    private boolean onResized() {
+        this.resizes++;
+        return true;
+    }
+
+    private static int powerOfTwoCeiling(int value) {
+        return value <= 1 ? 1 : Integer.highestOneBit(value - 1) << 1;
+    }
+
+    /**
+     * Number of packets encoded since this predictor was created.
+     */
+    public long getEncodedCount() {
+        return this.encodedPackets;
+    }
+
+    /**
+     * Number of packets which did not fit into the predicted buffer size and had to be copied while encoding.
+     */
+    public long getResizeCount() {
+        return this.resizes;
+    }
+}
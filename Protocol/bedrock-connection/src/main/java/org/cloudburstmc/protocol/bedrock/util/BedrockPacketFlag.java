@@ -0,0 +1,14 @@
+package org.cloudburstmc.protocol.bedrock.util;
+
+public enum BedrockPacketFlag implements PacketFlag {
+    /**
+     * The packet is sent with a sequenced RakNet reliability. Sequenced packets are batched separately from
+     * ordered ones and the remote peer drops them if a newer sequenced packet was already received.
+     * Only suitable for packets which are superseded by later ones, such as movement updates.
+     * <p>
+     * This only applies to unencrypted connections. Once encryption is enabled, every batch has to arrive in order to
+     * keep the AES-CTR cipher and the checksum counter in sync, so sequenced packets are sent ordered like any other
+     * packet and are never dropped.
+     */
+    SEQUENCED
+}
@@ -0,0 +1,68 @@
+package org.cloudburstmc.protocol.bedrock.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogram of non-negative values with power of two buckets. Bucket {@code i} counts values up to
+ * {@link #upperBound(int) 2^i - 1}, so it can be updated without locking or allocation and read from any thread.
+ */
+public class Log2Histogram {
+    public static final int BUCKETS = 64;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    public static int bucketOf(long value) {
+        return value <= 0 ? 0 : 64 - Long.numberOfLeadingZeros(value);
+    }
+
+    /**
+     * Largest value counted by the given bucket.
+     */
+    public static long upperBound(int bucket) {
+        return bucket >= 63 ? Long.MAX_VALUE : (1L << bucket) - 1;
+    }
+
+    public void record(long value) {
+        this.counts.incrementAndGet(bucketOf(value));
+    }
+
+    public long getCount(int bucket) {
+        return this.counts.get(bucket);
+    }
+
+    public long getTotalCount() {
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            total += this.counts.get(i);
+        }
+        return total;
+    }
+
+    /**
+     * Upper bound of the bucket holding the given percentile, or 0 if nothing was recorded.
+     *
+     * @param percentile percentile between 0 and 100
+     */
+    public long getPercentile(double percentile) {
+        long total = this.getTotalCount();
+        if (total == 0) {
+            return 0;
+        }
+
+        long threshold = (long) Math.ceil(total * Math.min(Math.max(percentile, 0), 100) / 100);
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            count += this.counts.get(i);
+            if (count >= threshold && count > 0) {
+                return upperBound(i);
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            this.counts.set(i, 0);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package org.cloudburstmc.protocol.bedrock.util;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * xxHash64 with a seed of 0, which is used by Bedrock to identify the blobs of the client cache.
+ */
+public final class XXHash64 {
+    private static final long PRIME_1 = 0x9E3779B185EBCA87L;
+    private static final long PRIME_2 = 0xC2B2AE3D27D4EB4FL;
+    private static final long PRIME_3 = 0x165667B19E3779F9L;
+    private static final long PRIME_4 = 0x85EBCA77C2B2AE63L;
+    private static final long PRIME_5 = 0x27D4EB2F165667C5L;
+
+    private XXHash64() {
+    }
+
+    public static long hash(ByteBuf buffer) {
+        return hash(buffer, buffer.readerIndex(), buffer.readableBytes());
+    }
+
+    public static long hash(ByteBuf buffer, int index, int length) {
+        int end = index + length;
+        long hash;
+        if (length >= 32) {
+            long v1 = PRIME_1 + PRIME_2;
+            long v2 = PRIME_2;
+            long v3 = 0;
+            long v4 = -PRIME_1;
+            for (; index + 32 <= end; index += 32) {
+                v1 = round(v1, buffer.getLongLE(index));
+                v2 = round(v2, buffer.getLongLE(index + 8));
+                v3 = round(v3, buffer.getLongLE(index + 16));
+                v4 = round(v4, buffer.getLongLE(index + 24));
+            }
+            hash = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7) + Long.rotateLeft(v3, 12) + Long.rotateLeft(v4, 18);
+            hash = mergeRound(hash, v1);
+            hash = mergeRound(hash, v2);
+            hash = mergeRound(hash, v3);
+            hash = mergeRound(hash, v4);
+        } else {
+            hash = PRIME_5;
+        }
+        hash += length;
+
+        for (; index + 8 <= end; index += 8) {
+            hash ^= round(0, buffer.getLongLE(index));
+            hash = Long.rotateLeft(hash, 27) * PRIME_1 + PRIME_4;
+        }
+        if (index + 4 <= end) {
+            hash ^= (buffer.getIntLE(index) & 0xFFFFFFFFL) * PRIME_1;
+            hash = Long.rotateLeft(hash, 23) * PRIME_2 + PRIME_3;
+            index += 4;
+        }
+        for (; index < end; index++) {
+            hash ^= (buffer.getByte(index) & 0xFF) * PRIME_5;
+            hash = Long.rotateLeft(hash, 11) * PRIME_1;
+        }
+
+        hash ^= hash >>> 33;
+        hash *= PRIME_2;
+        hash ^= hash >>> 29;
+        hash *= PRIME_3;
+        hash ^= hash >>> 32;
+        return hash;
+    }
+
+    private static long round(long acc, long input) {
+        acc += input * PRIME_2;
+        acc = Long.rotateLeft(acc, 31);
+        return acc * PRIME_1;
+    }
+
+    private static long mergeRound(long acc, long value) {
+        acc ^= round(0, value);
+        return acc * PRIME_1 + PRIME_4;
+    }
+}
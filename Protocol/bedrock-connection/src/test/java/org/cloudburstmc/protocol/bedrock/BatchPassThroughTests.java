@@ -0,0 +1,281 @@
+package org.cloudburstmc.protocol.bedrock;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.cloudburstmc.protocol.bedrock.codec.BedrockCodec;
+import org.cloudburstmc.protocol.bedrock.codec.v827.Bedrock_v827;
+import org.cloudburstmc.protocol.bedrock.data.PacketCompressionAlgorithm;
+import org.cloudburstmc.protocol.bedrock.netty.BedrockBatchWrapper;
+import org.cloudburstmc.protocol.bedrock.netty.BedrockPacketWrapper;
+import org.cloudburstmc.protocol.bedrock.netty.codec.batch.BedrockBatchDecoder;
+import org.cloudburstmc.protocol.bedrock.netty.codec.batch.BedrockBatchEncoder;
+import org.cloudburstmc.protocol.bedrock.netty.codec.compression.CompressionCodec;
+import org.cloudburstmc.protocol.bedrock.netty.codec.compression.CompressionStrategy;
+import org.cloudburstmc.protocol.bedrock.netty.codec.compression.SimpleCompressionStrategy;
+import org.cloudburstmc.protocol.bedrock.netty.codec.compression.SnappyCompression;
+import org.cloudburstmc.protocol.bedrock.netty.codec.compression.ZlibCompression;
+import org.cloudburstmc.protocol.bedrock.netty.codec.packet.BedrockPacketCodec;
+import org.cloudburstmc.protocol.bedrock.netty.codec.packet.BedrockPacketCodec_v3;
+import org.cloudburstmc.protocol.bedrock.packet.BedrockPacket;
+import org.cloudburstmc.protocol.bedrock.packet.ClientCacheStatusPacket;
+import org.cloudburstmc.protocol.bedrock.packet.TextPacket;
+import org.cloudburstmc.protocol.common.util.VarInts;
+import org.cloudburstmc.protocol.common.util.Zlib;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+public class BatchPassThroughTests {
+    private static final BedrockCodec CODEC = Bedrock_v827.CODEC;
+    private static final CompressionStrategy ZLIB = new SimpleCompressionStrategy(new ZlibCompression(Zlib.RAW));
+    private static final CompressionStrategy SNAPPY = new SimpleCompressionStrategy(new SnappyCompression());
+    private static final ChannelHandlerContext CONTEXT = new EmbeddedChannel(new ChannelInboundHandlerAdapter()).pipeline().firstContext();
+
+    private static class TestSession extends BedrockServerSession {
+        private final List<Object> received = new ArrayList<>();
+
+        private TestSession(BedrockPeer peer, int subClientId) {
+            super(peer, subClientId);
+        }
+
+        @Override
+        protected void onPacket(BedrockPacketWrapper wrapper) {
+            this.received.add(wrapper.getPacket());
+        }
+
+        @Override
+        protected void onBatch(BedrockBatchWrapper batch) {
+            this.received.add(batch.retain());
+        }
+    }
+
+    private static EmbeddedChannel channel(CompressionStrategy strategy, boolean prefixed) {
+        EmbeddedChannel channel = new EmbeddedChannel();
+        BedrockPacketCodec packetCodec = new BedrockPacketCodec_v3();
+        packetCodec.setCodec(CODEC);
+        channel.pipeline()
+                .addLast(CompressionCodec.NAME, new CompressionCodec(strategy, prefixed))
+                .addLast(BedrockBatchDecoder.NAME, new BedrockBatchDecoder())
+                .addLast(BedrockBatchEncoder.NAME, new BedrockBatchEncoder())
+                .addLast(BedrockPacketCodec.NAME, packetCodec)
+                .addLast(BedrockPeer.NAME, new BedrockPeer(channel, TestSession::new));
+        channel.pipeline().fireChannelActive();
+        return channel;
+    }
+
+    private static TestSession session(EmbeddedChannel channel) {
+        return (TestSession) channel.pipeline().get(BedrockPeer.class).sessions.get(0);
+    }
+
+    private static BitSet packetIds(Class<? extends BedrockPacket> packet) {
+        BitSet packetIds = new BitSet();
+        packetIds.set(CODEC.getPacketDefinition(packet).getId());
+        return packetIds;
+    }
+
+    /**
+     * Returns the uncompressed content of a batch holding the given packets.
+     */
+    private static ByteBuf batch(BedrockPacket... packets) throws Exception {
+        ByteBuf batch = Unpooled.buffer();
+        for (BedrockPacket packet : packets) {
+            ByteBuf buffer = Unpooled.buffer();
+            VarInts.writeUnsignedInt(buffer, CODEC.getPacketDefinition(packet.getClass()).getId());
+            CODEC.tryEncode(CODEC.createHelper(), buffer, packet);
+            VarInts.writeUnsignedInt(batch, buffer.readableBytes());
+            batch.writeBytes(buffer);
+            buffer.release();
+        }
+        return batch;
+    }
+
+    private static ByteBuf compress(CompressionStrategy strategy, int header, ByteBuf uncompressed) throws Exception {
+        ByteBuf compressed = strategy.getDefaultCompression().encode(CONTEXT, uncompressed.slice());
+        if (header < 0) {
+            return compressed;
+        }
+        ByteBuf prefixed = Unpooled.buffer().writeByte(header).writeBytes(compressed);
+        compressed.release();
+        return prefixed;
+    }
+
+    private static ClientCacheStatusPacket status() {
+        ClientCacheStatusPacket packet = new ClientCacheStatusPacket();
+        packet.setSupported(true);
+        return packet;
+    }
+
+    private static TextPacket text() {
+        TextPacket packet = new TextPacket();
+        packet.setType(TextPacket.Type.RAW);
+        packet.setSourceName("");
+        packet.setMessage("hello");
+        packet.setXuid("");
+        packet.setPlatformChatId("");
+        packet.setFilteredMessage("");
+        return packet;
+    }
+
+    /**
+     * Receives a batch on a prefixed zlib connection which passes through batches without text packets.
+     */
+    private static BedrockBatchWrapper receive(ByteBuf uncompressed) throws Exception {
+        EmbeddedChannel channel = channel(ZLIB, true);
+        channel.pipeline().get(BedrockPeer.class).setBatchPassThrough(packetIds(TextPacket.class));
+        channel.writeInbound(BedrockBatchWrapper.newInstance(compress(ZLIB, 0x00, uncompressed), null));
+
+        List<Object> received = session(channel).received;
+        Assertions.assertEquals(1, received.size());
+        channel.finishAndReleaseAll();
+        return (BedrockBatchWrapper) received.get(0);
+    }
+
+    private static BedrockBatchWrapper sent(EmbeddedChannel channel) {
+        BedrockBatchWrapper batch = channel.readOutbound();
+        Assertions.assertNotNull(batch);
+        return batch;
+    }
+
+    private static ByteBuf uncompressed(CompressionStrategy strategy, BedrockBatchWrapper batch, boolean prefixed) throws Exception {
+        ByteBuf compressed = batch.getCompressed().slice();
+        if (prefixed) {
+            Assertions.assertEquals(strategy == ZLIB ? 0x00 : 0x01, compressed.readByte());
+        }
+        return strategy.getDefaultCompression().decode(CONTEXT, compressed);
+    }
+
+    @Test
+    public void testBatchWithoutInterestingPacketsIsPassedThrough() throws Exception {
+        ByteBuf uncompressed = batch(status(), status());
+        BedrockBatchWrapper batch = receive(uncompressed);
+        Assertions.assertNotNull(batch.getCompressed());
+        Assertions.assertTrue(batch.isPrefixed());
+        Assertions.assertEquals(PacketCompressionAlgorithm.ZLIB, batch.getAlgorithm());
+        Assertions.assertTrue(ByteBufUtil.equals(uncompressed, batch.getUncompressed()));
+        batch.release();
+    }
+
+    @Test
+    public void testBatchWithInterestingPacketIsSplit() throws Exception {
+        EmbeddedChannel channel = channel(ZLIB, true);
+        channel.pipeline().get(BedrockPeer.class).setBatchPassThrough(packetIds(TextPacket.class));
+        channel.writeInbound(BedrockBatchWrapper.newInstance(compress(ZLIB, 0x00, batch(status(), text())), null));
+
+        List<Object> received = session(channel).received;
+        Assertions.assertEquals(2, received.size());
+        Assertions.assertInstanceOf(ClientCacheStatusPacket.class, received.get(0));
+        Assertions.assertInstanceOf(TextPacket.class, received.get(1));
+        channel.finishAndReleaseAll();
+        channel.checkException();
+    }
+
+    @Test
+    public void testPrefixIsStrippedForUnprefixedConnection() throws Exception {
+        BedrockBatchWrapper batch = receive(batch(status()));
+        ByteBuf expected = batch.getCompressed().slice(1, batch.getCompressed().readableBytes() - 1).copy();
+
+        EmbeddedChannel channel = channel(ZLIB, false);
+        channel.pipeline().get(BedrockPeer.class).sendBatch(batch);
+        batch.release();
+
+        BedrockBatchWrapper sent = sent(channel);
+        Assertions.assertFalse(sent.isPrefixed());
+        // Sent without compressing it again
+        Assertions.assertTrue(ByteBufUtil.equals(expected, sent.getCompressed()));
+        sent.release();
+        channel.finishAndReleaseAll();
+        channel.checkException();
+    }
+
+    @Test
+    public void testPrefixedBatchIsSentAsIs() throws Exception {
+        BedrockBatchWrapper batch = receive(batch(status()));
+        ByteBuf expected = batch.getCompressed().copy();
+
+        EmbeddedChannel channel = channel(SNAPPY, true);
+        channel.pipeline().get(BedrockPeer.class).sendBatch(batch);
+        batch.release();
+
+        // The header tells the remote peer how to decompress it
+        BedrockBatchWrapper sent = sent(channel);
+        Assertions.assertTrue(ByteBufUtil.equals(expected, sent.getCompressed()));
+        sent.release();
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    public void testBatchIsRecompressedForOtherAlgorithm() throws Exception {
+        ByteBuf uncompressed = batch(status());
+        BedrockBatchWrapper batch = receive(uncompressed);
+
+        // Without a prefix, the remote peer can only decompress its default algorithm
+        EmbeddedChannel channel = channel(SNAPPY, false);
+        channel.pipeline().get(BedrockPeer.class).sendBatch(batch);
+        batch.release();
+
+        BedrockBatchWrapper sent = sent(channel);
+        Assertions.assertEquals(PacketCompressionAlgorithm.SNAPPY, sent.getAlgorithm());
+        ByteBuf decompressed = uncompressed(SNAPPY, sent, false);
+        Assertions.assertTrue(ByteBufUtil.equals(uncompressed, decompressed));
+        decompressed.release();
+        sent.release();
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    public void testUnprefixedBatchIsRecompressedForPrefixedConnection() throws Exception {
+        ByteBuf uncompressed = batch(status());
+        EmbeddedChannel source = channel(ZLIB, false);
+        source.pipeline().get(BedrockPeer.class).setBatchPassThrough(packetIds(TextPacket.class));
+        source.writeInbound(BedrockBatchWrapper.newInstance(compress(ZLIB, -1, uncompressed), null));
+        BedrockBatchWrapper batch = (BedrockBatchWrapper) session(source).received.get(0);
+
+        EmbeddedChannel channel = channel(ZLIB, true);
+        channel.pipeline().get(BedrockPeer.class).sendBatch(batch);
+        batch.release();
+
+        BedrockBatchWrapper sent = sent(channel);
+        Assertions.assertTrue(sent.isPrefixed());
+        ByteBuf decompressed = uncompressed(ZLIB, sent, true);
+        Assertions.assertTrue(ByteBufUtil.equals(uncompressed, decompressed));
+        decompressed.release();
+        sent.release();
+        channel.finishAndReleaseAll();
+        source.finishAndReleaseAll();
+    }
+
+    @Test
+    public void testQueuedPacketsAreSentBeforeBatch() throws Exception {
+        BedrockBatchWrapper batch = receive(batch(status()));
+        ByteBuf forwarded = batch.getCompressed().copy();
+
+        EmbeddedChannel channel = channel(ZLIB, true);
+        BedrockPeer peer = channel.pipeline().get(BedrockPeer.class);
+        peer.sendPacket(0, 0, text());
+        peer.sendBatch(batch);
+        batch.release();
+
+        BedrockBatchWrapper first = sent(channel);
+        ByteBuf decompressed = uncompressed(ZLIB, first, true);
+        VarInts.readUnsignedInt(decompressed);
+        Assertions.assertEquals(CODEC.getPacketDefinition(TextPacket.class).getId(), VarInts.readUnsignedInt(decompressed));
+        decompressed.release();
+        first.release();
+
+        BedrockBatchWrapper second = sent(channel);
+        Assertions.assertTrue(ByteBufUtil.equals(forwarded, second.getCompressed()));
+        second.release();
+
+        channel.runPendingTasks();
+        Assertions.assertNull(channel.readOutbound());
+        channel.finishAndReleaseAll();
+        channel.checkException();
+    }
+}
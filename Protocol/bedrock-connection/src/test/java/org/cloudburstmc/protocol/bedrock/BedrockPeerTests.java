@@ -0,0 +1,178 @@
+package org.cloudburstmc.protocol.bedrock;
+
+import io.netty.channel.Channel;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.cloudburstmc.protocol.bedrock.codec.v827.Bedrock_v827;
+import org.cloudburstmc.protocol.bedrock.netty.BedrockBatchWrapper;
+import org.cloudburstmc.protocol.bedrock.netty.codec.batch.BedrockBatchEncoder;
+import org.cloudburstmc.protocol.bedrock.netty.codec.packet.BedrockPacketCodec;
+import org.cloudburstmc.protocol.bedrock.netty.codec.packet.BedrockPacketCodec_v3;
+import org.cloudburstmc.protocol.bedrock.packet.ClientCacheStatusPacket;
+import org.cloudburstmc.protocol.bedrock.util.Log2Histogram;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+public class BedrockPeerTests {
+
+    private static class TestPeer extends BedrockPeer {
+        // The embedded event loop does not report pending tasks
+        private boolean busy;
+
+        private TestPeer(Channel channel) {
+            super(channel, BedrockServerSession::new);
+        }
+
+        @Override
+        protected boolean isEventLoopBusy() {
+            return this.busy;
+        }
+    }
+
+    private static EmbeddedChannel channel() {
+        EmbeddedChannel channel = new EmbeddedChannel();
+        BedrockPacketCodec packetCodec = new BedrockPacketCodec_v3();
+        packetCodec.setCodec(Bedrock_v827.CODEC);
+        channel.pipeline()
+                .addLast(BedrockBatchEncoder.NAME, new BedrockBatchEncoder())
+                .addLast(BedrockPacketCodec.NAME, packetCodec)
+                .addLast(BedrockPeer.NAME, new TestPeer(channel));
+        channel.pipeline().fireChannelActive();
+        return channel;
+    }
+
+    private static TestPeer peer(EmbeddedChannel channel) {
+        return (TestPeer) channel.pipeline().get(BedrockPeer.class);
+    }
+
+    private static void send(TestPeer peer) {
+        ClientCacheStatusPacket packet = new ClientCacheStatusPacket();
+        packet.setSupported(true);
+        peer.sendPacket(0, 0, packet);
+    }
+
+    /**
+     * Returns the number of packets in the next batch sent, or 0 if nothing was sent.
+     */
+    private static int sent(EmbeddedChannel channel) {
+        BedrockBatchWrapper batch = channel.readOutbound();
+        if (batch == null) {
+            return 0;
+        }
+        int packets = batch.getPackets().size();
+        batch.release();
+        return packets;
+    }
+
+    @Test
+    public void testIdleLoopFlushesImmediately() {
+        EmbeddedChannel channel = channel();
+        TestPeer peer = peer(channel);
+
+        send(peer);
+        Assertions.assertTrue(peer.flushScheduled.get());
+        channel.runPendingTasks();
+
+        Assertions.assertEquals(1, sent(channel));
+        Assertions.assertFalse(peer.flushScheduled.get());
+        Assertions.assertEquals(1, peer.getFlushSizeHistogram().getCount(Log2Histogram.bucketOf(1)));
+        Assertions.assertEquals(1, peer.getQueueWaitHistogram().getTotalCount());
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    public void testEmbeddedLoopIsNotBusy() {
+        EmbeddedChannel channel = new EmbeddedChannel();
+        BedrockPeer peer = new BedrockPeer(channel, BedrockServerSession::new);
+        channel.pipeline().addLast(BedrockPeer.NAME, peer);
+        // Only single thread executors report their pending tasks
+        channel.eventLoop().execute(() -> {});
+        Assertions.assertFalse(peer.isEventLoopBusy());
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    public void testQueuedPacketsShareScheduledFlush() {
+        EmbeddedChannel channel = channel();
+        TestPeer peer = peer(channel);
+
+        send(peer);
+        send(peer);
+        channel.runPendingTasks();
+
+        Assertions.assertEquals(2, sent(channel));
+        Assertions.assertEquals(0, sent(channel));
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    public void testBusyLoopCoalescesFlushes() {
+        EmbeddedChannel channel = channel();
+        TestPeer peer = peer(channel);
+        peer.setFlushBudget(1, TimeUnit.MINUTES, Integer.MAX_VALUE);
+        peer.busy = true;
+
+        send(peer);
+        channel.runPendingTasks();
+        send(peer);
+        channel.runPendingTasks();
+        Assertions.assertEquals(0, sent(channel));
+
+        peer.busy = false;
+        send(peer);
+        channel.runPendingTasks();
+        Assertions.assertEquals(3, sent(channel));
+        Assertions.assertEquals(0, sent(channel));
+        Assertions.assertEquals(1, peer.getFlushSizeHistogram().getTotalCount());
+        Assertions.assertEquals(1, peer.getFlushSizeHistogram().getCount(Log2Histogram.bucketOf(3)));
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    public void testBusyLoopFlushesAfterMaxDelay() throws InterruptedException {
+        EmbeddedChannel channel = channel();
+        TestPeer peer = peer(channel);
+        peer.setFlushBudget(10, TimeUnit.MILLISECONDS, Integer.MAX_VALUE);
+        peer.busy = true;
+
+        send(peer);
+        channel.runPendingTasks();
+        Assertions.assertEquals(0, sent(channel));
+
+        Thread.sleep(20);
+        // Runs the deferred flush
+        channel.runPendingTasks();
+        Assertions.assertEquals(1, sent(channel));
+        Assertions.assertTrue(peer.getQueueWaitHistogram().getPercentile(100) >= TimeUnit.MILLISECONDS.toNanos(10));
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    public void testBusyLoopFlushesAfterMaxBytes() {
+        EmbeddedChannel channel = channel();
+        TestPeer peer = peer(channel);
+        peer.setFlushBudget(1, TimeUnit.MINUTES, 4);
+        peer.busy = true;
+
+        // A single packet stays below the budget
+        send(peer);
+        channel.runPendingTasks();
+        Assertions.assertEquals(0, sent(channel));
+        Assertions.assertTrue(peer.getPendingBytes() < 4);
+
+        send(peer);
+        channel.runPendingTasks();
+        Assertions.assertEquals(2, sent(channel));
+        Assertions.assertEquals(0, peer.getPendingBytes());
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    public void testNegativeFlushBudgetIsRejected() {
+        EmbeddedChannel channel = channel();
+        Assertions.assertThrows(IllegalArgumentException.class, () -> peer(channel).setFlushBudget(-1, TimeUnit.MILLISECONDS, 0));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> peer(channel).setFlushBudget(0, TimeUnit.MILLISECONDS, -1));
+        channel.finishAndReleaseAll();
+    }
+}
@@ -0,0 +1,138 @@
+package org.cloudburstmc.protocol.bedrock;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.cloudburstmc.protocol.bedrock.cache.BlobCache;
+import org.cloudburstmc.protocol.bedrock.cache.MemoryBlobStore;
+import org.cloudburstmc.protocol.bedrock.codec.BedrockCodec;
+import org.cloudburstmc.protocol.bedrock.codec.v827.Bedrock_v827;
+import org.cloudburstmc.protocol.bedrock.netty.codec.packet.BedrockPacketCodec_v3;
+import org.cloudburstmc.protocol.bedrock.packet.BedrockPacket;
+import org.cloudburstmc.protocol.bedrock.packet.BedrockPacketHandler;
+import org.cloudburstmc.protocol.bedrock.packet.ClientCacheStatusPacket;
+import org.cloudburstmc.protocol.bedrock.packet.LevelChunkPacket;
+import org.cloudburstmc.protocol.common.PacketSignal;
+import org.cloudburstmc.protocol.common.util.VarInts;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+public class BedrockSessionTests {
+    private static final BedrockCodec CODEC = Bedrock_v827.CODEC;
+
+    private static class TestSession extends BedrockServerSession {
+        private final List<BedrockPacket> packets = new ArrayList<>();
+
+        private TestSession(BedrockPeer peer, int subClientId) {
+            super(peer, subClientId);
+            this.setPacketHandler(new BedrockPacketHandler() {
+                @Override
+                public PacketSignal handlePacket(BedrockPacket packet) {
+                    packets.add(packet);
+                    return PacketSignal.HANDLED;
+                }
+            });
+        }
+    }
+
+    private static EmbeddedChannel channel() {
+        EmbeddedChannel channel = new EmbeddedChannel();
+        BedrockPacketCodec_v3 codec = new BedrockPacketCodec_v3();
+        codec.setCodec(CODEC);
+        channel.pipeline().addLast(codec);
+        channel.pipeline().addLast(BedrockPeer.NAME, new BedrockPeer(channel, TestSession::new));
+        // The peer creates its primary session once the channel is active
+        channel.pipeline().fireChannelActive();
+        return channel;
+    }
+
+    private static TestSession session(EmbeddedChannel channel) {
+        return (TestSession) channel.pipeline().get(BedrockPeer.class).sessions.get(0);
+    }
+
+    private static BitSet packetIds(Class<? extends BedrockPacket> packet) {
+        BitSet packetIds = new BitSet();
+        packetIds.set(CODEC.getPacketDefinition(packet).getId());
+        return packetIds;
+    }
+
+    /**
+     * Returns the header of the packet with an empty body, which fails to decode for most packets.
+     */
+    private static ByteBuf header(Class<? extends BedrockPacket> packet) {
+        ByteBuf buffer = Unpooled.buffer();
+        VarInts.writeUnsignedInt(buffer, CODEC.getPacketDefinition(packet).getId());
+        return buffer;
+    }
+
+    @Test
+    public void testLazyPacketIsDecodedForHandler() {
+        EmbeddedChannel channel = channel();
+        TestSession session = session(channel);
+        session.setEagerPacketIds(new BitSet());
+
+        ByteBuf status = header(ClientCacheStatusPacket.class);
+        status.writeBoolean(true);
+        channel.writeInbound(status);
+        Assertions.assertEquals(1, session.packets.size());
+        Assertions.assertTrue(((ClientCacheStatusPacket) session.packets.get(0)).isSupported());
+
+        channel.finishAndReleaseAll();
+        channel.checkException();
+    }
+
+    @Test
+    public void testSkippedPacketIsNotDecoded() {
+        EmbeddedChannel channel = channel();
+        TestSession session = session(channel);
+        session.setEagerPacketIds(packetIds(ClientCacheStatusPacket.class));
+        session.setSkipLazyPackets(true);
+
+        // Would throw if it was decoded
+        channel.writeInbound(header(LevelChunkPacket.class));
+        Assertions.assertTrue(session.packets.isEmpty());
+
+        ByteBuf status = header(ClientCacheStatusPacket.class);
+        status.writeBoolean(true);
+        channel.writeInbound(status);
+        Assertions.assertEquals(1, session.packets.size());
+        Assertions.assertInstanceOf(ClientCacheStatusPacket.class, session.packets.get(0));
+
+        channel.finishAndReleaseAll();
+        channel.checkException();
+    }
+
+    @Test
+    public void testAllPacketsAreDecodedByDefault() {
+        EmbeddedChannel channel = channel();
+        TestSession session = session(channel);
+
+        Assertions.assertThrows(Exception.class, () -> channel.writeInbound(header(LevelChunkPacket.class)));
+        Assertions.assertTrue(session.packets.isEmpty());
+
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    public void testBlobCachePacketsAreDecoded() {
+        EmbeddedChannel channel = channel();
+        TestSession session = session(channel);
+        session.setEagerPacketIds(new BitSet());
+        session.setSkipLazyPackets(true);
+        BlobCache blobCache = new BlobCache(new MemoryBlobStore(1024));
+        session.setBlobCache(blobCache);
+
+        ByteBuf status = header(ClientCacheStatusPacket.class);
+        status.writeBoolean(true);
+        channel.writeInbound(status);
+        Assertions.assertTrue(blobCache.isSupported());
+        Assertions.assertEquals(1, session.packets.size());
+
+        channel.finishAndReleaseAll();
+        channel.checkException();
+    }
+}
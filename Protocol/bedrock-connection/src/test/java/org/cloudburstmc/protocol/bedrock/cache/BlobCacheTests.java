@@ -0,0 +1,126 @@
+package org.cloudburstmc.protocol.bedrock.cache;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.cloudburstmc.protocol.bedrock.BedrockPeer;
+import org.cloudburstmc.protocol.bedrock.BedrockServerSession;
+import org.cloudburstmc.protocol.bedrock.packet.BedrockPacket;
+import org.cloudburstmc.protocol.bedrock.packet.ClientCacheBlobStatusPacket;
+import org.cloudburstmc.protocol.bedrock.packet.ClientCacheMissResponsePacket;
+import org.cloudburstmc.protocol.bedrock.packet.ClientCacheStatusPacket;
+import org.cloudburstmc.protocol.bedrock.packet.LevelChunkPacket;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class BlobCacheTests {
+
+    private static class TestSession extends BedrockServerSession {
+        private final List<BedrockPacket> sent = new ArrayList<>();
+
+        private TestSession() {
+            super(new BedrockPeer(new EmbeddedChannel(), (peer, subClientId) -> null), 0);
+        }
+
+        @Override
+        public void sendPacket(BedrockPacket packet) {
+            this.sent.add(packet);
+        }
+    }
+
+    private static ByteBuf blob(int seed) {
+        ByteBuf blob = Unpooled.buffer(64);
+        for (int i = 0; i < 64; i++) {
+            blob.writeByte(seed * 31 + i);
+        }
+        return blob;
+    }
+
+    private static BlobCache supportedCache(BlobStore store, TestSession session) {
+        BlobCache cache = new BlobCache(store, 16, 4);
+        ClientCacheStatusPacket status = new ClientCacheStatusPacket();
+        status.setSupported(true);
+        cache.onPacket(session, status);
+        return cache;
+    }
+
+    private static LevelChunkPacket sendChunk(BlobCache cache, ByteBuf... blobs) {
+        LevelChunkPacket chunk = new LevelChunkPacket();
+        Assertions.assertTrue(cache.addBlobs(chunk, Arrays.asList(blobs)));
+        return chunk;
+    }
+
+    @Test
+    public void testSentBlobIsPinnedUntilRequested() {
+        TestSession session = new TestSession();
+        // Only one blob fits, so the second evicts the first
+        BlobStore store = new MemoryBlobStore(64);
+        BlobCache cache = supportedCache(store, session);
+        ByteBuf first = blob(1);
+        LevelChunkPacket chunk = sendChunk(cache, first, blob(2));
+        long firstId = chunk.getBlobIds().getLong(0);
+        Assertions.assertFalse(store.contains(firstId));
+        Assertions.assertEquals(2, cache.getPendingCount());
+
+        ClientCacheBlobStatusPacket status = new ClientCacheBlobStatusPacket();
+        status.getNaks().add(firstId);
+        cache.onPacket(session, status);
+
+        ClientCacheMissResponsePacket response = (ClientCacheMissResponsePacket) session.sent.get(0);
+        Assertions.assertTrue(ByteBufUtil.equals(first, response.getBlobs().get(firstId)));
+        Assertions.assertTrue(cache.isAcknowledged(firstId));
+        Assertions.assertEquals(1, cache.getPendingCount());
+        response.release();
+        cache.release();
+        Assertions.assertEquals(0, cache.getPendingCount());
+    }
+
+    @Test
+    public void testAcknowledgedBlobIsUnpinned() {
+        TestSession session = new TestSession();
+        BlobCache cache = supportedCache(new MemoryBlobStore(), session);
+        LevelChunkPacket chunk = sendChunk(cache, blob(1));
+
+        ClientCacheBlobStatusPacket status = new ClientCacheBlobStatusPacket();
+        status.getAcks().addAll(chunk.getBlobIds());
+        cache.onPacket(session, status);
+
+        Assertions.assertTrue(cache.isAcknowledged(chunk.getBlobIds().getLong(0)));
+        Assertions.assertEquals(0, cache.getPendingCount());
+        Assertions.assertTrue(session.sent.isEmpty());
+    }
+
+    @Test
+    public void testOnlySentBlobsAreAcknowledged() {
+        TestSession session = new TestSession();
+        BlobCache cache = supportedCache(new MemoryBlobStore(), session);
+
+        ClientCacheBlobStatusPacket status = new ClientCacheBlobStatusPacket();
+        status.getAcks().add(1234L);
+        cache.onPacket(session, status);
+
+        Assertions.assertFalse(cache.isAcknowledged(1234L));
+        Assertions.assertEquals(0, cache.getAcknowledgedCount());
+    }
+
+    @Test
+    public void testAcknowledgedBlobsAreBounded() {
+        TestSession session = new TestSession();
+        BlobCache cache = supportedCache(new MemoryBlobStore(), session);
+
+        ClientCacheBlobStatusPacket status = new ClientCacheBlobStatusPacket();
+        for (int i = 0; i < 8; i++) {
+            status.getAcks().addAll(sendChunk(cache, blob(i)).getBlobIds());
+        }
+        cache.onPacket(session, status);
+
+        Assertions.assertEquals(4, cache.getAcknowledgedCount());
+        Assertions.assertFalse(cache.isAcknowledged(status.getAcks().getLong(0)));
+        Assertions.assertTrue(cache.isAcknowledged(status.getAcks().getLong(7)));
+    }
+}
@@ -0,0 +1,98 @@
+package org.cloudburstmc.protocol.bedrock.cache;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import org.cloudburstmc.protocol.bedrock.util.XXHash64;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+public class MappedBlobStoreTests {
+    private static final int CAPACITY = 1024;
+
+    @TempDir
+    Path directory;
+
+    private static ByteBuf blob(int seed, int length) {
+        ByteBuf blob = Unpooled.buffer(length);
+        for (int i = 0; i < length; i++) {
+            blob.writeByte(seed + i);
+        }
+        return blob;
+    }
+
+    private static void assertStored(BlobStore store, ByteBuf blob) {
+        ByteBuf stored = store.get(XXHash64.hash(blob));
+        Assertions.assertNotNull(stored);
+        Assertions.assertTrue(ByteBufUtil.equals(blob, stored));
+        stored.release();
+    }
+
+    @Test
+    public void testBlobsAreReloaded() throws IOException {
+        Path file = this.directory.resolve("blobs");
+        ByteBuf first = blob(1, 100);
+        ByteBuf second = blob(2, 200);
+        try (MappedBlobStore store = new MappedBlobStore(file, CAPACITY)) {
+            store.put(XXHash64.hash(first), first);
+            store.put(XXHash64.hash(second), second);
+        }
+
+        try (MappedBlobStore store = new MappedBlobStore(file, CAPACITY)) {
+            Assertions.assertEquals(2, store.size());
+            assertStored(store, first);
+            assertStored(store, second);
+        }
+    }
+
+    @Test
+    public void testFullStoreIsReset() throws IOException {
+        Path file = this.directory.resolve("blobs");
+        ByteBuf first = blob(1, 600);
+        ByteBuf second = blob(2, 600);
+        try (MappedBlobStore store = new MappedBlobStore(file, CAPACITY)) {
+            store.put(XXHash64.hash(first), first);
+            store.put(XXHash64.hash(second), second);
+            Assertions.assertEquals(1, store.size());
+            Assertions.assertFalse(store.contains(XXHash64.hash(first)));
+            assertStored(store, second);
+        }
+
+        // Older records after the end of the reset store are not loaded again
+        try (MappedBlobStore store = new MappedBlobStore(file, CAPACITY)) {
+            Assertions.assertEquals(1, store.size());
+            assertStored(store, second);
+        }
+    }
+
+    @Test
+    public void testClearedStoreIsEmptyAfterReload() throws IOException {
+        Path file = this.directory.resolve("blobs");
+        ByteBuf blob = blob(1, 100);
+        try (MappedBlobStore store = new MappedBlobStore(file, CAPACITY)) {
+            store.put(XXHash64.hash(blob), blob);
+            store.clear();
+        }
+
+        try (MappedBlobStore store = new MappedBlobStore(file, CAPACITY)) {
+            Assertions.assertEquals(0, store.size());
+            Assertions.assertNull(store.get(XXHash64.hash(blob)));
+        }
+    }
+
+    @Test
+    public void testFileIsLocked() throws IOException {
+        Path file = this.directory.resolve("blobs");
+        try (MappedBlobStore store = new MappedBlobStore(file, CAPACITY)) {
+            Assertions.assertThrows(IOException.class, () -> new MappedBlobStore(file, CAPACITY));
+            // The open store is not affected by the failed attempt
+            Assertions.assertEquals(0, store.size());
+        }
+        // The lock is released on close
+        new MappedBlobStore(file, CAPACITY).close();
+    }
+}
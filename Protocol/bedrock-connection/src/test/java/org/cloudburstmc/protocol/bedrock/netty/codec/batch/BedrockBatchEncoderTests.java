@@ -0,0 +1,164 @@
+package org.cloudburstmc.protocol.bedrock.netty.codec.batch;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.cloudburstmc.protocol.bedrock.netty.BedrockBatchWrapper;
+import org.cloudburstmc.protocol.bedrock.netty.BedrockPacketWrapper;
+import org.cloudburstmc.protocol.bedrock.util.BedrockPacketFlag;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class BedrockBatchEncoderTests {
+
+    private static ByteBuf payload(int length, int seed) {
+        ByteBuf buffer = Unpooled.buffer(length);
+        for (int i = 0; i < length; i++) {
+            buffer.writeByte(seed + i);
+        }
+        return buffer;
+    }
+
+    private static BedrockPacketWrapper packet(ByteBuf payload) {
+        return BedrockPacketWrapper.create(0, 0, 0, null, payload.retainedSlice());
+    }
+
+    private static BedrockPacketWrapper sequenced(ByteBuf payload) {
+        BedrockPacketWrapper wrapper = packet(payload);
+        wrapper.setFlag(BedrockPacketFlag.SEQUENCED);
+        return wrapper;
+    }
+
+    /**
+     * Writes the packets, flushes them and returns the batches sent.
+     */
+    private static List<BedrockBatchWrapper> encode(int maxBatchSize, BedrockPacketWrapper... packets) {
+        EmbeddedChannel channel = new EmbeddedChannel(new BedrockBatchEncoder(maxBatchSize));
+        for (BedrockPacketWrapper packet : packets) {
+            channel.write(packet);
+        }
+        Assertions.assertNull(channel.readOutbound());
+        channel.flush();
+
+        List<BedrockBatchWrapper> batches = new ArrayList<>();
+        BedrockBatchWrapper batch;
+        while ((batch = channel.readOutbound()) != null) {
+            batches.add(batch);
+        }
+        Assertions.assertEquals(0, channel.pipeline().get(BedrockBatchEncoder.class).getPendingSize());
+        channel.finishAndReleaseAll();
+        return batches;
+    }
+
+    /**
+     * Splits the batch again and checks that it holds the given payloads.
+     */
+    private static void assertBatch(BedrockBatchWrapper batch, ByteBuf... payloads) {
+        ByteBuf uncompressed = batch.getUncompressed();
+        // The buffer was sized exactly, so it was never expanded
+        Assertions.assertEquals(uncompressed.capacity(), uncompressed.readableBytes());
+        Assertions.assertEquals(payloads.length, batch.getPackets().size());
+
+        EmbeddedChannel channel = new EmbeddedChannel(new BedrockBatchDecoder());
+        channel.writeInbound(batch.retain());
+        for (ByteBuf payload : payloads) {
+            ByteBuf decoded = channel.readInbound();
+            Assertions.assertTrue(ByteBufUtil.equals(payload, decoded));
+            decoded.release();
+        }
+        Assertions.assertNull(channel.readInbound());
+        channel.finishAndReleaseAll();
+        batch.release();
+    }
+
+    private static void release(ByteBuf... buffers) {
+        for (ByteBuf buffer : buffers) {
+            buffer.release();
+        }
+    }
+
+    @Test
+    public void testLengthHeadersAreSized() {
+        // Lengths needing 1, 2 and 3 byte VarInts
+        ByteBuf small = payload(127, 0);
+        ByteBuf medium = payload(128, 1);
+        ByteBuf large = payload(16384, 2);
+
+        List<BedrockBatchWrapper> batches = encode(0, packet(small), packet(medium), packet(large), packet(small));
+        Assertions.assertEquals(1, batches.size());
+        Assertions.assertEquals(1 + 127 + 2 + 128 + 3 + 16384 + 1 + 127, batches.get(0).getUncompressed().readableBytes());
+        assertBatch(batches.get(0), small, medium, large, small);
+        release(small, medium, large);
+    }
+
+    @Test
+    public void testEmptyPacket() {
+        ByteBuf empty = Unpooled.EMPTY_BUFFER;
+        ByteBuf small = payload(3, 0);
+
+        List<BedrockBatchWrapper> batches = encode(0, packet(empty), packet(small));
+        Assertions.assertEquals(1, batches.size());
+        assertBatch(batches.get(0), empty, small);
+        small.release();
+    }
+
+    @Test
+    public void testBatchIsSplitAtBudget() {
+        ByteBuf first = payload(50, 0);
+        ByteBuf second = payload(48, 1);
+        ByteBuf third = payload(10, 2);
+
+        // The first two packets fill the budget exactly, including their length headers
+        List<BedrockBatchWrapper> batches = encode(100, packet(first), packet(second), packet(third));
+        Assertions.assertEquals(2, batches.size());
+        Assertions.assertEquals(100, batches.get(0).getUncompressed().readableBytes());
+        assertBatch(batches.get(0), first, second);
+        assertBatch(batches.get(1), third);
+        release(first, second, third);
+    }
+
+    @Test
+    public void testOversizedPacketIsSentAlone() {
+        ByteBuf small = payload(10, 0);
+        ByteBuf oversized = payload(500, 1);
+
+        List<BedrockBatchWrapper> batches = encode(100, packet(small), packet(oversized), packet(small));
+        Assertions.assertEquals(3, batches.size());
+        assertBatch(batches.get(0), small);
+        assertBatch(batches.get(1), oversized);
+        assertBatch(batches.get(2), small);
+        release(small, oversized);
+    }
+
+    @Test
+    public void testSequencedPacketsAreBatchedSeparately() {
+        ByteBuf ordered = payload(10, 0);
+        ByteBuf movement = payload(20, 1);
+
+        List<BedrockBatchWrapper> batches = encode(0, packet(ordered), sequenced(movement), sequenced(movement),
+                packet(ordered));
+        Assertions.assertEquals(3, batches.size());
+        assertBatch(batches.get(0), ordered);
+        assertBatch(batches.get(1), movement, movement);
+        assertBatch(batches.get(2), ordered);
+        release(ordered, movement);
+    }
+
+    @Test
+    public void testUnencodedPacketIsRejected() {
+        EmbeddedChannel channel = new EmbeddedChannel(new BedrockBatchEncoder());
+        BedrockPacketWrapper packet = BedrockPacketWrapper.create(0, 0, 0, null, null);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> channel.writeOutbound(packet));
+        Assertions.assertEquals(0, packet.refCnt());
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    public void testNegativeMaxBatchSizeIsRejected() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new BedrockBatchEncoder(-1));
+    }
+}
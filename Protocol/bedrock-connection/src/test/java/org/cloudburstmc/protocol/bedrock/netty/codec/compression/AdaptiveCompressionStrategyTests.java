@@ -0,0 +1,109 @@
+package org.cloudburstmc.protocol.bedrock.netty.codec.compression;
+
+import io.netty.buffer.Unpooled;
+import org.cloudburstmc.protocol.bedrock.data.PacketCompressionAlgorithm;
+import org.cloudburstmc.protocol.bedrock.netty.BedrockBatchWrapper;
+import org.cloudburstmc.protocol.bedrock.netty.BedrockPacketWrapper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+public class AdaptiveCompressionStrategyTests {
+    private static final int LEVEL_CHUNK_ID = 58;
+    private static final int MOVE_PLAYER_ID = 19;
+
+    private static BedrockBatchWrapper batch(int size, int... packetIds) {
+        BedrockBatchWrapper batch = BedrockBatchWrapper.newInstance(null, Unpooled.buffer(size).writeZero(size));
+        for (int packetId : packetIds) {
+            BedrockPacketWrapper wrapper = BedrockPacketWrapper.create(packetId, 0, 0, null, null);
+            wrapper.setDecoder(w -> {
+                throw new AssertionError("Packet " + w.getPacketId() + " was decoded");
+            });
+            batch.getPackets().add(wrapper);
+        }
+        return batch;
+    }
+
+    @Test
+    public void testTinyBatchIsNotCompressed() {
+        AdaptiveCompressionStrategy strategy = new AdaptiveCompressionStrategy();
+        BedrockBatchWrapper batch = batch(32, MOVE_PLAYER_ID);
+        try {
+            Assertions.assertEquals(PacketCompressionAlgorithm.NONE, strategy.getCompression(batch).getAlgorithm());
+            Assertions.assertFalse(strategy.isTimed());
+        } finally {
+            batch.release();
+        }
+    }
+
+    @Test
+    public void testBulkPacketUsesBestZlib() {
+        AdaptiveCompressionStrategy strategy = new AdaptiveCompressionStrategy();
+        // The packet is only matched by its ID, so it is never decoded
+        BedrockBatchWrapper batch = batch(1024, MOVE_PLAYER_ID, LEVEL_CHUNK_ID);
+        try {
+            BatchCompression compression = strategy.getCompression(batch);
+            Assertions.assertEquals(PacketCompressionAlgorithm.ZLIB, compression.getAlgorithm());
+            Assertions.assertEquals(9, compression.getLevel());
+            Assertions.assertTrue(strategy.isTimed());
+        } finally {
+            batch.release();
+        }
+    }
+
+    @Test
+    public void testSwitchesToFasterCandidate() {
+        AdaptiveCompressionStrategy strategy = new AdaptiveCompressionStrategy();
+        BedrockBatchWrapper batch = batch(1024, MOVE_PLAYER_ID);
+        try {
+            BatchCompression compression = strategy.getCompression(batch);
+            Assertions.assertEquals(PacketCompressionAlgorithm.ZLIB, compression.getAlgorithm());
+            Assertions.assertEquals(1, compression.getLevel());
+
+            // Fast zlib turns out to be slow and barely compresses this connection's batches
+            for (int i = 0; i < 16 && compression.getAlgorithm() == PacketCompressionAlgorithm.ZLIB; i++) {
+                strategy.onCompressed(batch, compression, 1024, 1000, 1024 * 1000);
+                compression = strategy.getCompression(batch);
+            }
+            Assertions.assertEquals(PacketCompressionAlgorithm.SNAPPY, compression.getAlgorithm());
+        } finally {
+            batch.release();
+        }
+    }
+
+    @Test
+    public void testProbesOtherCandidates() {
+        AdaptiveCompressionStrategy strategy = new AdaptiveCompressionStrategy();
+        BedrockBatchWrapper batch = batch(1024, MOVE_PLAYER_ID);
+        try {
+            Set<PacketCompressionAlgorithm> used = EnumSet.noneOf(PacketCompressionAlgorithm.class);
+            for (int i = 0; i < 32; i++) {
+                used.add((PacketCompressionAlgorithm) strategy.getCompression(batch).getAlgorithm());
+            }
+            Assertions.assertEquals(EnumSet.of(PacketCompressionAlgorithm.ZLIB, PacketCompressionAlgorithm.SNAPPY), used);
+        } finally {
+            batch.release();
+        }
+    }
+
+    @Test
+    public void testFixedAlgorithmIsNotTimed() {
+        AdaptiveCompressionStrategy strategy = new AdaptiveCompressionStrategy();
+        BedrockBatchWrapper batch = batch(1024, MOVE_PLAYER_ID);
+        try {
+            strategy.getCompression(batch);
+            strategy.getCompression(PacketCompressionAlgorithm.NONE);
+            Assertions.assertFalse(strategy.isTimed());
+        } finally {
+            batch.release();
+        }
+    }
+
+    @Test
+    public void testRequiresPrefixedCodec() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new CompressionCodec(new AdaptiveCompressionStrategy(), false));
+        Assertions.assertDoesNotThrow(() -> new CompressionCodec(new AdaptiveCompressionStrategy(), true));
+    }
+}
@@ -0,0 +1,172 @@
+package org.cloudburstmc.protocol.bedrock.netty.codec.compression;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.cloudburstmc.protocol.bedrock.BedrockPeer;
+import org.cloudburstmc.protocol.bedrock.BedrockServerSession;
+import org.cloudburstmc.protocol.bedrock.codec.v827.Bedrock_v827;
+import org.cloudburstmc.protocol.bedrock.data.CompressionAlgorithm;
+import org.cloudburstmc.protocol.bedrock.data.PacketCompressionAlgorithm;
+import org.cloudburstmc.protocol.bedrock.netty.BedrockBatchWrapper;
+import org.cloudburstmc.protocol.bedrock.netty.codec.batch.BedrockBatchDecoder;
+import org.cloudburstmc.protocol.bedrock.netty.codec.packet.BedrockPacketCodec;
+import org.cloudburstmc.protocol.bedrock.netty.codec.packet.BedrockPacketCodec_v3;
+import org.cloudburstmc.protocol.common.util.Zlib;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class CompressionCodecTests {
+    private static final CompressionStrategy ZLIB = new SimpleCompressionStrategy(new ZlibCompression(Zlib.RAW));
+
+    private static class TestCodec extends CompressionCodec {
+        private final List<CompressionAlgorithm> compressed = new ArrayList<>();
+
+        private TestCodec(boolean prefixed, int threshold) {
+            super(ZLIB, prefixed, threshold);
+        }
+
+        @Override
+        protected void onCompressed(ChannelHandlerContext ctx, BedrockBatchWrapper msg) {
+            this.compressed.add(msg.getAlgorithm());
+        }
+    }
+
+    private static class TestPeer extends BedrockPeer {
+
+        private TestPeer(Channel channel) {
+            super(channel, BedrockServerSession::new);
+        }
+
+        @Override
+        public int getRakVersion() {
+            return 11;
+        }
+    }
+
+    private static ByteBuf payload(int size) {
+        return Unpooled.buffer(size).writeZero(size);
+    }
+
+    /**
+     * Encodes a batch of the given size and returns the data sent.
+     */
+    private static ByteBuf encode(EmbeddedChannel channel, ByteBuf payload) {
+        channel.writeOutbound(BedrockBatchWrapper.newInstance(null, payload.retainedSlice()));
+        BedrockBatchWrapper batch = channel.readOutbound();
+        try {
+            return batch.getCompressed().copy();
+        } finally {
+            batch.release();
+        }
+    }
+
+    /**
+     * Decodes the data again and returns the uncompressed batch.
+     */
+    private static ByteBuf decode(EmbeddedChannel channel, ByteBuf compressed) {
+        channel.writeInbound(BedrockBatchWrapper.newInstance(compressed, null));
+        BedrockBatchWrapper batch = channel.readInbound();
+        try {
+            return batch.getUncompressed().retain();
+        } finally {
+            batch.release();
+        }
+    }
+
+    @Test
+    public void testBatchBelowThresholdIsNotCompressed() {
+        TestCodec codec = new TestCodec(true, 256);
+        EmbeddedChannel channel = new EmbeddedChannel(codec);
+        ByteBuf payload = payload(255);
+
+        ByteBuf compressed = encode(channel, payload);
+        Assertions.assertEquals((byte) 0xff, compressed.getByte(0));
+        Assertions.assertTrue(ByteBufUtil.equals(payload, compressed.slice(1, compressed.readableBytes() - 1)));
+        Assertions.assertEquals(List.of(PacketCompressionAlgorithm.NONE), codec.compressed);
+
+        ByteBuf uncompressed = decode(channel, compressed);
+        Assertions.assertTrue(ByteBufUtil.equals(payload, uncompressed));
+        uncompressed.release();
+        payload.release();
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    public void testBatchAtThresholdIsCompressed() {
+        TestCodec codec = new TestCodec(true, 256);
+        EmbeddedChannel channel = new EmbeddedChannel(codec);
+        ByteBuf payload = payload(256);
+
+        ByteBuf compressed = encode(channel, payload);
+        Assertions.assertEquals(0x00, compressed.getByte(0));
+        Assertions.assertTrue(compressed.readableBytes() < payload.readableBytes());
+        Assertions.assertEquals(List.of(PacketCompressionAlgorithm.ZLIB), codec.compressed);
+
+        ByteBuf uncompressed = decode(channel, compressed);
+        Assertions.assertTrue(ByteBufUtil.equals(payload, uncompressed));
+        uncompressed.release();
+        payload.release();
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    public void testThresholdIsIgnoredWithoutPrefix() {
+        // Without a prefix the remote peer always decompresses with the default algorithm
+        TestCodec codec = new TestCodec(false, 256);
+        EmbeddedChannel channel = new EmbeddedChannel(codec);
+        ByteBuf payload = payload(16);
+
+        ByteBuf compressed = encode(channel, payload);
+        Assertions.assertEquals(List.of(PacketCompressionAlgorithm.ZLIB), codec.compressed);
+        ByteBuf uncompressed = decode(channel, compressed);
+        Assertions.assertTrue(ByteBufUtil.equals(payload, uncompressed));
+        uncompressed.release();
+        payload.release();
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    public void testNegativeThresholdCompressesAll() {
+        Assertions.assertEquals(0, new CompressionCodec(ZLIB, true, -1).getThreshold());
+    }
+
+    @Test
+    public void testPeerInstallsThreshold() {
+        EmbeddedChannel channel = new EmbeddedChannel();
+        BedrockPacketCodec packetCodec = new BedrockPacketCodec_v3();
+        packetCodec.setCodec(Bedrock_v827.CODEC);
+        channel.pipeline()
+                .addLast(BedrockBatchDecoder.NAME, new BedrockBatchDecoder())
+                .addLast(BedrockPacketCodec.NAME, packetCodec);
+        BedrockPeer peer = new TestPeer(channel);
+        channel.pipeline().addLast(BedrockPeer.NAME, peer);
+
+        Assertions.assertEquals(0, peer.getCompressionThreshold());
+        peer.setCompression(PacketCompressionAlgorithm.ZLIB, 256);
+        CompressionCodec codec = (CompressionCodec) channel.pipeline().get(CompressionCodec.NAME);
+        Assertions.assertEquals(256, codec.getThreshold());
+        Assertions.assertEquals(256, peer.getCompressionThreshold());
+        Assertions.assertEquals(PacketCompressionAlgorithm.ZLIB, peer.getCompressionStrategy().getDefaultCompression().getAlgorithm());
+        // Installed before the batch decoder, so batches are decompressed before being split
+        Assertions.assertEquals(CompressionCodec.NAME, channel.pipeline().names().get(0));
+
+        // Replaces the codec installed before
+        peer.setCompression(PacketCompressionAlgorithm.SNAPPY, 512);
+        Assertions.assertEquals(512, peer.getCompressionThreshold());
+        Assertions.assertEquals(PacketCompressionAlgorithm.SNAPPY, peer.getCompressionStrategy().getDefaultCompression().getAlgorithm());
+
+        ByteBuf payload = payload(511);
+        ByteBuf compressed = encode(channel, payload);
+        Assertions.assertEquals((byte) 0xff, compressed.getByte(0));
+        compressed.release();
+        payload.release();
+        channel.finishAndReleaseAll();
+    }
+}
@@ -0,0 +1,181 @@
+package org.cloudburstmc.protocol.bedrock.netty.codec.encryption;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.DecoderException;
+import org.cloudburstmc.protocol.bedrock.netty.BedrockBatchWrapper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Random;
+
+public class BedrockEncryptionTests {
+    // Larger than the scratch array used for direct buffers
+    private static final int[] SIZES = {1, 100, 8192, 20000};
+
+    private static final SecretKey KEY;
+
+    static {
+        byte[] key = new byte[32];
+        new Random(1).nextBytes(key);
+        KEY = new SecretKeySpec(key, "AES");
+    }
+
+    /**
+     * Same ciphers as {@code EncryptionUtils.createCipher}, whose class initializer needs network access.
+     */
+    private static Cipher cipher(boolean ctr, boolean encrypt, SecretKey key) throws Exception {
+        byte[] iv;
+        Cipher cipher;
+        if (ctr) {
+            iv = new byte[16];
+            System.arraycopy(key.getEncoded(), 0, iv, 0, 12);
+            iv[15] = 2;
+            cipher = Cipher.getInstance("AES/CTR/NoPadding");
+        } else {
+            iv = Arrays.copyOf(key.getEncoded(), 16);
+            cipher = Cipher.getInstance("AES/CFB8/NoPadding");
+        }
+        cipher.init(encrypt ? Cipher.ENCRYPT_MODE : Cipher.DECRYPT_MODE, key, new IvParameterSpec(iv));
+        return cipher;
+    }
+
+    private static byte[] data(int length) {
+        byte[] data = new byte[length];
+        new Random(length).nextBytes(data);
+        return data;
+    }
+
+    /**
+     * Encrypts batches the way the protocol defines it, independent of the handlers.
+     */
+    private static byte[] expected(Cipher cipher, long counter, byte[] data) throws Exception {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        digest.update(ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN).putLong(0, counter));
+        digest.update(data);
+        digest.update(KEY.getEncoded());
+        byte[] plain = Arrays.copyOf(data, data.length + 8);
+        System.arraycopy(digest.digest(), 0, plain, data.length, 8);
+        return cipher.update(plain);
+    }
+
+    private static ByteBuf encrypt(EmbeddedChannel channel, ByteBuf compressed, boolean inPlace) {
+        BedrockBatchWrapper batch = BedrockBatchWrapper.newInstance(compressed, null);
+        Assertions.assertTrue(channel.writeOutbound(batch));
+        BedrockBatchWrapper encrypted = channel.readOutbound();
+        try {
+            ByteBuf buffer = encrypted.getCompressed();
+            Assertions.assertEquals(inPlace, buffer == compressed);
+            return buffer.retain();
+        } finally {
+            encrypted.release();
+        }
+    }
+
+    private static byte[] decrypt(EmbeddedChannel channel, byte[] encrypted, boolean direct) {
+        ByteBuf buffer = direct ? Unpooled.directBuffer(encrypted.length) : Unpooled.buffer(encrypted.length);
+        buffer.writeBytes(encrypted);
+        Assertions.assertTrue(channel.writeInbound(BedrockBatchWrapper.newInstance(buffer, null)));
+        BedrockBatchWrapper decrypted = channel.readInbound();
+        try {
+            return ByteBufUtil.getBytes(decrypted.getCompressed());
+        } finally {
+            decrypted.release();
+        }
+    }
+
+    private static void testRoundTrip(boolean ctr, boolean direct, boolean inPlace) throws Exception {
+        EmbeddedChannel encoder = new EmbeddedChannel(new BedrockEncryptionEncoder(KEY, cipher(ctr, true, KEY)));
+        EmbeddedChannel decoder = new EmbeddedChannel(new BedrockEncryptionDecoder(KEY, cipher(ctr, false, KEY)));
+        Cipher reference = cipher(ctr, true, KEY);
+
+        long counter = 0;
+        for (int size : SIZES) {
+            byte[] data = data(size);
+            ByteBuf compressed;
+            if (inPlace) {
+                int capacity = size + BedrockEncryptionEncoder.TRAILER_HEADROOM;
+                compressed = direct ? Unpooled.directBuffer(capacity) : Unpooled.buffer(capacity);
+            } else {
+                // No room for the trailer
+                compressed = direct ? Unpooled.directBuffer(size, size) : Unpooled.buffer(size, size);
+            }
+            compressed.writeBytes(data);
+
+            ByteBuf encrypted = encrypt(encoder, compressed, inPlace);
+            try {
+                byte[] bytes = ByteBufUtil.getBytes(encrypted);
+                Assertions.assertArrayEquals(expected(reference, counter++, data), bytes);
+                Assertions.assertArrayEquals(data, decrypt(decoder, bytes, direct));
+            } finally {
+                encrypted.release();
+            }
+        }
+
+        Assertions.assertFalse(encoder.finishAndReleaseAll());
+        Assertions.assertFalse(decoder.finishAndReleaseAll());
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    public void testInPlaceHeap(boolean ctr) throws Exception {
+        testRoundTrip(ctr, false, true);
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    public void testInPlaceDirect(boolean ctr) throws Exception {
+        testRoundTrip(ctr, true, true);
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    public void testCopyHeap(boolean ctr) throws Exception {
+        testRoundTrip(ctr, false, false);
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    public void testCopyDirect(boolean ctr) throws Exception {
+        testRoundTrip(ctr, true, false);
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    public void testSharedBufferIsCopied(boolean ctr) throws Exception {
+        EmbeddedChannel encoder = new EmbeddedChannel(new BedrockEncryptionEncoder(KEY, cipher(ctr, true, KEY)));
+        byte[] data = data(100);
+        ByteBuf compressed = Unpooled.buffer(200).writeBytes(data);
+        // Another holder of the buffer, such as a batch forwarded to several sessions, must not see the ciphertext
+        compressed.retain();
+        try {
+            encrypt(encoder, compressed, false).release();
+            Assertions.assertArrayEquals(data, ByteBufUtil.getBytes(compressed));
+        } finally {
+            compressed.release();
+        }
+        Assertions.assertFalse(encoder.finishAndReleaseAll());
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    public void testInvalidTrailer(boolean ctr) throws Exception {
+        EmbeddedChannel decoder = new EmbeddedChannel(new BedrockEncryptionDecoder(KEY, cipher(ctr, false, KEY)));
+        byte[] encrypted = expected(cipher(ctr, true, KEY), 0, data(100));
+        // Trailer validation is enabled by default
+        encrypted[encrypted.length - 1] ^= 1;
+        Assertions.assertThrows(DecoderException.class, () -> decrypt(decoder, encrypted, false));
+        decoder.finishAndReleaseAll();
+    }
+}
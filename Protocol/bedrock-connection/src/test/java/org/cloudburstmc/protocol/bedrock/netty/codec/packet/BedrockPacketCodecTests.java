@@ -0,0 +1,71 @@
+package org.cloudburstmc.protocol.bedrock.netty.codec.packet;
+
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.cloudburstmc.protocol.bedrock.codec.BedrockCodec;
+import org.cloudburstmc.protocol.bedrock.codec.v827.Bedrock_v827;
+import org.cloudburstmc.protocol.bedrock.netty.BedrockPacketWrapper;
+import org.cloudburstmc.protocol.bedrock.packet.TextPacket;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class BedrockPacketCodecTests {
+    private static final BedrockCodec CODEC = Bedrock_v827.CODEC;
+
+    private static TextPacket text(int length) {
+        TextPacket packet = new TextPacket();
+        packet.setType(TextPacket.Type.RAW);
+        packet.setSourceName("");
+        packet.setMessage("a".repeat(length));
+        packet.setXuid("");
+        packet.setPlatformChatId("");
+        packet.setFilteredMessage("");
+        return packet;
+    }
+
+    /**
+     * Encodes the packet and returns its encoded size.
+     */
+    private static int encode(EmbeddedChannel channel, TextPacket packet) {
+        channel.writeOutbound(BedrockPacketWrapper.create(0, 0, 0, packet, null));
+        BedrockPacketWrapper wrapper = channel.readOutbound();
+        try {
+            return wrapper.getPacketBuffer().readableBytes();
+        } finally {
+            wrapper.release();
+        }
+    }
+
+    @Test
+    public void testResizeIsReportedOnlyWhenPredictionIsTooSmall() {
+        BedrockPacketCodec codec = new BedrockPacketCodec_v3();
+        codec.setCodec(CODEC);
+        List<int[]> resizes = new ArrayList<>();
+        codec.setMetrics((packetId, predictedSize, encodedSize) -> resizes.add(new int[]{packetId, predictedSize, encodedSize}));
+        EmbeddedChannel channel = new EmbeddedChannel(codec);
+        int textId = CODEC.getPacketDefinition(TextPacket.class).getId();
+
+        // Fits into the default prediction
+        encode(channel, text(10));
+        Assertions.assertTrue(resizes.isEmpty());
+
+        int size = encode(channel, text(1000));
+        Assertions.assertEquals(1, resizes.size());
+        Assertions.assertArrayEquals(new int[]{textId, PacketSizePredictor.DEFAULT_SIZE, size}, resizes.get(0));
+        Assertions.assertEquals(1024, codec.getSizePredictor().predict(textId));
+
+        // The prediction grew, so the same packet fits now
+        encode(channel, text(1000));
+        Assertions.assertEquals(1, resizes.size());
+        Assertions.assertEquals(3, codec.getSizePredictor().getEncodedCount());
+        Assertions.assertEquals(1, codec.getSizePredictor().getResizeCount());
+
+        // Without metrics the predictor still adapts
+        codec.setMetrics(null);
+        encode(channel, text(5000));
+        Assertions.assertEquals(8192, codec.getSizePredictor().predict(textId));
+        channel.finishAndReleaseAll();
+    }
+}
@@ -0,0 +1,91 @@
+package org.cloudburstmc.protocol.bedrock.netty.codec.packet;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class PacketSizePredictorTests {
+    private static final int PACKET_ID = 9;
+
+    @Test
+    public void testGrowsToPowerOfTwo() {
+        PacketSizePredictor predictor = new PacketSizePredictor();
+        Assertions.assertEquals(PacketSizePredictor.DEFAULT_SIZE, predictor.predict(PACKET_ID));
+
+        Assertions.assertFalse(predictor.record(PACKET_ID, PacketSizePredictor.DEFAULT_SIZE));
+        Assertions.assertEquals(PacketSizePredictor.DEFAULT_SIZE, predictor.predict(PACKET_ID));
+
+        Assertions.assertTrue(predictor.record(PACKET_ID, 129));
+        Assertions.assertEquals(256, predictor.predict(PACKET_ID));
+        Assertions.assertTrue(predictor.record(PACKET_ID, 1000));
+        Assertions.assertEquals(1024, predictor.predict(PACKET_ID));
+        Assertions.assertFalse(predictor.record(PACKET_ID, 1024));
+        Assertions.assertEquals(1024, predictor.predict(PACKET_ID));
+
+        // Other packet IDs are predicted separately
+        Assertions.assertEquals(PacketSizePredictor.DEFAULT_SIZE, predictor.predict(PACKET_ID + 1));
+        Assertions.assertEquals(4, predictor.getEncodedCount());
+        Assertions.assertEquals(2, predictor.getResizeCount());
+    }
+
+    @Test
+    public void testShrinksAfterTwoSmallPackets() {
+        PacketSizePredictor predictor = new PacketSizePredictor();
+        predictor.record(PACKET_ID, 1000);
+        Assertions.assertEquals(1024, predictor.predict(PACKET_ID));
+
+        // A single small packet does not shrink the prediction
+        predictor.record(PACKET_ID, 10);
+        Assertions.assertEquals(1024, predictor.predict(PACKET_ID));
+        predictor.record(PACKET_ID, 1000);
+        predictor.record(PACKET_ID, 10);
+        Assertions.assertEquals(1024, predictor.predict(PACKET_ID));
+
+        predictor.record(PACKET_ID, 512);
+        Assertions.assertEquals(512, predictor.predict(PACKET_ID));
+        // The next decrease needs two small packets again
+        predictor.record(PACKET_ID, 10);
+        Assertions.assertEquals(512, predictor.predict(PACKET_ID));
+        predictor.record(PACKET_ID, 10);
+        Assertions.assertEquals(256, predictor.predict(PACKET_ID));
+        Assertions.assertEquals(1, predictor.getResizeCount());
+    }
+
+    @Test
+    public void testGrowingResetsShrinking() {
+        PacketSizePredictor predictor = new PacketSizePredictor();
+        predictor.record(PACKET_ID, 1000);
+        predictor.record(PACKET_ID, 10);
+        predictor.record(PACKET_ID, 2000);
+        Assertions.assertEquals(2048, predictor.predict(PACKET_ID));
+        predictor.record(PACKET_ID, 10);
+        Assertions.assertEquals(2048, predictor.predict(PACKET_ID));
+    }
+
+    @Test
+    public void testClampedToLimits() {
+        PacketSizePredictor predictor = new PacketSizePredictor();
+        for (int i = 0; i < 10; i++) {
+            predictor.record(PACKET_ID, 1);
+        }
+        Assertions.assertEquals(PacketSizePredictor.MINIMUM_SIZE, predictor.predict(PACKET_ID));
+
+        Assertions.assertTrue(predictor.record(PACKET_ID, PacketSizePredictor.MAXIMUM_SIZE + 1));
+        Assertions.assertEquals(PacketSizePredictor.MAXIMUM_SIZE, predictor.predict(PACKET_ID));
+        // Still reported as too small, but the prediction does not grow any further
+        Assertions.assertTrue(predictor.record(PACKET_ID, Integer.MAX_VALUE));
+        Assertions.assertEquals(PacketSizePredictor.MAXIMUM_SIZE, predictor.predict(PACKET_ID));
+    }
+
+    @Test
+    public void testOutOfRangePacketIds() {
+        PacketSizePredictor predictor = new PacketSizePredictor();
+        for (int packetId : new int[]{-1, 1024, Integer.MAX_VALUE}) {
+            Assertions.assertEquals(PacketSizePredictor.DEFAULT_SIZE, predictor.predict(packetId));
+            Assertions.assertFalse(predictor.record(packetId, PacketSizePredictor.DEFAULT_SIZE));
+            Assertions.assertTrue(predictor.record(packetId, 5000));
+            Assertions.assertEquals(PacketSizePredictor.DEFAULT_SIZE, predictor.predict(packetId));
+        }
+        Assertions.assertEquals(6, predictor.getEncodedCount());
+        Assertions.assertEquals(3, predictor.getResizeCount());
+    }
+}
@@ -0,0 +1,51 @@
+package org.cloudburstmc.protocol.bedrock.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class Log2HistogramTests {
+
+    @Test
+    public void testBucketBoundaries() {
+        Assertions.assertEquals(0, Log2Histogram.bucketOf(-1));
+        Assertions.assertEquals(0, Log2Histogram.bucketOf(0));
+        Assertions.assertEquals(1, Log2Histogram.bucketOf(1));
+        Assertions.assertEquals(2, Log2Histogram.bucketOf(2));
+        Assertions.assertEquals(2, Log2Histogram.bucketOf(3));
+        Assertions.assertEquals(3, Log2Histogram.bucketOf(4));
+        Assertions.assertEquals(10, Log2Histogram.bucketOf(1023));
+        Assertions.assertEquals(11, Log2Histogram.bucketOf(1024));
+        Assertions.assertEquals(63, Log2Histogram.bucketOf(Long.MAX_VALUE));
+
+        // Each bucket holds the values up to its upper bound
+        for (int bucket = 1; bucket < 63; bucket++) {
+            long upperBound = Log2Histogram.upperBound(bucket);
+            Assertions.assertEquals(bucket, Log2Histogram.bucketOf(upperBound));
+            Assertions.assertEquals(bucket + 1, Log2Histogram.bucketOf(upperBound + 1));
+        }
+        Assertions.assertEquals(0, Log2Histogram.upperBound(0));
+        Assertions.assertEquals(Long.MAX_VALUE, Log2Histogram.upperBound(63));
+    }
+
+    @Test
+    public void testPercentile() {
+        Log2Histogram histogram = new Log2Histogram();
+        Assertions.assertEquals(0, histogram.getPercentile(50));
+
+        for (int i = 0; i < 9; i++) {
+            histogram.record(1);
+        }
+        histogram.record(1000);
+
+        Assertions.assertEquals(10, histogram.getTotalCount());
+        Assertions.assertEquals(9, histogram.getCount(1));
+        Assertions.assertEquals(1, histogram.getPercentile(50));
+        Assertions.assertEquals(1, histogram.getPercentile(90));
+        Assertions.assertEquals(1023, histogram.getPercentile(99));
+        Assertions.assertEquals(1023, histogram.getPercentile(100));
+        Assertions.assertEquals(1, histogram.getPercentile(-5));
+
+        histogram.reset();
+        Assertions.assertEquals(0, histogram.getTotalCount());
+    }
+}
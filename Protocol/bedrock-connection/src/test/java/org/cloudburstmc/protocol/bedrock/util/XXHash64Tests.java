@@ -0,0 +1,37 @@
+package org.cloudburstmc.protocol.bedrock.util;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+public class XXHash64Tests {
+
+    private static long hash(String string) {
+        return XXHash64.hash(Unpooled.wrappedBuffer(string.getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    @Test
+    public void testShortInputs() {
+        Assertions.assertEquals(0xef46db3751d8e999L, hash(""));
+        Assertions.assertEquals(0x44bc2cf5ad770999L, hash("abc"));
+    }
+
+    @Test
+    public void testLongInput() {
+        // Longer than one 32 byte stripe
+        Assertions.assertEquals(0xfbcea83c8a378bf1L, hash("Nobody inspects the spammish repetition"));
+    }
+
+    @Test
+    public void testReadableBytesOnly() {
+        ByteBuf buffer = Unpooled.buffer();
+        buffer.writeBytes("xxabcxx".getBytes(StandardCharsets.US_ASCII));
+        buffer.readerIndex(2).writerIndex(5);
+        Assertions.assertEquals(0x44bc2cf5ad770999L, XXHash64.hash(buffer));
+        Assertions.assertEquals(0x44bc2cf5ad770999L, XXHash64.hash(buffer, 2, 3));
+        Assertions.assertEquals(2, buffer.readerIndex());
+    }
+}
@@ -2,6 +2,7 @@ plugins {
     id("java-library")
     alias(libs.plugins.lombok)
     alias(libs.plugins.checkerframework)
+    alias(libs.plugins.jmh)
 }
 
 
@@ -14,4 +15,5 @@ dependencies {
     api(libs.fastutil.obj.int.maps)
     api(libs.math)
     api(libs.netty.buffer)
+    testImplementation(libs.bundles.junit.jupiter)
 }
\ No newline at end of file
@@ -0,0 +1,101 @@
+package org.cloudburstmc.protocol.common.util;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deflates and inflates synthetic batches shaped like Bedrock traffic: small movement batches, mixed gameplay
+ * batches, chunk sized batches and large start-up batches such as crafting data.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ZlibBenchmark {
+    private static final String[] IDENTIFIERS = {
+            "minecraft:stone", "minecraft:oak_planks", "minecraft:iron_ingot", "minecraft:crafting_table",
+            "minecraft:diamond_sword", "minecraft:player", "minecraft:zombie", "minecraft:item"
+    };
+
+    @Param({"256", "2048", "32768", "262144"})
+    public int size;
+
+    @Param({"true", "false"})
+    public boolean direct;
+
+    private ByteBuf uncompressed;
+    private ByteBuf compressed;
+    private ByteBuf output;
+
+    @Setup
+    public void setup() throws Exception {
+        ByteBuf batch = this.allocate(this.size);
+        writeBatch(batch, this.size, new Random(this.size));
+        this.uncompressed = batch;
+
+        this.compressed = this.allocate(Zlib.deflateBound(this.size));
+        Zlib.RAW.deflate(this.uncompressed, this.compressed, 7);
+        this.output = this.allocate(Zlib.deflateBound(this.size));
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.uncompressed.release();
+        this.compressed.release();
+        this.output.release();
+    }
+
+    @Benchmark
+    public ByteBuf deflate() throws Exception {
+        this.output.clear();
+        Zlib.RAW.deflate(this.uncompressed, this.output, 7);
+        return this.output;
+    }
+
+    @Benchmark
+    public int inflate() throws Exception {
+        ByteBuf inflated = Zlib.RAW.inflate(this.compressed, 0, this.size);
+        try {
+            return inflated.readableBytes();
+        } finally {
+            inflated.release();
+        }
+    }
+
+    private ByteBuf allocate(int capacity) {
+        return this.direct ? ByteBufAllocator.DEFAULT.directBuffer(capacity) : Unpooled.buffer(capacity);
+    }
+
+    private static void writeBatch(ByteBuf buffer, int size, Random random) {
+        while (buffer.readableBytes() < size) {
+            switch (random.nextInt(3)) {
+                case 0: // Movement: runtime id, position, rotation
+                    VarInts.writeUnsignedLong(buffer, 1 + random.nextInt(64));
+                    for (int i = 0; i < 6; i++) {
+                        buffer.writeFloatLE(random.nextInt(1024) + random.nextFloat());
+                    }
+                    break;
+                case 1: // Identifiers and names
+                    byte[] identifier = IDENTIFIERS[random.nextInt(IDENTIFIERS.length)].getBytes(StandardCharsets.UTF_8);
+                    VarInts.writeUnsignedInt(buffer, identifier.length);
+                    buffer.writeBytes(identifier);
+                    VarInts.writeInt(buffer, random.nextInt(64));
+                    break;
+                default: // Block palette indices
+                    for (int i = 0; i < 16; i++) {
+                        buffer.writeByte(random.nextInt(random.nextBoolean() ? 4 : 256));
+                    }
+                    break;
+            }
+        }
+        buffer.writerIndex(size);
+    }
+}
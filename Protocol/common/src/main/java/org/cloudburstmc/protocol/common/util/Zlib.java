@@ -7,7 +7,6 @@ import java.util.zip.Inflater;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufAllocator;
-import io.netty.buffer.CompositeByteBuf;
 import io.netty.util.concurrent.FastThreadLocal;
 
 /**
@@ -19,6 +18,10 @@ public class Zlib {
     public static final Zlib RAW = new Zlib(true);
 
     private static final int CHUNK = 8192;
+    // Typical ratio of Bedrock batches, used to size the output if no better hint is known
+    private static final int INFLATE_RATIO_HINT = 4;
+    // Inflater/Deflater ByteBuffer methods are only available since Java 11 and missing on older Android versions
+    private static final boolean BYTE_BUFFER_SUPPORTED = isByteBufferSupported();
 
     private final FastThreadLocal<Inflater> inflaterLocal;
     private final FastThreadLocal<Deflater> deflaterLocal;
@@ -46,36 +49,54 @@ public class Zlib {
         };
     }
 
+    private static boolean isByteBufferSupported() {
+        try {
+            Inflater.class.getMethod("setInput", ByteBuffer.class);
+            Inflater.class.getMethod("inflate", ByteBuffer.class);
+            Deflater.class.getMethod("setInput", ByteBuffer.class);
+            Deflater.class.getMethod("deflate", ByteBuffer.class);
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Upper bound of the deflated size of the given number of bytes, including the zlib header.
+     */
+    public static int deflateBound(int length) {
+        return length + (length >> 12) + (length >> 14) + (length >> 25) + 13 + 6;
+    }
+
     public ByteBuf inflate(ByteBuf buffer, int maxSize) throws DataFormatException {
+        return this.inflate(buffer, maxSize, buffer.readableBytes() * INFLATE_RATIO_HINT);
+    }
+
+    /**
+     * @param sizeHint expected size of the inflated data, used as the initial capacity of the returned buffer
+     */
+    public ByteBuf inflate(ByteBuf buffer, int maxSize, int sizeHint) throws DataFormatException {
         ByteBuf source = null;
-        ByteBuf decompressed = ByteBufAllocator.DEFAULT.ioBuffer();
+        int initialCapacity = Math.max(sizeHint, CHUNK);
+        if (maxSize > 0) {
+            initialCapacity = Math.min(initialCapacity, maxSize);
+        }
+        ByteBuf decompressed = ByteBufAllocator.DEFAULT.ioBuffer(initialCapacity);
 
         try {
-            if (!buffer.isDirect() || (buffer instanceof CompositeByteBuf && ((CompositeByteBuf) buffer).numComponents() > 1)) {
-                // We don't have a direct buffer. Create one.
-                ByteBuf temporary = ByteBufAllocator.DEFAULT.ioBuffer();
-                temporary.writeBytes(buffer);
-                source = temporary;
-            } else {
-                source = buffer;
-            }
+            source = this.toSource(buffer);
 
             Inflater inflater = inflaterLocal.get();
             inflater.reset();
-            ByteBuffer input = source.internalNioBuffer(source.readerIndex(), source.readableBytes());
-            if (input.hasArray()) {
-                inflater.setInput(input.array(), input.arrayOffset() + input.position(), input.remaining());
-            } else {
-                byte[] bytes = new byte[input.remaining()];
-                input.get(bytes);
-                inflater.setInput(bytes);
-            }
-            inflater.finished();
+            this.setInput(inflater, source.internalNioBuffer(source.readerIndex(), source.readableBytes()));
 
             while (!inflater.finished()) {
-                decompressed.ensureWritable(CHUNK);
+                if (!decompressed.isWritable()) {
+                    // Double the capacity instead of growing by a fixed chunk
+                    decompressed.ensureWritable(decompressed.capacity());
+                }
                 int index = decompressed.writerIndex();
-                int written = inflate(inflater, decompressed.internalNioBuffer(index, CHUNK));
+                int written = inflate(inflater, decompressed.internalNioBuffer(index, decompressed.writableBytes()));
                 if (written < 1) {
                     break;
                 }
@@ -99,15 +120,9 @@ public class Zlib {
         ByteBuf destination = null;
         ByteBuf source = null;
         try {
-            if (!uncompressed.isDirect() || (uncompressed instanceof CompositeByteBuf && ((CompositeByteBuf) uncompressed).numComponents() > 1)) {
-                // Source is not a direct buffer. Work on a temporary direct buffer and then write the contents out.
-                source = ByteBufAllocator.DEFAULT.ioBuffer();
-                source.writeBytes(uncompressed);
-            } else {
-                source = uncompressed;
-            }
+            source = this.toSource(uncompressed);
 
-            if (!compressed.isDirect()) {
+            if (!BYTE_BUFFER_SUPPORTED && !compressed.isDirect()) {
                 // Destination is not a direct buffer. Work on a temporary direct buffer and then write the contents out.
                 destination = ByteBufAllocator.DEFAULT.ioBuffer();
             } else {
@@ -117,19 +132,17 @@ public class Zlib {
             Deflater deflater = deflaterLocal.get();
             deflater.reset();
             deflater.setLevel(level);
-            ByteBuffer input = source.internalNioBuffer(source.readerIndex(), source.readableBytes());
-            if (input.hasArray()) {
-                deflater.setInput(input.array(), input.arrayOffset() + input.position(), input.remaining());
-            } else {
-                byte[] bytes = new byte[input.remaining()];
-                input.get(bytes);
-                deflater.setInput(bytes);
-            }
+            this.setInput(deflater, source.internalNioBuffer(source.readerIndex(), source.readableBytes()));
+            deflater.finish();
 
+            // Usually done in a single call as the destination fits the worst case
+            destination.ensureWritable(deflateBound(source.readableBytes()));
             while (!deflater.finished()) {
+                if (!destination.isWritable()) {
+                    destination.ensureWritable(CHUNK);
+                }
                 int index = destination.writerIndex();
-                destination.ensureWritable(CHUNK);
-                int written = deflate(deflater, destination.internalNioBuffer(index, CHUNK));
+                int written = deflate(deflater, destination.internalNioBuffer(index, destination.writableBytes()));
                 destination.writerIndex(index + written);
             }
 
@@ -146,8 +159,44 @@ public class Zlib {
         }
     }
 
+    private ByteBuf toSource(ByteBuf buffer) {
+        if (BYTE_BUFFER_SUPPORTED ? buffer.nioBufferCount() == 1 : buffer.isDirect() && buffer.nioBufferCount() == 1) {
+            return buffer;
+        }
+        // We need a single direct buffer. Create one.
+        ByteBuf temporary = ByteBufAllocator.DEFAULT.ioBuffer(buffer.readableBytes());
+        temporary.writeBytes(buffer, buffer.readerIndex(), buffer.readableBytes());
+        return temporary;
+    }
+
+    private void setInput(Inflater inflater, ByteBuffer input) {
+        if (BYTE_BUFFER_SUPPORTED) {
+            inflater.setInput(input);
+        } else if (input.hasArray()) {
+            inflater.setInput(input.array(), input.arrayOffset() + input.position(), input.remaining());
+        } else {
+            byte[] bytes = new byte[input.remaining()];
+            input.get(bytes);
+            inflater.setInput(bytes);
+        }
+    }
+
+    private void setInput(Deflater deflater, ByteBuffer input) {
+        if (BYTE_BUFFER_SUPPORTED) {
+            deflater.setInput(input);
+        } else if (input.hasArray()) {
+            deflater.setInput(input.array(), input.arrayOffset() + input.position(), input.remaining());
+        } else {
+            byte[] bytes = new byte[input.remaining()];
+            input.get(bytes);
+            deflater.setInput(bytes);
+        }
+    }
+
     private int inflate(Inflater inflater, ByteBuffer output) throws DataFormatException {
-        if (output.hasArray()) {
+        if (BYTE_BUFFER_SUPPORTED) {
+            return inflater.inflate(output);
+        } else if (output.hasArray()) {
             return inflater.inflate(output.array(), output.arrayOffset() + output.position(), output.remaining());
         } else {
             int startPos = output.position();
@@ -155,6 +204,9 @@ public class Zlib {
             while (output.remaining() > 0 && !inflater.finished()) {
                 int length = Math.min(output.remaining(), CHUNK);
                 int result = inflater.inflate(chunkBytes, 0, length);
+                if (result < 1) {
+                    break;
+                }
                 output.put(chunkBytes, 0, result);
             }
             return output.position() - startPos;
@@ -162,8 +214,9 @@ public class Zlib {
     }
 
     private int deflate(Deflater deflater, ByteBuffer output) {
-        deflater.finish();
-        if (output.hasArray()) {
+        if (BYTE_BUFFER_SUPPORTED) {
+            return deflater.deflate(output);
+        } else if (output.hasArray()) {
             return deflater.deflate(output.array(), output.arrayOffset() + output.position(), output.remaining());
         } else {
             int startPos = output.position();
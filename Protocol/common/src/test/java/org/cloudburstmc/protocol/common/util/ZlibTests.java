@@ -0,0 +1,174 @@
+package org.cloudburstmc.protocol.common.util;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.Function;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+public class ZlibTests {
+
+    private static byte[] data(int length) {
+        // Compressible, but not trivially
+        byte[] data = new byte[length];
+        Random random = new Random(length);
+        for (int i = 0; i < length; i++) {
+            data[i] = (byte) (random.nextInt(16) + (i % 64));
+        }
+        return data;
+    }
+
+    private static ByteBuf heap(byte[] bytes) {
+        return Unpooled.buffer(bytes.length).writeBytes(bytes);
+    }
+
+    private static ByteBuf direct(byte[] bytes) {
+        return Unpooled.directBuffer(bytes.length).writeBytes(bytes);
+    }
+
+    private static ByteBuf composite(byte[] bytes) {
+        int half = bytes.length / 2;
+        CompositeByteBuf buffer = Unpooled.compositeBuffer();
+        buffer.addComponent(true, Unpooled.wrappedBuffer(bytes, 0, half));
+        buffer.addComponent(true, Unpooled.directBuffer(bytes.length - half).writeBytes(bytes, half, bytes.length - half));
+        return buffer;
+    }
+
+    private static byte[] deflateJdk(byte[] data, boolean raw) {
+        Deflater deflater = new Deflater(7, raw);
+        deflater.setInput(data);
+        deflater.finish();
+        byte[] out = new byte[Zlib.deflateBound(data.length)];
+        int length = deflater.deflate(out);
+        deflater.end();
+        return Arrays.copyOf(out, length);
+    }
+
+    private static byte[] inflateJdk(byte[] compressed, boolean raw, int length) throws DataFormatException {
+        Inflater inflater = new Inflater(raw);
+        inflater.setInput(compressed);
+        byte[] out = new byte[length];
+        Assertions.assertEquals(length, inflater.inflate(out));
+        Assertions.assertTrue(inflater.finished());
+        inflater.end();
+        return out;
+    }
+
+    private static void testInflate(Function<byte[], ByteBuf> input) throws DataFormatException {
+        byte[] data = data(100_000);
+        for (boolean raw : new boolean[]{true, false}) {
+            Zlib zlib = raw ? Zlib.RAW : Zlib.DEFAULT;
+            ByteBuf compressed = input.apply(deflateJdk(data, raw));
+            ByteBuf inflated = zlib.inflate(compressed, 0);
+            try {
+                Assertions.assertArrayEquals(data, ByteBufUtil.getBytes(inflated));
+                // The input is left untouched
+                Assertions.assertEquals(0, compressed.readerIndex());
+            } finally {
+                inflated.release();
+                compressed.release();
+            }
+        }
+    }
+
+    private static void testDeflate(Function<byte[], ByteBuf> input, ByteBuf compressed) throws DataFormatException {
+        byte[] data = data(100_000);
+        ByteBuf uncompressed = input.apply(data);
+        try {
+            Zlib.RAW.deflate(uncompressed, compressed, 7);
+            Assertions.assertEquals(0, uncompressed.readerIndex());
+            Assertions.assertArrayEquals(data, inflateJdk(ByteBufUtil.getBytes(compressed), true, data.length));
+        } finally {
+            uncompressed.release();
+            compressed.release();
+        }
+    }
+
+    @Test
+    public void testInflateHeap() throws DataFormatException {
+        testInflate(ZlibTests::heap);
+    }
+
+    @Test
+    public void testInflateDirect() throws DataFormatException {
+        testInflate(ZlibTests::direct);
+    }
+
+    @Test
+    public void testInflateComposite() throws DataFormatException {
+        testInflate(ZlibTests::composite);
+    }
+
+    @Test
+    public void testDeflateHeap() throws DataFormatException {
+        testDeflate(ZlibTests::heap, Unpooled.buffer());
+    }
+
+    @Test
+    public void testDeflateDirect() throws DataFormatException {
+        testDeflate(ZlibTests::direct, Unpooled.directBuffer());
+    }
+
+    @Test
+    public void testDeflateComposite() throws DataFormatException {
+        testDeflate(ZlibTests::composite, Unpooled.directBuffer());
+    }
+
+    @Test
+    public void testInflateBeyondSizeHint() throws DataFormatException {
+        byte[] data = data(1_000_000);
+        ByteBuf compressed = direct(deflateJdk(data, true));
+        ByteBuf inflated = Zlib.RAW.inflate(compressed, 0, 16);
+        try {
+            Assertions.assertArrayEquals(data, ByteBufUtil.getBytes(inflated));
+        } finally {
+            inflated.release();
+            compressed.release();
+        }
+    }
+
+    @Test
+    public void testInflateMaxSize() {
+        byte[] data = data(100_000);
+        ByteBuf compressed = heap(deflateJdk(data, true));
+        try {
+            Assertions.assertThrows(DataFormatException.class, () -> Zlib.RAW.inflate(compressed, 50_000));
+        } finally {
+            compressed.release();
+        }
+    }
+
+    private static void testInflateTruncated(Function<byte[], ByteBuf> input) {
+        byte[] data = data(100_000);
+        byte[] deflated = deflateJdk(data, true);
+        ByteBuf compressed = input.apply(Arrays.copyOf(deflated, deflated.length / 2));
+        // The inflater runs out of input before it finishes, which has to stop the loop
+        ByteBuf inflated = Assertions.assertTimeoutPreemptively(Duration.ofSeconds(10), () -> Zlib.RAW.inflate(compressed, 0));
+        try {
+            Assertions.assertTrue(inflated.readableBytes() < data.length);
+            Assertions.assertArrayEquals(Arrays.copyOf(data, inflated.readableBytes()), ByteBufUtil.getBytes(inflated));
+        } finally {
+            inflated.release();
+            compressed.release();
+        }
+    }
+
+    @Test
+    public void testInflateTruncatedHeap() {
+        testInflateTruncated(ZlibTests::heap);
+    }
+
+    @Test
+    public void testInflateTruncatedDirect() {
+        testInflateTruncated(ZlibTests::direct);
+    }
+}
@@ -43,6 +43,10 @@ class NetBound(val luminaRelaySession: LuminaRelaySession) : ComposedPacketHandl
 
     override val eventManager = EventManager()
 
+    // The world state and the modules look at every packet, so batches are never passed through
+    override val interestedPackets: Set<Class<out BedrockPacket>>?
+        get() = null
+
     val world = World(this)
     val level = Level(this)
     val localPlayer = LocalPlayer(this)
@@ -28,6 +28,8 @@ open class RemSession(val moduleManager: GameManager) : ComposedPacketHandler {
     private val infoColor = "§7"
     private var isIntercepted = false
 
+    override val interestedPackets: Set<Class<out BedrockPacket>> = setOf(TextPacket::class.java)
+
     open lateinit var session: NetBound
     private val isSessionCreated: Boolean
         get() = ::session.isInitialized
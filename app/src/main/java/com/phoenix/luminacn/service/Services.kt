@@ -140,12 +140,12 @@ class Services : Service() {
                     ) {
                         initModules(this)
 
-                        listeners.add(AutoCodecPacketListener(this))
+                        addListener(AutoCodecPacketListener(this))
                         sessionEncryptor?.let {
                             it.luminaRelaySession = this
-                            listeners.add(it)
+                            addListener(it)
                         }
-                        listeners.add(GamingPacketHandler(this))
+                        addListener(GamingPacketHandler(this))
                     }
                 }.exceptionOrNull()?.let {
                     it.printStackTrace()
@@ -185,7 +185,7 @@ class Services : Service() {
         private fun initModules(luminaRelaySession: LuminaRelaySession) {
             try {
                 val session = NetBound(luminaRelaySession)
-                luminaRelaySession.listeners.add(session)
+                luminaRelaySession.addListener(session)
 
                 for (module in GameManager.elements) {
                     try {